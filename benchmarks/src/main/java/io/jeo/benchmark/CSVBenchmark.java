@@ -0,0 +1,134 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import io.jeo.csv.CSVDataset;
+import io.jeo.csv.CSVOpts;
+import io.jeo.util.Util;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.VectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vividsolutions.jts.geom.Point;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row decoding throughput of the CSV cursor on a file of x/y point rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVBenchmark {
+
+    @Param({"100000"})
+    int features;
+
+    File dir;
+    List<Feature> data;
+    CSVDataset csv;
+    CSVDataset parallel;
+    CSVDataset indexed;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Synthetic.tempDir();
+        File file = new File(dir, "synthetic.csv");
+
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), Util.UTF_8)) {
+            w.write("x,y,name,count,value,category\n");
+            data = Synthetic.features(Synthetic.points(), features, 0);
+            for (Feature f : data) {
+                Point p = (Point) f.geometry();
+                w.write(String.format(Locale.ROOT, "%f,%f,\"%s\",%d,%f,%s\n", p.getX(), p.getY(), f.get("name"),
+                    f.get("count"), f.get("value"), f.get("category")));
+            }
+        }
+
+        csv = new CSVDataset(file, new CSVOpts().xy("x", "y"));
+        parallel = new CSVDataset(file, new CSVOpts().xy("x", "y").threads(4));
+
+        // separate copy, an index next to the first file would be used by the other datasets
+        File copy = new File(dir, "indexed.csv");
+        Files.copy(file.toPath(), copy.toPath());
+        indexed = new CSVDataset(copy, new CSVOpts().xy("x", "y").index(true));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        csv.close();
+        parallel.close();
+        indexed.close();
+        Synthetic.delete(dir);
+    }
+
+    @Benchmark
+    public long read(Blackhole bh) throws IOException {
+        return Synthetic.drain(csv.read(new VectorQuery()), bh);
+    }
+
+    @Benchmark
+    public long readOffset(Blackhole bh) throws IOException {
+        return Synthetic.drain(csv.read(new VectorQuery().offset(features - 100).limit(10)), bh);
+    }
+
+    @Benchmark
+    public long readOffsetIndexed(Blackhole bh) throws IOException {
+        return Synthetic.drain(indexed.read(new VectorQuery().offset(features - 100).limit(10)), bh);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        File file = new File(dir, "write.csv");
+        Files.deleteIfExists(file.toPath());
+
+        CSVDataset out = CSVDataset.create(file, new CSVOpts().xy("x", "y"), Synthetic.points());
+        try (FeatureAppendCursor c = out.append(new VectorQuery())) {
+            for (Feature f : data) {
+                Features.copy(f, c.next());
+                c.write();
+            }
+        }
+        return file.length();
+    }
+
+    @Benchmark
+    public long readParallel(Blackhole bh) throws IOException {
+        return Synthetic.drain(parallel.read(new VectorQuery()), bh);
+    }
+}
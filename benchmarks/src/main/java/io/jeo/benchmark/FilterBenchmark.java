@@ -0,0 +1,98 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import io.jeo.filter.Filter;
+import io.jeo.filter.cql.CQL;
+import io.jeo.filter.cql.ParseException;
+import io.jeo.vector.Feature;
+import io.jeo.vector.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CQL parsing and filter evaluation.
+ * <p>
+ * The <tt>test</tt> benchmark evaluates the parsed filter as is, <tt>compiled</tt> evaluates the filter compiled
+ * against the feature schema.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    static final int FEATURES = 10000;
+
+    @Param({
+        "count > 500",
+        "category = 'park' AND value < 100.5",
+        "category IN ('water', 'industrial') OR name LIKE 'feature 1%'",
+        "INTERSECTS(geometry, POLYGON((-100 20, -60 20, -60 50, -100 50, -100 20))) AND count < 900"
+    })
+    String cql;
+
+    List<Feature> features;
+    Filter<Feature> filter;
+    Filter<Feature> compiled;
+
+    @Setup
+    public void setUp() throws ParseException {
+        Schema schema = Synthetic.polygons();
+        features = Synthetic.features(schema, FEATURES, 16);
+        filter = CQL.parse(cql);
+        compiled = filter.compile(schema);
+    }
+
+    @Benchmark
+    public Filter<Feature> parse() throws ParseException {
+        return CQL.parse(cql);
+    }
+
+    @Benchmark
+    public int test() {
+        return count(filter);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return count(compiled);
+    }
+
+    int count(Filter<Feature> f) {
+        int count = 0;
+        for (Feature feature : features) {
+            if (f.test(feature)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,111 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import io.jeo.data.Cursors;
+import io.jeo.flatgeobuf.FlatGeobufDataset;
+import io.jeo.flatgeobuf.FlatGeobufWriter;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput and full scan versus bounding box read times of {@link FlatGeobufDataset}, with and without the
+ * packed Hilbert R-tree index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatGeobufBenchmark {
+
+    static final int QUERIES = 100;
+
+    @Param({"10000"})
+    int features;
+
+    @Param({"0", "16"})
+    int nodeSize;
+
+    File dir;
+    List<Feature> data;
+    FlatGeobufDataset fgb;
+    List<Envelope> boxes;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Synthetic.tempDir();
+        data = Synthetic.features(Synthetic.polygons(), features, 32);
+        fgb = new FlatGeobufDataset(encode(new File(dir, "synthetic.fgb")));
+        boxes = Synthetic.boxes(QUERIES, 10);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Synthetic.delete(dir);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return encode(new File(dir, "write.fgb")).length();
+    }
+
+    @Benchmark
+    public long read(Blackhole bh) throws IOException {
+        return Synthetic.drain(fgb.read(new VectorQuery()), bh);
+    }
+
+    @Benchmark
+    public long readBounds(Blackhole bh) throws IOException {
+        long count = 0;
+        for (Envelope box : boxes) {
+            count += Synthetic.drain(fgb.read(new VectorQuery().bounds(box)), bh);
+        }
+        return count;
+    }
+
+    File encode(File file) throws IOException {
+        Schema schema = Synthetic.polygons();
+        try (FlatGeobufWriter w = new FlatGeobufWriter(Files.newOutputStream(file.toPath()), "synthetic", schema)
+            .nodeSize(nodeSize)) {
+            w.write(FeatureCursor.wrap(Cursors.create(data)));
+        }
+        return file;
+    }
+}
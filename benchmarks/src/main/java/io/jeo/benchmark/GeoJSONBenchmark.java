@@ -0,0 +1,119 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import io.jeo.data.Cursors;
+import io.jeo.geojson.GeoJSONDataset;
+import io.jeo.geojson.GeoJSONReader;
+import io.jeo.geojson.GeoJSONWriter;
+import io.jeo.vector.Feature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link GeoJSONReader} and {@link GeoJSONWriter} on a feature collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoJSONBenchmark {
+
+    @Param({"10000"})
+    int features;
+
+    @Param({"point", "polygon"})
+    String geometry;
+
+    List<Feature> data;
+    String json;
+    byte[] bytes;
+
+    File dir;
+    GeoJSONDataset dataset;
+
+    @Setup
+    public void setUp() throws IOException {
+        Schema schema = "point".equals(geometry) ? Synthetic.points() : Synthetic.polygons();
+        data = Synthetic.features(schema, features, 32);
+        json = GeoJSONWriter.toString(Cursors.create(data));
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        dir = Synthetic.tempDir();
+        File file = new File(dir, "synthetic.json");
+        Files.write(file.toPath(), bytes);
+        dataset = new GeoJSONDataset(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataset.close();
+        Synthetic.delete(dir);
+    }
+
+    @Benchmark
+    public long read(Blackhole bh) throws IOException {
+        return Synthetic.drain(new GeoJSONReader().features(json), bh);
+    }
+
+    @Benchmark
+    public long readBytes(Blackhole bh) throws IOException {
+        return Synthetic.drain(new GeoJSONReader().features(new ByteArrayInputStream(bytes)), bh);
+    }
+
+    @Benchmark
+    public long readFields(Blackhole bh) throws IOException {
+        return Synthetic.drain(dataset.read(new VectorQuery().fields("name", "count")), bh);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        StringWriter out = new StringWriter(json.length());
+        new GeoJSONWriter(out).featureCollection(Cursors.create(data)).flush();
+        return out.getBuffer().length();
+    }
+
+    @Benchmark
+    public int writeBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        new GeoJSONWriter(out).precision(6).featureCollection(Cursors.create(data)).flush();
+        return out.size();
+    }
+}
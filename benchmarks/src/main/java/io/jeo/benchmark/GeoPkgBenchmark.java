@@ -0,0 +1,183 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.filter.Comparison;
+import io.jeo.filter.Filter;
+import io.jeo.filter.Literal;
+import io.jeo.filter.Logic;
+import io.jeo.filter.Property;
+import io.jeo.filter.Spatial;
+import io.jeo.geom.Bounds;
+import io.jeo.geopkg.GeoPackage;
+import io.jeo.geopkg.GeoPkgVector;
+import io.jeo.geopkg.GeoPkgWorkspace;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature cursor reads from a generated GeoPackage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoPkgBenchmark {
+
+    static final int QUERIES = 10;
+
+    @Param({"50000"})
+    int features;
+
+    File dir;
+    GeoPkgWorkspace gpkg;
+    GeoPkgVector data;
+    List<Envelope> boxes;
+    List<Feature> input;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Synthetic.tempDir();
+        gpkg = GeoPackage.open(new File(dir, "synthetic.gpkg").toPath());
+
+        Schema schema = Synthetic.polygons();
+        data = gpkg.create(schema);
+
+        input = new ArrayList<Feature>();
+        for (Feature f : Synthetic.features(schema, features, 16)) {
+            input.add(f);
+        }
+        load(data, false);
+
+        boxes = Synthetic.boxes(QUERIES, 10);
+    }
+
+    void load(GeoPkgVector dataset, boolean deferSpatialIndex) throws IOException {
+        FeatureWriteCursor c = dataset.append(new VectorQuery()).deferSpatialIndex(deferSpatialIndex);
+        try {
+            for (Feature f : input) {
+                Features.copy(f, c.next());
+                c.write();
+            }
+        }
+        finally {
+            c.close();
+        }
+    }
+
+    /**
+     * Empty table appended to by a single benchmark invocation, dropped after it so the file doesn't grow across
+     * invocations.
+     */
+    @State(Scope.Thread)
+    public static class Target {
+
+        GeoPkgWorkspace gpkg;
+        GeoPkgVector dataset;
+
+        @Setup(Level.Invocation)
+        public void setUp(GeoPkgBenchmark bench) throws IOException {
+            gpkg = bench.gpkg;
+
+            Schema schema = Synthetic.polygons();
+            dataset = gpkg.create(Schema.build("load").fields(schema.fields()).schema());
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            gpkg.destroy("load");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        gpkg.close();
+        Synthetic.delete(dir);
+    }
+
+    @Benchmark
+    public long read(Blackhole bh) throws IOException {
+        return Synthetic.drain(data.read(new VectorQuery()), bh);
+    }
+
+    @Benchmark
+    public long bbox(Blackhole bh) throws IOException {
+        long count = 0;
+        for (Envelope box : boxes) {
+            count += Synthetic.drain(data.read(new VectorQuery().bounds(box)), bh);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long append(Target target) throws IOException {
+        load(target.dataset, false);
+        return target.dataset.count(new VectorQuery());
+    }
+
+    @Benchmark
+    public long appendDeferIndex(Target target) throws IOException {
+        load(target.dataset, true);
+        return target.dataset.count(new VectorQuery());
+    }
+
+    @Benchmark
+    public long bboxCount() throws IOException {
+        long count = 0;
+        for (Envelope box : boxes) {
+            count += data.count(new VectorQuery().bounds(box));
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long intersectsAndCompare(Blackhole bh) throws IOException {
+        long count = 0;
+        for (Envelope box : boxes) {
+            Filter<Feature> f = new Logic<Feature>(Logic.Type.AND,
+                new Spatial<Feature>(Spatial.Type.INTERSECTS, new Property("geometry"),
+                    new Literal(Bounds.toPolygon(box)), null),
+                new Comparison<Feature>(Comparison.Type.GREATER, new Property("count"), new Literal(50)));
+            count += Synthetic.drain(data.read(new VectorQuery().filter(f)), bh);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import io.jeo.data.Cursors;
+import io.jeo.geobuf.GeobufReader;
+import io.jeo.geobuf.GeobufWriter;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding throughput of {@link GeobufWriter} and {@link GeobufReader} on a feature collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeobufBenchmark {
+
+    @Param({"10000"})
+    int features;
+
+    @Param({"point", "polygon"})
+    String geometry;
+
+    List<Feature> data;
+    byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Schema schema = "point".equals(geometry) ? Synthetic.points() : Synthetic.polygons();
+        data = Synthetic.features(schema, features, 32);
+        encoded = encode().toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        return encode().size();
+    }
+
+    @Benchmark
+    public long read(Blackhole bh) throws IOException {
+        GeobufReader reader = new GeobufReader(new ByteArrayInputStream(encoded));
+        try {
+            return Synthetic.drain(reader.featureCollection(), bh);
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    ByteArrayOutputStream encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeobufWriter writer = new GeobufWriter(out);
+        try {
+            writer.write(FeatureCursor.wrap(Cursors.create(data)));
+        }
+        finally {
+            writer.close();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.data.mem.MemVectorDataset;
+import io.jeo.vector.Feature;
+import io.jeo.vector.VectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounding box queries against an in memory dataset of points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemBenchmark {
+
+    static final int QUERIES = 100;
+
+    @Param({"100000"})
+    int features;
+
+    /**
+     * Size of the query box in degrees.
+     */
+    @Param({"1", "10"})
+    double size;
+
+    MemVectorDataset mem;
+    List<Envelope> boxes;
+
+    @Setup
+    public void setUp() {
+        mem = new MemVectorDataset(Synthetic.points());
+        for (Feature f : Synthetic.features(mem.schema(), features, 0)) {
+            mem.add(f);
+        }
+        boxes = Synthetic.boxes(QUERIES, size);
+    }
+
+    @Benchmark
+    public long bbox(Blackhole bh) throws IOException {
+        long count = 0;
+        for (Envelope box : boxes) {
+            count += Synthetic.drain(mem.read(new VectorQuery().bounds(box)), bh);
+        }
+        return count;
+    }
+}
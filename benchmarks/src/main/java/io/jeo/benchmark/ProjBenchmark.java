@@ -0,0 +1,99 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import io.jeo.proj.Proj;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.osgeo.proj4j.CoordinateTransform;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprojection of point arrays from EPSG:4326 to web mercator.
+ * <p>
+ * The <tt>points</tt> benchmark reprojects every point individually with {@link Proj#reproject}, the
+ * <tt>transform</tt> benchmark reuses a single coordinate transform and <tt>line</tt> reprojects all the points as
+ * a single geometry.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    CoordinateReferenceSystem from;
+    CoordinateReferenceSystem to;
+    CoordinateTransform tx;
+
+    Point[] points;
+    LineString line;
+
+    @Setup
+    public void setUp() {
+        from = Proj.EPSG_4326;
+        to = Proj.EPSG_900913;
+        tx = Proj.transform(from, to);
+
+        Random r = new Random(Synthetic.SEED);
+        points = new Point[size];
+        Coordinate[] coords = new Coordinate[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = Synthetic.point(-180 + r.nextDouble() * 360, -85 + r.nextDouble() * 170);
+            coords[i] = points[i].getCoordinate();
+        }
+        line = Synthetic.GEOM.createLineString(coords);
+    }
+
+    @Benchmark
+    public void points(Blackhole bh) {
+        for (Point p : points) {
+            bh.consume(Proj.reproject(p, from, to));
+        }
+    }
+
+    @Benchmark
+    public void transform(Blackhole bh) {
+        for (Point p : points) {
+            bh.consume(Proj.transform(p, tx));
+        }
+    }
+
+    @Benchmark
+    public LineString line() {
+        return Proj.reproject(line, from, to);
+    }
+}
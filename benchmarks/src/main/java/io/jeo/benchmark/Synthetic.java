@@ -0,0 +1,175 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import io.jeo.data.Cursor;
+import io.jeo.vector.Feature;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the synthetic datasets used by the benchmarks.
+ * <p>
+ * Data is generated from a fixed seed so every run, on every commit, benchmarks exactly the same input. Features
+ * have the schema <tt>synthetic(geometry, name:String, count:Integer, value:Double, category:String)</tt> with
+ * geometries spread over the world in EPSG:4326.
+ * </p>
+ */
+class Synthetic {
+
+    static final long SEED = 42;
+
+    static final String[] CATEGORIES = {"residential", "commercial", "industrial", "park", "water"};
+
+    static final GeometryFactory GEOM = new GeometryFactory();
+
+    /**
+     * Schema of point features.
+     */
+    static Schema points() {
+        return schema(Point.class);
+    }
+
+    /**
+     * Schema of polygon features.
+     */
+    static Schema polygons() {
+        return schema(Polygon.class);
+    }
+
+    static Schema schema(Class<? extends Geometry> type) {
+        return Schema.build("synthetic").field("geometry", type, "epsg:4326").field("name", String.class)
+            .field("count", Integer.class).field("value", Double.class).field("category", String.class).schema();
+    }
+
+    /**
+     * Generates <tt>n</tt> features of the specified schema, polygons are generated with <tt>vertices</tt> vertices.
+     */
+    static List<Feature> features(Schema schema, int n, int vertices) {
+        Random r = new Random(SEED);
+        boolean polygons = Polygon.class.isAssignableFrom(schema.geometry().type());
+
+        List<Feature> features = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double x = -180 + r.nextDouble() * 360;
+            double y = -90 + r.nextDouble() * 180;
+
+            Geometry g = polygons ? polygon(x, y, 0.01 + r.nextDouble(), vertices, r) : point(x, y);
+            features.add(new ListFeature(String.valueOf(i), schema, g, "feature " + i, r.nextInt(1000),
+                r.nextDouble() * 1000, CATEGORIES[r.nextInt(CATEGORIES.length)]));
+        }
+        return features;
+    }
+
+    static Point point(double x, double y) {
+        return GEOM.createPoint(new Coordinate(x, y));
+    }
+
+    /**
+     * Star shaped polygon centered at the specified point.
+     */
+    static Polygon polygon(double x, double y, double radius, int vertices, Random r) {
+        Coordinate[] ring = new Coordinate[vertices + 1];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double d = radius * (0.5 + r.nextDouble() / 2);
+            ring[i] = new Coordinate(clamp(x + d * Math.cos(angle), 180), clamp(y + d * Math.sin(angle), 90));
+        }
+        ring[vertices] = new Coordinate(ring[0]);
+        return GEOM.createPolygon(GEOM.createLinearRing(ring), null);
+    }
+
+    static double clamp(double v, double max) {
+        return Math.max(-max, Math.min(max, v));
+    }
+
+    /**
+     * Generates <tt>n</tt> query boxes of the specified size in degrees.
+     */
+    static List<Envelope> boxes(int n, double size) {
+        Random r = new Random(SEED + 1);
+        List<Envelope> boxes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double x = -180 + r.nextDouble() * (360 - size);
+            double y = -90 + r.nextDouble() * (180 - size);
+            boxes.add(new Envelope(x, x + size, y, y + size));
+        }
+        return boxes;
+    }
+
+    /**
+     * Consumes all objects of a cursor, returning the number of objects read.
+     */
+    static <T> long drain(Cursor<T> cursor, Blackhole bh) throws IOException {
+        long count = 0;
+        try {
+            while (cursor.hasNext()) {
+                bh.consume(cursor.next());
+                count++;
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return count;
+    }
+
+    /**
+     * Creates a temporary directory for file based benchmarks.
+     */
+    static File tempDir() throws IOException {
+        return Files.createTempDirectory("jeo-bench").toFile();
+    }
+
+    /**
+     * Recursively deletes a temporary directory.
+     */
+    static void delete(File dir) throws IOException {
+        if (dir == null || !dir.exists()) {
+            return;
+        }
+        Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException e) throws IOException {
+                Files.delete(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
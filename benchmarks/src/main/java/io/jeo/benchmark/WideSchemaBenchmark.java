@@ -0,0 +1,137 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.benchmark;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import io.jeo.geom.Geom;
+import io.jeo.vector.Field;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.SchemaBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Attribute access on features of a wide schema.
+ * <p>
+ * Every benchmark reads all attributes of a batch of {@link ListFeature} objects. The <tt>linear</tt> benchmark
+ * resolves names with a scan of the schema fields and serves as the baseline for name lookups.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideSchemaBenchmark {
+
+    static final int FEATURES = 1000;
+
+    @Param({"10", "100", "250"})
+    int width;
+
+    Schema schema;
+    String[] names;
+    List<ListFeature> features;
+
+    @Setup
+    public void setUp() {
+        SchemaBuilder sb = Schema.build("wide");
+        for (int i = 0; i < width; i++) {
+            sb.field("attribute_" + i, Integer.class);
+        }
+        schema = sb.field("geometry", Point.class).schema();
+
+        names = new String[schema.size()];
+        for (int i = 0; i < names.length; i++) {
+            // copy the names so lookups compare characters rather than references
+            names[i] = new String(schema.fields().get(i).name());
+        }
+
+        features = new ArrayList<>(FEATURES);
+        for (int i = 0; i < FEATURES; i++) {
+            ListFeature f = new ListFeature(String.valueOf(i), schema);
+            for (int j = 0; j < width; j++) {
+                f.put(j, i * j);
+            }
+            f.put(Geom.point(i, i));
+            features.add(f);
+        }
+    }
+
+    @Benchmark
+    public void getByName(Blackhole bh) {
+        for (ListFeature f : features) {
+            for (String name : names) {
+                bh.consume(f.get(name));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getByIndex(Blackhole bh) {
+        for (ListFeature f : features) {
+            for (int i = 0; i < names.length; i++) {
+                bh.consume(f.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void linear(Blackhole bh) {
+        List<Field> fields = schema.fields();
+        for (ListFeature f : features) {
+            for (String name : names) {
+                for (int i = 0; i < fields.size(); i++) {
+                    if (fields.get(i).name().equals(name)) {
+                        bh.consume(f.get(i));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void geometry(Blackhole bh) {
+        for (ListFeature f : features) {
+            Geometry g = f.geometry();
+            bh.consume(g);
+        }
+    }
+
+    @Benchmark
+    public void map(Blackhole bh) {
+        for (ListFeature f : features) {
+            bh.consume(f.map());
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package io.jeo.filter;
 
 import io.jeo.util.Predicate;
+import io.jeo.vector.Schema;
 
 /**
  * Predicate that applies a boolean filter for a given input. 
@@ -76,6 +77,22 @@ public abstract class Filter<T> extends Predicate<T> {
         return new Logic<T>(Logic.Type.NOT, this); 
     }
 
+    /**
+     * Compiles the filter for evaluation against features of the specified schema.
+     * <p>
+     * Property references are bound to field indexes of the schema, literals compared against properties are
+     * converted up front to the type of the field, and logical filters are re-ordered to evaluate cheap and selective
+     * operands first. The compiled filter is equivalent to this filter, including when evaluated against objects
+     * that don't conform to the schema.
+     * </p>
+     * @param schema The schema to compile against, may be <code>null</code>.
+     *
+     * @return The compiled filter.
+     */
+    public Filter<T> compile(Schema schema) {
+        return new FilterCompiler(schema).compile(this);
+    }
+
     /**
      * Applies a visitor to the filter.
      */
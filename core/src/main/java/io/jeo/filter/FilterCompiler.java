@@ -0,0 +1,529 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.filter;
+
+import io.jeo.util.Convert;
+import io.jeo.util.Optional;
+import io.jeo.vector.Field;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a filter into an equivalent filter specialized for a specific schema.
+ * <p>
+ * The compiler applies the following transformations:
+ * <ul>
+ *   <li>Property references are bound to the index of the field in the schema, avoiding a name lookup per feature
+ *   when the filter is evaluated against a {@link ListFeature} of the same schema.</li>
+ *   <li>Literals compared against a property are converted to the type of the field once, numeric comparisons are
+ *   carried out on primitive <tt>long</tt> and <tt>double</tt> values.</li>
+ *   <li>Logical filters short circuit and their operands are ordered by estimated cost and selectivity, cheap and
+ *   decisive operands evaluated first.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Features that don't match the compiled schema, or values that don't match the type of the field, fall back to the
+ * regular evaluation so the compiled filter always produces the same result as the original.
+ * </p>
+ */
+class FilterCompiler extends FilterAdapter<Object> {
+
+    Schema schema;
+
+    FilterCompiler(Schema schema) {
+        this.schema = schema;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Filter<T> compile(Filter<T> filter) {
+        return (Filter<T>) filter.accept(this, null);
+    }
+
+    Expression compile(Expression expr) {
+        return expr != null ? (Expression) expr.accept(this, null) : null;
+    }
+
+    @Override
+    public Object visit(Self self, Object obj) {
+        return self;
+    }
+
+    @Override
+    public Object visit(Literal literal, Object obj) {
+        return literal;
+    }
+
+    @Override
+    public Object visit(Property property, Object obj) {
+        if (schema == null || property instanceof BoundProperty) {
+            return property;
+        }
+
+        int i = schema.indexOf(property.property());
+        return i > -1 ? new BoundProperty(property.property(), schema, i) : property;
+    }
+
+    @Override
+    public Object visit(Function function, Object obj) {
+        return function;
+    }
+
+    @Override
+    public Object visit(Mixed mixed, Object obj) {
+        return mixed;
+    }
+
+    @Override
+    public Object visit(Math math, Object obj) {
+        return new Math(math.operator(), compile(math.left()), compile(math.right()));
+    }
+
+    @Override
+    public Object visit(Expression expr, Object obj) {
+        return expr;
+    }
+
+    @Override
+    public Object visit(All<?> all, Object obj) {
+        return all;
+    }
+
+    @Override
+    public Object visit(None<?> none, Object obj) {
+        return none;
+    }
+
+    @Override
+    public Object visit(Id<?> id, Object obj) {
+        return id;
+    }
+
+    @Override
+    public Object visit(Logic<?> logic, Object obj) {
+        List<Filter<Object>> parts = new ArrayList<>(logic.parts().size());
+        for (Filter<?> f : logic.parts()) {
+            parts.add(compile((Filter<Object>) f));
+        }
+
+        switch(logic.type()) {
+        case NOT:
+            return new CompiledLogic<>(Logic.Type.NOT, parts);
+        case AND:
+            return new CompiledLogic<>(Logic.Type.AND, order(parts, true));
+        case OR:
+            return new CompiledLogic<>(Logic.Type.OR, order(parts, false));
+        default:
+            throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public Object visit(Comparison<?> compare, Object obj) {
+        Expression left = compile(compare.left());
+        Expression right = compile(compare.right());
+
+        if (left instanceof BoundProperty && right instanceof Literal) {
+            BoundProperty prop = (BoundProperty) left;
+            Object value = ((Literal) right).evaluate(null);
+
+            Field field = schema.fields().get(prop.index);
+            Class<?> type = field.type();
+            if (value != null && !Comparable.class.isAssignableFrom(type)) {
+                // nothing to convert to
+                return new Comparison<>(compare.type(), left, right);
+            }
+
+            Optional<?> converted = value != null ? Convert.to(value, type) : Optional.empty();
+            if (converted.isPresent()) {
+                Object lit = converted.get();
+                if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class) {
+                    return new LongComparison<>(compare.type(), prop, (Literal) right, type,
+                        ((Number) lit).longValue());
+                }
+                if (type == Double.class || type == Float.class) {
+                    return new DoubleComparison<>(compare.type(), prop, (Literal) right, type,
+                        ((Number) lit).doubleValue());
+                }
+                return new ValueComparison<>(compare.type(), prop, (Literal) right, type, lit);
+            }
+        }
+
+        return new Comparison<>(compare.type(), left, right);
+    }
+
+    @Override
+    public Object visit(Spatial<?> spatial, Object obj) {
+        return new Spatial<>(spatial.type(), compile(spatial.left()), compile(spatial.right()),
+            compile(spatial.distance()));
+    }
+
+    @Override
+    public Object visit(TypeOf<?> inst, Object obj) {
+        return new TypeOf<>(compile(inst.expression()), inst.type());
+    }
+
+    @Override
+    public Object visit(In<?> in, Object obj) {
+        Property prop = (Property) compile(in.property());
+
+        Set<Object> set = new HashSet<>();
+        for (Expression e : in.values()) {
+            if (!(e instanceof Literal)) {
+                return new In<>(prop, in.values(), in.negated());
+            }
+
+            // null values never match
+            Object val = e.evaluate(null);
+            if (val != null) {
+                set.add(val);
+            }
+        }
+        return new LiteralIn<>(prop, in.values(), in.negated(), set);
+    }
+
+    @Override
+    public Object visit(Like<?> like, Object obj) {
+        return new Like<>((Property) compile(like.property()), like.match(), like.negated());
+    }
+
+    @Override
+    public Object visit(Null<?> isNull, Object obj) {
+        return new Null<>((Property) compile(isNull.property()), isNull.negated());
+    }
+
+    @Override
+    public Object visit(Filter<?> filter, Object obj) {
+        return filter;
+    }
+
+    /**
+     * Orders the operands of a logical filter.
+     * <p>
+     * For a conjunction operands are evaluated in ascending order of <tt>cost / (1 - selectivity)</tt>, operands that
+     * are cheap and likely to fail come first. For a disjunction operands are ordered by <tt>cost / selectivity</tt>,
+     * operands that are cheap and likely to pass come first.
+     * </p>
+     */
+    static <T> List<Filter<T>> order(List<Filter<T>> parts, final boolean and) {
+        final Estimator est = new Estimator();
+        Collections.sort(parts, new Comparator<Filter<T>>() {
+            @Override
+            public int compare(Filter<T> f1, Filter<T> f2) {
+                return Double.compare(rank(f1), rank(f2));
+            }
+
+            double rank(Filter<T> f) {
+                double s = est.selectivity(f);
+                return est.cost(f) / java.lang.Math.max(and ? 1 - s : s, 0.001);
+            }
+        });
+        return parts;
+    }
+
+    /**
+     * Rough estimates of filter cost and selectivity, used only to order the operands of logical filters.
+     */
+    static class Estimator {
+
+        double cost(Filter<?> f) {
+            if (f instanceof All || f instanceof None) {
+                return 0;
+            }
+            if (f instanceof LongComparison || f instanceof DoubleComparison || f instanceof Null) {
+                return 1;
+            }
+            if (f instanceof Comparison || f instanceof TypeOf) {
+                return 2;
+            }
+            if (f instanceof In) {
+                return f instanceof LiteralIn ? 2 : 1 + ((In<?>) f).values().size();
+            }
+            if (f instanceof Id) {
+                return 1 + ((Id<?>) f).ids().size();
+            }
+            if (f instanceof Like) {
+                return 10;
+            }
+            if (f instanceof Spatial) {
+                return ((Spatial<?>) f).type() == Spatial.Type.BBOX ? 5 : 50;
+            }
+            if (f instanceof Logic) {
+                double cost = 0;
+                for (Filter<?> p : ((Logic<?>) f).parts()) {
+                    cost += cost(p);
+                }
+                return cost;
+            }
+            return 10;
+        }
+
+        double selectivity(Filter<?> f) {
+            if (f instanceof All) {
+                return 1;
+            }
+            if (f instanceof None) {
+                return 0;
+            }
+            if (f instanceof Comparison) {
+                switch(((Comparison<?>) f).type()) {
+                case EQUAL:
+                    return 0.1;
+                case NOT_EQUAL:
+                    return 0.9;
+                default:
+                    return 0.33;
+                }
+            }
+            if (f instanceof Null) {
+                return ((Null<?>) f).negated() ? 0.9 : 0.1;
+            }
+            if (f instanceof In) {
+                In<?> in = (In<?>) f;
+                double s = java.lang.Math.min(0.1 * in.values().size(), 0.5);
+                return in.negated() ? 1 - s : s;
+            }
+            if (f instanceof Id) {
+                return java.lang.Math.min(0.01 * ((Id<?>) f).ids().size(), 0.5);
+            }
+            if (f instanceof Like) {
+                return ((Like<?>) f).negated() ? 0.75 : 0.25;
+            }
+            if (f instanceof Spatial) {
+                switch(((Spatial<?>) f).type()) {
+                case DISJOINT:
+                case BEYOND:
+                    return 0.8;
+                default:
+                    return 0.2;
+                }
+            }
+            if (f instanceof Logic) {
+                Logic<?> logic = (Logic<?>) f;
+                switch(logic.type()) {
+                case NOT:
+                    return 1 - selectivity(logic.parts().get(0));
+                case AND:
+                    double and = 1;
+                    for (Filter<?> p : logic.parts()) {
+                        and *= selectivity(p);
+                    }
+                    return and;
+                case OR:
+                    double none = 1;
+                    for (Filter<?> p : logic.parts()) {
+                        none *= 1 - selectivity(p);
+                    }
+                    return 1 - none;
+                }
+            }
+            return 0.5;
+        }
+    }
+
+    /**
+     * Property bound to a field index of a schema.
+     */
+    static class BoundProperty extends Property {
+
+        final Schema schema;
+        final int index;
+
+        BoundProperty(String property, Schema schema, int index) {
+            super(property);
+            this.schema = schema;
+            this.index = index;
+        }
+
+        @Override
+        public boolean has(Object obj) {
+            if (obj instanceof ListFeature && ((ListFeature) obj).schema() == schema) {
+                return true;
+            }
+            return super.has(obj);
+        }
+
+        @Override
+        public Object evaluate(Object obj) {
+            if (obj instanceof ListFeature) {
+                ListFeature f = (ListFeature) obj;
+                if (f.schema() == schema) {
+                    return f.get(index);
+                }
+            }
+            return resolve(obj);
+        }
+    }
+
+    /**
+     * Logic filter that short circuits evaluation of its operands.
+     */
+    static class CompiledLogic<T> extends Logic<T> {
+
+        final Filter<T>[] filters;
+
+        @SuppressWarnings("unchecked")
+        CompiledLogic(Type type, List<Filter<T>> parts) {
+            super(type, parts);
+            filters = parts.toArray(new Filter[parts.size()]);
+        }
+
+        @Override
+        boolean and(T obj) {
+            for (Filter<T> f : filters) {
+                if (!f.test(obj)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean or(T obj) {
+            for (Filter<T> f : filters) {
+                if (f.test(obj)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Comparison of a bound property against a literal pre-converted to the field type.
+     * <p>
+     * Values that are not of the field type are compared with the original literal using the regular comparison
+     * semantics.
+     * </p>
+     */
+    static abstract class BoundComparison<T> extends Comparison<T> {
+
+        final BoundProperty prop;
+        final Class<?> fieldType;
+
+        BoundComparison(Type type, BoundProperty prop, Literal literal, Class<?> fieldType) {
+            super(type, prop, literal);
+            this.prop = prop;
+            this.fieldType = fieldType;
+        }
+
+        @Override
+        public boolean test(T obj) {
+            Object value = prop.evaluate(obj);
+            if (value != null && value.getClass() == fieldType) {
+                return matches(value);
+            }
+            return compare(value, right.evaluate(obj));
+        }
+
+        boolean result(int compare) {
+            switch(type) {
+            case EQUAL:
+                return compare == 0;
+            case NOT_EQUAL:
+                return compare != 0;
+            case LESS:
+                return compare < 0;
+            case LESS_OR_EQUAL:
+                return compare <= 0;
+            case GREATER:
+                return compare > 0;
+            case GREATER_OR_EQUAL:
+                return compare >= 0;
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+        /**
+         * Compares a value known to be of the field type.
+         */
+        abstract boolean matches(Object value);
+    }
+
+    static class LongComparison<T> extends BoundComparison<T> {
+
+        final long literal;
+
+        LongComparison(Type type, BoundProperty prop, Literal right, Class<?> fieldType, long literal) {
+            super(type, prop, right, fieldType);
+            this.literal = literal;
+        }
+
+        @Override
+        boolean matches(Object value) {
+            return result(Long.compare(((Number) value).longValue(), literal));
+        }
+    }
+
+    static class DoubleComparison<T> extends BoundComparison<T> {
+
+        final double literal;
+
+        DoubleComparison(Type type, BoundProperty prop, Literal right, Class<?> fieldType, double literal) {
+            super(type, prop, right, fieldType);
+            this.literal = literal;
+        }
+
+        @Override
+        boolean matches(Object value) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isNaN(literal)) {
+                return false;
+            }
+            return result(Double.compare(d, literal));
+        }
+    }
+
+    static class ValueComparison<T> extends BoundComparison<T> {
+
+        final Object literal;
+
+        ValueComparison(Type type, BoundProperty prop, Literal right, Class<?> fieldType, Object literal) {
+            super(type, prop, right, fieldType);
+            this.literal = literal;
+        }
+
+        @Override
+        boolean matches(Object value) {
+            return compare(value, literal);
+        }
+    }
+
+    /**
+     * In filter against a list of literals, evaluated with a hash lookup.
+     */
+    static class LiteralIn<T> extends In<T> {
+
+        final Set<Object> set;
+
+        LiteralIn(Property prop, List<? extends Expression> values, boolean not, Set<Object> set) {
+            super(prop, values, not);
+            this.set = set;
+        }
+
+        @Override
+        public boolean test(T obj) {
+            Object value = prop.evaluate(obj);
+            return not != (value != null && set.contains(value));
+        }
+    }
+}
@@ -14,6 +14,9 @@
  */
 package io.jeo.filter;
 
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -51,6 +54,21 @@ public class Filters {
         return new None<T>();
     }
 
+    /**
+     * Returns a filter that compiles the specified filter against the schema of the features it evaluates.
+     * <p>
+     * The compiled form is cached and reused for as long as consecutive features share the same schema. Objects that
+     * are not {@link ListFeature} instances are evaluated with a filter compiled without a schema.
+     * </p>
+     * @see Filter#compile(Schema)
+     */
+    public static <T> Filter<T> compiled(Filter<T> filter) {
+        if (filter instanceof All || filter instanceof None || filter instanceof CompiledFilter) {
+            return filter;
+        }
+        return new CompiledFilter<>(filter);
+    }
+
     /**
      * Add all property references in the provided Filter to the provided
      * Set.
@@ -101,4 +119,55 @@ public class Filters {
     }
 
     static PropertyCollector propertyCollector = new PropertyCollector();
+
+    static class CompiledFilter<T> extends Filter<T> {
+
+        final Filter<T> filter;
+        volatile Compiled<T> compiled;
+
+        CompiledFilter(Filter<T> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(T obj) {
+            Schema schema = obj instanceof ListFeature ? ((ListFeature) obj).schema() : null;
+
+            Compiled<T> c = compiled;
+            if (c == null || c.schema != schema) {
+                compiled = c = new Compiled<>(schema, filter.compile(schema));
+            }
+            return c.filter.test(obj);
+        }
+
+        @Override
+        public <R> R accept(FilterVisitor<R> v, Object obj) {
+            return filter.accept(v, obj);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CompiledFilter && filter.equals(((CompiledFilter<?>) obj).filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return filter.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return filter.toString();
+        }
+    }
+
+    static class Compiled<T> {
+        final Schema schema;
+        final Filter<T> filter;
+
+        Compiled(Schema schema, Filter<T> filter) {
+            this.schema = schema;
+            this.filter = filter;
+        }
+    }
 }
@@ -16,17 +16,23 @@ package io.jeo.filter;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.Geom;
 
 import java.util.Locale;
 import java.util.Objects;
 
 /**
  * Filter that applies a spatial comparison operator to two geometry expression operands.  
+ * <p>
+ * When one of the operands is a {@link Literal} the literal geometry is prepared once (see {@link Geom#prepare}) and
+ * reused for every object the filter is evaluated against. Envelopes are compared before the full predicate is
+ * evaluated, and for {@link Type#DWITHIN} and {@link Type#BEYOND} with a literal distance the buffered literal is
+ * cached as well.
+ * </p>
  * 
  * @author Justin Deoliveira, OpenGeo
- * 
- * TODO: use prepared geometries
  */
 public class Spatial<T> extends BinaryFilter<T> {
 
@@ -68,6 +74,11 @@ public class Spatial<T> extends BinaryFilter<T> {
     final Type type;
     final Expression distance;
 
+    /**
+     * Prepared literal operand, lazily initialized.
+     */
+    volatile Prepared prepared;
+
     public Spatial(Type type, Expression left, Expression right, Expression distance) {
         super(left, right);
         Objects.requireNonNull(type, "type must not be null");
@@ -102,6 +113,25 @@ public class Spatial<T> extends BinaryFilter<T> {
 
     @Override
     public boolean test(T obj) {
+        Prepared p = prepared;
+        if (p == null) {
+            prepared = p = prepare();
+        }
+        if (p != Prepared.NONE) {
+            Object o = (p.literalLeft ? right : left).evaluate(obj);
+            if (o == null) {
+                return false;
+            }
+            if (type == Type.BBOX) {
+                return p.envelope.intersects(toEnvelope(o));
+            }
+
+            Geometry g = toGeometry(o);
+            if (!g.isEmpty()) {
+                return p.test(g);
+            }
+        }
+
         Object o1 = left.evaluate(obj);
         Object o2 = right.evaluate(obj);
         Number d = (Number) (distance == null ? null : distance.evaluate(obj));
@@ -152,6 +182,50 @@ public class Spatial<T> extends BinaryFilter<T> {
         }
     }
 
+    /**
+     * Prepares the literal operand of the filter, returning {@link Prepared#NONE} if neither operand is a non empty
+     * geometry literal.
+     */
+    Prepared prepare() {
+        boolean literalLeft;
+        Object lit;
+        if (right instanceof Literal) {
+            literalLeft = false;
+            lit = right.evaluate(null);
+        }
+        else if (left instanceof Literal) {
+            literalLeft = true;
+            lit = left.evaluate(null);
+        }
+        else {
+            return Prepared.NONE;
+        }
+
+        if (!(lit instanceof Geometry || lit instanceof Envelope)) {
+            return Prepared.NONE;
+        }
+
+        Geometry g = toGeometry(lit);
+        if (g.isEmpty()) {
+            return Prepared.NONE;
+        }
+
+        double d = Double.NaN;
+        if (type == Type.DWITHIN || type == Type.BEYOND) {
+            if (!(distance instanceof Literal)) {
+                return Prepared.NONE;
+            }
+            Object val = distance.evaluate(null);
+            if (!(val instanceof Number)) {
+                return Prepared.NONE;
+            }
+            d = ((Number) val).doubleValue();
+        }
+
+        return new Prepared(type, lit instanceof Envelope ? (Envelope) lit : g.getEnvelopeInternal(), g,
+            literalLeft, d);
+    }
+
     protected Envelope toEnvelope(Object o) {
         if (o instanceof Envelope) {
             return (Envelope) o;
@@ -231,4 +305,101 @@ public class Spatial<T> extends BinaryFilter<T> {
         }
         return buf.toString();
     }
+
+    /**
+     * Literal operand of a spatial filter prepared for repeated evaluation.
+     */
+    static class Prepared {
+
+        /**
+         * Marker for a filter with no operand to prepare.
+         */
+        static final Prepared NONE = new Prepared();
+
+        final Type type;
+        final Envelope envelope;
+        final Geometry geometry;
+        final PreparedGeometry prepared;
+        final boolean literalLeft;
+        final double distance;
+        final PreparedGeometry buffer;
+
+        Prepared() {
+            type = null;
+            envelope = null;
+            geometry = null;
+            prepared = null;
+            literalLeft = false;
+            distance = Double.NaN;
+            buffer = null;
+        }
+
+        Prepared(Type type, Envelope envelope, Geometry geometry, boolean literalLeft, double distance) {
+            this.type = type;
+            this.envelope = envelope;
+            this.geometry = geometry;
+            this.literalLeft = literalLeft;
+            this.distance = distance;
+
+            if (type == Type.DWITHIN || type == Type.BEYOND) {
+                prepared = null;
+
+                // the buffer approximates the true buffer from the inside, so intersecting it is proof of being
+                // within distance but not intersecting it is not proof of the opposite
+                buffer = distance > 0 ? Geom.prepare(geometry.buffer(distance)) : null;
+            }
+            else {
+                prepared = type != Type.BBOX ? Geom.prepare(geometry) : null;
+                buffer = null;
+            }
+        }
+
+        /**
+         * Evaluates the filter against the (non empty) geometry of the other operand.
+         */
+        boolean test(Geometry g) {
+            Envelope e = g.getEnvelopeInternal();
+
+            switch(type) {
+            case EQUALS:
+                return envelope.equals(e) && geometry.equalsTopo(g);
+            case INTERSECTS:
+                return envelope.intersects(e) && prepared.intersects(g);
+            case TOUCHES:
+                return envelope.intersects(e) && prepared.touches(g);
+            case OVERLAPS:
+                return envelope.intersects(e) && prepared.overlaps(g);
+            case CROSSES:
+                return envelope.intersects(e) && prepared.crosses(g);
+            case DISJOINT:
+                return !envelope.intersects(e) || prepared.disjoint(g);
+            case WITHIN:
+                // g within literal, or literal within g
+                return literalLeft ? e.covers(envelope) && prepared.within(g)
+                                   : envelope.covers(e) && prepared.contains(g);
+            case CONTAINS:
+                return literalLeft ? envelope.covers(e) && prepared.contains(g)
+                                   : e.covers(envelope) && prepared.within(g);
+            case COVERS:
+                return literalLeft ? envelope.covers(e) && prepared.covers(g)
+                                   : e.covers(envelope) && prepared.coveredBy(g);
+            case DWITHIN:
+                return isWithinDistance(g, e);
+            case BEYOND:
+                return !isWithinDistance(g, e);
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+        boolean isWithinDistance(Geometry g, Envelope e) {
+            if (envelope.distance(e) > distance) {
+                return false;
+            }
+            if (buffer != null && buffer.intersects(g)) {
+                return true;
+            }
+            return geometry.isWithinDistance(g, distance);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import io.jeo.util.Key;
 import io.jeo.vector.FileVectorDriver;
 import io.jeo.vector.Schema;
 
@@ -40,6 +41,14 @@ import static io.jeo.util.Util.set;
  */
 public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
 
+    /**
+     * Maintain a sidecar spatial index (<tt>&lt;file>.idx</tt>) for the file, defaults to <tt>false</tt>.
+     * <p>
+     * An existing up to date index is used regardless of this option.
+     * </p>
+     */
+    public static final Key<Boolean> INDEX = new Key<Boolean>("index", Boolean.class, false);
+
     /**
      * Opens a file containing encoded GeoJSON.
      */
@@ -57,6 +66,11 @@ public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
         return Arrays.asList("json");
     }
     
+    @Override
+    public List<Key<?>> keys() {
+        return (List) Arrays.asList(FILE, INDEX);
+    }
+
     @Override
     public Class<GeoJSONDataset> type() {
         return GeoJSONDataset.class;
@@ -64,13 +78,13 @@ public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
 
     @Override
     public GeoJSONDataset open(File file, Map<?, Object> opts) throws IOException {
-        return new GeoJSONDataset(file);
+        return new GeoJSONDataset(file, INDEX.get(opts));
     }
 
     @Override
     protected GeoJSONDataset create(File file, Map<?, Object> opts, Schema schema) 
         throws IOException {
-        return new GeoJSONDataset(file);
+        return new GeoJSONDataset(file, INDEX.get(opts));
     }
 
     static final Set<Capability> CAPABILITIES = set(APPEND);
@@ -15,12 +15,15 @@
 package io.jeo.geojson;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.util.Set;
 
 import io.jeo.json.parser.ParseException;
 import io.jeo.vector.Feature;
 import io.jeo.geojson.parser.FeatureCollectionHandler;
 import io.jeo.geojson.parser.RootHandler;
+import io.jeo.json.parser.JSONByteParser;
 import io.jeo.json.parser.JSONParser;
 import io.jeo.vector.FeatureCursor;
 import org.slf4j.Logger;
@@ -32,6 +35,11 @@ public class GeoJSONCursor extends FeatureCursor {
 
     Reader input;
     JSONParser parser;
+
+    // raw utf-8 input
+    InputStream stream;
+    JSONByteParser byteParser;
+
     RootHandler handler;
 
     Feature next;
@@ -42,11 +50,26 @@ public class GeoJSONCursor extends FeatureCursor {
         this.handler = new RootHandler(new FeatureCollectionHandler());
     }
 
+    GeoJSONCursor(InputStream stream) {
+        this(stream, null);
+    }
+
+    GeoJSONCursor(InputStream stream, Set<String> fields) {
+        this.stream = stream;
+        this.byteParser = new JSONByteParser();
+        this.handler = new RootHandler(new FeatureCollectionHandler()).fields(fields);
+    }
+
     @Override
     public boolean hasNext() throws IOException {
         while (next == null && !handler.isFinished()) {
             try {
-                parser.parse(input, handler, true);
+                if (byteParser != null) {
+                    byteParser.parse(stream, handler, true);
+                }
+                else {
+                    parser.parse(input, handler, true);
+                }
                 Object obj = handler.getValue();
                 if (obj instanceof Feature) {
                     next = (Feature) obj;
@@ -74,5 +97,9 @@ public class GeoJSONCursor extends FeatureCursor {
             input.close();
             input = null;
         }
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
     }
 }
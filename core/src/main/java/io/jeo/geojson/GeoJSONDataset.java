@@ -20,8 +20,9 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import io.jeo.data.Driver;
 import io.jeo.data.FileData;
@@ -47,8 +48,17 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     File file;
 
+    // build and maintain a sidecar index
+    boolean indexed;
+    GeoJSONIndex index;
+
     public GeoJSONDataset(File file) {
+        this(file, false);
+    }
+
+    public GeoJSONDataset(File file, boolean indexed) {
         this.file = file;
+        this.indexed = indexed;
     }
 
     @Override
@@ -58,7 +68,10 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public Map<Key<?>, Object> driverOptions() {
-        return (Map) Collections.singletonMap(GeoJSON.FILE, file);
+        Map<Key<?>,Object> opts = new LinkedHashMap<>();
+        opts.put(GeoJSON.FILE, file);
+        opts.put(GeoJSON.INDEX, indexed);
+        return opts;
     }
 
     @Override
@@ -73,13 +86,23 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public Schema schema() throws IOException {
+        GeoJSONIndex idx = index();
+        if (idx != null) {
+            return idx.schema(name());
+        }
         return Features.schema(this).orElse(null);
     }
 
     @Override
     public CoordinateReferenceSystem crs() throws IOException {
-        //TODO: probably should cache this
+        GeoJSONIndex idx = index();
+        if (idx != null) {
+            return idx.crs();
+        }
+        return scanCRS();
+    }
 
+    CoordinateReferenceSystem scanCRS() throws IOException {
         CoordinateReferenceSystem crs = null;
 
         //first scan for a crs property
@@ -104,17 +127,37 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public Bounds bounds() throws IOException {
+        GeoJSONIndex idx = index();
+        if (idx != null) {
+            return idx.bounds();
+        }
         return read(new VectorQuery()).bounds();
     }
 
     @Override
     public long count(VectorQuery q) throws IOException {
+        if (q.isAll() && q.limit() == null && q.offset() == null) {
+            GeoJSONIndex idx = index();
+            if (idx != null) {
+                return idx.count();
+            }
+        }
         return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        return new VectorQueryPlan(q).apply(new GeoJSONCursor(reader()));
+        // only parse the fields needed by the query, the plan still selects the requested fields
+        Set<String> fields = GeoJSONReader.fields(q);
+
+        if (!Bounds.isNull(q.bounds())) {
+            // seek directly to features matching the bbox, the plan still applies the exact intersection
+            GeoJSONIndex idx = index();
+            if (idx != null) {
+                return new VectorQueryPlan(q).apply(idx.cursor(file, q.bounds(), fields));
+            }
+        }
+        return new VectorQueryPlan(q).apply(new GeoJSONCursor(Files.newInputStream(file.toPath()), fields));
     }
 
     @Override
@@ -132,6 +175,29 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public void close() {
+        index = null;
+    }
+
+    /**
+     * Returns the sidecar index of the file, building it when the dataset is indexed.
+     *
+     * @return The index, or <code>null</code> if no up to date index is available.
+     */
+    GeoJSONIndex index() throws IOException {
+        if (index != null && index.isValid(file)) {
+            return index;
+        }
+
+        index = null;
+        if (Util.isEmpty(file)) {
+            return null;
+        }
+
+        index = GeoJSONIndex.open(file);
+        if (index == null && indexed) {
+            index = GeoJSONIndex.build(this);
+        }
+        return index;
     }
 
     Reader reader() throws IOException {
@@ -0,0 +1,687 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.geom.Bounds;
+import io.jeo.geom.Hilbert;
+import io.jeo.json.parser.JSONByteParser;
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.Field;
+import io.jeo.vector.Schema;
+import io.jeo.vector.SchemaBuilder;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sidecar spatial index for a GeoJSON feature collection file.
+ * <p>
+ * The index is stored next to the data file with an <tt>.idx</tt> extension. It records the byte offset, length and
+ * envelope of every feature in the collection as a packed Hilbert R-tree, along with the totals (feature count,
+ * bounds, crs and schema) of the collection. The index is bound to the size and modification time of the data file
+ * and is considered stale once either changes.
+ * </p>
+ * <p>
+ * The tree section of the index is memory mapped so opening an index only reads the header.
+ * </p>
+ */
+class GeoJSONIndex {
+
+    static Logger LOG = LoggerFactory.getLogger(GeoJSONIndex.class);
+
+    static final byte[] MAGIC = "JEOGJIDX".getBytes(Charset.forName("US-ASCII"));
+
+    static final int VERSION = 1;
+
+    /**
+     * Number of children per tree node.
+     */
+    static final int NODE_SIZE = 16;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * The index file for a GeoJSON file.
+     */
+    static File file(File data) {
+        return new File(data.getPath() + ".idx");
+    }
+
+    // data file state
+    long modified;
+    long size;
+
+    // collection totals
+    long count;
+    Envelope bounds;
+    String crs;
+    List<String[]> fields;
+
+    // tree, item count and end (exclusive) node of every level
+    int numItems;
+    int[] levels;
+
+    // mapped tree, node boxes followed by node indices, item offsets and item lengths
+    ByteBuffer tree;
+
+    /**
+     * Opens the index for a GeoJSON file.
+     *
+     * @return The index, or <code>null</code> if no index exists or the index is stale.
+     */
+    static GeoJSONIndex open(File data) {
+        File file = file(data);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(read(ch, 0, MAGIC.length + 8).array()));
+
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic) || in.readInt() != VERSION) {
+                LOG.debug("Ignoring invalid index file: " + file.getPath());
+                return null;
+            }
+
+            int headerLength = in.readInt();
+            long treeStart = MAGIC.length + 8 + headerLength;
+
+            GeoJSONIndex index = new GeoJSONIndex();
+            index.readHeader(new DataInputStream(
+                new ByteArrayInputStream(read(ch, MAGIC.length + 8, headerLength).array())));
+
+            if (!index.isValid(data)) {
+                return null;
+            }
+
+            index.tree = ch.map(FileChannel.MapMode.READ_ONLY, treeStart, ch.size() - treeStart);
+            return index;
+        }
+        catch(IOException e) {
+            LOG.debug("Error reading index file: " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    static ByteBuffer read(FileChannel ch, long pos, int len) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) {
+                throw new IOException("Unexpected end of index file");
+            }
+        }
+        return buf;
+    }
+
+    /**
+     * Builds the index for a GeoJSON dataset, writing it next to the data file.
+     */
+    static GeoJSONIndex build(GeoJSONDataset data) throws IOException {
+        File file = data.file();
+
+        long modified = file.lastModified();
+        long size = file.length();
+
+        CoordinateReferenceSystem crs = data.scanCRS();
+
+        // scan the features recording offsets and envelopes
+        long[] offsets = new long[1024];
+        int[] lengths = new int[1024];
+        double[] boxes = new double[4*1024];
+        int n = 0;
+
+        Envelope bounds = new Envelope();
+        Schema schema = null;
+
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            JSONByteParser parser = new JSONByteParser();
+            FeatureScanner scanner = new FeatureScanner(in);
+            while (scanner.next()) {
+                Feature f = GeoJSONReader.feature(parser, scanner.buf, 0, scanner.len, String.valueOf(n), crs, null);
+                if (schema == null) {
+                    schema = Features.schema(data.name(), f);
+                }
+
+                Geometry g = f.geometry();
+                Envelope e = g != null ? g.getEnvelopeInternal() : new Envelope();
+                bounds.expandToInclude(e);
+
+                if (n == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, n * 2);
+                    lengths = Arrays.copyOf(lengths, n * 2);
+                    boxes = Arrays.copyOf(boxes, n * 8);
+                }
+                offsets[n] = scanner.start;
+                lengths[n] = scanner.len;
+                box(e, boxes, n);
+                n++;
+            }
+        }
+
+        GeoJSONIndex index = new GeoJSONIndex();
+        index.modified = modified;
+        index.size = size;
+        index.count = n;
+        index.bounds = bounds;
+        index.crs = crs != null ? encode(crs) : "";
+        index.fields = new ArrayList<>();
+        if (schema != null) {
+            for (Field fld : schema) {
+                index.fields.add(new String[]{fld.name(), fld.type().getName(),
+                    fld.crs() != null ? encode(fld.crs()) : ""});
+            }
+        }
+
+        index.write(file(file), offsets, lengths, boxes, n);
+        return open(file);
+    }
+
+    static void box(Envelope e, double[] boxes, int i) {
+        if (e.isNull()) {
+            // inverted box, never intersects anything
+            boxes[4*i] = boxes[4*i+1] = Double.POSITIVE_INFINITY;
+            boxes[4*i+2] = boxes[4*i+3] = Double.NEGATIVE_INFINITY;
+        }
+        else {
+            boxes[4*i] = e.getMinX();
+            boxes[4*i+1] = e.getMinY();
+            boxes[4*i+2] = e.getMaxX();
+            boxes[4*i+3] = e.getMaxY();
+        }
+    }
+
+    static String encode(CoordinateReferenceSystem crs) {
+        Integer epsg = Proj.epsgCode(crs);
+        return epsg != null ? "EPSG:" + epsg : Proj.toString(crs);
+    }
+
+    static int[] levels(int numItems) {
+        List<Integer> levels = new ArrayList<>();
+        int n = numItems;
+        int numNodes = n;
+        levels.add(numNodes);
+        do {
+            n = (n + NODE_SIZE - 1) / NODE_SIZE;
+            numNodes += n;
+            levels.add(numNodes);
+        } while (n > 1);
+
+        int[] arr = new int[levels.size()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = levels.get(i);
+        }
+        return arr;
+    }
+
+    void write(File file, long[] offsets, int[] lengths, double[] boxes, int n) throws IOException {
+        // sort items by the hilbert value of their centers, the ordinal breaks ties and keeps the sort stable
+        Envelope extent = bounds;
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            Envelope e = new Envelope(boxes[4*i], boxes[4*i+2], boxes[4*i+1], boxes[4*i+3]);
+            long h = boxes[4*i] > boxes[4*i+2] ? 0 : Hilbert.index(e, extent);
+            order[i] = (h << 31) | i;
+        }
+        Arrays.sort(order);
+
+        int[] levels = levels(n);
+        int numNodes = levels[levels.length-1];
+
+        double[] nodes = new double[4*numNodes];
+        int[] indices = new int[numNodes];
+        for (int i = 0; i < n; i++) {
+            int item = (int) (order[i] & Integer.MAX_VALUE);
+            System.arraycopy(boxes, 4*item, nodes, 4*i, 4);
+            indices[i] = item;
+        }
+
+        // build parent levels bottom up
+        int pos = 0;
+        int parent = n;
+        for (int l = 0; l < levels.length - 1; l++) {
+            int end = levels[l];
+            while (pos < end) {
+                double minx = Double.POSITIVE_INFINITY, miny = Double.POSITIVE_INFINITY;
+                double maxx = Double.NEGATIVE_INFINITY, maxy = Double.NEGATIVE_INFINITY;
+
+                int start = pos;
+                for (int i = 0; i < NODE_SIZE && pos < end; i++, pos++) {
+                    minx = Math.min(minx, nodes[4*pos]);
+                    miny = Math.min(miny, nodes[4*pos+1]);
+                    maxx = Math.max(maxx, nodes[4*pos+2]);
+                    maxy = Math.max(maxy, nodes[4*pos+3]);
+                }
+
+                nodes[4*parent] = minx;
+                nodes[4*parent+1] = miny;
+                nodes[4*parent+2] = maxx;
+                nodes[4*parent+3] = maxy;
+                indices[parent++] = start;
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeHeader(new DataOutputStream(header), n, levels);
+
+        // write to a temporary file and move into place
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(tmp.toPath())))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(header.size());
+            header.writeTo(out);
+
+            for (double d : nodes) {
+                out.writeDouble(d);
+            }
+            for (int i : indices) {
+                out.writeInt(i);
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeLong(offsets[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeInt(lengths[i]);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void writeHeader(DataOutputStream out, int numItems, int[] levels) throws IOException {
+        out.writeLong(modified);
+        out.writeLong(size);
+        out.writeLong(count);
+
+        out.writeBoolean(!bounds.isNull());
+        out.writeDouble(bounds.getMinX());
+        out.writeDouble(bounds.getMinY());
+        out.writeDouble(bounds.getMaxX());
+        out.writeDouble(bounds.getMaxY());
+
+        out.writeUTF(crs);
+
+        out.writeInt(fields.size());
+        for (String[] fld : fields) {
+            for (String s : fld) {
+                out.writeUTF(s);
+            }
+        }
+
+        out.writeInt(numItems);
+        out.writeInt(levels.length);
+        for (int l : levels) {
+            out.writeInt(l);
+        }
+    }
+
+    void readHeader(DataInputStream in) throws IOException {
+        modified = in.readLong();
+        size = in.readLong();
+        count = in.readLong();
+
+        boolean hasBounds = in.readBoolean();
+        double minx = in.readDouble(), miny = in.readDouble(), maxx = in.readDouble(), maxy = in.readDouble();
+        bounds = hasBounds ? new Envelope(minx, maxx, miny, maxy) : new Envelope();
+
+        crs = in.readUTF();
+
+        int nfields = in.readInt();
+        fields = new ArrayList<>(nfields);
+        for (int i = 0; i < nfields; i++) {
+            fields.add(new String[]{in.readUTF(), in.readUTF(), in.readUTF()});
+        }
+
+        numItems = in.readInt();
+        levels = new int[in.readInt()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = in.readInt();
+        }
+    }
+
+    /**
+     * Determines if the index is up to date with a data file.
+     */
+    boolean isValid(File data) {
+        return data.lastModified() == modified && data.length() == size;
+    }
+
+    long count() {
+        return count;
+    }
+
+    Bounds bounds() {
+        return new Bounds(bounds);
+    }
+
+    CoordinateReferenceSystem crs() {
+        return Proj.crs(crs);
+    }
+
+    Schema schema(String name) throws IOException {
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        SchemaBuilder sb = Schema.build(name);
+        for (String[] fld : fields) {
+            Class<?> type;
+            try {
+                type = Class.forName(fld[1]);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unknown field type in index: " + fld[1], e);
+            }
+
+            if (Geometry.class.isAssignableFrom(type)) {
+                sb.field(fld[0], (Class<? extends Geometry>) type, Proj.crs(fld[2]));
+            }
+            else {
+                sb.field(fld[0], type);
+            }
+        }
+        return sb.schema();
+    }
+
+    /**
+     * Searches the tree, returning the ordinals of the features whose envelopes intersect the specified bounds in
+     * file order.
+     */
+    int[] search(Envelope bbox) {
+        if (numItems == 0 || bbox.isNull()) {
+            return new int[0];
+        }
+
+        int numNodes = levels[levels.length-1];
+        int indexStart = 32 * numNodes;
+
+        int[] result = new int[16];
+        int n = 0;
+
+        int[] stack = new int[16];
+        int top = 0;
+
+        int node = numNodes - 1;
+        while (true) {
+            int end = Math.min(node + NODE_SIZE, levelEnd(node));
+            for (int pos = node; pos < end; pos++) {
+                int b = 32 * pos;
+                if (bbox.getMaxX() < tree.getDouble(b) || bbox.getMaxY() < tree.getDouble(b + 8)
+                    || bbox.getMinX() > tree.getDouble(b + 16) || bbox.getMinY() > tree.getDouble(b + 24)) {
+                    continue;
+                }
+
+                int index = tree.getInt(indexStart + 4 * pos);
+                if (node >= numItems) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = index;
+                }
+                else {
+                    if (n == result.length) {
+                        result = Arrays.copyOf(result, n * 2);
+                    }
+                    result[n++] = index;
+                }
+            }
+
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+
+        result = Arrays.copyOf(result, n);
+        Arrays.sort(result);
+        return result;
+    }
+
+    int levelEnd(int node) {
+        for (int l : levels) {
+            if (node < l) {
+                return l;
+            }
+        }
+        return levels[levels.length-1];
+    }
+
+    long offset(int ordinal) {
+        int numNodes = levels[levels.length-1];
+        return tree.getLong(36 * numNodes + 8 * ordinal);
+    }
+
+    int length(int ordinal) {
+        int numNodes = levels[levels.length-1];
+        return tree.getInt(36 * numNodes + 8 * numItems + 4 * ordinal);
+    }
+
+    /**
+     * Returns a cursor over the features whose envelopes intersect the specified bounds.
+     *
+     * @param fields The fields to parse, <code>null</code> for all fields.
+     */
+    FeatureCursor cursor(File data, Envelope bbox, Set<String> fields) throws IOException {
+        return new IndexCursor(this, data, search(bbox), fields);
+    }
+
+    /**
+     * Reads the features matched by an index search directly from their offsets.
+     */
+    static class IndexCursor extends FeatureCursor {
+
+        GeoJSONIndex index;
+        FileChannel ch;
+        int[] ordinals;
+        int i;
+
+        CoordinateReferenceSystem crs;
+        Set<String> fields;
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        JSONByteParser parser = new JSONByteParser();
+
+        IndexCursor(GeoJSONIndex index, File data, int[] ordinals, Set<String> fields) throws IOException {
+            this.index = index;
+            this.ordinals = ordinals;
+            this.fields = fields;
+            this.crs = index.crs();
+            ch = FileChannel.open(data.toPath(), StandardOpenOption.READ);
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return i < ordinals.length;
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            if (!hasNext()) {
+                return null;
+            }
+
+            int ordinal = ordinals[i++];
+            long offset = index.offset(ordinal);
+            int len = index.length(ordinal);
+
+            if (buf.capacity() < len) {
+                buf = ByteBuffer.allocate(Math.max(len, buf.capacity() * 2));
+            }
+            buf.clear();
+            buf.limit(len);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, offset + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of file, index is out of date");
+                }
+            }
+
+            return GeoJSONReader.feature(parser, buf.array(), 0, len, String.valueOf(ordinal), crs, fields);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (ch != null) {
+                ch.close();
+                ch = null;
+            }
+        }
+    }
+
+    /**
+     * Scans the raw bytes of a feature collection for the byte ranges of the objects of the <tt>features</tt>
+     * array.
+     * <p>
+     * Structural characters are single bytes in UTF-8 and never occur within multi byte sequences so the scanner
+     * only needs to track string literals and nesting depth.
+     * </p>
+     */
+    static class FeatureScanner {
+
+        static final byte[] FEATURES = "features".getBytes(UTF8);
+
+        InputStream in;
+        byte[] chunk = new byte[65536];
+        int chunkPos, chunkLen;
+        long pos;
+
+        int depth;
+        boolean inString, escape;
+
+        // key tracking at the top level of the collection
+        int keyPos;
+        boolean keyMatch, isFeatures;
+
+        // inside the features array
+        boolean features;
+
+        // current feature
+        boolean capture;
+        long start;
+        byte[] buf = new byte[8192];
+        int len;
+
+        FeatureScanner(InputStream in) {
+            this.in = in;
+        }
+
+        boolean next() throws IOException {
+            while (true) {
+                if (chunkPos == chunkLen) {
+                    chunkLen = in.read(chunk);
+                    chunkPos = 0;
+                    if (chunkLen < 0) {
+                        chunkLen = 0;
+                        return false;
+                    }
+                }
+
+                byte b = chunk[chunkPos++];
+                long p = pos++;
+
+                if (capture) {
+                    append(b);
+                }
+
+                if (inString) {
+                    if (escape) {
+                        escape = false;
+                    }
+                    else if (b == '\\') {
+                        escape = true;
+                    }
+                    else if (b == '"') {
+                        inString = false;
+                        if (depth == 1) {
+                            isFeatures = keyMatch && keyPos == FEATURES.length;
+                        }
+                    }
+                    else if (depth == 1) {
+                        keyMatch = keyMatch && keyPos < FEATURES.length && FEATURES[keyPos] == b;
+                        keyPos++;
+                    }
+                    continue;
+                }
+
+                switch(b) {
+                    case '"':
+                        inString = true;
+                        keyPos = 0;
+                        keyMatch = true;
+                        break;
+                    case '[':
+                        if (depth == 1 && isFeatures) {
+                            features = true;
+                        }
+                        depth++;
+                        break;
+                    case '{':
+                        if (features && depth == 2) {
+                            capture = true;
+                            start = p;
+                            len = 0;
+                            append(b);
+                        }
+                        depth++;
+                        break;
+                    case ']':
+                    case '}':
+                        depth--;
+                        if (features) {
+                            if (capture && depth == 2) {
+                                capture = false;
+                                return true;
+                            }
+                            if (depth == 1) {
+                                features = false;
+                            }
+                        }
+                        break;
+                }
+            }
+        }
+
+        void append(byte b) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, len * 2);
+            }
+            buf[len++] = b;
+        }
+    }
+}
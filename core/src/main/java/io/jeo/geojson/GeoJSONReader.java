@@ -14,22 +14,42 @@
  */
 package io.jeo.geojson;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import io.jeo.data.Cursor;
 import io.jeo.data.Cursors;
+import io.jeo.data.Sort;
+import io.jeo.filter.Expression;
+import io.jeo.filter.Filter;
+import io.jeo.filter.FilterWalker;
+import io.jeo.filter.Filters;
+import io.jeo.filter.Function;
+import io.jeo.filter.Property;
+import io.jeo.filter.Self;
+import io.jeo.filter.Spatial;
 import io.jeo.geojson.parser.GeometryHandler;
 import io.jeo.geojson.parser.RootHandler;
+import io.jeo.json.parser.JSONByteParser;
 import io.jeo.json.parser.JSONParser;
 import io.jeo.json.parser.ParseException;
 import io.jeo.vector.Feature;
+import io.jeo.vector.VectorQuery;
 import io.jeo.geojson.parser.BaseHandler;
 import io.jeo.geojson.parser.FeatureCollectionHandler;
 import io.jeo.geojson.parser.FeatureHandler;
 import io.jeo.geojson.parser.UnkownHandler;
+import io.jeo.geom.Bounds;
+import io.jeo.proj.Proj;
 import io.jeo.util.Convert;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
 
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryCollection;
@@ -159,15 +179,130 @@ public class GeoJSONReader {
         return (Feature) parse(json, new FeatureHandler());
     }
 
+    /**
+     * Parses a single feature object from UTF-8 encoded bytes.
+     *
+     * @param parser The parser, reused across calls.
+     * @param id The id of the feature if the object does not specify one.
+     * @param crs The crs assigned to the geometry if the object does not specify one, may be <code>null</code>.
+     * @param fields The fields to parse, <code>null</code> for all fields. See {@link #fields(VectorQuery)}.
+     */
+    static Feature feature(JSONByteParser parser, byte[] buf, int off, int len, String id,
+        CoordinateReferenceSystem crs, Set<String> fields) throws IOException {
+        RootHandler h = new RootHandler(new FeatureHandler(id)).fields(fields);
+        try {
+            parser.parse(buf, off, len, h);
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+
+        Feature f = (Feature) h.getValue();
+        if (f != null && crs != null) {
+            Proj.crs(f.geometry(), crs, false);
+        }
+        return f;
+    }
+
+    /**
+     * Determines the fields of features that must be parsed to satisfy a query.
+     * <p>
+     * Along with the fields selected by the query this includes properties referenced by the filter or the sort, and
+     * the geometry if the query has a bounds constraint or a spatial filter.
+     * </p>
+     * @return The field names, or <code>null</code> if all fields are required.
+     */
+    static Set<String> fields(VectorQuery q) {
+        if (q.fields().isEmpty()) {
+            return null;
+        }
+
+        Set<String> fields = new HashSet<>(q.fields());
+        if (!Bounds.isNull(q.bounds())) {
+            fields.add("geometry");
+        }
+
+        if (q.sort() != null) {
+            for (Sort s : q.sort()) {
+                fields.add(s.getProperty());
+            }
+        }
+
+        Filter<Feature> filter = q.filter();
+        if (!Filters.isTrueOrNull(filter)) {
+            FieldCollector collector = new FieldCollector();
+            filter.accept(collector, fields);
+            if (collector.all) {
+                return null;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Collects the fields referenced by a filter, giving up on expressions that may access any field.
+     */
+    static class FieldCollector extends FilterWalker<Object> {
+
+        boolean all;
+
+        @Override
+        public Object visit(Property property, Object obj) {
+            ((Set<String>) obj).add(property.property());
+            return null;
+        }
+
+        @Override
+        public Object visit(Spatial<?> spatial, Object obj) {
+            ((Set<String>) obj).add("geometry");
+            return super.visit(spatial, obj);
+        }
+
+        @Override
+        public Object visit(Self self, Object obj) {
+            all = true;
+            return null;
+        }
+
+        @Override
+        public Object visit(Function function, Object obj) {
+            all = true;
+            return null;
+        }
+
+        @Override
+        public Object visit(Expression expr, Object obj) {
+            all = true;
+            return null;
+        }
+
+        @Override
+        public Object visit(Filter<?> filter, Object obj) {
+            all = true;
+            return null;
+        }
+    }
+
     /**
      * Reads a feature collection object.
-     * 
+     * <p>
+     * File, path and input stream inputs are assumed to be UTF-8 encoded and are parsed directly from their raw bytes
+     * with {@link JSONByteParser}.
+     * </p>
      * @param json Input object, see {@link Convert#toReader(Object)}.
      * 
      * @return The feature collection as a cursor. 
      */
     public Cursor<Feature> features(Object json) {
         try {
+            if (json instanceof File) {
+                json = ((File) json).toPath();
+            }
+            if (json instanceof Path) {
+                json = Files.newInputStream((Path) json);
+            }
+            if (json instanceof InputStream) {
+                return new GeoJSONCursor((InputStream) json);
+            }
             return new GeoJSONCursor(toReader(json));
         } catch (IOException e) {
             throw new RuntimeException(e);
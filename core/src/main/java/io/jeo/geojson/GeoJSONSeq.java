@@ -0,0 +1,100 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.jeo.util.Key;
+import io.jeo.vector.FileVectorDriver;
+import io.jeo.vector.Schema;
+
+import static io.jeo.util.Util.set;
+
+/**
+ * GeoJSON text sequence driver.
+ * <p>
+ * Reads files containing one GeoJSON feature per line, either
+ * <a href="https://tools.ietf.org/html/rfc8142">RFC 8142</a> text sequences or newline delimited GeoJSON. Unlike a
+ * feature collection document the file can be appended to and split into independent ranges of records.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre><code>
+ * GeoJSONSeq.open(Paths.get("states.geojsonl"));
+ * </code></pre>
+ * </p>
+ */
+public class GeoJSONSeq extends FileVectorDriver<GeoJSONSeqDataset> {
+
+    /**
+     * Number of threads used to decode the file when reading, defaults to <tt>1</tt>.
+     * <p>
+     * With more than one thread the file is split into ranges of records that are decoded in parallel. Features are
+     * still returned in file order.
+     * </p>
+     */
+    public static final Key<Integer> THREADS = new Key<Integer>("threads", Integer.class, 1);
+
+    /**
+     * Opens a file containing a GeoJSON text sequence.
+     */
+    public static GeoJSONSeqDataset open(Path path) {
+        return new GeoJSONSeqDataset(path.toFile());
+    }
+
+    @Override
+    public String name() {
+        return "GeoJSONSeq";
+    }
+
+    @Override
+    public List<String> aliases() {
+        return Arrays.asList("geojsonseq", "geojsons", "geojsonl", "ndjson");
+    }
+
+    @Override
+    public List<Key<?>> keys() {
+        return (List) Arrays.asList(FILE, THREADS);
+    }
+
+    @Override
+    public Class<GeoJSONSeqDataset> type() {
+        return GeoJSONSeqDataset.class;
+    }
+
+    @Override
+    public GeoJSONSeqDataset open(File file, Map<?, Object> opts) throws IOException {
+        return new GeoJSONSeqDataset(file, THREADS.get(opts));
+    }
+
+    @Override
+    protected GeoJSONSeqDataset create(File file, Map<?, Object> opts, Schema schema)
+        throws IOException {
+        return new GeoJSONSeqDataset(file, THREADS.get(opts));
+    }
+
+    static final Set<Capability> CAPABILITIES = set(APPEND);
+
+    @Override
+    public Set<Capability> capabilities() {
+        return CAPABILITIES;
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.MapFeature;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Appends features to a GeoJSON text sequence, one feature per line.
+ * <p>
+ * Each feature is complete once written so the file remains readable while appending.
+ * </p>
+ */
+public class GeoJSONSeqAppendCursor extends FeatureAppendCursor {
+
+    Writer out;
+    GeoJSONWriter writer;
+    Feature next;
+
+    public GeoJSONSeqAppendCursor(Writer out) {
+        this.out = out;
+        writer = new GeoJSONWriter(out);
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return next = new MapFeature(null, new HashMap<String, Object>()) {
+            @Override
+            public Feature put(Geometry g) {
+                //hack
+                return put("geometry", g);
+            }
+        };
+    }
+
+    @Override
+    public GeoJSONSeqAppendCursor write() throws IOException {
+        writer.feature(next);
+        out.write('\n');
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        out = null;
+        writer = null;
+    }
+}
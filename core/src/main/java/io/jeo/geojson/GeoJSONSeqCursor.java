@@ -0,0 +1,132 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+
+import io.jeo.json.parser.JSONByteParser;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+/**
+ * Cursor over the records of a GeoJSON text sequence.
+ * <p>
+ * Features that don't specify an id are identified by the byte offset of their record in the file.
+ * </p>
+ */
+public class GeoJSONSeqCursor extends FeatureCursor {
+
+    InputStream in;
+    RecordScanner scanner;
+    long end;
+
+    CoordinateReferenceSystem crs;
+    Set<String> fields;
+    JSONByteParser parser = new JSONByteParser();
+
+    Feature next;
+
+    /**
+     * Creates a cursor over all records of a stream.
+     *
+     * @param in The input, assumed to be UTF-8 encoded.
+     * @param crs The crs of geometries that don't specify one, may be <code>null</code>.
+     */
+    public GeoJSONSeqCursor(InputStream in, CoordinateReferenceSystem crs) {
+        this(in, 0, Long.MAX_VALUE, crs);
+    }
+
+    GeoJSONSeqCursor(InputStream in, long pos, long end, CoordinateReferenceSystem crs) {
+        this.in = in;
+        this.scanner = new RecordScanner(in, pos);
+        this.end = end;
+        this.crs = crs;
+    }
+
+    /**
+     * Creates a cursor over the records starting within a byte range of a file.
+     * <p>
+     * A record belongs to the range containing its first byte, so the cursors of adjacent ranges together return
+     * every record exactly once regardless of where the range boundaries fall.
+     * </p>
+     * @param ch The file, the cursor takes ownership of the channel.
+     * @param start Start of the range, inclusive.
+     * @param end End of the range, exclusive.
+     */
+    static GeoJSONSeqCursor range(FileChannel ch, long start, long end, CoordinateReferenceSystem crs)
+        throws IOException {
+        // start one byte early so that a record beginning exactly at the start of the range is not skipped
+        long pos = Math.max(start - 1, 0);
+        ch.position(pos);
+
+        GeoJSONSeqCursor c = new GeoJSONSeqCursor(Channels.newInputStream(ch), pos, end, crs);
+        if (start > 0) {
+            // the partial record belongs to the previous range
+            c.scanner.skipLine();
+        }
+        return c;
+    }
+
+    /**
+     * Limits the fields parsed from each feature.
+     *
+     * @param fields The names of the fields to parse, <code>null</code> for all fields.
+     *
+     * @return This cursor.
+     */
+    GeoJSONSeqCursor fields(Set<String> fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (next == null && scanner != null) {
+            if (scanner.next() && scanner.start < end) {
+                next = GeoJSONReader.feature(parser, scanner.buf, scanner.off, scanner.len,
+                    String.valueOf(scanner.start), crs, fields);
+            }
+            else {
+                // exhausted
+                scanner = null;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        try {
+            return hasNext() ? next : null;
+        }
+        finally {
+            next = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+        scanner = null;
+    }
+}
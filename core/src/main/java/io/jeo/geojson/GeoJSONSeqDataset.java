@@ -0,0 +1,174 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.jeo.data.Driver;
+import io.jeo.data.FileData;
+import io.jeo.geom.Bounds;
+import io.jeo.proj.Proj;
+import io.jeo.util.Key;
+import io.jeo.util.Util;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import io.jeo.vector.VectorQueryPlan;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Dataset backed by a GeoJSON text sequence file.
+ * <p>
+ * Geometries that don't specify a crs are assumed to be WGS84 as mandated by RFC 7946.
+ * </p>
+ */
+public class GeoJSONSeqDataset implements VectorDataset, FileData {
+
+    File file;
+
+    // number of decoding threads
+    int threads;
+
+    public GeoJSONSeqDataset(File file) {
+        this(file, 1);
+    }
+
+    public GeoJSONSeqDataset(File file, int threads) {
+        this.file = file;
+        this.threads = threads;
+    }
+
+    @Override
+    public Driver<?> driver() {
+        return new GeoJSONSeq();
+    }
+
+    @Override
+    public Map<Key<?>, Object> driverOptions() {
+        Map<Key<?>,Object> opts = new LinkedHashMap<>();
+        opts.put(GeoJSONSeq.FILE, file);
+        opts.put(GeoJSONSeq.THREADS, threads);
+        return opts;
+    }
+
+    @Override
+    public File file() {
+        return file;
+    }
+
+    @Override
+    public String name() {
+        return Util.base(file.getName());
+    }
+
+    @Override
+    public Schema schema() throws IOException {
+        return Features.schema(this).orElse(null);
+    }
+
+    @Override
+    public CoordinateReferenceSystem crs() throws IOException {
+        // take the crs from the first feature
+        Feature f = read(new VectorQuery().limit(1)).first().orElse(null);
+        Geometry g = f != null ? f.geometry() : null;
+        CoordinateReferenceSystem crs = g != null ? Proj.crs(g) : null;
+        return crs != null ? crs : Proj.EPSG_4326;
+    }
+
+    @Override
+    public Bounds bounds() throws IOException {
+        return read(new VectorQuery()).bounds();
+    }
+
+    @Override
+    public long count(VectorQuery q) throws IOException {
+        if (q.isAll() && q.limit() == null && q.offset() == null) {
+            // count records without decoding them
+            long count = 0;
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                RecordScanner scanner = new RecordScanner(in, 0);
+                while (scanner.next()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        return read(q).count();
+    }
+
+    @Override
+    public FeatureCursor read(VectorQuery q) throws IOException {
+        // only parse the fields needed by the query, the plan still selects the requested fields
+        Set<String> fields = GeoJSONReader.fields(q);
+
+        // only split the file when all of it needs to be read
+        FeatureCursor cursor = threads > 1 && q.limit() == null ?
+            new GeoJSONSeqSplitCursor(file, threads, Proj.EPSG_4326).fields(fields) :
+            new GeoJSONSeqCursor(Files.newInputStream(file.toPath()), Proj.EPSG_4326).fields(fields);
+        return new VectorQueryPlan(q).apply(cursor);
+    }
+
+    @Override
+    public FeatureWriteCursor update(VectorQuery q) throws IOException {
+        throw new IOException("Update cursor not supported");
+    }
+
+    @Override
+    public FeatureAppendCursor append(VectorQuery q) throws IOException {
+        boolean newline = !endsWithNewline();
+
+        Writer w = Files.newBufferedWriter(file.toPath(), Charset.forName("UTF8"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (newline) {
+            // terminate the last record
+            w.write('\n');
+        }
+        return new GeoJSONSeqAppendCursor(w);
+    }
+
+    boolean endsWithNewline() throws IOException {
+        if (Util.isEmpty(file)) {
+            return true;
+        }
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, ch.size() - 1);
+            return b.get(0) == '\n';
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
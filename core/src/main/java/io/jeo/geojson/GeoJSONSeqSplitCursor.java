@@ -0,0 +1,115 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import io.jeo.vector.Feature;
+import io.jeo.vector.BatchFeatureCursor;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+/**
+ * Cursor that decodes a GeoJSON text sequence file on a pool of worker threads.
+ * <p>
+ * The file is divided into splits of {@link #SPLIT_SIZE} bytes. Each split is read and decoded independently by a
+ * worker, see {@link GeoJSONSeqCursor#range(FileChannel, long, long, CoordinateReferenceSystem)} for how records
+ * are assigned to splits. At most {@link #MAX_PENDING} splits per thread are in flight at once and splits are handed
+ * back in file order, see {@link BatchFeatureCursor}.
+ * </p>
+ */
+class GeoJSONSeqSplitCursor extends BatchFeatureCursor {
+
+    /**
+     * Number of bytes decoded by a worker at once.
+     */
+    static final int SPLIT_SIZE = 1 << 20;
+
+    /**
+     * Maximum number of pending splits per worker thread.
+     */
+    static final int MAX_PENDING = 2;
+
+    File file;
+    long size;
+    int splitSize;
+    CoordinateReferenceSystem crs;
+    Set<String> fields;
+
+    long pos;
+
+    GeoJSONSeqSplitCursor(File file, int threads, CoordinateReferenceSystem crs) {
+        this(file, threads, SPLIT_SIZE, crs);
+    }
+
+    GeoJSONSeqSplitCursor(File file, int threads, int splitSize, CoordinateReferenceSystem crs) {
+        super("geojsonseq", threads, true, MAX_PENDING);
+        this.file = file;
+        this.splitSize = splitSize;
+        this.crs = crs;
+    }
+
+    /**
+     * Limits the fields parsed from each feature.
+     *
+     * @param fields The names of the fields to parse, <code>null</code> for all fields.
+     *
+     * @return This cursor.
+     */
+    GeoJSONSeqSplitCursor fields(Set<String> fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    @Override
+    protected void start() {
+        // snapshot the size, records appended while reading are not returned
+        size = file.length();
+    }
+
+    @Override
+    protected Callable<List<Feature>> nextBatch() {
+        if (pos >= size) {
+            return null;
+        }
+
+        final long start = pos;
+        final long end = Math.min(pos + splitSize, size);
+        pos = end;
+        return new Callable<List<Feature>>() {
+            @Override
+            public List<Feature> call() throws Exception {
+                return decode(start, end);
+            }
+        };
+    }
+
+    List<Feature> decode(long start, long end) throws IOException {
+        List<Feature> list = new ArrayList<>();
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try (GeoJSONSeqCursor c = GeoJSONSeqCursor.range(ch, start, end, crs).fields(fields)) {
+            while (c.hasNext()) {
+                list.add(c.next());
+            }
+        }
+        return list;
+    }
+}
@@ -15,6 +15,7 @@
 package io.jeo.geojson;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Map;
@@ -56,6 +57,16 @@ import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
  */
 public class GeoJSONWriter extends JSONEncoder {
 
+    /**
+     * decimal places of coordinates, -1 for full precision
+     */
+    int precision = -1;
+
+    /**
+     * reusable coordinate buffer
+     */
+    final double[] ords = new double[3];
+
     /**
      * Encodes a geometry object to a GeoJSON string.
      *  
@@ -128,6 +139,47 @@ public class GeoJSONWriter extends JSONEncoder {
         super(out, indentSize);
     }
 
+    /**
+     * Creates a new writer encoding directly to UTF-8 bytes.
+     * <p>
+     * Output is buffered, call {@link #flush()} once done writing.
+     * </p>
+     * @param out The stream to encode to.
+     */
+    public GeoJSONWriter(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Creates a new writer with formatting encoding directly to UTF-8 bytes.
+     *
+     * @param out The stream to encode to.
+     * @param indentSize The number of spaces to use when indenting.
+     *
+     * @see #GeoJSONWriter(OutputStream)
+     */
+    public GeoJSONWriter(OutputStream out, int indentSize) {
+        super(out, indentSize);
+    }
+
+    /**
+     * Sets the number of decimal places coordinates are rounded to.
+     * <p>
+     * Trailing zeros are always omitted. By default coordinates are written with as many decimal places as needed to
+     * represent them exactly.
+     * </p>
+     * @param decimals The number of decimal places, between 0 and 17, or <tt>-1</tt> for full precision.
+     *
+     * @return This writer.
+     */
+    public GeoJSONWriter precision(int decimals) {
+        if (decimals < -1 || decimals > 17) {
+            throw new IllegalArgumentException("precision must be between 0 and 17, or -1: " + decimals);
+        }
+        this.precision = decimals;
+        return this;
+    }
+
     
     /**
      * Encodes a bounding box as a 4 element array.
@@ -210,15 +262,9 @@ public class GeoJSONWriter extends JSONEncoder {
 
         object()
           .key("type").value("Point")
-          .key("coordinates").array()
-              .value(p.getX())
-              .value(p.getY());
-        
-        if (!Double.isNaN(p.getCoordinate().z)) {
-            value(p.getCoordinate().z);
-        }
-
-        endArray().endObject();
+          .key("coordinates");
+        coordinate(p.getCoordinateSequence(), 0);
+        endObject();
 
         return this;
     }
@@ -488,6 +534,16 @@ public class GeoJSONWriter extends JSONEncoder {
         return (GeoJSONWriter) super.value(value);
     }
 
+    @Override
+    public GeoJSONWriter value(double value, int decimals) throws IOException {
+        return (GeoJSONWriter) super.value(value, decimals);
+    }
+
+    @Override
+    public GeoJSONWriter array(double[] values, int off, int len, int decimals) throws IOException {
+        return (GeoJSONWriter) super.array(values, off, len, decimals);
+    }
+
     @Override
     public GeoJSONWriter value(Object value) throws IOException {
         return (GeoJSONWriter) super.value(value);
@@ -524,26 +580,27 @@ public class GeoJSONWriter extends JSONEncoder {
 
     GeoJSONWriter array(CoordinateSequence coordseq) throws IOException {
         array();
-        
-        int dim = coordseq.getDimension();
         for (int i = 0; i < coordseq.size(); i++) {
-            array()
-                .value(coordseq.getOrdinate(i, 0))
-                .value(coordseq.getOrdinate(i, 1));
-            
-            if (dim > 2) {
-                double v = coordseq.getOrdinate(i, 2);
-                if (!Double.isNaN(v)) {
-                    value(v);
-                }
-            }
-            endArray();
+            coordinate(coordseq, i);
         }
-
         endArray();
         return this;
     }
 
+    void coordinate(CoordinateSequence coordseq, int i) throws IOException {
+        ords[0] = coordseq.getOrdinate(i, 0);
+        ords[1] = coordseq.getOrdinate(i, 1);
+
+        int n = 2;
+        if (coordseq.getDimension() > 2) {
+            ords[2] = coordseq.getOrdinate(i, 2);
+            if (!Double.isNaN(ords[2])) {
+                n = 3;
+            }
+        }
+        array(ords, 0, n, precision);
+    }
+
     GeoJSONWriter array(Polygon p) throws IOException {
         array();
         array(p.getExteriorRing().getCoordinateSequence());
@@ -0,0 +1,177 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Scans the raw bytes of a GeoJSON text sequence for the byte ranges of its records.
+ * <p>
+ * Records are delimited by line feeds. Leading record separators (<tt>0x1E</tt>) and surrounding white space are
+ * trimmed and blank lines are skipped so that both RFC 8142 sequences and newline delimited GeoJSON are handled.
+ * </p>
+ * <p>
+ * After a call to {@link #next()} the current record is the range <tt>[off, off+len)</tt> of <tt>buf</tt>. When
+ * the record lies entirely within the read buffer no copy is made, so the range is only valid until the next call.
+ * </p>
+ */
+class RecordScanner {
+
+    static final byte RS = 0x1E;
+
+    InputStream in;
+    byte[] chunk = new byte[65536];
+    int chunkPos, chunkLen;
+
+    /**
+     * Position in the stream of the start of the chunk.
+     */
+    long chunkStart;
+
+    // current record
+    long start;
+    byte[] buf;
+    int off, len;
+
+    // records spanning chunks
+    byte[] line = new byte[8192];
+
+    /**
+     * Creates the scanner.
+     *
+     * @param in The input.
+     * @param pos The position in the file of the start of the input.
+     */
+    RecordScanner(InputStream in, long pos) {
+        this.in = in;
+        this.chunkStart = pos;
+    }
+
+    /**
+     * Position in the file of the next unread byte.
+     */
+    long position() {
+        return chunkStart + chunkPos;
+    }
+
+    /**
+     * Skips the remainder of the current line.
+     *
+     * @return <code>false</code> if the end of input was reached.
+     */
+    boolean skipLine() throws IOException {
+        while (true) {
+            if (chunkPos == chunkLen && !fill()) {
+                return false;
+            }
+            if (chunk[chunkPos++] == '\n') {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next non blank record.
+     *
+     * @return <code>false</code> if the end of input was reached.
+     */
+    boolean next() throws IOException {
+        while (scan()) {
+            // trim
+            while (len > 0 && isSpace(buf[off])) {
+                off++;
+                len--;
+            }
+            while (len > 0 && isSpace(buf[off+len-1])) {
+                len--;
+            }
+            if (len > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next line, without the line feed.
+     */
+    boolean scan() throws IOException {
+        if (chunkPos == chunkLen && !fill()) {
+            return false;
+        }
+
+        start = position();
+
+        // fast path, line lies within the chunk
+        for (int i = chunkPos; i < chunkLen; i++) {
+            if (chunk[i] == '\n') {
+                buf = chunk;
+                off = chunkPos;
+                len = i - chunkPos;
+                chunkPos = i + 1;
+                return true;
+            }
+        }
+
+        // line spans chunks, accumulate it
+        len = 0;
+        while (true) {
+            int i = chunkPos;
+            while (i < chunkLen && chunk[i] != '\n') {
+                i++;
+            }
+            append(chunkPos, i - chunkPos);
+
+            if (i < chunkLen) {
+                chunkPos = i + 1;
+                break;
+            }
+            chunkPos = chunkLen;
+            if (!fill()) {
+                break;
+            }
+        }
+
+        buf = line;
+        off = 0;
+        return true;
+    }
+
+    void append(int from, int n) {
+        if (len + n > line.length) {
+            line = Arrays.copyOf(line, Math.max(len + n, line.length * 2));
+        }
+        System.arraycopy(chunk, from, line, len, n);
+        len += n;
+    }
+
+    boolean fill() throws IOException {
+        chunkStart += chunkLen;
+        chunkPos = chunkLen = 0;
+
+        int n = in.read(chunk);
+        if (n <= 0) {
+            return false;
+        }
+        chunkLen = n;
+        return true;
+    }
+
+    static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == RS;
+    }
+}
@@ -16,10 +16,11 @@ package io.jeo.geojson.parser;
 
 import java.io.IOException;
 
-import io.jeo.json.parser.ContentHandler;
+import io.jeo.json.parser.NumberHandler;
 import io.jeo.json.parser.ParseException;
+import io.jeo.json.parser.SkippingHandler;
 
-public abstract class BaseHandler implements ContentHandler {
+public abstract class BaseHandler implements NumberHandler, SkippingHandler {
 
     protected ParseContext context;
     protected Node node;
@@ -86,6 +87,21 @@ public abstract class BaseHandler implements ContentHandler {
         return unexpected();
     }
 
+    @Override
+    public boolean primitive(long value) throws ParseException, IOException {
+        return primitive((Object) value);
+    }
+
+    @Override
+    public boolean primitive(double value) throws ParseException, IOException {
+        return primitive((Object) value);
+    }
+
+    @Override
+    public boolean skip(String key) throws ParseException, IOException {
+        return false;
+    }
+
     boolean unexpected() {
         if (context.isStrict()) {
             throw new IllegalStateException("Unexpected event " + context.toString());
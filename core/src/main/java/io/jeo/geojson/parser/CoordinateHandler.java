@@ -15,45 +15,125 @@
 package io.jeo.geojson.parser;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 
 import io.jeo.json.parser.ParseException;
 
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+
+/**
+ * Handles a GeoJSON <tt>coordinates</tt> array.
+ * <p>
+ * Ordinates are accumulated in a primitive array and every array of coordinates is turned directly into a
+ * {@link CoordinateSequence}, without intermediate lists of numbers. The resulting value is the sequence itself
+ * for a single coordinate or array of coordinates, and nested lists of sequences for deeper arrays. The dimension
+ * of a sequence is that of its first coordinate.
+ * </p>
+ */
 public class CoordinateHandler extends BaseHandler {
 
+    // current array depth, and depth of coordinate arrays
     int depth = 0;
-    Deque<List> stack = new ArrayDeque<List>();
+    int leaf = 0;
+
+    // lists of arrays above the sequence level, by depth
+    List<Object>[] lists = new List[4];
+
+    // ordinates of the current sequence
+    double[] ords = new double[64];
+    int size;
+    int dim;
+
+    // ordinates of the current coordinate
+    double[] coord = new double[4];
+    int n;
 
     @Override
     public boolean startArray() throws ParseException, IOException {
-        stack.push(new ArrayList());
         depth++;
+        if (depth == lists.length) {
+            lists = Arrays.copyOf(lists, depth * 2);
+        }
+        lists[depth] = null;
         return true;
     }
 
     @Override
     public boolean endArray() throws ParseException, IOException {
-        depth--;
+        if (depth == leaf) {
+            endCoordinate();
+            if (depth == 1) {
+                add(sequence(), 0);
+            }
+        }
+        else if (depth == leaf - 1) {
+            add(sequence(), depth - 1);
+        }
+        else {
+            add(lists[depth] != null ? lists[depth] : new ArrayList<Object>(), depth - 1);
+        }
 
-        List l = stack.pop();
+        depth--;
+        return true;
+    }
 
-        if (depth == 0) {
-            node.setValue(l);
-            pop();
+    @Override
+    public boolean primitive(double value) throws ParseException, IOException {
+        if (leaf == 0) {
+            leaf = depth;
         }
-        else {
-            stack.peek().add(l);
+        if (n < coord.length) {
+            coord[n] = value;
         }
+        n++;
         return true;
     }
-    
+
+    @Override
+    public boolean primitive(long value) throws ParseException, IOException {
+        return primitive((double) value);
+    }
+
     @Override
     public boolean primitive(Object value) throws ParseException, IOException {
-        stack.peek().add(value);
-        return true;
+        return primitive(((Number) value).doubleValue());
     }
 
+    void endCoordinate() {
+        if (dim == 0) {
+            dim = Math.max(2, Math.min(n, coord.length));
+        }
+
+        if ((size + 1) * dim > ords.length) {
+            ords = Arrays.copyOf(ords, Math.max(ords.length * 2, (size + 1) * dim));
+        }
+        for (int i = 0; i < dim; i++) {
+            ords[size * dim + i] = i < n ? coord[i] : Double.NaN;
+        }
+        size++;
+        n = 0;
+    }
+
+    CoordinateSequence sequence() {
+        CoordinateSequence seq = new PackedCoordinateSequence.Double(Arrays.copyOf(ords, size * dim), dim);
+        size = 0;
+        dim = 0;
+        return seq;
+    }
+
+    void add(Object value, int d) {
+        if (d == 0) {
+            node.setValue(value);
+            pop();
+        }
+        else {
+            if (lists[d] == null) {
+                lists[d] = new ArrayList<Object>();
+            }
+            lists[d].add(value);
+        }
+    }
 }
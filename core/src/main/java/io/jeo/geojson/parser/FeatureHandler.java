@@ -29,13 +29,22 @@ import com.vividsolutions.jts.geom.Geometry;
 
 public class FeatureHandler extends BaseHandler {
 
-    Integer id;
+    String id;
 
     public FeatureHandler() {
-        this(null);
+        this((String) null);
     }
 
     public FeatureHandler(Integer id) {
+        this(id != null ? String.valueOf(id) : null);
+    }
+
+    /**
+     * Creates the handler.
+     *
+     * @param id The id of the feature if the object does not specify one.
+     */
+    public FeatureHandler(String id) {
         this.id = id;
     }
 
@@ -66,6 +75,25 @@ public class FeatureHandler extends BaseHandler {
         return true;
     }
 
+    @Override
+    public boolean skip(String key) throws ParseException, IOException {
+        switch(key) {
+            case "type":
+            case "crs":
+            case "id":
+                return false;
+            case "geometry":
+                return !context.isSelected("geometry");
+            case "properties":
+                // skip when the geometry is the only field selected
+                return context.fields != null && (context.fields.isEmpty() ||
+                    (context.fields.size() == 1 && context.fields.contains("geometry")));
+            default:
+                // foreign members are ignored anyways
+                return true;
+        }
+    }
+
     @Override
     public boolean endObjectEntry() throws ParseException, IOException {
         return true;
@@ -88,7 +116,7 @@ public class FeatureHandler extends BaseHandler {
 
         props.put("geometry", geom);
 
-        String fid = node.consume("id", String.class).orElse(id != null ? String.valueOf(id) : null);
+        String fid = node.consume("id", String.class).orElse(id);
 
         node.setValue(new MapFeature(fid, props));
 
@@ -17,6 +17,7 @@ package io.jeo.geojson.parser;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.Set;
 
 public class ParseContext {
 
@@ -24,6 +25,9 @@ public class ParseContext {
     Node current, last;
     boolean strict = false;
 
+    // fields to parse, null for all
+    Set<String> fields;
+
     ParseContext() {
     }
 
@@ -35,6 +39,13 @@ public class ParseContext {
         return strict;
     }
 
+    /**
+     * Determines if a feature field should be parsed.
+     */
+    public boolean isSelected(String field) {
+        return fields == null || fields.contains(field);
+    }
+
     public void push(String name, BaseHandler h) {
         Node n = current != null ? current.newNode(name) : new Node(name, null);
         down(n);
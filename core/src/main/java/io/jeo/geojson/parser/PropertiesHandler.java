@@ -61,8 +61,19 @@ class PropertiesHandler extends BaseHandler {
         return true;
     }
 
+    @Override
+    public boolean skip(String key) throws ParseException, IOException {
+        // only top level properties are selected
+        return stack.size() == 1 && !context.isSelected(key);
+    }
+
     @Override
     public boolean primitive(Object value) throws ParseException, IOException {
+        if (stack.isEmpty()) {
+            // null properties
+            pop();
+            return true;
+        }
         stack.peek().put(key, value);
         return true;
     }
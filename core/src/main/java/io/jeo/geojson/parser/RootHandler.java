@@ -15,11 +15,13 @@
 package io.jeo.geojson.parser;
 
 import java.io.IOException;
+import java.util.Set;
 
-import io.jeo.json.parser.ContentHandler;
+import io.jeo.json.parser.NumberHandler;
 import io.jeo.json.parser.ParseException;
+import io.jeo.json.parser.SkippingHandler;
 
-public class RootHandler implements ContentHandler {
+public class RootHandler implements NumberHandler, SkippingHandler {
 
     ParseContext context;
     boolean finished;
@@ -73,11 +75,41 @@ public class RootHandler implements ContentHandler {
         return handler().primitive(value);
     }
 
+    @Override
+    public boolean primitive(long value) throws ParseException, IOException {
+        return handler().primitive(value);
+    }
+
+    @Override
+    public boolean primitive(double value) throws ParseException, IOException {
+        return handler().primitive(value);
+    }
+
+    @Override
+    public boolean skip(String key) throws ParseException, IOException {
+        return handler().skip(key);
+    }
+
+    /**
+     * Limits the feature fields that are parsed.
+     * <p>
+     * With parsers that support {@link SkippingHandler} the values of other properties are skipped over without
+     * being decoded, and the geometry is only parsed if <tt>geometry</tt> is one of the fields.
+     * </p>
+     * @param fields The names of the fields to parse, <code>null</code> to parse all fields.
+     *
+     * @return This handler.
+     */
+    public RootHandler fields(Set<String> fields) {
+        context.fields = fields;
+        return this;
+    }
+
     public boolean isFinished() {
         return finished;
     }
 
-    protected ContentHandler handler() {
+    protected BaseHandler handler() {
         return context.handlers.peek();
     }
 
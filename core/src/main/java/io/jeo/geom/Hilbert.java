@@ -0,0 +1,112 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geom;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Hilbert space filling curve utility methods.
+ * <p>
+ * Used to order envelopes for packed (bulk loaded) spatial indexes, envelopes close to each other in space
+ * generally end up close to each other in curve order.
+ * </p>
+ */
+public class Hilbert {
+
+    /**
+     * Maximum grid coordinate, the curve is computed on a 2^16 x 2^16 grid.
+     */
+    public static final int MAX = (1 << 16) - 1;
+
+    /**
+     * Computes the curve value of the center of an envelope, relative to the specified extent.
+     *
+     * @param e The envelope.
+     * @param extent The extent of all envelopes being ordered.
+     *
+     * @return The unsigned 32 bit curve value.
+     */
+    public static long index(Envelope e, Envelope extent) {
+        if (e.isNull()) {
+            return 0;
+        }
+
+        int x = grid((e.getMinX() + e.getMaxX()) / 2d, extent.getMinX(), extent.getWidth());
+        int y = grid((e.getMinY() + e.getMaxY()) / 2d, extent.getMinY(), extent.getHeight());
+        return index(x, y);
+    }
+
+    static int grid(double val, double min, double size) {
+        if (size <= 0) {
+            return 0;
+        }
+        return (int) Math.floor(MAX * (val - min) / size);
+    }
+
+    /**
+     * Computes the curve value for grid coordinates.
+     * <p>
+     * Based on the branch free algorithm from <a href="https://github.com/rawrunprotected/hilbert_curves">
+     * hilbert_curves</a>.
+     * </p>
+     * @param x The x grid coordinate, between 0 and {@link #MAX}.
+     * @param y The y grid coordinate, between 0 and {@link #MAX}.
+     *
+     * @return The unsigned 32 bit curve value.
+     */
+    public static long index(int x, int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >>> 1);
+        int B = (a >>> 1) ^ a;
+        int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+        int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+        a = A; b = B; c = C; d = D;
+        A = (a & (a >>> 2)) ^ (b & (b >>> 2));
+        B = (a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2));
+        C ^= (a & (c >>> 2)) ^ (b & (d >>> 2));
+        D ^= (b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2));
+
+        a = A; b = B; c = C; d = D;
+        A = (a & (a >>> 4)) ^ (b & (b >>> 4));
+        B = (a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4));
+        C ^= (a & (c >>> 4)) ^ (b & (d >>> 4));
+        D ^= (b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4));
+
+        a = A; b = B; c = C; d = D;
+        C ^= (a & (c >>> 8)) ^ (b & (d >>> 8));
+        D ^= (b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8));
+
+        a = C ^ (C >>> 1);
+        b = D ^ (D >>> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        return ((interleave(i1) << 1) | interleave(i0)) & 0xFFFFFFFFL;
+    }
+
+    static long interleave(int x) {
+        x = (x | (x << 8)) & 0x00FF00FF;
+        x = (x | (x << 4)) & 0x0F0F0F0F;
+        x = (x | (x << 2)) & 0x33333333;
+        x = (x | (x << 1)) & 0x55555555;
+        return x & 0xFFFFFFFFL;
+    }
+}
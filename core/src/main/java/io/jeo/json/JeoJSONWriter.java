@@ -422,6 +422,16 @@ public class JeoJSONWriter extends GeoJSONWriter {
         return (JeoJSONWriter) super.value(value);
     }
 
+    @Override
+    public JeoJSONWriter value(double value, int decimals) throws IOException {
+        return (JeoJSONWriter) super.value(value, decimals);
+    }
+
+    @Override
+    public JeoJSONWriter array(double[] values, int off, int len, int decimals) throws IOException {
+        return (JeoJSONWriter) super.array(values, off, len, decimals);
+    }
+
     @Override
     public JeoJSONWriter endObject() throws IOException {
         return (JeoJSONWriter) super.endObject();
@@ -15,10 +15,12 @@
 package io.jeo.json.encoder;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.ArrayDeque;
 
 import io.jeo.json.JSONValue;
+import io.jeo.util.NumberFormatter;
 
 public class JSONEncoder {
 
@@ -36,6 +38,11 @@ public class JSONEncoder {
     String space;
     String newline;
 
+    /**
+     * buffer for formatting numbers
+     */
+    final char[] num = new char[NumberFormatter.BUFFER_SIZE];
+
     /**
      * Creates a new encoder.
      * 
@@ -59,6 +66,30 @@ public class JSONEncoder {
         newline = indentSize > 0 ? "\n" : "";
     }
 
+    /**
+     * Creates a new encoder writing UTF-8 encoded output.
+     * <p>
+     * Characters are encoded directly into the stream through an internal buffer, call {@link #flush()} once done
+     * writing.
+     * </p>
+     * @param out Stream to output to.
+     */
+    public JSONEncoder(OutputStream out) {
+        this(out, 0);
+    }
+
+    /**
+     * Creates a new encoder writing UTF-8 encoded output with formatting.
+     *
+     * @param out Stream to output to.
+     * @param indentSize The number of spaces to use when indenting.
+     *
+     * @see #JSONEncoder(OutputStream)
+     */
+    public JSONEncoder(OutputStream out, int indentSize) {
+        this(new UTF8Writer(out), indentSize);
+    }
+
     /**
      * The underlying writer.
      */
@@ -179,9 +210,16 @@ public class JSONEncoder {
      */
     public JSONEncoder value(Number value) throws IOException {
 
+        if (value instanceof Double) {
+            return value(value.doubleValue());
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+
         if (value != null) {
             // check for double nan/infinte
-            if (value instanceof Double || value instanceof Float) {
+            if (value instanceof Float) {
                 Double val = value.doubleValue();
                 if (val.isInfinite() || val.isNaN()) {
                     value = null;
@@ -194,11 +232,83 @@ public class JSONEncoder {
     }
 
     public JSONEncoder value(double value) throws IOException {
-        return doValue(Double.toString(value));
+        return value(value, -1);
+    }
+
+    /**
+     * Specifies a floating point value rounded to a number of decimal places.
+     * <p>
+     * Trailing zeros are omitted. NaN and infinite values are encoded as <tt>null</tt>.
+     * </p>
+     * @param value The value.
+     * @param decimals The maximum number of decimal places, <tt>-1</tt> for as many as required to represent the
+     *                 value exactly.
+     *
+     * @return This encoder.
+     */
+    public JSONEncoder value(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nul();
+        }
+
+        prefix();
+
+        int n = NumberFormatter.format(value, decimals, num);
+        if (n < 0) {
+            out.write(Double.toString(value));
+        }
+        else {
+            out.write(num, 0, n);
+        }
+        return this;
     }
 
     public JSONEncoder value(long value) throws IOException {
-        return doValue(Long.toString(value));
+        prefix();
+        out.write(num, 0, NumberFormatter.format(value, num));
+        return this;
+    }
+
+    /**
+     * Encodes an array of floating point values.
+     * <p>
+     * Equivalent to calling {@link #array()}, {@link #value(double, int)} for each value and {@link #endArray()}.
+     * </p>
+     * @param values The values.
+     * @param off Offset of the first value.
+     * @param len Number of values.
+     * @param decimals The maximum number of decimal places, see {@link #value(double, int)}.
+     *
+     * @return This encoder.
+     */
+    public JSONEncoder array(double[] values, int off, int len, int decimals) throws IOException {
+        if (!newline.isEmpty()) {
+            array();
+            for (int i = off; i < off + len; i++) {
+                value(values[i], decimals);
+            }
+            return endArray();
+        }
+
+        // no formatting, write the array directly
+        prefix();
+        out.write('[');
+        for (int i = off; i < off + len; i++) {
+            if (i > off) {
+                out.write(',');
+            }
+
+            double v = values[i];
+            int n = Double.isNaN(v) || Double.isInfinite(v) ? -1 : NumberFormatter.format(v, decimals, num);
+            if (n < 0) {
+                out.write(Double.isNaN(v) || Double.isInfinite(v) ? "null" : Double.toString(v));
+            }
+            else {
+                out.write(num, 0, n);
+            }
+        }
+        out.write(']');
+        return this;
     }
 
     /**
@@ -244,6 +354,20 @@ public class JSONEncoder {
      * Helper to write out an already encoded value.
      */
     JSONEncoder doValue(String encoded) throws IOException {
+        prefix();
+
+        if (encoded == null) {
+            encoded = "null";
+        }
+
+        out.write(encoded);
+        return this;
+    }
+
+    /*
+     * Helper to write out the separator preceding a value.
+     */
+    void prefix() throws IOException {
         Thing t = peek();
         if (t == null) {
             throw new IllegalStateException("no object");
@@ -266,13 +390,6 @@ public class JSONEncoder {
             o.key = false;
             o.size++;
         }
-
-        if (encoded == null) {
-            encoded = "null";
-        }
-
-        out.write(encoded);
-        return this;
     }
 
     /**
@@ -0,0 +1,141 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Buffered writer that encodes chars as UTF-8 directly into an output stream.
+ * <p>
+ * Unlike {@link java.io.OutputStreamWriter} no intermediate char buffer or charset encoder is involved, ASCII
+ * output is copied byte for byte. Unpaired surrogates are encoded as <tt>?</tt>.
+ * </p>
+ */
+class UTF8Writer extends Writer {
+
+    OutputStream out;
+    byte[] buf = new byte[8192];
+    int len;
+
+    // high surrogate awaiting its low surrogate
+    char high;
+
+    UTF8Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (len + 4 > buf.length) {
+            flushBuffer();
+        }
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int n) throws IOException {
+        for (int i = off, end = off + n; i < end; i++) {
+            if (len + 4 > buf.length) {
+                flushBuffer();
+            }
+            char c = cbuf[i];
+            if (c < 0x80 && high == 0) {
+                buf[len++] = (byte) c;
+            }
+            else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int n) throws IOException {
+        for (int i = off, end = off + n; i < end; i++) {
+            if (len + 4 > buf.length) {
+                flushBuffer();
+            }
+            char c = str.charAt(i);
+            if (c < 0x80 && high == 0) {
+                buf[len++] = (byte) c;
+            }
+            else {
+                encode(c);
+            }
+        }
+    }
+
+    void encode(char c) {
+        if (high != 0) {
+            char h = high;
+            high = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(h, c);
+                buf[len++] = (byte) (0xF0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (cp & 0x3F));
+                return;
+            }
+            buf[len++] = '?';
+        }
+
+        if (c < 0x80) {
+            buf[len++] = (byte) c;
+        }
+        else if (c < 0x800) {
+            buf[len++] = (byte) (0xC0 | (c >> 6));
+            buf[len++] = (byte) (0x80 | (c & 0x3F));
+        }
+        else if (Character.isHighSurrogate(c)) {
+            high = c;
+        }
+        else if (Character.isLowSurrogate(c)) {
+            buf[len++] = '?';
+        }
+        else {
+            buf[len++] = (byte) (0xE0 | (c >> 12));
+            buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[len++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    void flushBuffer() throws IOException {
+        if (len > 0) {
+            out.write(buf, 0, len);
+            len = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (high != 0) {
+            high = 0;
+            if (len + 1 > buf.length) {
+                flushBuffer();
+            }
+            buf[len++] = '?';
+        }
+        flush();
+        out.close();
+    }
+}
@@ -0,0 +1,808 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static io.jeo.json.parser.JSONParser.*;
+
+/**
+ * Streaming JSON parser that tokenizes UTF-8 encoded bytes directly.
+ * <p>
+ * This parser is a drop in replacement for the content handler driven methods of {@link JSONParser}, with the same
+ * event semantics including the ability to pause parsing when a handler method returns <code>false</code> and
+ * resume it later. Rather than decoding the input to characters and scanning it with a generic lexer it scans the
+ * raw bytes of the input and:
+ * <ul>
+ *   <li>parses numbers directly to <tt>long</tt> and <tt>double</tt> values without an intermediate string</li>
+ *   <li>hands numbers to {@link NumberHandler} implementations without boxing</li>
+ *   <li>reuses the string instances of recently seen object keys</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Numbers are produced with the same types as {@link JSONParser}, {@link Long} for integral values and
+ * {@link Double} otherwise.
+ * </p>
+ */
+public class JSONByteParser {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+    static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    // value types
+    static final int V_STRING = 0;
+    static final int V_LONG = 1;
+    static final int V_DOUBLE = 2;
+    static final int V_OTHER = 3;
+
+    // powers of ten exactly representable as doubles
+    static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i-1] * 10;
+        }
+    }
+
+    // input for parsing from an array, never read from
+    static final InputStream EMPTY = new ByteArrayInputStream(new byte[0]);
+
+    // maximum mantissa for which the fast double path is exact
+    static final long MAX_EXACT = 1L << 53;
+
+    // input
+    InputStream in;
+    byte[] buf = new byte[65536];
+    int pos, end;
+    long offset;
+    boolean eof;
+
+    // current token
+    int type;
+    int tokenStart;
+    int valueType;
+    String str;
+    long lval;
+    double dval;
+    Object value;
+
+    // key cache
+    String[] keys = new String[256];
+
+    // parse state
+    int status = S_INIT;
+    int[] stack = new int[32];
+    int depth;
+
+    /**
+     * Resets the parser to parse a new input stream.
+     */
+    public void reset(InputStream in) {
+        this.in = in;
+        pos = end = 0;
+        offset = 0;
+        eof = false;
+        status = S_INIT;
+        depth = 0;
+    }
+
+    /**
+     * The position of the parser in the input, in bytes.
+     */
+    public long getPosition() {
+        return offset + pos;
+    }
+
+    public void parse(InputStream in, ContentHandler handler) throws IOException, ParseException {
+        parse(in, handler, false);
+    }
+
+    /**
+     * Parses JSON bytes held in an array.
+     * <p>
+     * The bytes are parsed in place, the array is not copied or modified.
+     * </p>
+     * @param bytes The input, assumed to be UTF-8 encoded.
+     * @param off Offset of the first byte to parse.
+     * @param len Number of bytes to parse.
+     * @param handler The content handler.
+     */
+    public void parse(byte[] bytes, int off, int len, ContentHandler handler) throws IOException, ParseException {
+        byte[] own = buf;
+        reset(EMPTY);
+        buf = bytes;
+        pos = off;
+        end = off + len;
+        offset = -off;
+        eof = true;
+        try {
+            parse(in, handler, true);
+        }
+        finally {
+            buf = own;
+        }
+    }
+
+    /**
+     * Stream processing of JSON bytes.
+     *
+     * @param in The input, assumed to be UTF-8 encoded.
+     * @param handler The content handler.
+     * @param isResume Indicates if it continues previous parsing operation. If set to true, resume parsing the old
+     *                 stream, and parameter 'in' will be ignored.
+     *
+     * @see JSONParser#parse(java.io.Reader, ContentHandler, boolean)
+     */
+    public void parse(InputStream in, ContentHandler handler, boolean isResume) throws IOException, ParseException {
+        if (!isResume || this.in == null) {
+            reset(in);
+        }
+
+        NumberHandler nh = handler instanceof NumberHandler ? (NumberHandler) handler : null;
+        SkippingHandler sh = handler instanceof SkippingHandler ? (SkippingHandler) handler : null;
+        try {
+            do {
+                switch(status) {
+                case S_INIT:
+                    handler.startJSON();
+                    nextToken();
+                    switch(type) {
+                    case Yytoken.TYPE_VALUE:
+                        status = S_IN_FINISHED_VALUE;
+                        push(status);
+                        if (!primitive(handler, nh))
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_BRACE:
+                        status = S_IN_OBJECT;
+                        push(status);
+                        if (!handler.startObject())
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_SQUARE:
+                        status = S_IN_ARRAY;
+                        push(status);
+                        if (!handler.startArray())
+                            return;
+                        break;
+                    default:
+                        status = S_IN_ERROR;
+                    }
+                    break;
+
+                case S_IN_FINISHED_VALUE:
+                    nextToken();
+                    if (type == Yytoken.TYPE_EOF) {
+                        handler.endJSON();
+                        status = S_END;
+                        return;
+                    }
+                    status = S_IN_ERROR;
+                    throw error();
+
+                case S_IN_OBJECT:
+                    nextToken(true);
+                    switch(type) {
+                    case Yytoken.TYPE_COMMA:
+                        break;
+                    case Yytoken.TYPE_VALUE:
+                        if (valueType == V_STRING) {
+                            if (sh != null && sh.skip(str)) {
+                                skipEntry();
+                                break;
+                            }
+                            status = S_PASSED_PAIR_KEY;
+                            push(status);
+                            if (!handler.startObjectEntry(str))
+                                return;
+                        }
+                        else {
+                            status = S_IN_ERROR;
+                        }
+                        break;
+                    case Yytoken.TYPE_RIGHT_BRACE:
+                        if (depth > 1) {
+                            depth--;
+                            status = stack[depth-1];
+                        }
+                        else {
+                            status = S_IN_FINISHED_VALUE;
+                        }
+                        if (!handler.endObject())
+                            return;
+                        break;
+                    default:
+                        status = S_IN_ERROR;
+                    }
+                    break;
+
+                case S_PASSED_PAIR_KEY:
+                    nextToken();
+                    switch(type) {
+                    case Yytoken.TYPE_COLON:
+                        break;
+                    case Yytoken.TYPE_VALUE:
+                        depth--;
+                        status = peek();
+                        if (!primitive(handler, nh))
+                            return;
+                        if (!handler.endObjectEntry())
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_SQUARE:
+                        stack[depth-1] = S_IN_PAIR_VALUE;
+                        status = S_IN_ARRAY;
+                        push(status);
+                        if (!handler.startArray())
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_BRACE:
+                        stack[depth-1] = S_IN_PAIR_VALUE;
+                        status = S_IN_OBJECT;
+                        push(status);
+                        if (!handler.startObject())
+                            return;
+                        break;
+                    default:
+                        status = S_IN_ERROR;
+                    }
+                    break;
+
+                case S_IN_PAIR_VALUE:
+                    depth--;
+                    status = peek();
+                    if (!handler.endObjectEntry())
+                        return;
+                    break;
+
+                case S_IN_ARRAY:
+                    nextToken();
+                    switch(type) {
+                    case Yytoken.TYPE_COMMA:
+                        break;
+                    case Yytoken.TYPE_VALUE:
+                        if (!primitive(handler, nh))
+                            return;
+                        break;
+                    case Yytoken.TYPE_RIGHT_SQUARE:
+                        if (depth > 1) {
+                            depth--;
+                            status = stack[depth-1];
+                        }
+                        else {
+                            status = S_IN_FINISHED_VALUE;
+                        }
+                        if (!handler.endArray())
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_BRACE:
+                        status = S_IN_OBJECT;
+                        push(status);
+                        if (!handler.startObject())
+                            return;
+                        break;
+                    case Yytoken.TYPE_LEFT_SQUARE:
+                        status = S_IN_ARRAY;
+                        push(status);
+                        if (!handler.startArray())
+                            return;
+                        break;
+                    default:
+                        status = S_IN_ERROR;
+                    }
+                    break;
+
+                case S_END:
+                    return;
+
+                case S_IN_ERROR:
+                    throw error();
+                }
+
+                if (status == S_IN_ERROR) {
+                    throw error();
+                }
+            }
+            while (type != Yytoken.TYPE_EOF);
+        }
+        catch(IOException | ParseException | RuntimeException | Error e) {
+            status = S_IN_ERROR;
+            throw e;
+        }
+
+        status = S_IN_ERROR;
+        throw error();
+    }
+
+    void push(int s) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = s;
+    }
+
+    int peek() {
+        return depth > 0 ? stack[depth-1] : S_IN_ERROR;
+    }
+
+    ParseException error() {
+        return new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token());
+    }
+
+    Yytoken token() {
+        return new Yytoken(type, type == Yytoken.TYPE_VALUE ? value() : null);
+    }
+
+    Object value() {
+        switch(valueType) {
+            case V_STRING: return str;
+            case V_LONG: return lval;
+            case V_DOUBLE: return dval;
+            default: return value;
+        }
+    }
+
+    boolean primitive(ContentHandler h, NumberHandler nh) throws IOException, ParseException {
+        if (nh != null) {
+            switch(valueType) {
+                case V_LONG:
+                    return nh.primitive(lval);
+                case V_DOUBLE:
+                    return nh.primitive(dval);
+            }
+        }
+        return h.primitive(value());
+    }
+
+    void nextToken() throws IOException, ParseException {
+        nextToken(false);
+    }
+
+    void nextToken(boolean key) throws IOException, ParseException {
+        tokenStart = pos;
+        int b = skipWhitespace();
+        tokenStart = pos;
+
+        switch(b) {
+            case -1:
+                type = Yytoken.TYPE_EOF;
+                return;
+            case '{':
+                pos++;
+                type = Yytoken.TYPE_LEFT_BRACE;
+                return;
+            case '}':
+                pos++;
+                type = Yytoken.TYPE_RIGHT_BRACE;
+                return;
+            case '[':
+                pos++;
+                type = Yytoken.TYPE_LEFT_SQUARE;
+                return;
+            case ']':
+                pos++;
+                type = Yytoken.TYPE_RIGHT_SQUARE;
+                return;
+            case ',':
+                pos++;
+                type = Yytoken.TYPE_COMMA;
+                return;
+            case ':':
+                pos++;
+                type = Yytoken.TYPE_COLON;
+                return;
+            case '"':
+                type = Yytoken.TYPE_VALUE;
+                valueType = V_STRING;
+                str = string(key);
+                return;
+            case 't':
+                literal("true", Boolean.TRUE);
+                return;
+            case 'f':
+                literal("false", Boolean.FALSE);
+                return;
+            case 'n':
+                literal("null", null);
+                return;
+            default:
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    type = Yytoken.TYPE_VALUE;
+                    number();
+                    return;
+                }
+                throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_CHAR, (char) b);
+        }
+    }
+
+    int skipWhitespace() throws IOException {
+        while (true) {
+            if (pos == end && !fill()) {
+                return -1;
+            }
+            int b = buf[pos] & 0xFF;
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                pos++;
+            }
+            else {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Reads more input, retaining the bytes of the current token.
+     *
+     * @return <code>false</code> if the end of input was reached.
+     */
+    boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+
+        int keep = pos < tokenStart ? pos : tokenStart;
+        if (keep > 0) {
+            // shift the current token to the front of the buffer
+            System.arraycopy(buf, keep, buf, 0, end - keep);
+            offset += keep;
+            pos -= keep;
+            end -= keep;
+            tokenStart -= keep;
+        }
+        if (end == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+
+        int n = in.read(buf, end, buf.length - end);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        end += n;
+        return true;
+    }
+
+    /**
+     * Skips over the value of an object entry without decoding it.
+     * <p>
+     * Only string literals and nesting are tracked so a malformed value is not necessarily detected.
+     * </p>
+     */
+    void skipEntry() throws IOException, ParseException {
+        nextToken();
+        if (type != Yytoken.TYPE_COLON) {
+            throw error();
+        }
+
+        int b = skipWhitespace();
+        tokenStart = pos;
+        if (b == '{' || b == '[') {
+            skipStructure();
+        }
+        else if (b == '"') {
+            skipByte();
+            skipString();
+        }
+        else {
+            // number or literal
+            while (b != -1 && b != ',' && b != '}' && b != ']' && b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                skipByte();
+                b = peekByte();
+            }
+            if (pos == tokenStart) {
+                throw error();
+            }
+        }
+
+        type = Yytoken.TYPE_VALUE;
+        valueType = V_OTHER;
+        value = null;
+    }
+
+    void skipStructure() throws IOException, ParseException {
+        int level = 0;
+        boolean inString = false, escape = false;
+        while (true) {
+            if (pos == end) {
+                tokenStart = pos;
+                if (!fill()) {
+                    throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, "EOF");
+                }
+            }
+
+            byte[] bytes = buf;
+            for (int p = pos, e = end; p < e; p++) {
+                byte c = bytes[p];
+                if (inString) {
+                    if (escape) {
+                        escape = false;
+                    }
+                    else if (c == '\\') {
+                        escape = true;
+                    }
+                    else if (c == '"') {
+                        inString = false;
+                    }
+                }
+                else if (c == '"') {
+                    inString = true;
+                }
+                else if (c == '{' || c == '[') {
+                    level++;
+                }
+                else if ((c == '}' || c == ']') && --level == 0) {
+                    pos = p + 1;
+                    return;
+                }
+            }
+            pos = end;
+        }
+    }
+
+    void skipString() throws IOException, ParseException {
+        int b;
+        while ((b = skipByte()) != '"') {
+            if (b == '\\') {
+                skipByte();
+            }
+        }
+    }
+
+    /**
+     * Consumes the next byte without retaining it in the buffer.
+     */
+    int skipByte() throws IOException, ParseException {
+        if (pos == end) {
+            tokenStart = pos;
+            if (!fill()) {
+                throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, "EOF");
+            }
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    int peekByte() throws IOException {
+        if (pos == end && !fill()) {
+            return -1;
+        }
+        return buf[pos] & 0xFF;
+    }
+
+    void literal(String lit, Object val) throws IOException, ParseException {
+        for (int i = 0; i < lit.length(); i++) {
+            if (peekByte() != lit.charAt(i)) {
+                throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_CHAR,
+                    (char) Math.max(0, peekByte()));
+            }
+            pos++;
+        }
+        type = Yytoken.TYPE_VALUE;
+        valueType = V_OTHER;
+        value = val;
+    }
+
+    String string(boolean key) throws IOException, ParseException {
+        // skip the opening quote
+        pos++;
+
+        boolean ascii = true;
+        boolean escaped = false;
+        int hash = 0;
+        while (true) {
+            int b = peekByte();
+            if (b == -1) {
+                throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, "EOF");
+            }
+            if (b == '"') {
+                break;
+            }
+            if (b == '\\') {
+                escaped = true;
+                pos++;
+                if (peekByte() == -1) {
+                    continue;
+                }
+            }
+            else if (b >= 0x80) {
+                ascii = false;
+            }
+            hash = 31 * hash + b;
+            pos++;
+        }
+
+        int start = tokenStart + 1;
+        int len = pos - start;
+
+        // skip the closing quote
+        pos++;
+
+        if (escaped) {
+            return unescape(start, len);
+        }
+        if (!ascii) {
+            return new String(buf, start, len, UTF8);
+        }
+        if (key && len <= 32) {
+            int slot = hash & (keys.length - 1);
+            String s = keys[slot];
+            if (s == null || !matches(s, start, len)) {
+                keys[slot] = s = new String(buf, start, len, LATIN1);
+            }
+            return s;
+        }
+        return new String(buf, start, len, LATIN1);
+    }
+
+    boolean matches(String s, int start, int len) {
+        if (s.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (s.charAt(i) != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String unescape(int start, int len) throws ParseException {
+        StringBuilder sb = new StringBuilder(len);
+        int end = start + len;
+        int run = start;
+        for (int i = start; i < end; i++) {
+            if (buf[i] != '\\') {
+                continue;
+            }
+
+            sb.append(new String(buf, run, i - run, UTF8));
+
+            char c = (char) buf[++i];
+            switch(c) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (i + 4 >= end) {
+                        throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_CHAR, c);
+                    }
+                    sb.append((char) Integer.parseInt(new String(buf, i + 1, 4, LATIN1), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+            }
+            run = i + 1;
+        }
+        sb.append(new String(buf, run, end - run, UTF8));
+        return sb.toString();
+    }
+
+    void number() throws IOException, ParseException {
+        boolean neg = false;
+        long mant = 0;
+        int digits = 0;
+        int exp10 = 0;
+        boolean decimal = false;
+        boolean exact = true;
+
+        int b = peekByte();
+        if (b == '-') {
+            neg = true;
+            pos++;
+            b = peekByte();
+        }
+
+        // integer part
+        while (b >= '0' && b <= '9') {
+            if (digits < 18) {
+                mant = mant * 10 + (b - '0');
+                if (mant != 0) {
+                    digits++;
+                }
+            }
+            else {
+                exact = false;
+                exp10++;
+            }
+            pos++;
+            b = peekByte();
+        }
+
+        // fraction
+        if (b == '.') {
+            decimal = true;
+            pos++;
+            b = peekByte();
+            while (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mant = mant * 10 + (b - '0');
+                    if (mant != 0) {
+                        digits++;
+                    }
+                    exp10--;
+                }
+                else if (b != '0') {
+                    exact = false;
+                }
+                pos++;
+                b = peekByte();
+            }
+        }
+
+        // exponent
+        if (b == 'e' || b == 'E') {
+            decimal = true;
+            pos++;
+            b = peekByte();
+
+            boolean eneg = false;
+            if (b == '-' || b == '+') {
+                eneg = b == '-';
+                pos++;
+                b = peekByte();
+            }
+
+            int exp = 0;
+            while (b >= '0' && b <= '9') {
+                if (exp < 10000) {
+                    exp = exp * 10 + (b - '0');
+                }
+                pos++;
+                b = peekByte();
+            }
+            exp10 += eneg ? -exp : exp;
+        }
+
+        if (pos - tokenStart == (neg ? 1 : 0)) {
+            throw new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_CHAR, (char) b);
+        }
+
+        if (!decimal) {
+            if (exact) {
+                valueType = V_LONG;
+                lval = neg ? -mant : mant;
+                return;
+            }
+
+            // more than 18 digits, may still fit in a long
+            String text = new String(buf, tokenStart, pos - tokenStart, LATIN1);
+            try {
+                lval = Long.parseLong(text);
+                valueType = V_LONG;
+            }
+            catch(NumberFormatException e) {
+                dval = Double.parseDouble(text);
+                valueType = V_DOUBLE;
+            }
+            return;
+        }
+
+        valueType = V_DOUBLE;
+        if (exact && mant < MAX_EXACT && exp10 >= -22 && exp10 <= 22) {
+            // both the mantissa and power of ten are exact so a single operation rounds correctly
+            double d = exp10 < 0 ? mant / POW10[-exp10] : mant * POW10[exp10];
+            dval = neg ? -d : d;
+        }
+        else {
+            dval = Double.parseDouble(new String(buf, tokenStart, pos - tokenStart, LATIN1));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.parser;
+
+import java.io.IOException;
+
+/**
+ * Content handler that receives numeric values as primitives.
+ * <p>
+ * Parsers that support it, such as {@link JSONByteParser}, call these methods rather than
+ * {@link ContentHandler#primitive(Object)} for numbers, avoiding boxing the value.
+ * </p>
+ */
+public interface NumberHandler extends ContentHandler {
+
+    /**
+     * Receive notification of an integral number value.
+     *
+     * @see ContentHandler#primitive(Object)
+     */
+    boolean primitive(long value) throws ParseException, IOException;
+
+    /**
+     * Receive notification of a floating point number value.
+     *
+     * @see ContentHandler#primitive(Object)
+     */
+    boolean primitive(double value) throws ParseException, IOException;
+}
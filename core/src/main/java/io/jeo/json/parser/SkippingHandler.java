@@ -0,0 +1,38 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.parser;
+
+import java.io.IOException;
+
+/**
+ * Content handler that can skip the values of object entries it has no interest in.
+ * <p>
+ * Parsers that support it, such as {@link JSONByteParser}, call {@link #skip(String)} for every object entry and
+ * pass over the value of skipped entries without decoding it. No events are generated for a skipped entry, including
+ * {@link #startObjectEntry(String)} and {@link #endObjectEntry()}. Other parsers deliver all entries as usual so
+ * handlers must still cope with the entries they would skip.
+ * </p>
+ */
+public interface SkippingHandler extends ContentHandler {
+
+    /**
+     * Determines if the value of an object entry should be skipped.
+     *
+     * @param key The entry key.
+     *
+     * @return <code>true</code> to skip the entry.
+     */
+    boolean skip(String key) throws ParseException, IOException;
+}
@@ -0,0 +1,163 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.util;
+
+/**
+ * Formats numbers into a char buffer without allocating.
+ * <p>
+ * Doubles are formatted in plain decimal notation with at least one fractional digit. Without a precision the
+ * fewest fractional digits that parse back to the same double are used. The formatter handles the values that
+ * typically occur as coordinates and measures, for values it can't format exactly {@link #format(double, int,
+ * char[])} returns <tt>-1</tt> and callers fall back on {@link Double#toString(double)}.
+ * </p>
+ */
+public class NumberFormatter {
+
+    /**
+     * Maximum number of decimal places.
+     */
+    public static final int MAX_PRECISION = 17;
+
+    /**
+     * Minimum size of buffers passed to the formatter.
+     */
+    public static final int BUFFER_SIZE = 40;
+
+    // powers of ten exactly representable as doubles and longs
+    static final double[] POW10 = new double[MAX_PRECISION + 1];
+    static final long[] LPOW10 = new long[MAX_PRECISION + 1];
+    static {
+        POW10[0] = 1;
+        LPOW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i-1] * 10;
+            LPOW10[i] = LPOW10[i-1] * 10;
+        }
+    }
+
+    // largest integer for which all smaller integers are exactly representable as doubles
+    static final double MAX_EXACT = 9007199254740992d;
+
+    /**
+     * Formats a double.
+     *
+     * @param value The value, must be finite.
+     * @param precision The maximum number of decimal places, at most {@link #MAX_PRECISION}, or <tt>-1</tt> for the
+     *                  shortest exact representation.
+     * @param buf The buffer to format into, at least {@link #BUFFER_SIZE} chars.
+     *
+     * @return The number of chars written, or <tt>-1</tt> if the value could not be formatted.
+     */
+    public static int format(double value, int precision, char[] buf) {
+        double abs = Math.abs(value);
+
+        long scaled = -1;
+        int p = 0;
+        if (precision >= 0 && precision <= MAX_PRECISION) {
+            double s = abs * POW10[precision];
+            if (s < MAX_EXACT) {
+                scaled = Math.round(s);
+                p = precision;
+            }
+        }
+
+        if (scaled < 0) {
+            // find the fewest decimal places that parse back exactly, the division is exact for these magnitudes
+            for (p = 0; p <= MAX_PRECISION; p++) {
+                double s = abs * POW10[p];
+                if (s >= MAX_EXACT) {
+                    return -1;
+                }
+                long l = Math.round(s);
+                if (l / POW10[p] == abs) {
+                    scaled = l;
+                    break;
+                }
+            }
+            if (scaled < 0) {
+                return -1;
+            }
+        }
+
+        int n = 0;
+        if (value < 0 && scaled > 0) {
+            buf[n++] = '-';
+        }
+
+        n = format(scaled / LPOW10[p], buf, n);
+        buf[n++] = '.';
+
+        long frac = scaled % LPOW10[p];
+        if (frac == 0) {
+            buf[n++] = '0';
+            return n;
+        }
+
+        // drop trailing zeros
+        while (frac % 10 == 0) {
+            frac /= 10;
+            p--;
+        }
+        int end = n + p;
+        for (int i = end - 1; i >= n; i--) {
+            buf[i] = (char) ('0' + frac % 10);
+            frac /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Formats a long.
+     *
+     * @param value The value.
+     * @param buf The buffer to format into, at least {@link #BUFFER_SIZE} chars.
+     *
+     * @return The number of chars written.
+     */
+    public static int format(long value, char[] buf) {
+        if (value == Long.MIN_VALUE) {
+            String s = Long.toString(value);
+            s.getChars(0, s.length(), buf, 0);
+            return s.length();
+        }
+
+        int n = 0;
+        if (value < 0) {
+            buf[n++] = '-';
+            value = -value;
+        }
+        return format(value, buf, n);
+    }
+
+    /**
+     * Formats a non negative long at an offset of a buffer.
+     *
+     * @return The offset following the last char written.
+     */
+    public static int format(long value, char[] buf, int off) {
+        // count digits
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+
+        int end = off + digits;
+        for (int i = end - 1; i >= off; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,198 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feature cursor whose features are produced in batches by a pool of worker threads.
+ * <p>
+ * Subclasses divide their input into batches with {@link #nextBatch()}, which is called on the reading thread, and
+ * the returned tasks are evaluated by the workers. At most <tt>maxPending</tt> batches per thread are in flight at
+ * once. When ordered, the queue of pending batches doubles as the reorder buffer and batches are handed back in
+ * submission order, otherwise in the order they complete.
+ * </p>
+ * <p>
+ * The worker threads are daemon threads, released once the input is exhausted or the cursor is closed. An exception
+ * thrown by a worker is rethrown from {@link #hasNext()} and {@link #next()}.
+ * </p>
+ */
+public abstract class BatchFeatureCursor extends FeatureCursor {
+
+    static final AtomicInteger POOL = new AtomicInteger();
+
+    final String name;
+    final int threads;
+    final boolean ordered;
+    final int maxPending;
+
+    ExecutorService executor;
+    CompletionService<List<Feature>> completion;
+    Deque<Future<List<Feature>>> pending = new ArrayDeque<>();
+
+    Iterator<Feature> batch = Collections.emptyIterator();
+
+    /**
+     * Creates the cursor.
+     *
+     * @param name Name of the worker threads, prefixed with <tt>jeo-</tt> and suffixed with pool and thread numbers.
+     * @param threads Number of worker threads.
+     * @param ordered Whether batches are handed back in submission order.
+     * @param maxPending Maximum number of pending batches per worker thread.
+     */
+    protected BatchFeatureCursor(String name, int threads, boolean ordered, int maxPending) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.name = name;
+        this.threads = threads;
+        this.ordered = ordered;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Whether the cursor has been read from, starting the worker threads.
+     */
+    protected boolean isStarted() {
+        return executor != null;
+    }
+
+    /**
+     * Prepares the input of the cursor, called on the first read before any batch is requested.
+     */
+    protected void start() throws IOException {
+    }
+
+    /**
+     * Returns the next batch of work, called on the reading thread.
+     *
+     * @return The task producing the features of the batch, or <code>null</code> when the input is exhausted.
+     */
+    protected abstract Callable<List<Feature>> nextBatch() throws IOException;
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (executor == null) {
+            startWorkers();
+            start();
+        }
+
+        while (!batch.hasNext()) {
+            if (executor.isShutdown()) {
+                return false;
+            }
+
+            fill();
+            if (pending.isEmpty()) {
+                // exhausted, release the worker threads
+                executor.shutdown();
+                return false;
+            }
+            batch = take().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return hasNext() ? batch.next() : null;
+    }
+
+    void startWorkers() {
+        final int pool = POOL.incrementAndGet();
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jeo-" + name + "-" + pool + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        completion = new ExecutorCompletionService<>(executor);
+    }
+
+    void fill() throws IOException {
+        while (pending.size() < threads * maxPending) {
+            Callable<List<Feature>> task = nextBatch();
+            if (task == null) {
+                break;
+            }
+            pending.add(ordered ? executor.submit(task) : completion.submit(task));
+        }
+    }
+
+    List<Feature> take() throws IOException {
+        try {
+            Future<List<Feature>> next;
+            if (ordered) {
+                next = pending.poll();
+            }
+            else {
+                next = completion.take();
+                pending.remove(next);
+            }
+            return next.get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for worker");
+        }
+        catch(ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new IOException(t);
+        }
+    }
+
+    /**
+     * Cancels pending batches and stops the worker threads, subclasses releasing resources of their own must call
+     * this method.
+     */
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            for (Future<List<Feature>> f : pending) {
+                f.cancel(true);
+            }
+            pending.clear();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -3,7 +3,10 @@ package io.jeo.vector;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
 import io.jeo.data.Cursor;
+import io.jeo.data.Sort;
 import io.jeo.geom.Bounds;
 import io.jeo.geom.Geom;
 import io.jeo.proj.Proj;
@@ -14,6 +17,7 @@ import org.osgeo.proj4j.CoordinateTransform;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -90,7 +94,7 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
-    private static class TransformFeature extends GeometryTransformFeature {
+    static class TransformFeature extends GeometryTransformFeature {
 
         CoordinateTransform transform;
 
@@ -123,7 +127,7 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
-    private static class ReprojectFeature extends GeometryTransformFeature {
+    static class ReprojectFeature extends GeometryTransformFeature {
 
         CoordinateReferenceSystem target;
         Map<String,CoordinateTransform> transforms;
@@ -150,6 +154,144 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
+    /**
+     * Simplifies the geometries of features in the cursor with the Douglas-Peucker algorithm.
+     *
+     * @param tolerance The distance tolerance, in units of the feature geometries.
+     *
+     * @return The wrapped cursor.
+     */
+    public FeatureCursor simplify(double tolerance) {
+        return simplify(tolerance, false);
+    }
+
+    /**
+     * Simplifies the geometries of features in the cursor.
+     * <p>
+     * Simplification happens lazily as feature geometries are accessed. When <tt>preserveTopology</tt> is set
+     * the slower topology preserving simplifier is used which guarantees that simplified polygons don't
+     * self-intersect or collapse and that holes remain within their shells.
+     * </p>
+     * @param tolerance The distance tolerance, in units of the feature geometries.
+     * @param preserveTopology Whether to use a topology preserving simplifier.
+     *
+     * @return The wrapped cursor.
+     */
+    public FeatureCursor simplify(double tolerance, boolean preserveTopology) {
+        return new SimplifyCursor(this, tolerance, preserveTopology);
+    }
+
+    private static class SimplifyCursor extends FeatureCursorWrapper {
+
+        double tolerance;
+        boolean preserveTopology;
+
+        SimplifyCursor(Cursor<Feature> delegate, double tolerance, boolean preserveTopology) {
+            super(delegate);
+            if (tolerance < 0) {
+                throw new IllegalArgumentException("tolerance must not be negative");
+            }
+            this.tolerance = tolerance;
+            this.preserveTopology = preserveTopology;
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            Feature f = super.next();
+            return f != null ? new SimplifyFeature(f, tolerance, preserveTopology) : f;
+        }
+    }
+
+    static class SimplifyFeature extends GeometryTransformFeature {
+
+        double tolerance;
+        boolean preserveTopology;
+
+        // simplified geometries by field name, and the simplified default geometry, so each is simplified only once
+        // even when the delegate returns a new geometry instance on every access
+        Map<String,Geometry> simplified;
+        Geometry geometry;
+
+        SimplifyFeature(Feature delegate, double tolerance, boolean preserveTopology) {
+            super(delegate);
+            this.tolerance = tolerance;
+            this.preserveTopology = preserveTopology;
+        }
+
+        @Override
+        public Geometry geometry() {
+            if (geometry == null) {
+                geometry = super.geometry();
+            }
+            return geometry;
+        }
+
+        @Override
+        public Object get(String key) {
+            Geometry g = simplified != null ? simplified.get(key) : null;
+            if (g != null) {
+                return g;
+            }
+
+            Object obj = super.get(key);
+            if (obj instanceof Geometry) {
+                cache(key, (Geometry) obj);
+            }
+            return obj;
+        }
+
+        @Override
+        public Map<String, Object> map() {
+            Map<String,Object> map = new LinkedHashMap<String,Object>(delegate.map());
+            for (Map.Entry<String, Object> e : map.entrySet()) {
+                Object obj = e.getValue();
+                if (obj instanceof Geometry) {
+                    Geometry g = simplified != null ? simplified.get(e.getKey()) : null;
+                    if (g == null) {
+                        g = cache(e.getKey(), wrap((Geometry) obj));
+                    }
+                    e.setValue(g);
+                }
+            }
+            return map;
+        }
+
+        Geometry cache(String key, Geometry g) {
+            if (simplified == null) {
+                simplified = new HashMap<>();
+            }
+            simplified.put(key, g);
+            return g;
+        }
+
+        @Override
+        protected Geometry wrap(Geometry g) {
+            if (g.getNumPoints() < 3) {
+                // nothing to simplify
+                return g;
+            }
+
+            Geometry s = preserveTopology ? TopologyPreservingSimplifier.simplify(g, tolerance) :
+                DouglasPeuckerSimplifier.simplify(g, tolerance);
+            s.setUserData(g.getUserData());
+            return s;
+        }
+
+        @Override
+        public Feature put(String key, Object val) {
+            simplified = null;
+            geometry = null;
+            return super.put(key, val);
+        }
+
+        @Override
+        public Feature put(Geometry g) {
+            simplified = null;
+            geometry = null;
+            return super.put(g);
+        }
+    }
+
     /**
      * Sets the projection of features in the cursor, overriding any projection that exists.
      *
@@ -271,6 +413,86 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
+    /**
+     * Sorts features in the cursor by the specified sort criteria.
+     *
+     * @param sort The sort criteria.
+     *
+     * @return The sorted cursor.
+     *
+     * @see #sort(Comparator)
+     */
+    public FeatureCursor sort(List<Sort> sort) {
+        return sort(Features.comparator(sort));
+    }
+
+    /**
+     * Sorts features in the cursor with the specified comparator.
+     * <p>
+     * Sorting is done with an external merge sort so that memory use is bounded regardless of the number of
+     * features in the cursor. Features are sorted in memory in runs which are spilled to temporary files and merged
+     * as the sorted cursor is read. Use {@link #sort(Comparator, int)} to control the size of the runs.
+     * </p>
+     * @param comparator The comparator that determines feature ordering.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor sort(Comparator<Feature> comparator) {
+        return sort(comparator, SortCursor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Sorts features in the cursor with the specified comparator, holding at most <tt>bufferSize</tt> features in
+     * memory at a time.
+     *
+     * @param comparator The comparator that determines feature ordering.
+     * @param bufferSize Maximum number of features sorted in memory before spilling to disk.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor sort(Comparator<Feature> comparator, int bufferSize) {
+        return new SortCursor(this, comparator, bufferSize);
+    }
+
+    /**
+     * Returns the first <tt>n</tt> features of the cursor in sorted order.
+     * <p>
+     * This method is equivalent to <code>sort(comparator).limit(n)</code> but only ever holds <tt>n</tt> features
+     * in memory and never spills to disk.
+     * </p>
+     * @param comparator The comparator that determines feature ordering.
+     * @param n The number of features to return.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor top(Comparator<Feature> comparator, int n) {
+        return new TopCursor(this, comparator, n);
+    }
+
+    /**
+     * Processes features in the cursor on a pool of worker threads.
+     * <p>
+     * Features are read from this cursor on the calling thread and handed off in batches to <tt>threads</tt> worker
+     * threads. Calls to {@link #filter(Predicate)}, {@link #intersect(Envelope, boolean)},
+     * {@link #reproject(CoordinateReferenceSystem, CoordinateReferenceSystem)}, {@link #crs(CoordinateReferenceSystem)},
+     * {@link #simplify(double, boolean)}, {@link #select(Iterable)} and {@link #multify()} made on the returned
+     * cursor, before it is read, are evaluated on the worker threads. Any other wrapping is evaluated on the calling
+     * thread as usual. Predicates passed to the returned cursor must be thread safe.
+     * </p>
+     * <p>
+     * The number of batches in flight is bounded so memory use remains bounded regardless of how fast the cursor
+     * is consumed. When <tt>ordered</tt> is false features are returned as soon as a batch completes which avoids
+     * waiting on slow batches. Closing the returned cursor stops the worker threads and closes this cursor.
+     * </p>
+     * @param threads The number of worker threads.
+     * @param ordered Whether features must be returned in the order of this cursor.
+     *
+     * @return The parallel cursor.
+     */
+    public FeatureCursor parallel(int threads, boolean ordered) {
+        return new ParallelFeatureCursor(this, threads, ordered);
+    }
+
     @Override
     public FeatureCursor filter(Predicate<Feature> filter) {
         return wrap(super.filter(filter));
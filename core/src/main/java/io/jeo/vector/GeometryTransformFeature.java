@@ -14,7 +14,7 @@
  */
 package io.jeo.vector;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.vividsolutions.jts.geom.Geometry;
@@ -44,7 +44,7 @@ public class GeometryTransformFeature extends FeatureWrapper {
 
     @Override
     public Map<String, Object> map() {
-        Map<String,Object> map = new HashMap<String,Object>(super.map());
+        Map<String,Object> map = new LinkedHashMap<String,Object>(super.map());
         for (Map.Entry<String, Object> e : map.entrySet()) {
             Object obj = e.getValue();
             if (obj instanceof Geometry) {
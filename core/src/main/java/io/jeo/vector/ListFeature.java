@@ -85,9 +85,40 @@ public class ListFeature implements Feature {
         return id;
     }
 
+    /**
+     * The schema of the feature.
+     */
+    public Schema schema() {
+        return schema;
+    }
+
+    /**
+     * Gets an attribute of the feature by its index in the feature schema.
+     *
+     * @param i The index of the attribute.
+     *
+     * @return The attribute value.
+     */
+    public Object get(int i) {
+        return list.get(i);
+    }
+
+    /**
+     * Sets an attribute of the feature by its index in the feature schema.
+     *
+     * @param i The index of the attribute.
+     * @param val The new attribute value.
+     *
+     * @return This feature.
+     */
+    public ListFeature put(int i, Object val) {
+        list.set(i, val);
+        return this;
+    }
+
     @Override
     public boolean has(String key) {
-        return schema.field(key) != null;
+        return schema.indexOf(key) != -1;
     }
 
     @Override
@@ -98,9 +129,9 @@ public class ListFeature implements Feature {
 
     @Override
     public Geometry geometry() {
-        Field geo = schema.geometry();
-        if (geo != null) {
-            return (Geometry) get(geo.name());
+        int geo = schema.geometryIndex();
+        if (geo != -1) {
+            return (Geometry) list.get(geo);
         }
 
         for (Object obj : list) {
@@ -123,9 +154,10 @@ public class ListFeature implements Feature {
 
     @Override
     public Feature put(Geometry g) {
-        Field geo = schema.geometry();
-        if (geo != null) {
-            return put(geo.name(), g);
+        int geo = schema.geometryIndex();
+        if (geo != -1) {
+            list.set(geo, g);
+            return this;
         }
 
         for (int i = 0; i < list.size(); i++) {
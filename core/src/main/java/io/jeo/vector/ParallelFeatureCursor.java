@@ -0,0 +1,227 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.data.Cursor;
+import io.jeo.proj.Proj;
+import io.jeo.util.Predicate;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.osgeo.proj4j.CoordinateTransform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Feature cursor that evaluates a pipeline of per feature stages on a pool of worker threads.
+ * <p>
+ * Features are read from the underlying cursor on the calling thread in batches of {@link #BATCH_SIZE} and each
+ * batch is submitted to the worker pool, see {@link BatchFeatureCursor}. At most {@link #MAX_PENDING} batches per
+ * thread are in flight at once.
+ * </p>
+ * <p>
+ * Stages that transform geometries are evaluated eagerly by the worker threads so that the calling thread receives
+ * features that need no further processing.
+ * </p>
+ */
+class ParallelFeatureCursor extends BatchFeatureCursor {
+
+    /**
+     * Number of features handed to a worker at once.
+     */
+    static final int BATCH_SIZE = 128;
+
+    /**
+     * Maximum number of pending batches per worker thread.
+     */
+    static final int MAX_PENDING = 4;
+
+    Cursor<Feature> delegate;
+
+    List<Stage> stages = new ArrayList<>();
+    boolean materialize;
+
+    ParallelFeatureCursor(Cursor<Feature> delegate, int threads, boolean ordered) {
+        super("parallel", threads, ordered, MAX_PENDING);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public FeatureCursor filter(final Predicate<Feature> filter) {
+        Objects.requireNonNull(filter, "filter must not be null");
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                return filter.test(f) ? f : null;
+            }
+        }, false);
+    }
+
+    @Override
+    public FeatureCursor reproject(final CoordinateReferenceSystem from, final CoordinateReferenceSystem to) {
+        Objects.requireNonNull(to, "target crs must not be null");
+
+        // coordinate transforms are not thread safe, maintain them per worker
+        if (from != null) {
+            final ThreadLocal<CoordinateTransform> tx = new ThreadLocal<CoordinateTransform>() {
+                @Override
+                protected CoordinateTransform initialValue() {
+                    return Proj.transform(from, to);
+                }
+            };
+            return stage(new Stage() {
+                @Override
+                Feature apply(Feature f) {
+                    return new TransformFeature(f, tx.get());
+                }
+            }, true);
+        }
+
+        final ThreadLocal<Map<String,CoordinateTransform>> txs = new ThreadLocal<Map<String,CoordinateTransform>>() {
+            @Override
+            protected Map<String, CoordinateTransform> initialValue() {
+                return new HashMap<>();
+            }
+        };
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                return new ReprojectFeature(f, to, txs.get());
+            }
+        }, true);
+    }
+
+    @Override
+    public FeatureCursor crs(final CoordinateReferenceSystem crs) {
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                return new GeometryTransformFeature(f) {
+                    @Override
+                    protected Geometry wrap(Geometry g) {
+                        return Proj.crs(g, crs);
+                    }
+                };
+            }
+        }, true);
+    }
+
+    @Override
+    public FeatureCursor simplify(final double tolerance, final boolean preserveTopology) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance must not be negative");
+        }
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                return new SimplifyFeature(f, tolerance, preserveTopology);
+            }
+        }, true);
+    }
+
+    @Override
+    public FeatureCursor multify() {
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                return Features.multify(f);
+            }
+        }, true);
+    }
+
+    @Override
+    public FeatureCursor select(Iterable<String> fields) {
+        final List<String> list = new ArrayList<>();
+        for (String f : fields) {
+            list.add(f);
+        }
+        return stage(new Stage() {
+            @Override
+            Feature apply(Feature f) {
+                Map<String,Object> values = new LinkedHashMap<>(f.map());
+                values.keySet().retainAll(list);
+                return new MapFeature(f.id(), values);
+            }
+        }, false);
+    }
+
+    ParallelFeatureCursor stage(Stage stage, boolean transform) {
+        if (isStarted()) {
+            throw new IllegalStateException("Cursor has already been read from");
+        }
+        stages.add(stage);
+
+        // eagerly evaluate transformed geometries in the worker
+        materialize = materialize || transform;
+        return this;
+    }
+
+    @Override
+    protected Callable<List<Feature>> nextBatch() throws IOException {
+        if (!delegate.hasNext()) {
+            return null;
+        }
+
+        final List<Feature> in = new ArrayList<>(BATCH_SIZE);
+        while (in.size() < BATCH_SIZE && delegate.hasNext()) {
+            in.add(delegate.next());
+        }
+        return new Callable<List<Feature>>() {
+            @Override
+            public List<Feature> call() throws Exception {
+                return process(in);
+            }
+        };
+    }
+
+    List<Feature> process(List<Feature> in) {
+        List<Feature> out = new ArrayList<>(in.size());
+        for (Feature f : in) {
+            for (int i = 0; i < stages.size() && f != null; i++) {
+                f = stages.get(i).apply(f);
+            }
+            if (f != null) {
+                out.add(materialize ? new MapFeature(f.id(), f.map()) : f);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        }
+        finally {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Single step of the processing pipeline.
+     */
+    static abstract class Stage {
+        /**
+         * Processes a feature returning <code>null</code> to drop it from the results.
+         */
+        abstract Feature apply(Feature f);
+    }
+}
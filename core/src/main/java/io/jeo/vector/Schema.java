@@ -14,9 +14,12 @@
  */
 package io.jeo.vector;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
@@ -42,6 +45,12 @@ public class Schema implements Iterable<Field> {
     /** list of fields */
     List<Field> fields;
 
+    /** field name to index */
+    Map<String,Integer> index;
+
+    /** index of derived geometry field, or -1 */
+    int geometry;
+
     /**
      * Returns a new schema builder.
      * 
@@ -69,9 +78,7 @@ public class Schema implements Iterable<Field> {
      * @param fields List of fields 
      */
     public Schema(String name, String uri, List<Field> fields) {
-        this.name = name;
-        this.uri = uri;
-        this.fields = Collections.unmodifiableList(fields);
+        this(name, uri, null, fields);
     }
 
     /**
@@ -86,7 +93,19 @@ public class Schema implements Iterable<Field> {
         this.name = name;
         this.uri = uri;
         this.crs = crs;
-        this.fields = Collections.unmodifiableList(fields);
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+
+        index = new HashMap<>(this.fields.size() * 2);
+        geometry = -1;
+        for (int i = 0; i < this.fields.size(); i++) {
+            Field f = this.fields.get(i);
+            if (!index.containsKey(f.name())) {
+                index.put(f.name(), i);
+            }
+            if (geometry == -1 && f.geometry()) {
+                geometry = i;
+            }
+        }
     }
 
     /**
@@ -114,13 +133,16 @@ public class Schema implements Iterable<Field> {
      * </p>
      */
     public Field geometry() {
-        //TODO: store the derived result
-        for (Field f : this) {
-            if (f.geometry()) {
-                return f;
-            }
-        }
-        return null;
+        return geometry != -1 ? fields.get(geometry) : null;
+    }
+
+    /**
+     * Index of the derived geometry field of the schema, or <code>-1</code> if the schema has no geometry field.
+     *
+     * @see #geometry()
+     */
+    public int geometryIndex() {
+        return geometry;
     }
 
     /**
@@ -168,14 +190,8 @@ public class Schema implements Iterable<Field> {
      * @return The index position, or <code>-1</code>
      */
     public int indexOf(String name) {
-        //TODO: potentially add an index of name to field
-        for (int i = 0; i < fields.size(); i++) {
-            Field f = fields.get(i);
-            if (f.name().equals(name)) {
-                return i;
-            }
-        }
-        return -1;
+        Integer i = index.get(name);
+        return i != null ? i : -1;
     }
 
     /**
@@ -0,0 +1,531 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+import com.vividsolutions.jts.io.WKTReader;
+import io.jeo.data.Cursor;
+import io.jeo.proj.Proj;
+import io.jeo.util.Util;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Cursor that sorts features with an external merge sort.
+ * <p>
+ * Features are read from the underlying cursor in runs of at most <tt>bufferSize</tt> features. Each run is sorted
+ * in memory and, if the underlying cursor has more features than fit in a single run, spilled to a temporary file.
+ * The runs are then merged with a k-way merge so that at most one feature per run is held in memory at any time.
+ * If the total number of runs exceeds {@link #MAX_FAN_IN} runs are merged in multiple passes.
+ * </p>
+ * <p>
+ * Sorted features are returned as {@link MapFeature} instances. Geometry values retain their crs but any other user
+ * data attached to them is not preserved across a spill. Temporary files are deleted when the cursor is closed.
+ * </p>
+ */
+class SortCursor extends FeatureCursor {
+
+    static Logger LOG = LoggerFactory.getLogger(SortCursor.class);
+
+    /**
+     * Default number of features to sort in memory before spilling to disk.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 10000;
+
+    /**
+     * Maximum number of runs merged in a single pass.
+     */
+    static final int MAX_FAN_IN = 64;
+
+    Cursor<Feature> delegate;
+    Comparator<Feature> comparator;
+    int bufferSize;
+
+    /* in memory result, when everything fit in a single run */
+    Iterator<Feature> sorted;
+
+    /* on disk runs */
+    List<File> runs = new ArrayList<>();
+    PriorityQueue<RunReader> merge;
+
+    SpillCodec codec = new SpillCodec();
+
+    SortCursor(Cursor<Feature> delegate, Comparator<Feature> comparator, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("buffer size must be positive");
+        }
+        this.delegate = delegate;
+        this.comparator = comparator;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (sorted == null && merge == null) {
+            sort();
+        }
+        if (sorted != null) {
+            return sorted.hasNext();
+        }
+        return !merge.isEmpty();
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+        if (sorted != null) {
+            return sorted.next();
+        }
+
+        RunReader r = merge.poll();
+        Feature f = r.head;
+        if (r.advance()) {
+            merge.add(r);
+        }
+        else {
+            r.close();
+        }
+        return f;
+    }
+
+    void sort() throws IOException {
+        List<Feature> buf = new ArrayList<>();
+        try {
+            while (delegate.hasNext()) {
+                buf.add(delegate.next());
+                if (buf.size() == bufferSize) {
+                    runs.add(spill(buf));
+                    buf.clear();
+                }
+            }
+        }
+        finally {
+            delegate.close();
+        }
+
+        if (runs.isEmpty()) {
+            // everything fit in memory
+            Collections.sort(buf, comparator);
+            sorted = buf.iterator();
+            return;
+        }
+
+        if (!buf.isEmpty()) {
+            runs.add(spill(buf));
+            buf.clear();
+        }
+
+        LOG.debug("Merging {} sorted runs", runs.size());
+
+        while (runs.size() > MAX_FAN_IN) {
+            List<File> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<File> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                merged.add(group.size() > 1 ? merge(group) : group.get(0));
+            }
+            runs = merged;
+        }
+
+        merge = open(runs);
+    }
+
+    File spill(List<Feature> features) throws IOException {
+        Collections.sort(features, comparator);
+
+        File file = File.createTempFile("jeo", ".sort");
+        try (DataOutputStream out = output(file)) {
+            for (Feature f : features) {
+                codec.write(f, out);
+            }
+        }
+        return file;
+    }
+
+    File merge(List<File> group) throws IOException {
+        File file = File.createTempFile("jeo", ".sort");
+        PriorityQueue<RunReader> q = open(group);
+        try (DataOutputStream out = output(file)) {
+            while (!q.isEmpty()) {
+                RunReader r = q.poll();
+                codec.write(r.head, out);
+                if (r.advance()) {
+                    q.add(r);
+                }
+                else {
+                    r.close();
+                }
+            }
+        }
+        finally {
+            for (RunReader r : q) {
+                r.close();
+            }
+        }
+
+        for (File f : group) {
+            delete(f);
+        }
+        return file;
+    }
+
+    PriorityQueue<RunReader> open(List<File> files) throws IOException {
+        PriorityQueue<RunReader> q = new PriorityQueue<>(files.size(), new Comparator<RunReader>() {
+            @Override
+            public int compare(RunReader r1, RunReader r2) {
+                int c = comparator.compare(r1.head, r2.head);
+                // break ties by run order to keep the sort stable
+                return c != 0 ? c : Integer.compare(r1.order, r2.order);
+            }
+        });
+        for (int i = 0; i < files.size(); i++) {
+            RunReader r = new RunReader(files.get(i), i, codec);
+            if (r.advance()) {
+                q.add(r);
+            }
+            else {
+                r.close();
+            }
+        }
+        return q;
+    }
+
+    DataOutputStream output(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+    }
+
+    void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.debug("Unable to delete temporary file: " + file.getPath());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+        if (merge != null) {
+            for (RunReader r : merge) {
+                r.close();
+            }
+            merge.clear();
+        }
+        for (File f : runs) {
+            delete(f);
+        }
+        runs.clear();
+    }
+
+    /**
+     * Reads features back from a sorted run.
+     */
+    static class RunReader {
+
+        DataInputStream in;
+        int order;
+        SpillCodec codec;
+        Feature head;
+
+        RunReader(File file, int order, SpillCodec codec) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+            this.order = order;
+            this.codec = codec;
+        }
+
+        boolean advance() throws IOException {
+            head = codec.read(in);
+            return head != null;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Binary encoding of features for spilling to disk.
+     */
+    static class SpillCodec {
+
+        static final byte NULL = 0;
+        static final byte STRING = 1;
+        static final byte INTEGER = 2;
+        static final byte LONG = 3;
+        static final byte DOUBLE = 4;
+        static final byte FLOAT = 5;
+        static final byte SHORT = 6;
+        static final byte BYTE = 7;
+        static final byte BOOLEAN = 8;
+        static final byte DATE = 9;
+        static final byte GEOMETRY = 10;
+        static final byte GEOMETRY_EMPTY = 11;
+        static final byte BIG_DECIMAL = 12;
+        static final byte BIG_INTEGER = 13;
+        static final byte SERIALIZED = 14;
+
+        /* crs objects are not serializable so are kept in memory and referenced by index */
+        List<CoordinateReferenceSystem> crs = new ArrayList<>();
+        Map<CoordinateReferenceSystem,Integer> crsIndex = new IdentityHashMap<>();
+
+        WKBWriter wkbWriter2d = new WKBWriter(2, true);
+        WKBWriter wkbWriter3d = new WKBWriter(3, true);
+        WKBReader wkbReader = new WKBReader();
+
+        void write(Feature f, DataOutputStream out) throws IOException {
+            Map<String,Object> map = f.map();
+            out.writeBoolean(true);
+            writeString(f.id(), out);
+            out.writeInt(map.size());
+            for (Map.Entry<String,Object> e : map.entrySet()) {
+                writeString(e.getKey(), out);
+                writeValue(e.getValue(), out);
+            }
+        }
+
+        Feature read(DataInputStream in) throws IOException {
+            try {
+                if (!in.readBoolean()) {
+                    return null;
+                }
+            }
+            catch(EOFException e) {
+                return null;
+            }
+
+            String id = readString(in);
+            int n = in.readInt();
+            Map<String,Object> map = new LinkedHashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                String key = readString(in);
+                map.put(key, readValue(in));
+            }
+            return new MapFeature(id, map);
+        }
+
+        void writeValue(Object val, DataOutputStream out) throws IOException {
+            if (val == null) {
+                out.writeByte(NULL);
+            }
+            else if (val instanceof String) {
+                out.writeByte(STRING);
+                writeString((String) val, out);
+            }
+            else if (val instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) val);
+            }
+            else if (val instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) val);
+            }
+            else if (val instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) val);
+            }
+            else if (val instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) val);
+            }
+            else if (val instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) val);
+            }
+            else if (val instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) val);
+            }
+            else if (val instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) val);
+            }
+            else if (val.getClass() == Date.class) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) val).getTime());
+            }
+            else if (val instanceof Geometry) {
+                writeGeometry((Geometry) val, out);
+            }
+            else if (val instanceof BigDecimal) {
+                out.writeByte(BIG_DECIMAL);
+                writeString(val.toString(), out);
+            }
+            else if (val instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                writeString(val.toString(), out);
+            }
+            else if (val instanceof Serializable) {
+                out.writeByte(SERIALIZED);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream oout = new ObjectOutputStream(bytes)) {
+                    oout.writeObject(val);
+                }
+                writeBytes(bytes.toByteArray(), out);
+            }
+            else {
+                throw new IOException("Unable to spill value of type: " + val.getClass().getName());
+            }
+        }
+
+        Object readValue(DataInputStream in) throws IOException {
+            byte type = in.readByte();
+            switch(type) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString(in);
+                case INTEGER:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return in.readDouble();
+                case FLOAT:
+                    return in.readFloat();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case DATE:
+                    return new Date(in.readLong());
+                case GEOMETRY:
+                case GEOMETRY_EMPTY:
+                    return readGeometry(type, in);
+                case BIG_DECIMAL:
+                    return new BigDecimal(readString(in));
+                case BIG_INTEGER:
+                    return new BigInteger(readString(in));
+                case SERIALIZED:
+                    try (ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                        return oin.readObject();
+                    }
+                    catch(ClassNotFoundException e) {
+                        throw new IOException(e);
+                    }
+                default:
+                    throw new IOException("Unknown value type: " + type);
+            }
+        }
+
+        void writeGeometry(Geometry g, DataOutputStream out) throws IOException {
+            if (g.isEmpty()) {
+                // wkb can't represent all empty geometries
+                out.writeByte(GEOMETRY_EMPTY);
+                writeString(g.toText(), out);
+                out.writeInt(g.getSRID());
+            }
+            else {
+                out.writeByte(GEOMETRY);
+                boolean is3d = !Double.isNaN(g.getCoordinate().z);
+                writeBytes((is3d ? wkbWriter3d : wkbWriter2d).write(g), out);
+            }
+
+            CoordinateReferenceSystem c = Proj.crs(g);
+            Integer i = -1;
+            if (c != null) {
+                i = crsIndex.get(c);
+                if (i == null) {
+                    i = crs.size();
+                    crs.add(c);
+                    crsIndex.put(c, i);
+                }
+            }
+            out.writeInt(i);
+        }
+
+        Geometry readGeometry(byte type, DataInputStream in) throws IOException {
+            Geometry g;
+            try {
+                if (type == GEOMETRY_EMPTY) {
+                    g = new WKTReader().read(readString(in));
+                    g.setSRID(in.readInt());
+                }
+                else {
+                    g = wkbReader.read(readBytes(in));
+                }
+            }
+            catch(ParseException e) {
+                throw new IOException(e);
+            }
+
+            int i = in.readInt();
+            if (i > -1) {
+                g.setUserData(crs.get(i));
+            }
+            return g;
+        }
+
+        void writeString(String s, DataOutputStream out) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+            }
+            else {
+                writeBytes(s.getBytes(Util.UTF_8), out);
+            }
+        }
+
+        String readString(DataInputStream in) throws IOException {
+            byte[] bytes = readBytes(in);
+            return bytes != null ? new String(bytes, Util.UTF_8) : null;
+        }
+
+        void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        byte[] readBytes(DataInputStream in) throws IOException {
+            int n = in.readInt();
+            if (n < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[n];
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+}
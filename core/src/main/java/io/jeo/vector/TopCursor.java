@@ -0,0 +1,120 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import io.jeo.data.Cursor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Cursor that returns the first <tt>n</tt> features of the underlying cursor in sorted order.
+ * <p>
+ * Only a bounded heap of <tt>n</tt> features is kept in memory while the underlying cursor is consumed. Features
+ * that compare equal are returned in the order they were read.
+ * </p>
+ */
+class TopCursor extends FeatureCursor {
+
+    Cursor<Feature> delegate;
+    Comparator<Feature> comparator;
+    int n;
+
+    Entry[] top;
+    int i = -1;
+
+    TopCursor(Cursor<Feature> delegate, Comparator<Feature> comparator, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative");
+        }
+        this.delegate = delegate;
+        this.comparator = comparator;
+        this.n = n;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (top == null) {
+            top = select();
+            i = 0;
+        }
+        return i < top.length;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return hasNext() ? top[i++].feature : null;
+    }
+
+    Entry[] select() throws IOException {
+        final Comparator<Entry> cmp = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                int c = comparator.compare(e1.feature, e2.feature);
+                return c != 0 ? c : Long.compare(e1.seq, e2.seq);
+            }
+        };
+
+        if (n == 0) {
+            return new Entry[0];
+        }
+
+        // max heap, the root is the feature to evict
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Math.min(n, 1024), new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                return cmp.compare(e2, e1);
+            }
+        });
+
+        long seq = 0;
+        try {
+            while (delegate.hasNext()) {
+                Entry e = new Entry(delegate.next(), seq++);
+                if (heap.size() < n) {
+                    heap.add(e);
+                }
+                else if (cmp.compare(e, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(e);
+                }
+            }
+        }
+        finally {
+            delegate.close();
+        }
+
+        Entry[] sorted = heap.toArray(new Entry[heap.size()]);
+        Arrays.sort(sorted, cmp);
+        return sorted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    static class Entry {
+        Feature feature;
+        long seq;
+
+        Entry(Feature feature, long seq) {
+            this.feature = feature;
+            this.seq = seq;
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package io.jeo.vector;
 
+import io.jeo.data.Sort;
 import io.jeo.filter.Filters;
 import io.jeo.geom.Bounds;
 import io.jeo.util.Pair;
@@ -22,6 +23,9 @@ import io.jeo.util.Predicate;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
 import com.vividsolutions.jts.geom.Envelope;
+
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -97,6 +101,10 @@ public class VectorQueryPlan {
 
     /**
      * Marks {@link VectorQuery#sort()} as being handled natively.
+     * <p>
+     * Formats that handle {@link VectorQuery#offset()} or {@link VectorQuery#limit()} natively must also handle
+     * sorting natively, otherwise the results will be sorted after being paged.
+     * </p>
      */
     public void sorted() {
         sorted = true;
@@ -153,6 +161,10 @@ public class VectorQueryPlan {
 
     /**
      * Marks {@link VectorQuery#simplify()} as being handled natively.
+     * <p>
+     * The simplification tolerance is in units of the query result, so formats that don't also handle
+     * {@link VectorQuery#reproject()} natively should only handle simplification when no reprojection is requested.
+     * </p>
      */
     public void simplified() {
         simplified = true;
@@ -178,7 +190,8 @@ public class VectorQueryPlan {
      * <p>
      * For example, if a format is unable to process {@link VectorQuery#filter()} objects natively
      * then {@link #isFiltered()} should return <tt>false</tt> and this method should transform the
-     * cursor with {@link FeatureCursor#filter(Predicate)}.
+     * cursor with {@link FeatureCursor#filter(Predicate)}. The filter is compiled against the schema of the
+     * features being read, see {@link Filters#compiled(Filter)}.
      * </p>
      * @param cursor Cursor to augment.
      * 
@@ -192,15 +205,33 @@ public class VectorQueryPlan {
         }
 
         if (!Filters.isTrueOrNull(filter)) {
-            cursor = cursor.filter(filter);
+            cursor = cursor.filter(Filters.compiled(filter));
         }
 
         Integer offset = q.offset();
+        Integer limit = q.limit();
+
+        List<Sort> sort = q.sort();
+        if (!isSorted() && sort != null && !sort.isEmpty()) {
+            Comparator<Feature> cmp = Features.comparator(sort);
+            // when limited only the first offset + limit features need be kept around, as long as that fits
+            // in memory
+            if (!isLimited() && limit != null) {
+                long n = limit;
+                if (!isOffsetted() && offset != null) {
+                    n += offset;
+                }
+                cursor = n <= SortCursor.DEFAULT_BUFFER_SIZE ? cursor.top(cmp, (int) n) : cursor.sort(cmp);
+            }
+            else {
+                cursor = cursor.sort(cmp);
+            }
+        }
+
         if (!isOffsetted() && offset != null) {
             cursor = cursor.skip(offset);
         }
 
-        Integer limit = q.limit();
         if (!isLimited() && limit != null) {
             cursor = cursor.limit(limit);
         }
@@ -210,12 +241,17 @@ public class VectorQueryPlan {
             cursor = cursor.reproject(reproj.first, reproj.second);
         }
 
+        // simplify after reprojection so the tolerance is in units of the target crs
+        Double simplify = q.simplify();
+        if (!isSimplified() && simplify != null) {
+            cursor = cursor.simplify(simplify);
+        }
+
         Set<String> fields = q.fields();
         if (!isFields() && !fields.isEmpty()) {
             cursor = cursor.select(fields);
         }
 
-        //TODO: sorting
         return cursor;
     }
 
@@ -15,9 +15,12 @@
 package io.jeo.data.mem;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import io.jeo.data.Cursor;
@@ -25,6 +28,7 @@ import io.jeo.data.Dataset;
 import io.jeo.geom.GeomBuilder;
 import io.jeo.vector.FeatureWriteCursor;
 import io.jeo.data.Handle;
+import io.jeo.filter.Filter;
 import io.jeo.vector.ListFeature;
 import io.jeo.vector.VectorQuery;
 import io.jeo.vector.Feature;
@@ -89,6 +93,33 @@ public class MemoryTest {
         assertCovered(widgets.read(new VectorQuery().filter("cost < 12.0").offset(1)), 2);
     }
 
+    @Test
+    public void testCursorReadCompilesFilter() throws IOException {
+        MemVectorDataset widgets = (MemVectorDataset) mem.get("widgets");
+
+        final Filter<Feature> cheap = new VectorQuery().filter("cost < 12.0").filter();
+        final List<Schema> compiled = new ArrayList<Schema>();
+        Filter<Feature> filter = new Filter<Feature>() {
+            @Override
+            public boolean test(Feature f) {
+                return cheap.test(f);
+            }
+
+            @Override
+            public Filter<Feature> compile(Schema schema) {
+                compiled.add(schema);
+                return cheap.compile(schema);
+            }
+        };
+
+        assertCovered(widgets.read(new VectorQuery().filter(filter)), 1, 2);
+        assertEquals(2, widgets.read(new VectorQuery().filter(filter)).count());
+
+        // compiled once per read against the schema of the features
+        assertEquals(2, compiled.size());
+        assertSame(widgets.schema(), compiled.get(0));
+    }
+
     void assertCovered(Cursor<Feature> c, Integer... ids) {
         Set<Integer> s = Sets.newHashSet(ids);
         for (Feature f : c) {
@@ -18,13 +18,22 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.io.WKTReader;
 import io.jeo.vector.Feature;
 import io.jeo.filter.cql.CQL;
+import io.jeo.vector.ListFeature;
 import io.jeo.vector.MapFeature;
+import io.jeo.vector.Schema;
 import org.junit.Test;
 
 public class FilterTest {
@@ -180,4 +189,91 @@ public class FilterTest {
         assertTrue(CQL.parse("y > 5 or x = 5").test(f));
         assertTrue(CQL.parse("x = 5 or y > 5").test(f));
     }
+
+    @Test
+    public void testCompile() throws Exception {
+        Schema schema = Schema.build("widget")
+            .field("geom", Point.class).field("name", String.class).field("num", Integer.class)
+            .field("val", Double.class).schema();
+
+        GeometryFactory gf = new GeometryFactory();
+        List<Feature> features = Arrays.asList(
+            (Feature) new ListFeature("1", schema, gf.createPoint(new Coordinate(0, 0)), "one", 1, 1.5),
+            new ListFeature("2", schema, gf.createPoint(new Coordinate(5, 5)), "two", 2, Double.NaN),
+            new ListFeature("3", schema, null, null, null, null),
+            // values not matching the schema types
+            new ListFeature("4", schema, null, 4, 4L, 4),
+            new MapFeature("5", map("name", "five", "num", 5, "val", 5.5)));
+
+        for (String cql : Arrays.asList("num = 1", "num < 3", "num >= '2'", "num <> 1.7", "val > 1",
+            "val = 1.5", "name = 'two'", "name <> 'one'", "name like 't%'", "num in (1, 4, 5)",
+            "name is null", "num > 1 and val < 10", "num = 1 or name = 'two' or val > 5",
+            "not (num = 1 and name like 'o%')", "num + 1 > 2", "intersects(geom, POINT(0 0)) or num = 2",
+            "bbox(geom, -1, -1, 1, 1) and num = 1")) {
+
+            Filter<Feature> filter = CQL.parse(cql);
+            Filter<Feature> compiled = filter.compile(schema);
+            Filter<Feature> lazy = Filters.compiled(filter);
+
+            for (Feature f : features) {
+                assertEquals(cql + ": " + f.id(), filter.test(f), compiled.test(f));
+                assertEquals(cql + ": " + f.id(), filter.test(f), lazy.test(f));
+            }
+        }
+    }
+
+    @Test
+    public void testSpatialPrepared() throws Exception {
+        WKTReader wkt = new WKTReader();
+        Geometry poly = wkt.read("POLYGON ((0 0, 10 0, 10 10, 5 5, 0 10, 0 0))");
+
+        List<Geometry> geoms = new ArrayList<Geometry>();
+        for (String g : Arrays.asList("POINT (1 1)", "POINT (5 8)", "POINT (0 5)", "POINT (20 20)",
+            "LINESTRING (-5 5, 15 5)", "LINESTRING (1 1, 2 2)", "LINESTRING (12 0, 12 10)",
+            "POLYGON ((1 1, 2 1, 2 2, 1 2, 1 1))", "POLYGON ((-5 -5, 15 -5, 15 15, -5 15, -5 -5))",
+            "POLYGON ((8 -2, 12 -2, 12 2, 8 2, 8 -2))", "POLYGON ((0 0, 10 0, 10 10, 5 5, 0 10, 0 0))",
+            "POLYGON ((30 30, 31 30, 31 31, 30 30))", "GEOMETRYCOLLECTION EMPTY")) {
+            geoms.add(wkt.read(g));
+        }
+
+        for (Spatial.Type type : Spatial.Type.values()) {
+            Spatial<Feature> right = new Spatial<Feature>(type, new Property("geom"), new Literal(poly),
+                new Literal(3));
+            Spatial<Feature> left = new Spatial<Feature>(type, new Literal(poly), new Property("geom"),
+                new Literal(3));
+
+            for (Geometry g : geoms) {
+                Feature f = new MapFeature(map("geom", g));
+                assertEquals(type + " " + g, relate(type, g, poly, 3), right.test(f));
+                assertEquals(type + " " + g, relate(type, poly, g, 3), left.test(f));
+            }
+            assertFalse(right.test(new MapFeature(map("geom", null))));
+        }
+    }
+
+    boolean relate(Spatial.Type type, Geometry g1, Geometry g2, double d) {
+        switch(type) {
+            case EQUALS: return g1.equalsTopo(g2);
+            case INTERSECTS: return g1.intersects(g2);
+            case TOUCHES: return g1.touches(g2);
+            case OVERLAPS: return g1.overlaps(g2);
+            case DISJOINT: return g1.disjoint(g2);
+            case CROSSES: return g1.crosses(g2);
+            case COVERS: return g1.covers(g2);
+            case WITHIN: return g1.within(g2);
+            case CONTAINS: return g1.contains(g2);
+            case BBOX: return g1.getEnvelopeInternal().intersects(g2.getEnvelopeInternal());
+            case DWITHIN: return g1.isWithinDistance(g2, d);
+            case BEYOND: return !g1.isWithinDistance(g2, d);
+            default: throw new IllegalStateException();
+        }
+    }
+
+    Map<String,Object> map(Object... kvp) {
+        Map<String,Object> map = new HashMap<String, Object>();
+        for (int i = 0; i < kvp.length; i += 2) {
+            map.put((String) kvp[i], kvp[i+1]);
+        }
+        return map;
+    }
 }
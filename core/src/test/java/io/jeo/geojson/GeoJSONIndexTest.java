@@ -0,0 +1,62 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.Tests;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeoJSONIndexTest extends VectorApiTestBase {
+
+    GeoJSONDataset json;
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        Path dir = Tests.unzip(getClass().getResourceAsStream("states.zip"), Tests.newTmpDir());
+        return json = new GeoJSONDataset(dir.resolve("states.json").toFile(), true);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        File file = json.file();
+
+        GeoJSONDataset plain = new GeoJSONDataset(file);
+        assertNull(plain.index());
+
+        assertNotNull(json.index());
+        assertTrue(GeoJSONIndex.file(file).exists());
+
+        // up to date index used without the option
+        assertNotNull(plain.index());
+
+        Envelope bbox = new Envelope(-106, -105, 39, 40);
+        VectorQuery q = new VectorQuery().bounds(bbox);
+        assertEquals(new GeoJSONDataset(file).read(new VectorQuery()).intersect(bbox, true).count(), json.count(q));
+        assertEquals(1, json.read(q).count());
+
+        // modifying the file invalidates the index
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertNull(GeoJSONIndex.open(file));
+        assertNotNull(json.index());
+    }
+}
@@ -17,11 +17,17 @@ package io.jeo.geojson;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import io.jeo.data.Cursor;
@@ -34,6 +40,7 @@ import io.jeo.vector.Schema;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.GeometryCollection;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -209,6 +216,70 @@ public class GeoJSONReadWriteTest {
         assertFalse(c.hasNext());
     }
 
+    @Test
+    public void testParseFeatureCollectionBytes() throws Exception {
+        String json = "{\"type\":\"FeatureCollection\",\"features\":[" +
+            "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":{\"type\":\"LineString\"," +
+                "\"coordinates\":[[1.5,-2.25e1],[1E-3,1234567890123456789],[-0.0,3]]}," +
+                "\"properties\":{\"name\":\"caf\u00e9 \\u00e9\\\"\\n\",\"int\":42,\"dbl\":0.1," +
+                "\"big\":9223372036854775807,\"neg\":-7}}," +
+            "{\"type\":\"Feature\",\"id\":\"b\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2,3]}," +
+                "\"properties\":{\"name\":\"\u6771\u4eac \ud83c\udf0d\",\"int\":-1}}]}";
+
+        Cursor<Feature> chars = reader.features(json);
+        Cursor<Feature> bytes = reader.features(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(chars.hasNext());
+            assertTrue(bytes.hasNext());
+            Feature f1 = chars.next();
+            Feature f2 = bytes.next();
+
+            assertEquals(f1.id(), f2.id());
+            assertTrue(f1.geometry().equalsExact(f2.geometry()));
+            assertEquals(f1.map(), f2.map());
+        }
+        assertFalse(bytes.hasNext());
+        bytes.close();
+    }
+
+    @Test
+    public void testParseFeatureCollectionFields() throws Exception {
+        String json = "{\"type\":\"FeatureCollection\",\"features\":[" +
+            "{\"type\":\"Feature\",\"bbox\":[0,0,1,1],\"foreign\":{\"a\":{\"b\":[1,{}]}}," +
+                "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]}," +
+                "\"properties\":{\"skip1\":\"a \\\"quoted}]\\\\\",\"name\":\"one\"," +
+                "\"skip2\":{\"x\":[1,2,{\"y\":\"]\"}]},\"skip3\":-1.5e3,\"skip4\":null,\"num\":1}}," +
+            "{\"type\":\"Feature\",\"geometry\":null,\"properties\":{\"name\":\"two\",\"skip5\":true}}]}";
+
+        Cursor<Feature> c = new GeoJSONCursor(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            new HashSet<>(Arrays.asList("name", "num")));
+
+        assertTrue(c.hasNext());
+        Feature f = c.next();
+        assertNull(f.geometry());
+        assertEquals("one", f.get("name"));
+        assertEquals(1l, f.get("num"));
+        assertFalse(f.has("skip1") || f.has("skip2") || f.has("skip3") || f.has("skip4"));
+
+        assertTrue(c.hasNext());
+        f = c.next();
+        assertEquals("two", f.get("name"));
+        assertFalse(f.has("skip5"));
+
+        assertFalse(c.hasNext());
+
+        // geometry only
+        c = new GeoJSONCursor(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            Collections.singleton("geometry"));
+        assertTrue(c.hasNext());
+        f = c.next();
+        assertTrue(f.has("geometry"));
+        assertFalse(f.has("name"));
+        assertEquals(1, f.map().size());
+        assertTrue(gf.createPoint(new Coordinate(1, 2)).equalsExact(f.geometry()));
+    }
+
     @Test
     public void testParseNoFeatureIds() throws Exception {
         Cursor<Feature> c = reader.features(featureCollectionText(true, true, true, false));
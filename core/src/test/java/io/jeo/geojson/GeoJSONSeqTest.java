@@ -0,0 +1,116 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import static io.jeo.vector.VectorQuery.all;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.jeo.Tests;
+import io.jeo.geom.Geom;
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import org.junit.Test;
+
+public class GeoJSONSeqTest extends VectorApiTestBase {
+
+    GeoJSONSeqDataset seq;
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        Path dir = Tests.unzip(getClass().getResourceAsStream("states.zip"), Tests.newTmpDir());
+        GeoJSONDataset json = new GeoJSONDataset(dir.resolve("states.json").toFile());
+
+        seq = new GeoJSONSeqDataset(dir.resolve("states.geojsonl").toFile());
+        try (FeatureCursor c = json.read(all())) {
+            try (FeatureAppendCursor a = seq.append(all())) {
+                while (c.hasNext()) {
+                    Features.copy(c.next(), a.next());
+                    a.write();
+                }
+            }
+        }
+        return seq;
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        File file = seq.file();
+
+        // splits much smaller than a record
+        try (FeatureCursor c1 = seq.read(all())) {
+            try (FeatureCursor c2 = new GeoJSONSeqSplitCursor(file, 4, 1024, Proj.EPSG_4326)) {
+                int n = 0;
+                while (c1.hasNext()) {
+                    assertTrue(c2.hasNext());
+
+                    Feature f1 = c1.next();
+                    Feature f2 = c2.next();
+                    assertEquals(f1.id(), f2.id());
+                    assertEquals(f1.get("STATE_NAME"), f2.get("STATE_NAME"));
+                    assertTrue(f1.geometry().equalsExact(f2.geometry()));
+                    n++;
+                }
+                assertFalse(c2.hasNext());
+                assertEquals(49, n);
+            }
+        }
+
+        assertEquals(49, new GeoJSONSeqDataset(file, 3).read(all()).count());
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        File file = seq.file();
+
+        // record separators, blank lines and an unterminated last record
+        String rs = "\u001e";
+        Files.write(file.toPath(), (
+            rs + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]},\"properties\":{}}\n" +
+            "\r\n" +
+            "{\"type\":\"Feature\",\"id\":\"two\",\"geometry\":null,\"properties\":{\"name\":\"two\"}}"
+        ).getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+        try (FeatureAppendCursor a = seq.append(all())) {
+            a.next().put(Geom.point(3, 4)).put("name", "three");
+            a.write();
+        }
+
+        assertEquals(3, seq.count(all()));
+        try (FeatureCursor c = seq.read(all())) {
+            Feature f = c.next();
+            assertEquals("0", f.id());
+            assertTrue(Geom.point(1, 2).equalsExact(f.geometry()));
+            assertEquals("two", c.next().id());
+
+            f = c.next();
+            assertEquals("three", f.get("name"));
+            assertTrue(Geom.point(3, 4).equalsExact(f.geometry()));
+            assertFalse(c.hasNext());
+        }
+    }
+}
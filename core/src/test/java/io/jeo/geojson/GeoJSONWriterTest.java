@@ -16,10 +16,13 @@ package io.jeo.geojson;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import io.jeo.geom.Geom;
 import io.jeo.json.JSONArray;
@@ -138,6 +141,62 @@ public class GeoJSONWriterTest {
         assertNotNull(obj.get("properties"));
     }
 
+    @Test
+    public void testDoubles() throws Exception {
+        Random r = new Random(0);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            switch(i % 4) {
+                case 0: values[i] = r.nextDouble() * 360 - 180; break;
+                case 1: values[i] = Math.round(r.nextDouble() * 1e6) / 1e3; break;
+                case 2: values[i] = r.nextGaussian() * 1e-5; break;
+                default: values[i] = Double.longBitsToDouble(r.nextLong());
+            }
+        }
+
+        w.array();
+        for (double v : values) {
+            w.value(v);
+        }
+        w.value(0.0).value(-0.0).value(1e300).value(Double.NaN);
+        w.endArray();
+
+        JSONArray arr = (JSONArray) JSONValue.parse(string());
+        for (int i = 0; i < values.length; i++) {
+            double v = values[i];
+            assertEquals(Double.isNaN(v) || Double.isInfinite(v) ? null : v, arr.get(i));
+        }
+        assertEquals(0.0, arr.get(values.length));
+        assertEquals(0.0, (Double) arr.get(values.length+1), 0);
+        assertEquals(1e300, arr.get(values.length+2));
+        assertNull(arr.get(values.length+3));
+    }
+
+    @Test
+    public void testPrecision() throws Exception {
+        w.precision(3).lineString(Geom.lineString(1.23456, -0.0004, 10, 2.5, 0.9999, 1e-7));
+        assertTrue(string().contains("[[1.235,0.0],[10.0,2.5],[1.0,0.0]]"));
+
+        w = new GeoJSONWriter(new StringWriter());
+        w.point(Geom.point(0.1, 1234567.0000001));
+        assertTrue(string().contains("[0.1,1234567.0000001]"));
+    }
+
+    @Test
+    public void testOutputStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        GeoJSONWriter w = new GeoJSONWriter(out);
+        Map<String,Object> map = new HashMap<>();
+        map.put("geom", Geom.point(1.5, 2));
+        map.put("name", "caf\u00e9 \u6771\u4eac \ud83c\udf0d");
+        w.feature(new MapFeature("one", map)).flush();
+
+        StringWriter sw = new StringWriter();
+        new GeoJSONWriter(sw).feature(new MapFeature("one", map));
+        assertEquals(sw.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     String string() {
         return w.getWriter().toString();
     }
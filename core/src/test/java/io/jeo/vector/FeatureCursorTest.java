@@ -14,14 +14,29 @@
  */
 package io.jeo.vector;
 
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
 import io.jeo.geom.Geom;
 import io.jeo.data.Cursors;
 import io.jeo.proj.Proj;
+import io.jeo.util.Predicate;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FeatureCursorTest {
 
@@ -37,4 +52,129 @@ public class FeatureCursorTest {
         assertEquals(Proj.EPSG_900913, Features.crs(f));
         assertEquals(Proj.EPSG_900913, Features.schema("feature", f).crs());
     }
+
+    @Test
+    public void testSimplify() throws Exception {
+        Schema schema = Schema.build("test").field("geo", LineString.class).schema();
+        Feature f = new ListFeature(schema, Geom.lineString(0,0, 1,0.01, 2,0, 3,0.01, 4,0));
+
+        Feature s = FeatureCursor.wrap(Cursors.single(f)).crs(Proj.EPSG_4326).simplify(0.1).first().get();
+        assertEquals(2, s.geometry().getNumPoints());
+        assertEquals(Proj.EPSG_4326, Features.crs(s));
+
+        s = FeatureCursor.wrap(Cursors.single(f)).simplify(0.1, true).first().get();
+        assertEquals(2, s.geometry().getNumPoints());
+
+        s = FeatureCursor.wrap(Cursors.single(f)).simplify(0.001).first().get();
+        assertEquals(5, s.geometry().getNumPoints());
+
+        // simplified once, until the geometry changes
+        s = FeatureCursor.wrap(Cursors.single(f)).simplify(0.1).first().get();
+        Geometry g = s.geometry();
+        assertSame(g, s.geometry());
+        Object geo = s.get("geo");
+        assertSame(geo, s.get("geo"));
+        assertSame(geo, s.map().get("geo"));
+
+        s.put("geo", Geom.lineString(0,0, 1,0.01, 2,0));
+        assertNotSame(g, s.geometry());
+        assertEquals(2, s.geometry().getNumPoints());
+
+        // reprojection returns a new geometry on every access, the simplified geometry is still computed once
+        f = new ListFeature(schema, Geom.lineString(0,0, 1,0.01, 2,0, 3,0.01, 4,0));
+        s = FeatureCursor.wrap(Cursors.single(f)).crs(Proj.EPSG_4326).reproject(Proj.EPSG_900913).simplify(0.1)
+            .first().get();
+        g = s.geometry();
+        assertSame(g, s.geometry());
+        geo = s.get("geo");
+        assertSame(geo, s.get("geo"));
+        assertSame(geo, s.map().get("geo"));
+        assertSame(geo, s.map().get("geo"));
+        assertTrue(((Geometry) geo).equalsExact(g));
+    }
+
+    @Test
+    public void testSort() throws Exception {
+        Schema schema = Schema.build("test").field("geo", Point.class).field("n", Integer.class).schema();
+
+        List<Feature> features = new ArrayList<>();
+        Random r = new Random(0);
+        for (int i = 0; i < 500; i++) {
+            features.add(new ListFeature(String.valueOf(i), schema, Geom.point(i, i), r.nextInt(100)));
+        }
+
+        Comparator<Feature> cmp = new Comparator<Feature>() {
+            @Override
+            public int compare(Feature f1, Feature f2) {
+                return ((Integer) f1.get("n")).compareTo((Integer) f2.get("n"));
+            }
+        };
+
+        List<Feature> expected = new ArrayList<>(features);
+        Collections.sort(expected, cmp);
+
+        // small buffer forces spilling and multiple merge passes
+        assertSorted(expected, FeatureCursor.wrap(Cursors.create(features)).sort(cmp, 3));
+        assertSorted(expected, FeatureCursor.wrap(Cursors.create(features)).sort(cmp));
+        assertSorted(expected.subList(0, 10), FeatureCursor.wrap(Cursors.create(features)).top(cmp, 10));
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        Schema schema = Schema.build("test").field("geo", Point.class).field("n", Integer.class).schema();
+
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            features.add(new ListFeature(String.valueOf(i), schema, Proj.crs(Geom.point(i % 180, 0), Proj.EPSG_4326), i));
+        }
+
+        Predicate<Feature> even = new Predicate<Feature>() {
+            @Override
+            public boolean test(Feature f) {
+                return ((Integer) f.get("n")) % 2 == 0;
+            }
+        };
+
+        int i = 0;
+        for (Feature f : FeatureCursor.wrap(Cursors.create(features)).parallel(4, true)
+            .filter(even).reproject(Proj.EPSG_900913)) {
+            assertEquals(i, f.get("n"));
+            assertEquals(Proj.reproject(Geom.point(i % 180, 0), Proj.EPSG_4326, Proj.EPSG_900913), f.geometry());
+            i += 2;
+        }
+        assertEquals(1000, i);
+
+        Set<Object> found = new HashSet<>();
+        for (Feature f : FeatureCursor.wrap(Cursors.create(features)).parallel(3, false).filter(even)) {
+            found.add(f.get("n"));
+        }
+        assertEquals(500, found.size());
+
+        FeatureCursor c = FeatureCursor.wrap(Cursors.create(features)).parallel(2, true).filter(new Predicate<Feature>() {
+            @Override
+            public boolean test(Feature f) {
+                throw new IllegalStateException("expected");
+            }
+        });
+        try {
+            c.hasNext();
+            fail();
+        }
+        catch(IllegalStateException expected) {
+        }
+        finally {
+            c.close();
+        }
+    }
+
+    void assertSorted(List<Feature> expected, FeatureCursor cursor) throws Exception {
+        int i = 0;
+        for (Feature f : cursor) {
+            Feature e = expected.get(i++);
+            assertEquals(e.id(), f.id());
+            assertEquals(e.get("n"), f.get("n"));
+            assertEquals(e.geometry(), f.geometry());
+        }
+        assertEquals(expected.size(), i);
+    }
 }
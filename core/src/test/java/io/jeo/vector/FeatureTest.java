@@ -20,8 +20,11 @@ import io.jeo.geom.Geom;
 import org.junit.Test;
 
 import com.google.common.collect.Maps;
+import com.vividsolutions.jts.geom.Point;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class FeatureTest {
 
@@ -41,4 +44,32 @@ public class FeatureTest {
 
         assertEquals(f1, f2);
     }
+
+    @Test
+    public void testListFeatureIndexAccess() throws Exception {
+        SchemaBuilder sb = Schema.build("wide");
+        for (int i = 0; i < 100; i++) {
+            sb.field("f" + i, Integer.class);
+        }
+        Schema schema = sb.field("geom", Point.class).field("f0", String.class).schema();
+
+        assertEquals(42, schema.indexOf("f42"));
+        assertEquals(0, schema.indexOf("f0"));
+        assertEquals(-1, schema.indexOf("foo"));
+        assertEquals(100, schema.geometryIndex());
+        assertEquals("geom", schema.geometry().name());
+
+        ListFeature f = new ListFeature("1", schema);
+        f.put("f42", 42).put(Geom.point(1, 2));
+        f.put(43, 43);
+
+        assertEquals(42, f.get(42));
+        assertEquals(43, f.get("f43"));
+        assertEquals(Geom.point(1, 2), f.get(100));
+        assertEquals(Geom.point(1, 2), f.geometry());
+        assertTrue(f.has("f99"));
+        assertFalse(f.has("foo"));
+
+        assertEquals(-1, Schema.build("flat").field("name", String.class).schema().geometryIndex());
+    }
 }
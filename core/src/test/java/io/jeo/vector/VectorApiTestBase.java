@@ -17,6 +17,10 @@ package io.jeo.vector;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -188,6 +192,20 @@ public abstract class VectorApiTestBase {
         assertCount(49, data, "MISSING > 5 OR P_MALE IS NOT NULL");
     }
 
+    @Test
+    public void testCursorSort() throws Exception {
+        assertEquals(Arrays.asList("CA", "NY", "TX"),
+            abbrs(data.read(new VectorQuery().sort("-SAMP_POP").limit(3))));
+        assertEquals(Arrays.asList("AR", "AZ", "CA"),
+            abbrs(data.read(new VectorQuery().sort("STATE_ABBR").offset(1).limit(3))));
+
+        List<String> all = abbrs(data.read(new VectorQuery().sort("+STATE_ABBR")));
+        assertEquals(49, all.size());
+        List<String> sorted = new ArrayList<>(all);
+        Collections.sort(sorted);
+        assertEquals(sorted, all);
+    }
+
     @Test
     public void testFeature() throws Exception {
         Cursor<Feature> cursor = data.read(new VectorQuery());
@@ -246,6 +264,19 @@ public abstract class VectorApiTestBase {
         assertEquals(3792553, ((Number)next.get("SAMP_POP")).intValue());
     }
 
+    List<String> abbrs(Cursor<Feature> cursor) throws IOException {
+        List<String> abbrs = new ArrayList<>();
+        try {
+            while (cursor.hasNext()) {
+                abbrs.add((String) cursor.next().get("STATE_ABBR"));
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return abbrs;
+    }
+
     void assertNotCovered(Cursor<Feature> cursor, String... abbrs) throws IOException {
         final Set<String> set = Sets.newHashSet(abbrs);
         try {
@@ -18,7 +18,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,6 +27,8 @@ import io.jeo.vector.Schema;
 import io.jeo.util.Key;
 import io.jeo.util.Messages;
 
+import static io.jeo.util.Util.set;
+
 public class CSV extends FileVectorDriver<CSVDataset> {
 
     public static final Key<Character> DELIM = new Key<Character>("delim", Character.class, ',');
@@ -38,6 +39,34 @@ public class CSV extends FileVectorDriver<CSVDataset> {
 
     public static final Key<Object> Y = new Key<Object>("y", Object.class, "y");
 
+    /**
+     * Number of rows sampled to infer column types, a negative value samples all rows and <tt>0</tt> disables
+     * type inference.
+     */
+    public static final Key<Integer> SAMPLE = new Key<Integer>("sample", Integer.class, 100);
+
+    /**
+     * Number of threads used to decode the file when reading, defaults to <tt>1</tt>.
+     * <p>
+     * With more than one thread the file is split into ranges of records that are decoded in parallel.
+     * </p>
+     */
+    public static final Key<Integer> THREADS = new Key<Integer>("threads", Integer.class, 1);
+
+    /**
+     * Flag controlling whether features decoded in parallel are returned in file order, defaults to
+     * <tt>true</tt>.
+     */
+    public static final Key<Boolean> ORDERED = new Key<Boolean>("ordered", Boolean.class, true);
+
+    /**
+     * Maintain a sidecar row offset index (<tt>&lt;file>.idx</tt>) for the file, defaults to <tt>false</tt>.
+     * <p>
+     * An existing up to date index is used regardless of this option.
+     * </p>
+     */
+    public static final Key<Boolean> INDEX = new Key<Boolean>("index", Boolean.class, false);
+
     public static CSVDataset open(Path path, CSVOpts csvOpts) throws IOException {
         return new CSVDataset(path.toFile(), csvOpts);
     }
@@ -49,7 +78,7 @@ public class CSV extends FileVectorDriver<CSVDataset> {
 
     @Override
     public List<Key<?>> keys() {
-        return (List) Arrays.asList(FILE, DELIM, HEADER, X, Y);
+        return (List) Arrays.asList(FILE, DELIM, HEADER, X, Y, SAMPLE, THREADS, ORDERED, INDEX);
     }
 
     @Override
@@ -77,18 +106,22 @@ public class CSV extends FileVectorDriver<CSVDataset> {
 
     @Override
     protected boolean canCreate(File file, Map<?, Object> opts, Messages msgs) {
-        //TODO: implement
-        Messages.of(msgs).report("Creation unsupported");
-        return false;
+        if (!HEADER.get(opts)) {
+            Messages.of(msgs).report("Creation requires a header");
+            return false;
+        }
+        return true;
     }
 
     @Override
     protected CSVDataset create(File file, Map<?, Object> opts, Schema schema) throws IOException {
-        throw new UnsupportedOperationException();
+        return CSVDataset.create(file, CSVOpts.fromMap(opts), schema);
     }
 
+    static final Set<Capability> CAPABILITIES = set(APPEND);
+
     @Override
     public Set<Capability> capabilities() {
-        return Collections.emptySet();
+        return CAPABILITIES;
     }
 }
@@ -0,0 +1,75 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.Field;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Appends features to a CSV file, one record per feature.
+ * <p>
+ * Values are written in the order of the columns of the file. The geometry is encoded into its columns by the
+ * {@link CSVHandler} of the dataset. Feature identifiers are not written, they are row numbers when read back.
+ * </p>
+ */
+public class CSVAppendCursor extends FeatureAppendCursor {
+
+    CSVWriter writer;
+    CSVHandler handler;
+    Schema schema;
+    Feature next;
+
+    public CSVAppendCursor(CSVWriter writer, CSVDataset csv) {
+        this.writer = writer;
+        this.handler = csv.handler;
+        this.schema = csv.schema;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return next = new ListFeature(schema);
+    }
+
+    @Override
+    public CSVAppendCursor write() throws IOException {
+        Geometry g = next.geometry();
+
+        // the first field is the geometry, the rest are the columns of the file
+        List<Field> fields = schema.fields();
+        for (int i = 1; i < fields.size(); i++) {
+            if (!handler.geom(g, i - 1, writer)) {
+                writer.value(next.get(fields.get(i).name()));
+            }
+        }
+        writer.endRecord();
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        writer = null;
+    }
+}
@@ -27,13 +27,22 @@ public class CSVCursor extends FeatureCursor {
     CSVDataset csv;
     CsvReader reader;
     Feature next;
-    int i;
+    long i;
 
     public CSVCursor(CsvReader reader, CSVDataset csv) throws FileNotFoundException {
+        this(reader, csv, 0);
+    }
+
+    /**
+     * Creates a cursor over a reader positioned at a specific row.
+     *
+     * @param row The number of the next row of the reader.
+     */
+    public CSVCursor(CsvReader reader, CSVDataset csv, long row) throws FileNotFoundException {
         this.reader = reader;
         this.csv = csv;
         next = null;
-        i = 0;
+        i = row;
     }
 
     @Override
@@ -16,19 +16,27 @@ package io.jeo.csv;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import io.jeo.data.FileData;
 import io.jeo.geom.Bounds;
 import io.jeo.util.Key;
+import io.jeo.util.Pair;
 import io.jeo.util.Util;
 import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.Field;
 import io.jeo.vector.ListFeature;
 import io.jeo.vector.Schema;
 import io.jeo.vector.SchemaBuilder;
@@ -54,6 +62,58 @@ public class CSVDataset implements VectorDataset, FileData {
     /** handler for specific csv flavor */
     CSVHandler handler;
 
+    /** column types, <code>null</code> or missing entries are determined per value */
+    Class<?>[] types;
+
+    /** sidecar row index */
+    CSVIndex index;
+
+    /**
+     * Creates a new CSV file with a header for the fields of a schema.
+     * <p>
+     * The geometry is stored in the x/y or wkt columns named by the options, which are added to the header when not
+     * fields of the schema. The types of the schema fields are registered as column type mappings with the options.
+     * </p>
+     */
+    public static CSVDataset create(File file, CSVOpts opts, Schema schema) throws IOException {
+        if (!opts.header()) {
+            throw new IllegalArgumentException("Creating a csv file requires a header");
+        }
+
+        List<String> cols = new ArrayList<String>();
+        for (Field fld : schema) {
+            if (!fld.geometry()) {
+                cols.add(fld.name());
+                opts.map(fld.name(), fld.type());
+            }
+        }
+
+        if (opts.getWktCol() != null) {
+            add(opts.getWktCol(), cols);
+        }
+        else if (opts.getXcol() != null && opts.getYcol() != null) {
+            add(opts.getXcol(), cols);
+            add(opts.getYcol(), cols);
+        }
+        else {
+            throw new IllegalArgumentException("Creating a csv file requires named geometry columns");
+        }
+
+        try (CSVWriter w = new CSVWriter(Files.newBufferedWriter(file.toPath(), Util.UTF_8), opts.delimiter())) {
+            w.header(cols.toArray(new String[cols.size()]));
+        }
+        return new CSVDataset(file, opts);
+    }
+
+    static void add(String col, List<String> cols) {
+        for (String c : cols) {
+            if (c.equalsIgnoreCase(col)) {
+                return;
+            }
+        }
+        cols.add(col);
+    }
+
     public CSVDataset(File file) throws IOException {
         this(file, new CSVOpts());
     }
@@ -84,26 +144,81 @@ public class CSVDataset implements VectorDataset, FileData {
         SchemaBuilder sb = Schema.build(name());
         sb.field("geometry", Geometry.class);
 
-        if (opts.header()) {
-            //read first row
-            CsvReader r = reader();
-            r.readHeaders();
-
-            try {
+        CsvReader r = reader();
+        try {
+            String[] cols = null;
+            if (opts.header()) {
+                //read first row
+                r.readHeaders();
                 handler.header(r);
+                cols = r.getHeaders();
+            }
 
-                for (String col : r.getHeaders()) {
-                    sb.field(col, Object.class);
+            types = types(r, cols);
+
+            if (cols != null) {
+                for (int i = 0; i < cols.length; i++) {
+                    sb.field(cols[i], types[i]);
                 }
             }
-            finally {
-                r.close();
-            }
         }
-        
+        finally {
+            r.close();
+        }
+
         schema = sb.schema();
     }
 
+    /**
+     * Determines column types by sampling rows, and then applying any explicit type mappings.
+     */
+    Class<?>[] types(CsvReader r, String[] cols) throws IOException {
+        Class<?>[] types = new Class<?>[cols != null ? cols.length : 0];
+
+        int sample = opts.sample();
+        if (sample != 0) {
+            for (int row = 0; (sample < 0 || row < sample) && r.readRecord(); row++) {
+                int n = r.getColumnCount();
+                if (n > types.length) {
+                    types = Arrays.copyOf(types, n);
+                }
+                for (int i = 0; i < n; i++) {
+                    types[i] = CSVTypes.widen(types[i], r.get(i));
+                }
+            }
+        }
+
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == null) {
+                types[i] = sample != 0 ? String.class : Object.class;
+            }
+        }
+
+        for (Pair<Object,Class<?>> m : opts.mappings) {
+            int i = column(m.first, cols);
+            if (i >= types.length) {
+                types = Arrays.copyOf(types, i+1);
+            }
+            types[i] = m.second;
+        }
+
+        return types;
+    }
+
+    int column(Object col, String[] cols) {
+        if (col instanceof Integer) {
+            return (Integer) col;
+        }
+        if (cols != null) {
+            for (int i = 0; i < cols.length; i++) {
+                if (cols[i].equalsIgnoreCase(col.toString())) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No such column: " + col);
+    }
+
     @Override
     public String name() {
         return Util.base(file.getName());
@@ -127,17 +242,52 @@ public class CSVDataset implements VectorDataset, FileData {
 
     @Override
     public long count(VectorQuery q) throws IOException {
+        if (q.isAll()) {
+            CSVIndex idx = index();
+            if (idx != null) {
+                long n = idx.count();
+                if (q.offset() != null) {
+                    n = Math.max(0, n - q.offset());
+                }
+                if (q.limit() != null) {
+                    n = Math.min(n, q.limit());
+                }
+                return n;
+            }
+        }
         return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        CsvReader reader = reader();
-        if (opts.header()) {
-            reader.readHeaders();
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+
+        // with no filter or sort the offset is a row number, seek close to it when indexed
+        Integer offset = q.offset();
+        CSVIndex idx = offset != null && q.isAll() && !q.isSorted() ? index() : null;
+
+        FeatureCursor cursor;
+        if (idx != null && idx.count() > 0) {
+            long row = idx.row(offset);
+            CsvReader reader = reader(idx.offset(offset));
+            while (row < offset && reader.skipRecord()) {
+                row++;
+            }
+            cursor = new CSVCursor(reader, this, row);
+            qp.offsetted();
+        }
+        else if (opts.threads() > 1 && q.limit() == null) {
+            cursor = new CSVSplitCursor(this, opts.threads(), opts.ordered());
+        }
+        else {
+            CsvReader reader = reader();
+            if (opts.header()) {
+                reader.readHeaders();
+            }
+            cursor = new CSVCursor(reader, this);
         }
 
-        return new VectorQueryPlan(q).apply(new CSVCursor(reader, this));
+        return qp.apply(cursor);
     }
 
     @Override
@@ -147,34 +297,78 @@ public class CSVDataset implements VectorDataset, FileData {
 
     @Override
     public FeatureAppendCursor append(VectorQuery q) throws IOException {
-        throw new UnsupportedOperationException();
+        if (!opts.header()) {
+            throw new IOException("Appending requires a header");
+        }
+
+        boolean newline = !endsWithNewline();
+
+        Writer w = Files.newBufferedWriter(file.toPath(), Util.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (newline) {
+            // terminate the last record
+            w.write('\n');
+        }
+        return new CSVAppendCursor(new CSVWriter(w, opts.delimiter()), this);
+    }
+
+    boolean endsWithNewline() throws IOException {
+        if (Util.isEmpty(file)) {
+            return true;
+        }
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, ch.size() - 1);
+            return b.get(0) == '\n' || b.get(0) == '\r';
+        }
     }
 
     public void close() {
+        index = null;
+    }
+
+    /**
+     * Returns the sidecar index of the file, building it when the dataset is indexed.
+     *
+     * @return The index, or <code>null</code> if no up to date index is available.
+     */
+    CSVIndex index() throws IOException {
+        if (index != null && index.isValid(file, opts.header())) {
+            return index;
+        }
+
+        index = CSVIndex.open(file, opts.header());
+        if (index == null && opts.index()) {
+            index = CSVIndex.build(this);
+        }
+        return index;
     }
 
     CsvReader reader() throws IOException {
         return new CsvReader(Files.newBufferedReader(file.toPath(), Util.UTF_8), opts.delimiter());
     }
 
-    Feature feature(int i, CsvReader r) throws IOException {
+    /**
+     * Creates a reader starting at the specified position of the file, the start of a record.
+     */
+    CsvReader reader(long pos) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ch.position(pos);
+        return new CsvReader(Channels.newReader(ch, Util.UTF_8.newDecoder(), -1), opts.delimiter());
+    }
+
+    Feature feature(long i, CsvReader r) throws IOException {
+        return feature(i, r, handler);
+    }
+
+    Feature feature(long i, CsvReader r, CSVHandler handler) throws IOException {
         List<Object> values = new ArrayList<Object>();
         values.add(handler.geom(r));
 
-        for (String val : r.getValues()) {
-            Object parsed = null;
-            try {
-                parsed = Integer.parseInt(val);
-            }
-            catch(NumberFormatException e1) {
-                try {
-                    parsed = Double.parseDouble(val);
-                }
-                catch(NumberFormatException e2) {
-                    parsed = val;
-                }
-            }
-            values.add(parsed);
+        String[] vals = r.getValues();
+        for (int j = 0; j < vals.length; j++) {
+            values.add(CSVTypes.parse(vals[j], j < types.length ? types[j] : null));
         }
 
         return new ListFeature(String.valueOf(i), schema, values);
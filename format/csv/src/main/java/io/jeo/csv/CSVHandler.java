@@ -28,4 +28,17 @@ public abstract class CSVHandler {
     public abstract void header(CsvReader r) throws IOException;
 
     public abstract Geometry geom(CsvReader r) throws IOException;
+
+    /**
+     * Encodes a geometry into a column of a record being written.
+     *
+     * @param g The geometry, may be <code>null</code>.
+     * @param col The index of the column.
+     * @param w The record writer.
+     *
+     * @return <code>true</code> if the column holds the geometry, or part of it, and was written.
+     */
+    public boolean geom(Geometry g, int col, CSVWriter w) throws IOException {
+        return false;
+    }
 }
@@ -0,0 +1,212 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sidecar row offset index for a CSV file.
+ * <p>
+ * The index is stored next to the data file with an <tt>.idx</tt> extension. It records the total number of rows
+ * and the byte offset of every {@link #STRIDE}th row, so that a read can start within {@link #STRIDE} rows of any
+ * row without parsing the rows before it. Rows are numbered like feature identifiers, skipping the header and blank
+ * lines. The index is bound to the size and modification time of the data file, and whether the file has a header,
+ * and is considered stale once any of them changes.
+ * </p>
+ */
+class CSVIndex {
+
+    static Logger LOG = LoggerFactory.getLogger(CSVIndex.class);
+
+    static final byte[] MAGIC = "JEOCSIDX".getBytes(Charset.forName("US-ASCII"));
+
+    static final int VERSION = 1;
+
+    /**
+     * Number of rows between indexed offsets.
+     */
+    static final int STRIDE = 1024;
+
+    /**
+     * The index file for a CSV file.
+     */
+    static File file(File data) {
+        return new File(data.getPath() + ".idx");
+    }
+
+    // data file state
+    long modified;
+    long size;
+    boolean header;
+
+    // row count and offset of every stride rows
+    long count;
+    int stride;
+    long[] offsets;
+
+    /**
+     * Opens the index for a CSV file.
+     *
+     * @return The index, or <code>null</code> if no index exists or the index is stale.
+     */
+    static CSVIndex open(File data, boolean header) {
+        File file = file(data);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic) || in.readInt() != VERSION) {
+                LOG.debug("Ignoring invalid index file: " + file.getPath());
+                return null;
+            }
+
+            CSVIndex index = new CSVIndex();
+            index.modified = in.readLong();
+            index.size = in.readLong();
+            index.header = in.readBoolean();
+            if (!index.isValid(data, header)) {
+                return null;
+            }
+
+            index.count = in.readLong();
+            index.stride = in.readInt();
+            index.offsets = new long[in.readInt()];
+            for (int i = 0; i < index.offsets.length; i++) {
+                index.offsets[i] = in.readLong();
+            }
+            return index;
+        }
+        catch(IOException e) {
+            LOG.debug("Error reading index file: " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds the index for a CSV dataset, writing it next to the data file.
+     */
+    static CSVIndex build(CSVDataset data) throws IOException {
+        File file = data.file();
+
+        CSVIndex index = new CSVIndex();
+        index.modified = file.lastModified();
+        index.size = file.length();
+        index.header = data.opts.header();
+        index.stride = STRIDE;
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            OffsetScanner scanner = new OffsetScanner(ch, index.size);
+
+            long pos = 0;
+            if (index.header) {
+                pos = scanner.scan(0, 0);
+                scanner.rows = 0;
+                scanner.n = 0;
+            }
+            scanner.scan(pos, index.size);
+
+            index.count = scanner.rows;
+            index.offsets = Arrays.copyOf(scanner.offsets, scanner.n);
+        }
+
+        index.write(file(file));
+        return index;
+    }
+
+    boolean isValid(File data, boolean header) {
+        return data.lastModified() == modified && data.length() == size && this.header == header;
+    }
+
+    /**
+     * The number of rows in the file.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * The number of the indexed row at or before the specified row.
+     */
+    long row(long row) {
+        return Math.min(row / stride, offsets.length - 1) * stride;
+    }
+
+    /**
+     * The byte offset of the indexed row at or before the specified row.
+     */
+    long offset(long row) {
+        return offsets[(int) (row(row) / stride)];
+    }
+
+    void write(File file) throws IOException {
+        // write to a temporary file and move into place
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(tmp.toPath())))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(modified);
+            out.writeLong(size);
+            out.writeBoolean(header);
+            out.writeLong(count);
+            out.writeInt(stride);
+            out.writeInt(offsets.length);
+            for (long l : offsets) {
+                out.writeLong(l);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Splitter that records the offset of every {@link #STRIDE}th record.
+     */
+    static class OffsetScanner extends CSVSplitter {
+
+        long[] offsets = new long[64];
+        int n;
+
+        OffsetScanner(FileChannel ch, long size) {
+            super(ch, size);
+        }
+
+        @Override
+        void record(long start) {
+            if (rows % STRIDE == 0) {
+                if (n == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, n * 2);
+                }
+                offsets[n++] = start;
+            }
+        }
+    }
+}
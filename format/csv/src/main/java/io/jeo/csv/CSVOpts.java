@@ -28,6 +28,10 @@ public class CSVOpts {
 
     Character delim = DELIM.def();
     boolean header = HEADER.def();
+    int sample = SAMPLE.def();
+    int threads = THREADS.def();
+    boolean ordered = ORDERED.def();
+    boolean index = INDEX.def();
 
     String xcol, ycol, wktcol;
     Integer x, y, wkt;
@@ -36,7 +40,9 @@ public class CSVOpts {
 
     public static CSVOpts fromMap(Map<?, Object> map) {
         CSVOpts csvOpts = new CSVOpts();
-        csvOpts.delimiter(DELIM.get(map)).header(HEADER.get(map));
+        csvOpts.delimiter(DELIM.get(map)).header(HEADER.get(map)).sample(SAMPLE.get(map))
+            .threads(THREADS.get(map)).ordered(ORDERED.get(map))
+            .index(INDEX.get(map));
         
         Object x = X.get(map);
         if (x instanceof Integer) {
@@ -67,6 +73,69 @@ public class CSVOpts {
         return this;
     }
 
+    public int sample() {
+        return sample;
+    }
+
+    /**
+     * Sets the number of rows read to infer the type of each column.
+     * <p>
+     * A negative value reads all rows. A value of <tt>0</tt> disables inference, in which case columns are
+     * reported as <tt>Object</tt> and the type of each value is determined individually.
+     * </p>
+     */
+    public CSVOpts sample(int sample) {
+        this.sample = sample;
+        return this;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used to decode the file when reading.
+     * <p>
+     * With more than one thread the file is split into ranges of records that are decoded in parallel. Feature
+     * identifiers remain the row numbers of the records.
+     * </p>
+     */
+    public CSVOpts threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public boolean ordered() {
+        return ordered;
+    }
+
+    /**
+     * Sets whether features decoded in parallel are returned in file order.
+     * <p>
+     * Unordered reads return each range of records as soon as it is decoded.
+     * </p>
+     */
+    public CSVOpts ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    public boolean index() {
+        return index;
+    }
+
+    /**
+     * Sets whether to build and maintain a sidecar row offset index for the file.
+     * <p>
+     * The index is used to count rows and to start reads with an offset close to the first requested row. An
+     * existing up to date index is used regardless of this option.
+     * </p>
+     */
+    public CSVOpts index(boolean index) {
+        this.index = index;
+        return this;
+    }
+
     public CSVOpts xy(String x, String y) {
         this.xcol = x;
         this.ycol = y;
@@ -105,6 +174,10 @@ public class CSVOpts {
         map.put(HEADER, header);
         map.put(X, x != null ? x : xcol);
         map.put(Y, y != null ? y : ycol);
+        map.put(SAMPLE, sample);
+        map.put(THREADS, threads);
+        map.put(ORDERED, ordered);
+        map.put(INDEX, index);
         return map;
     }
 
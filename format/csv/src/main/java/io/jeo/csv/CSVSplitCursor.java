@@ -0,0 +1,133 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.jeo.util.Util;
+import io.jeo.vector.Feature;
+import io.jeo.vector.BatchFeatureCursor;
+
+import com.csvreader.CsvReader;
+
+/**
+ * Cursor that decodes a CSV file on a pool of worker threads.
+ * <p>
+ * The file is divided by a {@link CSVSplitter} into splits of roughly {@link #SPLIT_SIZE} bytes that start and end
+ * on record boundaries. Each split is memory mapped and decoded independently by a worker. At most
+ * {@link #MAX_PENDING} splits per thread are in flight at once. When ordered, splits are handed back in file order,
+ * otherwise in the order they finish decoding, see {@link BatchFeatureCursor}. Either way feature identifiers are the
+ * row numbers of the records, the same as those assigned by {@link CSVCursor}.
+ * </p>
+ */
+class CSVSplitCursor extends BatchFeatureCursor {
+
+    /**
+     * Number of bytes decoded by a worker at once.
+     */
+    static final int SPLIT_SIZE = 4 << 20;
+
+    /**
+     * Maximum number of pending splits per worker thread.
+     */
+    static final int MAX_PENDING = 2;
+
+    CSVDataset csv;
+    int splitSize;
+
+    FileChannel ch;
+    CSVSplitter splitter;
+    long pos;
+
+    CSVSplitCursor(CSVDataset csv, int threads, boolean ordered) {
+        this(csv, threads, ordered, SPLIT_SIZE);
+    }
+
+    CSVSplitCursor(CSVDataset csv, int threads, boolean ordered, int splitSize) {
+        super("csv", threads, ordered, MAX_PENDING);
+        this.csv = csv;
+        this.splitSize = splitSize;
+    }
+
+    @Override
+    protected void start() throws IOException {
+        ch = FileChannel.open(csv.file().toPath(), StandardOpenOption.READ);
+        splitter = new CSVSplitter(ch, ch.size());
+
+        if (csv.opts.header()) {
+            pos = splitter.scan(0, 0);
+            splitter.rows = 0;
+        }
+    }
+
+    @Override
+    protected Callable<List<Feature>> nextBatch() throws IOException {
+        if (pos >= splitter.size) {
+            return null;
+        }
+
+        final long start = pos;
+        final long row = splitter.rows;
+        final long end = splitter.scan(start, start + splitSize);
+        pos = end;
+        return new Callable<List<Feature>>() {
+            @Override
+            public List<Feature> call() throws Exception {
+                return decode(start, end, row);
+            }
+        };
+    }
+
+    List<Feature> decode(long start, long end, long row) throws IOException {
+        CharBuffer chars = Util.UTF_8.decode(ch.map(MapMode.READ_ONLY, start, end - start));
+
+        // handlers aren't thread safe, use one per split
+        CSVHandler handler = csv.opts.handler();
+
+        List<Feature> list = new ArrayList<>();
+        CsvReader r = new CsvReader(new CharArrayReader(
+            chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()), csv.opts.delimiter());
+        try {
+            while (r.readRecord()) {
+                list.add(csv.feature(row++, r, handler));
+            }
+        }
+        finally {
+            r.close();
+        }
+        return list;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        }
+        finally {
+            if (ch != null) {
+                ch.close();
+                ch = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Divides a CSV file into byte ranges that start and end on record boundaries.
+ * <p>
+ * The file is scanned sequentially through a memory mapped window, tracking whether the scan is within a quoted
+ * value so that line breaks inside quotes do not end a record. Escaped (doubled) quotes toggle the state twice and so
+ * are handled naturally. The scan also counts the non empty records of each range, which gives the row number of the
+ * first record of the next range, and reports the start of each record to {@link #record(long)}.
+ * </p>
+ */
+class CSVSplitter {
+
+    /**
+     * Maximum number of bytes mapped at once.
+     */
+    static final int WINDOW = 16 << 20;
+
+    FileChannel ch;
+    long size;
+
+    /**
+     * Number of records scanned so far.
+     */
+    long rows;
+
+    CSVSplitter(FileChannel ch, long size) {
+        this.ch = ch;
+        this.size = size;
+    }
+
+    /**
+     * Scans from the start of a record to the first record boundary at or after a minimum position.
+     *
+     * @param from Position of the start of a record.
+     * @param min The minimum end position of the range.
+     *
+     * @return The position following the line break that ends the range, or the file size.
+     */
+    long scan(long from, long min) throws IOException {
+        boolean quoted = false, content = false;
+
+        // start of the current line
+        long line = from;
+
+        long pos = from;
+        while (pos < size) {
+            int n = (int) Math.min(WINDOW, size - pos);
+            MappedByteBuffer buf = ch.map(MapMode.READ_ONLY, pos, n);
+
+            for (int i = 0; i < n; i++) {
+                byte b = buf.get(i);
+                if (!quoted && (b == '\n' || b == '\r')) {
+                    if (content) {
+                        rows++;
+                        content = false;
+                    }
+                    line = pos + i + 1;
+                    if (line >= min) {
+                        return line;
+                    }
+                    continue;
+                }
+
+                if (b == '"') {
+                    quoted = !quoted;
+                }
+                if (!content) {
+                    content = true;
+                    record(line);
+                }
+            }
+            pos += n;
+        }
+
+        if (content) {
+            rows++;
+        }
+        return size;
+    }
+
+    /**
+     * Callback invoked at the start of each record, {@link #rows} is the row number of the record.
+     *
+     * @param start The position of the start of the record.
+     */
+    void record(long start) {
+    }
+}
@@ -0,0 +1,289 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import io.jeo.util.Convert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Infers and parses the types of CSV cell values.
+ * <p>
+ * Values are classified by scanning their characters rather than by attempting to parse them and catching
+ * {@link NumberFormatException}, which is very costly for text columns. Column types are widened in the order
+ * <tt>Integer, Long, Double, String</tt>.
+ * </p>
+ */
+class CSVTypes {
+
+    static Logger LOG = LoggerFactory.getLogger(CSVTypes.class);
+
+    /** value is not a number */
+    static final int TEXT = 0;
+
+    /** value is an integer that fits in a long */
+    static final int INTEGRAL = 1;
+
+    /** value is a decimal number */
+    static final int DECIMAL = 2;
+
+    /**
+     * Widens a column type to accommodate a value.
+     *
+     * @param type The current column type, <code>null</code> if not yet known.
+     * @param val The value.
+     *
+     * @return The new column type.
+     */
+    static Class<?> widen(Class<?> type, String val) {
+        if (type == String.class || isBlank(val)) {
+            return type;
+        }
+
+        Class<?> t;
+        switch(kind(val)) {
+            case INTEGRAL:
+                long l = toLong(val);
+                t = l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? Integer.class : Long.class;
+                break;
+            case DECIMAL:
+                t = Double.class;
+                break;
+            default:
+                return String.class;
+        }
+
+        return rank(t) > rank(type) ? t : type;
+    }
+
+    static int rank(Class<?> type) {
+        if (type == null) {
+            return 0;
+        }
+        if (type == Integer.class) {
+            return 1;
+        }
+        if (type == Long.class) {
+            return 2;
+        }
+        if (type == Double.class) {
+            return 3;
+        }
+        return 4;
+    }
+
+    /**
+     * Parses a value of a column with a known type.
+     * <p>
+     * Blank values are parsed as <code>null</code>. Values that don't conform to the column type, typically those
+     * beyond the rows sampled to infer it, are parsed as the widened type rather than dropped: a decimal in an integer
+     * column as a double, an integer too large for an integer column as a long, and text in a numeric column as a
+     * string.
+     * </p>
+     */
+    static Object parse(String val, Class<?> type) {
+        if (type == String.class) {
+            return val;
+        }
+        if (type == null || type == Object.class) {
+            return parse(val);
+        }
+        if (isBlank(val)) {
+            return null;
+        }
+
+        if (type == Integer.class || type == Long.class || type == Double.class) {
+            int kind = kind(val);
+            if (kind == TEXT) {
+                return mismatch(val, type, val);
+            }
+
+            if (type == Double.class) {
+                return kind == INTEGRAL ? (double) toLong(val) : Double.parseDouble(val);
+            }
+
+            if (kind == DECIMAL) {
+                return mismatch(val, type, Double.parseDouble(val));
+            }
+
+            long l = toLong(val);
+            if (type == Long.class) {
+                return l;
+            }
+            return l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? (Object) (int) l : mismatch(val, type, l);
+        }
+
+        Object obj = Convert.to(val, type).orElse(null);
+        return obj != null ? obj : mismatch(val, type, parse(val));
+    }
+
+    static Object mismatch(String val, Class<?> type, Object parsed) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Value '" + val + "' does not conform to column type " + type.getSimpleName() + ", parsed as "
+                + parsed.getClass().getSimpleName());
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a value of a column with no fixed type, as an integer, double or string.
+     */
+    static Object parse(String val) {
+        switch(kind(val)) {
+            case INTEGRAL:
+                long l = toLong(val);
+                if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
+                    return (int) l;
+                }
+                return (double) l;
+            case DECIMAL:
+                return Double.parseDouble(val);
+            default:
+                return val;
+        }
+    }
+
+    /**
+     * Classifies a value as {@link #TEXT}, {@link #INTEGRAL}, or {@link #DECIMAL}.
+     * <p>
+     * Surrounding white space is ignored. Integers too large for a long are classified as decimal.
+     * </p>
+     */
+    static int kind(String s) {
+        int i = start(s), end = end(s);
+        if (i == end) {
+            return TEXT;
+        }
+
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            i++;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(s.charAt(i))) {
+            i++;
+            digits++;
+        }
+
+        if (i == end) {
+            if (digits == 0) {
+                return TEXT;
+            }
+            return digits < 19 || fitsLong(s) ? INTEGRAL : DECIMAL;
+        }
+
+        if (s.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(s.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return TEXT;
+        }
+
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int exp = 0;
+            while (i < end && isDigit(s.charAt(i))) {
+                i++;
+                exp++;
+            }
+            if (exp == 0) {
+                return TEXT;
+            }
+        }
+
+        return i == end ? DECIMAL : TEXT;
+    }
+
+    /**
+     * Parses a value classified as {@link #INTEGRAL}.
+     */
+    static long toLong(String s) {
+        int i = start(s), end = end(s);
+
+        boolean neg = false;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            neg = c == '-';
+            i++;
+        }
+
+        // accumulate negatively to handle Long.MIN_VALUE
+        long l = 0;
+        for (; i < end; i++) {
+            l = l * 10 - (s.charAt(i) - '0');
+        }
+        return neg ? l : -l;
+    }
+
+    static boolean fitsLong(String s) {
+        int i = start(s), end = end(s);
+
+        long limit = -Long.MAX_VALUE;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            if (c == '-') {
+                limit = Long.MIN_VALUE;
+            }
+            i++;
+        }
+
+        long min = limit / 10;
+        long l = 0;
+        for (; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (l < min) {
+                return false;
+            }
+            l *= 10;
+            if (l < limit + d) {
+                return false;
+            }
+            l -= d;
+        }
+        return true;
+    }
+
+    static boolean isBlank(String s) {
+        return s == null || start(s) == s.length();
+    }
+
+    static int start(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    static int end(String s) {
+        int i = s.length();
+        while (i > 0 && s.charAt(i-1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,196 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import io.jeo.util.NumberFormatter;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTWriter;
+
+/**
+ * Streaming writer for CSV records.
+ * <p>
+ * Values are written one at a time, separated by the delimiter, and each record is ended with {@link #endRecord()}.
+ * Numbers are formatted into a reusable buffer rather than through intermediate strings. Text is quoted only when
+ * necessary, that is when it contains the delimiter, a quote or a line break, or has surrounding white space.
+ * </p>
+ */
+public class CSVWriter implements Flushable, Closeable {
+
+    Writer out;
+    char delim;
+
+    /** number of values written to the current record */
+    int col;
+
+    final char[] num = new char[NumberFormatter.BUFFER_SIZE];
+    WKTWriter wkt;
+
+    public CSVWriter(Writer out, char delim) {
+        this.out = out;
+        this.delim = delim;
+    }
+
+    /**
+     * Writes a header record.
+     */
+    public CSVWriter header(String... cols) throws IOException {
+        for (String c : cols) {
+            text(c);
+        }
+        return endRecord();
+    }
+
+    /**
+     * Writes a value, chosen by type.
+     * <p>
+     * <code>null</code> is written as an empty value and geometries as well known text.
+     * </p>
+     */
+    public CSVWriter value(Object val) throws IOException {
+        if (val == null) {
+            return empty();
+        }
+        if (val instanceof Double || val instanceof Float) {
+            return value(((Number) val).doubleValue());
+        }
+        if (val instanceof Long || val instanceof Integer || val instanceof Short || val instanceof Byte) {
+            return value(((Number) val).longValue());
+        }
+        if (val instanceof Geometry) {
+            return wkt((Geometry) val);
+        }
+        return text(val.toString());
+    }
+
+    /**
+     * Writes an empty value.
+     */
+    public CSVWriter empty() throws IOException {
+        sep();
+        return this;
+    }
+
+    public CSVWriter value(double val) throws IOException {
+        sep();
+
+        int n = Double.isNaN(val) || Double.isInfinite(val) ? -1 : NumberFormatter.format(val, -1, num);
+        if (n < 0) {
+            out.write(Double.toString(val));
+        }
+        else {
+            out.write(num, 0, n);
+        }
+        return this;
+    }
+
+    public CSVWriter value(long val) throws IOException {
+        sep();
+        out.write(num, 0, NumberFormatter.format(val, num));
+        return this;
+    }
+
+    /**
+     * Writes a text value, quoting it if necessary.
+     */
+    public CSVWriter text(String val) throws IOException {
+        sep();
+
+        if (needsQuotes(val)) {
+            out.write('"');
+            int last = 0;
+            for (int i = 0; i < val.length(); i++) {
+                if (val.charAt(i) == '"') {
+                    // escape by doubling
+                    out.write(val, last, i + 1 - last);
+                    out.write('"');
+                    last = i + 1;
+                }
+            }
+            out.write(val, last, val.length() - last);
+            out.write('"');
+        }
+        else {
+            out.write(val);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a geometry as quoted well known text.
+     */
+    public CSVWriter wkt(Geometry g) throws IOException {
+        if (g == null) {
+            return empty();
+        }
+
+        sep();
+        if (wkt == null) {
+            wkt = new WKTWriter();
+        }
+        // wkt never contains quotes
+        out.write('"');
+        wkt.write(g, out);
+        out.write('"');
+        return this;
+    }
+
+    /**
+     * Ends the current record.
+     */
+    public CSVWriter endRecord() throws IOException {
+        out.write('\n');
+        col = 0;
+        return this;
+    }
+
+    void sep() throws IOException {
+        if (col++ > 0) {
+            out.write(delim);
+        }
+    }
+
+    boolean needsQuotes(String val) {
+        int n = val.length();
+        if (n == 0) {
+            return false;
+        }
+        if (val.charAt(0) <= ' ' || val.charAt(n-1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = val.charAt(i);
+            if (c == delim || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -64,4 +64,13 @@ public class WKTHandler extends CSVHandler {
             throw new IOException(e); 
         }
     }
+
+    @Override
+    public boolean geom(Geometry g, int col, CSVWriter w) throws IOException {
+        if (opts.getWkt() == null || opts.getWkt() != col) {
+            return false;
+        }
+        w.wkt(g);
+        return true;
+    }
 }
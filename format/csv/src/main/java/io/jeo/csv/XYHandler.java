@@ -22,6 +22,7 @@ import io.jeo.util.Convert;
 
 import com.csvreader.CsvReader;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
 
 /**
  * Handles CSV file with lat/lon columns.
@@ -67,4 +68,24 @@ public class XYHandler extends CSVHandler {
         Number y = Convert.toNumber(r.get(opts.getY())).get();
         return gb.point(x.doubleValue(), y.doubleValue()).toPoint();
     }
+
+    @Override
+    public boolean geom(Geometry g, int col, CSVWriter w) throws IOException {
+        boolean x = opts.getX() != null && opts.getX() == col;
+        if (!x && (opts.getY() == null || opts.getY() != col)) {
+            return false;
+        }
+
+        if (g == null) {
+            w.empty();
+        }
+        else if (g instanceof Point) {
+            Point p = (Point) g;
+            w.value(x ? p.getX() : p.getY());
+        }
+        else {
+            throw new IllegalArgumentException("x/y columns require point geometries, not " + g.getGeometryType());
+        }
+        return true;
+    }
 }
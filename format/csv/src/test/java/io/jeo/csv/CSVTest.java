@@ -15,17 +15,33 @@
 package io.jeo.csv;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 import io.jeo.Tests;
+import io.jeo.geom.GeomBuilder;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Schema;
 import io.jeo.vector.VectorQuery;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
 
 public class CSVTest {
 
@@ -51,6 +67,231 @@ public class CSVTest {
         assertEquals(1, csv.read(new VectorQuery().filter("name = 'fire,cracker'")).count());
     }
 
+    @Test
+    public void testSchema() throws Exception {
+        Schema schema = csv.schema();
+        assertEquals(String.class, schema.field("name").type());
+        assertEquals(Double.class, schema.field("cost").type());
+        assertEquals(Integer.class, schema.field("lat").type());
+        assertEquals(Integer.class, schema.field("lon").type());
+
+        Feature f = csv.read(new VectorQuery().filter("name = 'anvil'")).first().get();
+        assertEquals(3.99, f.get("cost"));
+        assertEquals(5, f.get("lat"));
+    }
+
+    @Test
+    public void testSample() throws Exception {
+        StringBuilder sb = new StringBuilder("x,y,id,val,flag\n");
+        sb.append("1,2,1,1,a\n");
+        sb.append("3,4,2,,b\n");
+        sb.append("5,6,9999999999,2.5,c\n");
+        sb.append("7,8,3,3,true\n");
+        File file = Tests.newTmpFile("jeo", "csv", new ByteArrayInputStream(sb.toString().getBytes())).toFile();
+
+        CSVDataset sampled = new CSVDataset(file, new CSVOpts().xy("x", "y").sample(2));
+        assertEquals(Integer.class, sampled.schema().field("id").type());
+        assertEquals(Integer.class, sampled.schema().field("val").type());
+
+        List<Feature> features = features(sampled);
+        assertNull(features.get(1).get("val"));
+        // values beyond the sample that don't fit the inferred type are widened rather than dropped
+        assertEquals(9999999999L, features.get(2).get("id"));
+        assertEquals(2.5, features.get(2).get("val"));
+        assertEquals(3, features.get(3).get("id"));
+
+        CSVDataset all = new CSVDataset(file, new CSVOpts().xy("x", "y").sample(-1).map("flag", Boolean.class));
+        assertEquals(Long.class, all.schema().field("id").type());
+        assertEquals(Double.class, all.schema().field("val").type());
+        assertEquals(Boolean.class, all.schema().field("flag").type());
+
+        features = features(all);
+        assertEquals(9999999999L, features.get(2).get("id"));
+        assertEquals(2.5, features.get(2).get("val"));
+        assertEquals(1L, features.get(0).get("id"));
+        assertEquals(true, features.get(3).get("flag"));
+
+        CSVDataset none = new CSVDataset(file, new CSVOpts().xy("x", "y").sample(0));
+        assertEquals(Object.class, none.schema().field("val").type());
+
+        features = features(none);
+        assertEquals(1, features.get(0).get("val"));
+        assertEquals(2.5, features.get(2).get("val"));
+        assertEquals("", features.get(1).get("val"));
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        StringBuilder sb = new StringBuilder("x,y,name,note\r\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i).append(',').append(-i).append(",\"name ").append(i).append("\",");
+            if (i % 7 == 0) {
+                // quoted line breaks and escaped quotes
+                sb.append("\"line one\nline \"\"two\"\"\r\n\"");
+            }
+            else {
+                sb.append("note");
+            }
+            sb.append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                sb.append("\n");
+            }
+        }
+        File file = Tests.newTmpFile("jeo", "csv", new ByteArrayInputStream(sb.toString().getBytes())).toFile();
+
+        CSVDataset data = new CSVDataset(file, new CSVOpts().xy("x", "y"));
+        List<Feature> expected = features(data);
+        assertEquals(500, expected.size());
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            List<Feature> actual = new ArrayList<Feature>();
+            try (CSVSplitCursor c = new CSVSplitCursor(data, 4, ordered, 256)) {
+                for (Feature f : c) {
+                    actual.add(f);
+                }
+            }
+            assertEquals(expected.size(), actual.size());
+
+            if (!ordered) {
+                Collections.sort(actual, new Comparator<Feature>() {
+                    @Override
+                    public int compare(Feature f1, Feature f2) {
+                        return Long.compare(Long.parseLong(f1.id()), Long.parseLong(f2.id()));
+                    }
+                });
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                Feature e = expected.get(i), a = actual.get(i);
+                assertEquals(e.id(), a.id());
+                assertEquals(e.get("name"), a.get("name"));
+                assertEquals(e.get("note"), a.get("note"));
+                assertEquals(e.geometry(), a.geometry());
+            }
+        }
+
+        CSVDataset parallel = new CSVDataset(file, new CSVOpts().xy("x", "y").threads(2));
+        assertEquals(500, parallel.count(new VectorQuery()));
+        assertEquals(1, parallel.count(new VectorQuery().filter("name = 'name 77'")));
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        StringBuilder sb = new StringBuilder("x,y,name\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append(i).append(',').append(i).append(',');
+            sb.append(i % 5 == 0 ? "\"name\n" + i + "\"" : "name " + i).append('\n');
+            if (i % 100 == 0) {
+                sb.append('\n');
+            }
+        }
+        File file = Tests.newTmpFile("jeo", "csv", new ByteArrayInputStream(sb.toString().getBytes())).toFile();
+
+        CSVDataset plain = new CSVDataset(file, new CSVOpts().xy("x", "y"));
+        assertNull(plain.index());
+        List<Feature> all = features(plain);
+
+        CSVDataset indexed = new CSVDataset(file, new CSVOpts().xy("x", "y").index(true));
+        assertEquals(3000, indexed.count(new VectorQuery()));
+        assertEquals(10, indexed.count(new VectorQuery().offset(2990).limit(20)));
+        assertTrue(CSVIndex.file(file).exists());
+        assertNotNull(plain.index());
+
+        for (int offset : new int[]{0, 1023, 1024, 2050, 2998}) {
+            List<Feature> actual = features(indexed.read(new VectorQuery().offset(offset).limit(3)));
+            assertEquals(Math.min(3, 3000 - offset), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                Feature expected = all.get(offset + i);
+                assertEquals(String.valueOf(offset + i), actual.get(i).id());
+                assertEquals(expected.id(), actual.get(i).id());
+                assertEquals(expected.get("name"), actual.get(i).get("name"));
+            }
+        }
+        assertEquals(0, features(indexed.read(new VectorQuery().offset(5000))).size());
+
+        // changing the file invalidates the index
+        Files.write(file.toPath(), "1,1,extra\n".getBytes(), StandardOpenOption.APPEND);
+        assertNull(CSVIndex.open(file, true));
+        assertEquals(3001, indexed.count(new VectorQuery()));
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        GeomBuilder gb = new GeomBuilder();
+        try (FeatureAppendCursor c = csv.append(new VectorQuery())) {
+            c.next().put("name", "bang, \"bang\"").put("cost", 5.99).put(gb.point(10, 9).toPoint());
+            c.write();
+            c.next().put("name", " pow").put(gb.point(12, 11).toPoint());
+            c.write();
+        }
+
+        CSVDataset reread = new CSVDataset(csv.file(), new CSVOpts().xy("lon", "lat"));
+        List<Feature> features = features(reread);
+        assertEquals(6, features.size());
+
+        Feature f = features.get(4);
+        assertEquals("4", f.id());
+        assertEquals("bang, \"bang\"", f.get("name"));
+        assertEquals(5.99, f.get("cost"));
+        assertEquals(9.0, f.get("lat"));
+        assertEquals(gb.point(10, 9).toPoint(), f.geometry());
+
+        f = features.get(5);
+        assertEquals(" pow", f.get("name"));
+        assertNull(f.get("cost"));
+        assertEquals(new Envelope(2, 12, 1, 11), reread.bounds());
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        Schema schema = Schema.build("widgets").field("geometry", Geometry.class).field("name", String.class)
+            .field("count", Integer.class).field("price", Double.class).schema();
+
+        File file = Tests.newTmpDir("jeo", "csv").resolve("widgets.csv").toFile();
+        CSVDataset data = CSVDataset.create(file, new CSVOpts().wkt("wkt").delimiter(';'), schema);
+        assertEquals(Integer.class, data.schema().field("count").type());
+
+        GeomBuilder gb = new GeomBuilder();
+        try (FeatureAppendCursor c = data.append(new VectorQuery())) {
+            for (int i = 0; i < 3; i++) {
+                c.next().put("name", "widget;" + i).put("count", i).put("price", i + 0.25)
+                    .put(gb.points(i, i, i + 1, i + 1).toMultiPoint());
+                c.write();
+            }
+        }
+
+        CSVDataset reread = new CSVDataset(file, new CSVOpts().wkt("wkt").delimiter(';'));
+        assertEquals(Integer.class, reread.schema().field("count").type());
+        assertEquals(Double.class, reread.schema().field("price").type());
+
+        List<Feature> features = features(reread);
+        assertEquals(3, features.size());
+        assertEquals("widget;2", features.get(2).get("name"));
+        assertEquals(2, features.get(2).get("count"));
+        assertEquals(2.25, features.get(2).get("price"));
+        assertEquals(gb.points(2, 2, 3, 3).toMultiPoint(), features.get(2).geometry());
+    }
+
+    List<Feature> features(FeatureCursor cursor) throws IOException {
+        List<Feature> list = new ArrayList<Feature>();
+        try {
+            for (Feature f : cursor) {
+                list.add(f);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return list;
+    }
+
+    List<Feature> features(CSVDataset data) throws IOException {
+        List<Feature> list = new ArrayList<Feature>();
+        for (Feature f : data.read(new VectorQuery())) {
+            list.add(f);
+        }
+        return list;
+    }
+
     InputStream csv() {
         StringBuilder sb = new StringBuilder();
         
@@ -0,0 +1,300 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import io.jeo.util.Convert;
+
+/**
+ * Column types and the encoding of feature properties.
+ * <p>
+ * Properties are encoded as a sequence of column index and value pairs, values of columns that are missing from the
+ * sequence are <code>null</code>. Fixed size values are stored little endian, variable size values are prefixed with
+ * their length in bytes.
+ * </p>
+ */
+class Columns {
+
+    // column table fields
+    static final int NAME = 0;
+    static final int TYPE = 1;
+
+    // column types
+    static final int BYTE = 0;
+    static final int UBYTE = 1;
+    static final int BOOL = 2;
+    static final int SHORT = 3;
+    static final int USHORT = 4;
+    static final int INT = 5;
+    static final int UINT = 6;
+    static final int LONG = 7;
+    static final int ULONG = 8;
+    static final int FLOAT = 9;
+    static final int DOUBLE = 10;
+    static final int STRING = 11;
+    static final int JSON = 12;
+    static final int DATETIME = 13;
+    static final int BINARY = 14;
+
+    /**
+     * The column type for a field type.
+     */
+    static int type(Class<?> clazz) {
+        if (clazz == Boolean.class) {
+            return BOOL;
+        }
+        if (clazz == Byte.class) {
+            return BYTE;
+        }
+        if (clazz == Short.class) {
+            return SHORT;
+        }
+        if (clazz == Integer.class) {
+            return INT;
+        }
+        if (clazz == Long.class) {
+            return LONG;
+        }
+        if (clazz == Float.class) {
+            return FLOAT;
+        }
+        if (Number.class.isAssignableFrom(clazz)) {
+            return DOUBLE;
+        }
+        if (Date.class.isAssignableFrom(clazz)) {
+            return DATETIME;
+        }
+        if (clazz == byte[].class) {
+            return BINARY;
+        }
+        return STRING;
+    }
+
+    /**
+     * The field type for a column type.
+     */
+    static Class<?> type(int type) {
+        switch(type) {
+            case BOOL: return Boolean.class;
+            case BYTE: return Byte.class;
+            case UBYTE:
+            case SHORT: return Short.class;
+            case USHORT:
+            case INT: return Integer.class;
+            case UINT:
+            case LONG:
+            case ULONG: return Long.class;
+            case FLOAT: return Float.class;
+            case DOUBLE: return Double.class;
+            case DATETIME: return Date.class;
+            case BINARY: return byte[].class;
+            default: return String.class;
+        }
+    }
+
+    String[] names;
+    int[] types;
+
+    // encoded properties
+    ByteBuffer buf = ByteBuffer.allocate(1024).order(FlatGeobufReader.ORDER);
+
+    SimpleDateFormat dateFormat;
+
+    Columns(String[] names, int[] types) {
+        this.names = names;
+        this.types = types;
+    }
+
+    /**
+     * Encodes property values, one per column.
+     *
+     * @return The encoded length, the encoded bytes are {@link #buf}.
+     */
+    int encode(Object[] values) {
+        buf.clear();
+        for (int i = 0; i < types.length; i++) {
+            Object val = values[i];
+            if (val == null) {
+                continue;
+            }
+
+            ensure(2 + 8);
+            buf.putShort((short) i);
+            switch(types[i]) {
+                case BOOL:
+                    buf.put((byte) (Convert.toBoolean(val).orElse(false) ? 1 : 0));
+                    break;
+                case BYTE:
+                case UBYTE:
+                    buf.put(number(val).byteValue());
+                    break;
+                case SHORT:
+                case USHORT:
+                    buf.putShort(number(val).shortValue());
+                    break;
+                case INT:
+                case UINT:
+                    buf.putInt(number(val).intValue());
+                    break;
+                case LONG:
+                case ULONG:
+                    buf.putLong(number(val).longValue());
+                    break;
+                case FLOAT:
+                    buf.putFloat(number(val).floatValue());
+                    break;
+                case DOUBLE:
+                    buf.putDouble(number(val).doubleValue());
+                    break;
+                case BINARY:
+                    bytes(val instanceof byte[] ? (byte[]) val : val.toString().getBytes(FlatBuffers.UTF8));
+                    break;
+                case DATETIME:
+                    bytes((val instanceof Date ? dateFormat().format((Date) val) : val.toString())
+                        .getBytes(FlatBuffers.UTF8));
+                    break;
+                default:
+                    bytes(val.toString().getBytes(FlatBuffers.UTF8));
+            }
+        }
+        return buf.position();
+    }
+
+    Number number(Object val) {
+        if (val instanceof Number) {
+            return (Number) val;
+        }
+        Number n = Convert.toNumber(val).orElse(null);
+        if (n == null) {
+            throw new IllegalArgumentException("Not a number: " + val);
+        }
+        return n;
+    }
+
+    void bytes(byte[] b) {
+        ensure(4 + b.length);
+        buf.putInt(b.length);
+        buf.put(b);
+    }
+
+    void ensure(int n) {
+        if (buf.remaining() < n) {
+            ByteBuffer b = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n))
+                .order(FlatGeobufReader.ORDER);
+            buf.flip();
+            b.put(buf);
+            buf = b;
+        }
+    }
+
+    /**
+     * Decodes property values into an array, one value per column.
+     *
+     * @param bb The buffer containing the encoded properties.
+     * @param pos The position of the encoded properties.
+     * @param len The length of the encoded properties.
+     * @param values The decoded values, at <tt>offset</tt> plus the column index.
+     */
+    void decode(ByteBuffer bb, int pos, int len, Object[] values, int offset) {
+        Arrays.fill(values, offset, offset + types.length, null);
+
+        int end = pos + len;
+        while (pos < end) {
+            int i = bb.getShort(pos) & 0xFFFF;
+            pos += 2;
+
+            Object val;
+            switch(types[i]) {
+                case BOOL:
+                    val = bb.get(pos++) != 0;
+                    break;
+                case BYTE:
+                    val = bb.get(pos++);
+                    break;
+                case UBYTE:
+                    val = (short) (bb.get(pos++) & 0xFF);
+                    break;
+                case SHORT:
+                    val = bb.getShort(pos);
+                    pos += 2;
+                    break;
+                case USHORT:
+                    val = bb.getShort(pos) & 0xFFFF;
+                    pos += 2;
+                    break;
+                case INT:
+                    val = bb.getInt(pos);
+                    pos += 4;
+                    break;
+                case UINT:
+                    val = bb.getInt(pos) & 0xFFFFFFFFL;
+                    pos += 4;
+                    break;
+                case LONG:
+                case ULONG:
+                    val = bb.getLong(pos);
+                    pos += 8;
+                    break;
+                case FLOAT:
+                    val = bb.getFloat(pos);
+                    pos += 4;
+                    break;
+                case DOUBLE:
+                    val = bb.getDouble(pos);
+                    pos += 8;
+                    break;
+                default:
+                    int n = bb.getInt(pos);
+                    pos += 4;
+                    if (types[i] == BINARY) {
+                        byte[] b = new byte[n];
+                        ByteBuffer d = bb.duplicate();
+                        d.position(pos);
+                        d.get(b);
+                        val = b;
+                    }
+                    else {
+                        String s = FlatBuffers.utf8(bb, pos, n);
+                        val = types[i] == DATETIME ? date(s) : s;
+                    }
+                    pos += n;
+            }
+            values[offset + i] = val;
+        }
+    }
+
+    Object date(String s) {
+        try {
+            return dateFormat().parse(s);
+        } catch (ParseException e) {
+            return s;
+        }
+    }
+
+    SimpleDateFormat dateFormat() {
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX", Locale.ROOT);
+            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        }
+        return dateFormat;
+    }
+}
@@ -0,0 +1,439 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal support for reading and writing the <a href="https://google.github.io/flatbuffers/">FlatBuffers</a>
+ * tables that make up FlatGeobuf headers and features.
+ * <p>
+ * Tables are written with {@link Table} and {@link #finish(Table)}. Unlike the reference builder, which fills its
+ * buffer back to front, tables are laid out front to back with every table, string and vector following the field
+ * that references it, which satisfies the requirement that offsets be unsigned. Scalars and vectors are aligned
+ * relative to the start of the buffer.
+ * </p>
+ * <p>
+ * Tables are read in place from a little endian buffer with the static accessors, which take the position of a
+ * table and the index of a field in the schema.
+ * </p>
+ */
+class FlatBuffers {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Builder for a table.
+     */
+    static class Table {
+
+        // field values, by field index
+        Object[] fields = new Object[4];
+        int count;
+
+        Table u8(int id, int val) {
+            return set(id, new Scalar(1, val));
+        }
+
+        Table bool(int id, boolean val) {
+            return u8(id, val ? 1 : 0);
+        }
+
+        Table u16(int id, int val) {
+            return set(id, new Scalar(2, val));
+        }
+
+        Table i32(int id, int val) {
+            return set(id, new Scalar(4, val));
+        }
+
+        Table u64(int id, long val) {
+            return set(id, new Scalar(8, val));
+        }
+
+        Table string(int id, String val) {
+            return val != null ? set(id, val.getBytes(UTF8)) : this;
+        }
+
+        Table bytes(int id, byte[] val, int len) {
+            return set(id, new Vector(1, val, len));
+        }
+
+        Table uints(int id, int[] val, int len) {
+            return set(id, new Vector(4, val, len));
+        }
+
+        Table doubles(int id, double[] val, int len) {
+            return set(id, new Vector(8, val, len));
+        }
+
+        Table table(int id, Table val) {
+            return val != null ? set(id, val) : this;
+        }
+
+        Table tables(int id, List<Table> val) {
+            return set(id, val);
+        }
+
+        Table set(int id, Object val) {
+            if (id >= fields.length) {
+                fields = Arrays.copyOf(fields, Math.max(id + 1, fields.length * 2));
+            }
+            fields[id] = val;
+            count = Math.max(count, id + 1);
+            return this;
+        }
+    }
+
+    static class Scalar {
+        int size;
+        long val;
+
+        Scalar(int size, long val) {
+            this.size = size;
+            this.val = val;
+        }
+    }
+
+    static class Vector {
+        int size;
+        Object array;
+        int len;
+
+        Vector(int size, Object array, int len) {
+            this.size = size;
+            this.array = array;
+            this.len = len;
+        }
+    }
+
+    /**
+     * Writes a table as the root of a buffer.
+     *
+     * @return The buffer, positioned at zero with the limit at the end of the data.
+     */
+    static ByteBuffer finish(Table root) {
+        Out out = new Out(256);
+        out.putInt(0);
+        int pos = out.table(root);
+        out.buf.putInt(0, pos);
+
+        out.buf.flip();
+        return out.buf;
+    }
+
+    /**
+     * Growable little endian output buffer.
+     */
+    static class Out {
+
+        ByteBuffer buf;
+
+        Out(int size) {
+            buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void ensure(int n) {
+            if (buf.remaining() < n) {
+                ByteBuffer b = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                buf.flip();
+                b.put(buf);
+                buf = b;
+            }
+        }
+
+        void align(int n) {
+            pad((n - buf.position() % n) % n);
+        }
+
+        void pad(int n) {
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                buf.put((byte) 0);
+            }
+        }
+
+        void putInt(int i) {
+            ensure(4);
+            buf.putInt(i);
+        }
+
+        /**
+         * Writes a table, followed by the objects it references.
+         *
+         * @return The position of the table.
+         */
+        int table(Table t) {
+            // lay out the inline fields, largest first to minimize padding
+            Integer[] order = new Integer[t.count];
+            int n = 0;
+            for (int i = 0; i < t.count; i++) {
+                if (t.fields[i] != null) {
+                    order[n++] = i;
+                }
+            }
+            final Table tbl = t;
+            Arrays.sort(order, 0, n, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return inlineSize(tbl.fields[o2]) - inlineSize(tbl.fields[o1]);
+                }
+            });
+
+            int[] offsets = new int[t.count];
+            int size = 4;
+            for (int i = 0; i < n; i++) {
+                int s = inlineSize(t.fields[order[i]]);
+                size = (size + s - 1) / s * s;
+                offsets[order[i]] = size;
+                size += s;
+            }
+
+            // vtable
+            align(2);
+            int vt = buf.position();
+            ensure(4 + 2 * t.count);
+            buf.putShort((short) (4 + 2 * t.count));
+            buf.putShort((short) size);
+            for (int i = 0; i < t.count; i++) {
+                buf.putShort((short) offsets[i]);
+            }
+
+            // table, aligned so that inline 8 byte scalars are aligned
+            align(8);
+            int tp = buf.position();
+            pad(size);
+            buf.putInt(tp, tp - vt);
+
+            for (int i = 0; i < t.count; i++) {
+                Object val = t.fields[i];
+                if (val instanceof Scalar) {
+                    Scalar s = (Scalar) val;
+                    int p = tp + offsets[i];
+                    switch(s.size) {
+                        case 1: buf.put(p, (byte) s.val); break;
+                        case 2: buf.putShort(p, (short) s.val); break;
+                        case 4: buf.putInt(p, (int) s.val); break;
+                        default: buf.putLong(p, s.val);
+                    }
+                }
+            }
+
+            // referenced objects
+            for (int i = 0; i < t.count; i++) {
+                Object val = t.fields[i];
+                if (val != null && !(val instanceof Scalar)) {
+                    int p = tp + offsets[i];
+                    int ref = object(val);
+                    buf.putInt(p, ref - p);
+                }
+            }
+            return tp;
+        }
+
+        int inlineSize(Object val) {
+            return val instanceof Scalar ? ((Scalar) val).size : 4;
+        }
+
+        @SuppressWarnings("unchecked")
+        int object(Object val) {
+            if (val instanceof Table) {
+                return table((Table) val);
+            }
+            if (val instanceof byte[]) {
+                // string, null terminated
+                byte[] b = (byte[]) val;
+                align(4);
+                int p = buf.position();
+                ensure(5 + b.length);
+                buf.putInt(b.length);
+                buf.put(b);
+                buf.put((byte) 0);
+                return p;
+            }
+            if (val instanceof Vector) {
+                return vector((Vector) val);
+            }
+
+            List<Table> tables = (List<Table>) val;
+            align(4);
+            int p = buf.position();
+            putInt(tables.size());
+            pad(4 * tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                int e = p + 4 + 4*i;
+                int ref = table(tables.get(i));
+                buf.putInt(e, ref - e);
+            }
+            return p;
+        }
+
+        int vector(Vector v) {
+            // align the elements, which follow the length
+            align(4);
+            while ((buf.position() + 4) % v.size != 0) {
+                pad(4);
+            }
+
+            int p = buf.position();
+            ensure(4 + v.len * v.size);
+            buf.putInt(v.len);
+            switch(v.size) {
+                case 1:
+                    buf.put((byte[]) v.array, 0, v.len);
+                    break;
+                case 4:
+                    int[] ints = (int[]) v.array;
+                    for (int i = 0; i < v.len; i++) {
+                        buf.putInt(ints[i]);
+                    }
+                    break;
+                default:
+                    double[] doubles = (double[]) v.array;
+                    for (int i = 0; i < v.len; i++) {
+                        buf.putDouble(doubles[i]);
+                    }
+            }
+            return p;
+        }
+    }
+
+    /**
+     * The position of the root table of a buffer.
+     */
+    static int root(ByteBuffer bb) {
+        return bb.getInt(0);
+    }
+
+    /**
+     * The position of a field of a table, or <tt>0</tt> if the field is not present.
+     */
+    static int field(ByteBuffer bb, int table, int id) {
+        int vt = table - bb.getInt(table);
+        int o = 4 + 2 * id;
+        if (o >= (bb.getShort(vt) & 0xFFFF)) {
+            return 0;
+        }
+        int off = bb.getShort(vt + o) & 0xFFFF;
+        return off != 0 ? table + off : 0;
+    }
+
+    static int u8(ByteBuffer bb, int table, int id, int def) {
+        int p = field(bb, table, id);
+        return p != 0 ? bb.get(p) & 0xFF : def;
+    }
+
+    static boolean bool(ByteBuffer bb, int table, int id, boolean def) {
+        return u8(bb, table, id, def ? 1 : 0) != 0;
+    }
+
+    static int u16(ByteBuffer bb, int table, int id, int def) {
+        int p = field(bb, table, id);
+        return p != 0 ? bb.getShort(p) & 0xFFFF : def;
+    }
+
+    static int i32(ByteBuffer bb, int table, int id, int def) {
+        int p = field(bb, table, id);
+        return p != 0 ? bb.getInt(p) : def;
+    }
+
+    static long u64(ByteBuffer bb, int table, int id, long def) {
+        int p = field(bb, table, id);
+        return p != 0 ? bb.getLong(p) : def;
+    }
+
+    /**
+     * The position of a table, string or vector referenced by a field, or <tt>0</tt> if the field is not present.
+     */
+    static int ref(ByteBuffer bb, int table, int id) {
+        int p = field(bb, table, id);
+        return p != 0 ? p + bb.getInt(p) : 0;
+    }
+
+    /**
+     * The number of elements of a vector.
+     */
+    static int length(ByteBuffer bb, int vec) {
+        return vec != 0 ? bb.getInt(vec) : 0;
+    }
+
+    /**
+     * The position of a table element of a vector.
+     */
+    static int table(ByteBuffer bb, int vec, int i) {
+        int p = vec + 4 + 4*i;
+        return p + bb.getInt(p);
+    }
+
+    static String string(ByteBuffer bb, int table, int id) {
+        int p = ref(bb, table, id);
+        if (p == 0) {
+            return null;
+        }
+        return utf8(bb, p + 4, bb.getInt(p));
+    }
+
+    static String utf8(ByteBuffer bb, int pos, int len) {
+        if (bb.hasArray()) {
+            return new String(bb.array(), bb.arrayOffset() + pos, len, UTF8);
+        }
+        byte[] b = new byte[len];
+        ByteBuffer d = bb.duplicate();
+        d.position(pos);
+        d.get(b);
+        return new String(b, UTF8);
+    }
+
+    static double[] doubles(ByteBuffer bb, int table, int id) {
+        int p = ref(bb, table, id);
+        if (p == 0) {
+            return null;
+        }
+        double[] d = new double[bb.getInt(p)];
+        ByteBuffer b = bb.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        b.position(p + 4);
+        b.asDoubleBuffer().get(d);
+        return d;
+    }
+
+    static int[] uints(ByteBuffer bb, int table, int id) {
+        int p = ref(bb, table, id);
+        if (p == 0) {
+            return null;
+        }
+        int[] a = new int[bb.getInt(p)];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = bb.getInt(p + 4 + 4*i);
+        }
+        return a;
+    }
+
+    static List<Integer> tables(ByteBuffer bb, int table, int id) {
+        int p = ref(bb, table, id);
+        int n = length(bb, p);
+        List<Integer> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(table(bb, p, i));
+        }
+        return list;
+    }
+}
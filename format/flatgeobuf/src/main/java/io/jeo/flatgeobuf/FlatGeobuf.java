@@ -0,0 +1,107 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.jeo.util.Key;
+import io.jeo.util.Messages;
+import io.jeo.vector.FileVectorDriver;
+import io.jeo.vector.Schema;
+
+import static io.jeo.util.Util.set;
+
+/**
+ * FlatGeobuf driver.
+ * <p>
+ * Based on {@link https://github.com/flatgeobuf/flatgeobuf}
+ * </p>
+ * <p>
+ * Usage:
+ * <pre><code>
+ * FlatGeobuf.open(Paths.get("states.fgb"));
+ * </code></pre>
+ * </p>
+ */
+public class FlatGeobuf extends FileVectorDriver<FlatGeobufDataset> {
+
+    /**
+     * Number of children per node of the spatial index written with the file, defaults to <tt>16</tt>.
+     * <p>
+     * A value of <tt>0</tt> writes no index, features are then streamed directly to the file.
+     * </p>
+     */
+    public static final Key<Integer> NODE_SIZE = new Key<Integer>("node_size", Integer.class, 16);
+
+    public static FlatGeobufDataset open(Path path) throws IOException {
+        return new FlatGeobufDataset(path.toFile());
+    }
+
+    @Override
+    public String name() {
+        return "FlatGeobuf";
+    }
+
+    @Override
+    public List<String> aliases() {
+        return Arrays.asList("fgb");
+    }
+
+    @Override
+    public List<Key<?>> keys() {
+        return Arrays.<Key<?>>asList(FILE, NODE_SIZE);
+    }
+
+    @Override
+    public Class<FlatGeobufDataset> type() {
+        return FlatGeobufDataset.class;
+    }
+
+    @Override
+    protected boolean canOpen(File file, Map<?,Object> opts, Messages msgs) {
+        if (!super.canOpen(file, opts, msgs)) {
+            return false;
+        }
+
+        if (!file.isFile()) {
+            Messages.of(msgs).report(file.getPath() + " is not a file");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public FlatGeobufDataset open(File file, Map<?,Object> opts) throws IOException {
+        return new FlatGeobufDataset(file, NODE_SIZE.get(opts), null);
+    }
+
+    @Override
+    protected FlatGeobufDataset create(File file, Map<?, Object> opts, Schema schema) throws IOException {
+        return new FlatGeobufDataset(file, NODE_SIZE.get(opts), schema);
+    }
+
+    static final Set<Capability> CAPABILITIES = set(BOUND, APPEND);
+
+    @Override
+    public Set<Capability> capabilities() {
+        return CAPABILITIES;
+    }
+}
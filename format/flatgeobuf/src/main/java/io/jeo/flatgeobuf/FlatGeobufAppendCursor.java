@@ -0,0 +1,72 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.MapFeature;
+import io.jeo.vector.Schema;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Appends features to an empty FlatGeobuf file.
+ * <p>
+ * The header and index are written when the cursor is closed.
+ * </p>
+ */
+public class FlatGeobufAppendCursor extends FeatureAppendCursor {
+
+    FlatGeobufWriter writer;
+    Schema schema;
+    Feature next;
+
+    public FlatGeobufAppendCursor(FlatGeobufWriter writer, Schema schema) {
+        this.writer = writer;
+        this.schema = schema;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        if (schema != null) {
+            return next = new ListFeature(schema);
+        }
+        return next = new MapFeature(null, new LinkedHashMap<String,Object>()) {
+            @Override
+            public Feature put(Geometry g) {
+                //hack
+                return put("geometry", g);
+            }
+        };
+    }
+
+    @Override
+    public FlatGeobufAppendCursor write() throws IOException {
+        writer.write(next);
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        writer = null;
+    }
+}
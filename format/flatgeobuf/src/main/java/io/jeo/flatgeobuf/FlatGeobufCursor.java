@@ -0,0 +1,99 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.IOException;
+
+import io.jeo.geom.Geom;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Schema;
+
+/**
+ * Cursor over the features of a FlatGeobuf file.
+ * <p>
+ * The cursor either reads features sequentially from a starting feature, or reads the features matched by an index
+ * search directly from their offsets. Feature identifiers are the ordinals of features in the file.
+ * </p>
+ */
+public class FlatGeobufCursor extends FeatureCursor {
+
+    FlatGeobufReader reader;
+    Schema schema;
+
+    // sequential read state
+    long ordinal;
+    long offset;
+
+    // index read state
+    long[] ordinals;
+    int i;
+
+    Columns columns;
+    GeometryCodec codec;
+    Object[] values;
+
+    FlatGeobufCursor(FlatGeobufReader reader, Schema schema, long ordinal, long offset) {
+        this(reader, schema);
+        this.ordinal = ordinal;
+        this.offset = offset;
+    }
+
+    FlatGeobufCursor(FlatGeobufReader reader, Schema schema, long[] ordinals) {
+        this(reader, schema);
+        this.ordinals = ordinals;
+    }
+
+    FlatGeobufCursor(FlatGeobufReader reader, Schema schema) {
+        this.reader = reader;
+        this.schema = schema;
+
+        columns = new Columns(reader.columnNames, reader.columnTypes);
+        codec = new GeometryCodec(Geom.factory);
+        values = new Object[1 + reader.columnNames.length];
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (ordinals != null) {
+            return i < ordinals.length;
+        }
+        return reader.featuresStart + offset < reader.size;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+
+        if (ordinals != null) {
+            long ord = ordinals[i++];
+            return reader.feature(reader.index.offset(ord), ord, schema, columns, codec, values);
+        }
+
+        Feature f = reader.feature(offset, ordinal++, schema, columns, codec, values);
+        offset += 4 + reader.length(offset);
+        return f;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
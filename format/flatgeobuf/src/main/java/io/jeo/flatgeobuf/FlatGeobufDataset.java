@@ -0,0 +1,189 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.jeo.data.Driver;
+import io.jeo.data.FileData;
+import io.jeo.geom.Bounds;
+import io.jeo.util.Key;
+import io.jeo.util.Util;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import io.jeo.vector.VectorQueryPlan;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+/**
+ * A FlatGeobuf file.
+ * <p>
+ * Bounding box queries are answered from the spatial index of the file, reading only the features whose envelopes
+ * intersect the query bounds. Feature identifiers are the ordinals of features in the file.
+ * </p>
+ */
+public class FlatGeobufDataset implements VectorDataset, FileData {
+
+    File file;
+    int nodeSize;
+
+    // schema of a created dataset, until features are appended
+    Schema schema;
+
+    public FlatGeobufDataset(File file) {
+        this(file, FlatGeobuf.NODE_SIZE.def(), null);
+    }
+
+    public FlatGeobufDataset(File file, int nodeSize, Schema schema) {
+        this.file = file;
+        this.nodeSize = nodeSize;
+        this.schema = schema;
+    }
+
+    @Override
+    public Driver<?> driver() {
+        return new FlatGeobuf();
+    }
+
+    @Override
+    public Map<Key<?>, Object> driverOptions() {
+        Map<Key<?>,Object> opts = new LinkedHashMap<>();
+        opts.put(FlatGeobuf.FILE, file);
+        opts.put(FlatGeobuf.NODE_SIZE, nodeSize);
+        return opts;
+    }
+
+    @Override
+    public File file() {
+        return file;
+    }
+
+    @Override
+    public String name() {
+        return Util.base(file.getName());
+    }
+
+    @Override
+    public Schema schema() throws IOException {
+        if (Util.isEmpty(file)) {
+            return schema;
+        }
+        try (FlatGeobufReader r = reader()) {
+            return r.schema(name());
+        }
+    }
+
+    @Override
+    public CoordinateReferenceSystem crs() throws IOException {
+        if (Util.isEmpty(file)) {
+            return schema != null ? schema.crs() : null;
+        }
+        try (FlatGeobufReader r = reader()) {
+            return r.crs;
+        }
+    }
+
+    @Override
+    public Bounds bounds() throws IOException {
+        if (Util.isEmpty(file)) {
+            return new Bounds();
+        }
+        try (FlatGeobufReader r = reader()) {
+            if (r.bounds != null) {
+                return new Bounds(r.bounds);
+            }
+        }
+        return read(new VectorQuery()).bounds();
+    }
+
+    @Override
+    public long count(VectorQuery q) throws IOException {
+        if (Util.isEmpty(file)) {
+            return 0;
+        }
+
+        if (q.limit() == null && q.offset() == null && !q.isFiltered()) {
+            try (FlatGeobufReader r = reader()) {
+                if (Bounds.isNull(q.bounds())) {
+                    if (r.index != null) {
+                        return r.count;
+                    }
+                }
+                else if (r.index != null) {
+                    return r.index.search(q.bounds()).length;
+                }
+            }
+        }
+        return read(q).count();
+    }
+
+    @Override
+    public FeatureCursor read(VectorQuery q) throws IOException {
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+        if (Util.isEmpty(file)) {
+            return qp.apply(FeatureCursor.empty());
+        }
+
+        FlatGeobufReader r = reader();
+        Schema schema = r.schema(name());
+
+        if (r.index != null) {
+            if (!Bounds.isNull(q.bounds())) {
+                // the index holds the envelope of every feature so the search is the exact bounds check
+                qp.bounded();
+                return qp.apply(r.cursor(schema, q.bounds()));
+            }
+
+            // with no filter or sort the offset is a feature ordinal, seek directly to it
+            if (q.offset() != null && q.isAll() && !q.isSorted()) {
+                qp.offsetted();
+                return qp.apply(r.cursor(schema, q.offset()));
+            }
+        }
+        return qp.apply(r.cursor(schema, 0));
+    }
+
+    @Override
+    public FeatureWriteCursor update(VectorQuery q) throws IOException {
+        throw new IOException("Update cursor not supported");
+    }
+
+    @Override
+    public FeatureAppendCursor append(VectorQuery q) throws IOException {
+        if (!Util.isEmpty(file)) {
+            throw new IOException("Can't append to non empty dataset");
+        }
+        return new FlatGeobufAppendCursor(writer(), schema);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    FlatGeobufReader reader() throws IOException {
+        return new FlatGeobufReader(file);
+    }
+
+    FlatGeobufWriter writer() throws IOException {
+        return new FlatGeobufWriter(Files.newOutputStream(file.toPath()), name(), schema).nodeSize(nodeSize);
+    }
+}
@@ -0,0 +1,244 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.SchemaBuilder;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Reads the header, index and features of a FlatGeobuf file.
+ * <p>
+ * The file is memory mapped and features are decoded in place. Files too large to be mapped as a single buffer are
+ * mapped one feature at a time.
+ * </p>
+ */
+class FlatGeobufReader implements Closeable {
+
+    static final byte[] MAGIC = {0x66, 0x67, 0x62, 3, 0x66, 0x67, 0x62, 0};
+
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // header table fields
+    static final int NAME = 0;
+    static final int ENVELOPE = 1;
+    static final int GEOMETRY_TYPE = 2;
+    static final int HAS_Z = 3;
+    static final int COLUMNS = 7;
+    static final int FEATURES_COUNT = 8;
+    static final int INDEX_NODE_SIZE = 9;
+    static final int CRS = 10;
+
+    // crs table fields
+    static final int CRS_ORG = 0;
+    static final int CRS_CODE = 1;
+    static final int CRS_WKT = 4;
+
+    // feature table fields
+    static final int GEOMETRY = 0;
+    static final int PROPERTIES = 1;
+
+    FileChannel ch;
+    long size;
+    ByteBuffer mapped;
+
+    // header
+    String name;
+    Envelope bounds;
+    int geomType;
+    boolean hasZ;
+    String[] columnNames;
+    int[] columnTypes;
+    long count;
+    int nodeSize;
+    CoordinateReferenceSystem crs;
+
+    PackedRTree index;
+    long featuresStart;
+
+    FlatGeobufReader(File file) throws IOException {
+        ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            size = ch.size();
+            if (size <= Integer.MAX_VALUE) {
+                mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ORDER);
+            }
+
+            if (size < MAGIC.length + 4) {
+                throw new IOException("Not a FlatGeobuf file: " + file.getPath());
+            }
+            ByteBuffer buf = region(0, MAGIC.length + 4);
+            for (int i = 0; i < MAGIC.length; i++) {
+                // accept any minor version
+                if (i != 7 && buf.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a FlatGeobuf file: " + file.getPath());
+                }
+            }
+
+            int headerSize = buf.getInt(MAGIC.length);
+            readHeader(region(MAGIC.length + 4, headerSize));
+
+            long indexStart = MAGIC.length + 4 + headerSize;
+            long indexSize = PackedRTree.size(count, nodeSize);
+            if (indexSize > 0) {
+                index = new PackedRTree(region(indexStart, (int) indexSize), count, nodeSize);
+            }
+            featuresStart = indexStart + indexSize;
+        }
+        catch(IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    void readHeader(ByteBuffer bb) {
+        int h = FlatBuffers.root(bb);
+
+        name = FlatBuffers.string(bb, h, NAME);
+
+        double[] e = FlatBuffers.doubles(bb, h, ENVELOPE);
+        bounds = e != null && e.length >= 4 ? new Envelope(e[0], e[2], e[1], e[3]) : null;
+
+        geomType = FlatBuffers.u8(bb, h, GEOMETRY_TYPE, GeometryCodec.UNKNOWN);
+        hasZ = FlatBuffers.bool(bb, h, HAS_Z, false);
+
+        List<Integer> cols = FlatBuffers.tables(bb, h, COLUMNS);
+        columnNames = new String[cols.size()];
+        columnTypes = new int[cols.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = FlatBuffers.string(bb, cols.get(i), Columns.NAME);
+            columnTypes[i] = FlatBuffers.u8(bb, cols.get(i), Columns.TYPE, Columns.BYTE);
+        }
+
+        count = FlatBuffers.u64(bb, h, FEATURES_COUNT, 0);
+        nodeSize = FlatBuffers.u16(bb, h, INDEX_NODE_SIZE, 16);
+
+        int c = FlatBuffers.ref(bb, h, CRS);
+        if (c != 0) {
+            String org = FlatBuffers.string(bb, c, CRS_ORG);
+            int code = FlatBuffers.i32(bb, c, CRS_CODE, 0);
+            String wkt = FlatBuffers.string(bb, c, CRS_WKT);
+
+            if (code != 0) {
+                crs = Proj.crs((org != null ? org : "EPSG") + ":" + code);
+            }
+            if (crs == null && wkt != null) {
+                crs = Proj.fromWKT(wkt);
+            }
+        }
+    }
+
+    /**
+     * Returns a buffer over a region of the file.
+     */
+    ByteBuffer region(long pos, int len) throws IOException {
+        if (mapped != null) {
+            ByteBuffer buf = mapped.duplicate();
+            buf.position((int) pos).limit((int) pos + len);
+            return buf.slice().order(ORDER);
+        }
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, len).order(ORDER);
+    }
+
+    /**
+     * The schema of the file, the geometry followed by the columns.
+     */
+    Schema schema(String name) {
+        Class<? extends Geometry> type = GeometryCodec.type(geomType);
+
+        SchemaBuilder sb = Schema.build(name);
+        sb.field("geometry", type, crs);
+        for (int i = 0; i < columnNames.length; i++) {
+            sb.field(columnNames[i], Columns.type(columnTypes[i]));
+        }
+        return sb.schema();
+    }
+
+    /**
+     * The size of the feature at an offset, not including the size prefix.
+     */
+    int length(long offset) throws IOException {
+        return region(featuresStart + offset, 4).getInt(0);
+    }
+
+    /**
+     * Returns a cursor over the features starting with the specified feature.
+     * <p>
+     * The offset of the feature is looked up in the index, without an index the cursor must start with the first
+     * feature.
+     * </p>
+     */
+    FeatureCursor cursor(Schema schema, long start) {
+        long offset = 0;
+        if (start > 0) {
+            offset = start < count ? index.offset(start) : size - featuresStart;
+        }
+        return new FlatGeobufCursor(this, schema, start, offset);
+    }
+
+    /**
+     * Returns a cursor over the features whose envelopes intersect the specified bounds, using the index.
+     */
+    FeatureCursor cursor(Schema schema, Envelope bbox) {
+        return new FlatGeobufCursor(this, schema, index.search(bbox));
+    }
+
+    /**
+     * Decodes the feature at an offset.
+     *
+     * @param values Value buffer with one value per schema field.
+     */
+    Feature feature(long offset, long ordinal, Schema schema, Columns columns, GeometryCodec codec,
+        Object[] values) throws IOException {
+
+        int len = length(offset);
+        ByteBuffer bb = region(featuresStart + offset + 4, len);
+
+        int f = FlatBuffers.root(bb);
+        int g = FlatBuffers.ref(bb, f, GEOMETRY);
+        values[0] = g != 0 ? codec.decode(bb, g, geomType) : null;
+
+        int p = FlatBuffers.ref(bb, f, PROPERTIES);
+        columns.decode(bb, p + 4, FlatBuffers.length(bb, p), values, 1);
+
+        return new ListFeature(String.valueOf(ordinal), schema, Arrays.asList(values));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ch != null) {
+            ch.close();
+            ch = null;
+        }
+        mapped = null;
+    }
+}
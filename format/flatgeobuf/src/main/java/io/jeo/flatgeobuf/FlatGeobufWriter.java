@@ -0,0 +1,384 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.jeo.flatgeobuf.FlatBuffers.Table;
+import io.jeo.geom.Geom;
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.Features;
+import io.jeo.vector.Field;
+import io.jeo.vector.Schema;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Writes features to a FlatGeobuf file.
+ * <p>
+ * Features are written one at a time, the writer never holds more than a single encoded feature in memory. With an
+ * index, which is the default, the header and index precede the features and can only be written once all features
+ * are known. Features are spooled to a temporary file until the writer is closed, at which point the header, the
+ * index and the spooled features, in Hilbert order, are written out. With a node size of <tt>0</tt> no index is
+ * written and features are streamed directly to the output, the header then omits the feature count and bounds.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre><code>
+ * try (FlatGeobufWriter w = new FlatGeobufWriter(out, "states", schema)) {
+ *     w.write(cursor);
+ * }
+ * </code></pre>
+ * </p>
+ */
+public class FlatGeobufWriter implements Closeable {
+
+    OutputStream out;
+    String name;
+    Schema schema;
+    int nodeSize = FlatGeobuf.NODE_SIZE.def();
+
+    // set up from the schema on the first feature
+    Field geom;
+    List<Field> fields;
+    Columns columns;
+    GeometryCodec codec = new GeometryCodec(Geom.factory);
+    Object[] values;
+    CoordinateReferenceSystem crs;
+
+    // header totals
+    long count;
+    Envelope bounds = new Envelope();
+    int geomType = -1;
+
+    // spooled features, in write order
+    File spool;
+    OutputStream spoolOut;
+    long pos;
+    double[] boxes = new double[4*1024];
+    long[] offsets = new long[1024];
+
+    // buffer for little endian integers
+    ByteBuffer num = ByteBuffer.allocate(8).order(FlatGeobufReader.ORDER);
+
+    /**
+     * Creates a writer inferring the schema from the first feature written.
+     */
+    public FlatGeobufWriter(OutputStream out, String name) {
+        this(out, name, null);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param out The output stream, closed along with the writer.
+     * @param name The name of the dataset.
+     * @param schema The schema of the features, <code>null</code> to infer it from the first feature.
+     */
+    public FlatGeobufWriter(OutputStream out, String name, Schema schema) {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out);
+        this.name = name;
+        this.schema = schema;
+    }
+
+    /**
+     * Sets the number of children per node of the index, <tt>0</tt> writes no index.
+     */
+    public FlatGeobufWriter nodeSize(int nodeSize) {
+        if (columns != null) {
+            throw new IllegalStateException("Features already written");
+        }
+        if (nodeSize == 1 || nodeSize < 0 || nodeSize > 0xFFFF) {
+            throw new IllegalArgumentException("Illegal node size: " + nodeSize);
+        }
+        this.nodeSize = nodeSize;
+        return this;
+    }
+
+    /**
+     * Writes all features from a cursor, closing the cursor.
+     */
+    public FlatGeobufWriter write(FeatureCursor cursor) throws IOException {
+        try {
+            for (Feature f : cursor) {
+                write(f);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return this;
+    }
+
+    /**
+     * Writes a feature.
+     */
+    public FlatGeobufWriter write(Feature f) throws IOException {
+        if (columns == null) {
+            init(schema != null ? schema : Features.schema(name, f), f);
+        }
+
+        Geometry g = geom != null ? (Geometry) f.get(geom.name()) : f.geometry();
+
+        Table feature = new Table();
+        if (g != null) {
+            feature.table(FlatGeobufReader.GEOMETRY, codec.encode(g));
+
+            int type = GeometryCodec.type(g.getClass());
+            geomType = geomType == -1 || geomType == type ? type : GeometryCodec.UNKNOWN;
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            values[i] = f.get(fields.get(i).name());
+        }
+        int len = columns.encode(values);
+        if (len > 0) {
+            feature.bytes(FlatGeobufReader.PROPERTIES, columns.buf.array(), len);
+        }
+
+        ByteBuffer buf = FlatBuffers.finish(feature);
+        Envelope e = g != null ? g.getEnvelopeInternal() : null;
+        if (e != null) {
+            bounds.expandToInclude(e);
+        }
+
+        if (nodeSize > 0) {
+            int n = (int) count;
+            if (n == offsets.length) {
+                offsets = Arrays.copyOf(offsets, n * 2);
+                boxes = Arrays.copyOf(boxes, n * 8);
+            }
+            offsets[n] = pos;
+            PackedRTree.box(e, boxes, n);
+
+            writeInt(spoolOut, buf.limit());
+            spoolOut.write(buf.array(), 0, buf.limit());
+            pos += 4 + buf.limit();
+        }
+        else {
+            writeInt(out, buf.limit());
+            out.write(buf.array(), 0, buf.limit());
+        }
+
+        count++;
+        return this;
+    }
+
+    void init(Schema schema, Feature first) throws IOException {
+        geom = schema.geometry();
+        fields = new ArrayList<>();
+        for (Field fld : schema) {
+            if (geom == null || !fld.name().equals(geom.name())) {
+                fields.add(fld);
+            }
+        }
+
+        String[] names = new String[fields.size()];
+        int[] types = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fields.get(i).name();
+            types[i] = Columns.type(fields.get(i).type());
+        }
+        columns = new Columns(names, types);
+        values = new Object[names.length];
+
+        crs = schema.crs();
+        if (crs == null && first != null) {
+            crs = Features.crs(first);
+        }
+
+        if (nodeSize > 0) {
+            spool = File.createTempFile("fgb", ".spool");
+            spoolOut = new BufferedOutputStream(Files.newOutputStream(spool.toPath()));
+        }
+        else {
+            writeHeader();
+        }
+    }
+
+    void writeHeader() throws IOException {
+        Table header = new Table()
+            .string(FlatGeobufReader.NAME, name);
+
+        if (nodeSize > 0 && !bounds.isNull()) {
+            header.doubles(FlatGeobufReader.ENVELOPE, new double[]{
+                bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY()}, 4);
+        }
+
+        // declare a uniform geometry type only when known up front or when all features were seen
+        int type = geom != null ? GeometryCodec.type(geom.type()) : GeometryCodec.UNKNOWN;
+        if (type == GeometryCodec.UNKNOWN && nodeSize > 0 && geomType != -1) {
+            type = geomType;
+        }
+        header.u8(FlatGeobufReader.GEOMETRY_TYPE, type);
+        if (codec.anyZ) {
+            header.bool(FlatGeobufReader.HAS_Z, true);
+        }
+
+        List<Table> cols = new ArrayList<>();
+        for (int i = 0; i < columns.names.length; i++) {
+            cols.add(new Table()
+                .string(Columns.NAME, columns.names[i])
+                .u8(Columns.TYPE, columns.types[i]));
+        }
+        header.tables(FlatGeobufReader.COLUMNS, cols);
+
+        if (nodeSize > 0) {
+            header.u64(FlatGeobufReader.FEATURES_COUNT, count);
+        }
+        header.u16(FlatGeobufReader.INDEX_NODE_SIZE, count > 0 ? nodeSize : 0);
+
+        if (crs != null) {
+            Table c = new Table();
+            Integer epsg = Proj.epsgCode(crs);
+            if (epsg != null) {
+                c.string(FlatGeobufReader.CRS_ORG, "EPSG").i32(FlatGeobufReader.CRS_CODE, epsg);
+            }
+            else {
+                c.string(FlatGeobufReader.CRS_WKT, Proj.toWKT(crs, false));
+            }
+            header.table(FlatGeobufReader.CRS, c);
+        }
+
+        ByteBuffer buf = FlatBuffers.finish(header);
+        out.write(FlatGeobufReader.MAGIC);
+        writeInt(out, buf.limit());
+        out.write(buf.array(), 0, buf.limit());
+    }
+
+    void writeInt(OutputStream out, int i) throws IOException {
+        num.clear();
+        num.putInt(i);
+        out.write(num.array(), 0, 4);
+    }
+
+    /**
+     * Writes the index and the spooled features.
+     */
+    void writeIndexed() throws IOException {
+        spoolOut.close();
+        spoolOut = null;
+
+        int n = (int) count;
+        int[] order = PackedRTree.sort(boxes, n, bounds);
+
+        // boxes and offsets in the final feature order
+        double[] sorted = new double[4*n];
+        long[] sortedOffsets = new long[n];
+        long offset = 0;
+        for (int i = 0; i < n; i++) {
+            int item = order[i];
+            System.arraycopy(boxes, 4*item, sorted, 4*i, 4);
+            sortedOffsets[i] = offset;
+            offset += length(item);
+        }
+
+        writeHeader();
+        if (n == 0) {
+            return;
+        }
+
+        ByteBuffer tree = PackedRTree.build(sorted, sortedOffsets, n, nodeSize);
+        out.write(tree.array(), 0, tree.limit());
+
+        try (FileChannel ch = FileChannel.open(spool.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            for (int i = 0; i < n; i++) {
+                int item = order[i];
+                int len = (int) length(item);
+                if (buf.capacity() < len) {
+                    buf = ByteBuffer.allocate(Math.max(len, buf.capacity() * 2));
+                }
+                buf.clear();
+                buf.limit(len);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, offsets[item] + buf.position()) < 0) {
+                        throw new IOException("Unexpected end of spool file");
+                    }
+                }
+                out.write(buf.array(), 0, len);
+            }
+        }
+    }
+
+    /**
+     * The spooled length of a feature, including its size prefix.
+     */
+    long length(int item) {
+        return (item + 1 < count ? offsets[item+1] : pos) - offsets[item];
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            if (columns == null) {
+                // no features written
+                if (schema != null) {
+                    init(schema, null);
+                }
+                else {
+                    columns = new Columns(new String[0], new int[0]);
+                    if (nodeSize == 0) {
+                        writeHeader();
+                    }
+                }
+            }
+
+            if (nodeSize > 0) {
+                if (spoolOut != null) {
+                    writeIndexed();
+                }
+                else {
+                    writeHeader();
+                }
+            }
+        }
+        finally {
+            try {
+                out.close();
+                out = null;
+            }
+            finally {
+                if (spoolOut != null) {
+                    spoolOut.close();
+                    spoolOut = null;
+                }
+                if (spool != null) {
+                    Files.deleteIfExists(spool.toPath());
+                    spool = null;
+                }
+            }
+        }
+    }
+}
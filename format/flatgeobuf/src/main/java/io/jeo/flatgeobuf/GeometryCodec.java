@@ -0,0 +1,284 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.jeo.flatgeobuf.FlatBuffers.Table;
+import io.jeo.geom.Geom;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+
+/**
+ * Encodes and decodes FlatGeobuf <tt>Geometry</tt> tables.
+ * <p>
+ * Coordinates are stored as a flat <tt>xy</tt> array, with an optional parallel <tt>z</tt> array, and the
+ * <tt>ends</tt> array marks the end of each ring or line part. Multi polygons and collections are stored as a vector
+ * of <tt>parts</tt>.
+ * </p>
+ */
+class GeometryCodec {
+
+    // geometry table fields
+    static final int ENDS = 0;
+    static final int XY = 1;
+    static final int Z = 2;
+    static final int TYPE = 6;
+    static final int PARTS = 7;
+
+    // geometry types
+    static final int UNKNOWN = 0;
+    static final int POINT = 1;
+    static final int LINESTRING = 2;
+    static final int POLYGON = 3;
+    static final int MULTIPOINT = 4;
+    static final int MULTILINESTRING = 5;
+    static final int MULTIPOLYGON = 6;
+    static final int GEOMETRYCOLLECTION = 7;
+
+    /**
+     * The geometry type code for a geometry class.
+     */
+    static int type(Class<?> clazz) {
+        Geom.Type t = clazz != null ? Geom.Type.from(clazz) : null;
+        if (t == null) {
+            return UNKNOWN;
+        }
+
+        switch(t) {
+            case POINT: return POINT;
+            case LINESTRING: return LINESTRING;
+            case POLYGON: return POLYGON;
+            case MULTIPOINT: return MULTIPOINT;
+            case MULTILINESTRING: return MULTILINESTRING;
+            case MULTIPOLYGON: return MULTIPOLYGON;
+            case GEOMETRYCOLLECTION: return GEOMETRYCOLLECTION;
+            default: return UNKNOWN;
+        }
+    }
+
+    /**
+     * The geometry class for a geometry type code.
+     */
+    static Class<? extends Geometry> type(int type) {
+        switch(type) {
+            case POINT: return Point.class;
+            case LINESTRING: return LineString.class;
+            case POLYGON: return Polygon.class;
+            case MULTIPOINT: return MultiPoint.class;
+            case MULTILINESTRING: return MultiLineString.class;
+            case MULTIPOLYGON: return MultiPolygon.class;
+            case GEOMETRYCOLLECTION: return GeometryCollection.class;
+            default: return Geometry.class;
+        }
+    }
+
+    GeometryFactory factory;
+
+    // coordinate buffers reused across geometries
+    double[] xy = new double[256];
+    double[] z = new double[128];
+    int n;
+    boolean hasZ;
+    int[] ends = new int[8];
+    int numEnds;
+
+    // set once any encoded coordinate has a z value
+    boolean anyZ;
+
+    GeometryCodec(GeometryFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Encodes a geometry, the type is always written so that features can be decoded regardless of the header.
+     */
+    Table encode(Geometry g) {
+        Table t = new Table();
+        int type = type(g.getClass());
+        t.u8(TYPE, type);
+
+        if (type == MULTIPOLYGON || type == GEOMETRYCOLLECTION) {
+            List<Table> parts = new ArrayList<>(g.getNumGeometries());
+            for (int i = 0; i < g.getNumGeometries(); i++) {
+                parts.add(encode(g.getGeometryN(i)));
+            }
+            return t.tables(PARTS, parts);
+        }
+
+        n = 0;
+        numEnds = 0;
+        hasZ = false;
+
+        switch(type) {
+            case POINT:
+                if (!g.isEmpty()) {
+                    add(((Point) g).getCoordinateSequence());
+                }
+                break;
+            case LINESTRING:
+                add(((LineString) g).getCoordinateSequence());
+                break;
+            case MULTIPOINT:
+                for (int i = 0; i < g.getNumGeometries(); i++) {
+                    add(((Point) g.getGeometryN(i)).getCoordinateSequence());
+                }
+                break;
+            case POLYGON:
+                Polygon p = (Polygon) g;
+                if (!p.isEmpty()) {
+                    add(p.getExteriorRing().getCoordinateSequence());
+                    end();
+                    for (int i = 0; i < p.getNumInteriorRing(); i++) {
+                        add(p.getInteriorRingN(i).getCoordinateSequence());
+                        end();
+                    }
+                }
+                break;
+            case MULTILINESTRING:
+                for (int i = 0; i < g.getNumGeometries(); i++) {
+                    add(((LineString) g.getGeometryN(i)).getCoordinateSequence());
+                    end();
+                }
+                break;
+        }
+
+        t.doubles(XY, Arrays.copyOf(xy, 2*n), 2*n);
+        if (hasZ) {
+            t.doubles(Z, Arrays.copyOf(z, n), n);
+        }
+        if (numEnds > 1) {
+            t.uints(ENDS, Arrays.copyOf(ends, numEnds), numEnds);
+        }
+        return t;
+    }
+
+    void add(CoordinateSequence seq) {
+        int size = seq.size();
+        if (2*(n + size) > xy.length) {
+            xy = Arrays.copyOf(xy, Math.max(2*(n + size), xy.length * 2));
+            z = Arrays.copyOf(z, xy.length / 2);
+        }
+
+        boolean dimZ = seq.getDimension() > 2;
+        for (int i = 0; i < size; i++) {
+            xy[2*(n+i)] = seq.getX(i);
+            xy[2*(n+i)+1] = seq.getY(i);
+
+            double zval = dimZ ? seq.getOrdinate(i, CoordinateSequence.Z) : Double.NaN;
+            z[n+i] = zval;
+            hasZ |= !Double.isNaN(zval);
+        }
+        anyZ |= hasZ;
+        n += size;
+    }
+
+    void end() {
+        if (numEnds == ends.length) {
+            ends = Arrays.copyOf(ends, numEnds * 2);
+        }
+        ends[numEnds++] = n;
+    }
+
+    /**
+     * Decodes a geometry table.
+     *
+     * @param type The geometry type from the header, used when the geometry does not specify one.
+     */
+    Geometry decode(ByteBuffer bb, int geom, int type) {
+        type = FlatBuffers.u8(bb, geom, TYPE, type);
+
+        if (type == MULTIPOLYGON || type == GEOMETRYCOLLECTION) {
+            List<Integer> parts = FlatBuffers.tables(bb, geom, PARTS);
+            Geometry[] geoms = new Geometry[parts.size()];
+            for (int i = 0; i < geoms.length; i++) {
+                geoms[i] = decode(bb, parts.get(i), type == MULTIPOLYGON ? POLYGON : UNKNOWN);
+            }
+            if (type == MULTIPOLYGON) {
+                return factory.createMultiPolygon(Arrays.copyOf(geoms, geoms.length, Polygon[].class));
+            }
+            return factory.createGeometryCollection(geoms);
+        }
+
+        double[] xy = FlatBuffers.doubles(bb, geom, XY);
+        double[] z = FlatBuffers.doubles(bb, geom, Z);
+        int[] ends = FlatBuffers.uints(bb, geom, ENDS);
+        int n = xy != null ? xy.length / 2 : 0;
+        if (ends == null) {
+            ends = new int[]{n};
+        }
+
+        switch(type) {
+            case POINT:
+                return factory.createPoint(n > 0 ? seq(xy, z, 0, 1) : null);
+            case LINESTRING:
+                return factory.createLineString(seq(xy, z, 0, n));
+            case MULTIPOINT:
+                Point[] points = new Point[n];
+                for (int i = 0; i < n; i++) {
+                    points[i] = factory.createPoint(seq(xy, z, i, i+1));
+                }
+                return factory.createMultiPoint(points);
+            case POLYGON:
+                if (n == 0) {
+                    return factory.createPolygon(null, null);
+                }
+                LinearRing shell = factory.createLinearRing(seq(xy, z, 0, ends[0]));
+                LinearRing[] holes = new LinearRing[ends.length - 1];
+                for (int i = 0; i < holes.length; i++) {
+                    holes[i] = factory.createLinearRing(seq(xy, z, ends[i], ends[i+1]));
+                }
+                return factory.createPolygon(shell, holes);
+            case MULTILINESTRING:
+                LineString[] lines = new LineString[n > 0 ? ends.length : 0];
+                for (int i = 0, start = 0; i < lines.length; i++) {
+                    lines[i] = factory.createLineString(seq(xy, z, start, ends[i]));
+                    start = ends[i];
+                }
+                return factory.createMultiLineString(lines);
+            default:
+                throw new IllegalArgumentException("Unsupported geometry type: " + type);
+        }
+    }
+
+    CoordinateSequence seq(double[] xy, double[] z, int start, int end) {
+        int n = end - start;
+        if (z == null) {
+            return new PackedCoordinateSequence.Double(Arrays.copyOfRange(xy, 2*start, 2*end), 2);
+        }
+
+        double[] xyz = new double[3*n];
+        for (int i = 0; i < n; i++) {
+            xyz[3*i] = xy[2*(start+i)];
+            xyz[3*i+1] = xy[2*(start+i)+1];
+            xyz[3*i+2] = z[start+i];
+        }
+        return new PackedCoordinateSequence.Double(xyz, 3);
+    }
+}
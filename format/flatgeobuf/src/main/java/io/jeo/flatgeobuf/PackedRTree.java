@@ -0,0 +1,255 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.jeo.geom.Hilbert;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Packed Hilbert R-tree of a FlatGeobuf file.
+ * <p>
+ * The tree is stored as an array of 40 byte nodes, each a box (four little endian doubles) followed by an unsigned
+ * 64 bit offset. The root is the first node and the leaves, one per feature in file order, are the last. The offset
+ * of a leaf is the byte offset of its feature relative to the start of the features section, the offset of any other
+ * node is the index of its first child.
+ * </p>
+ */
+class PackedRTree {
+
+    static final int NODE_LENGTH = 40;
+
+    /**
+     * Computes the node range of every level of a tree, leaves first.
+     *
+     * @return Pairs of start (inclusive) and end (exclusive) node indices.
+     */
+    static long[][] levels(long numItems, int nodeSize) {
+        List<Long> sizes = new ArrayList<>();
+        long n = numItems;
+        long numNodes = n;
+        sizes.add(n);
+        do {
+            n = (n + nodeSize - 1) / nodeSize;
+            numNodes += n;
+            sizes.add(n);
+        } while (n != 1);
+
+        long[][] levels = new long[sizes.size()][];
+        n = numNodes;
+        for (int i = 0; i < levels.length; i++) {
+            long size = sizes.get(i);
+            levels[i] = new long[]{n - size, n};
+            n -= size;
+        }
+        return levels;
+    }
+
+    /**
+     * The number of nodes of a tree.
+     */
+    static long numNodes(long numItems, int nodeSize) {
+        return numItems > 0 && nodeSize > 0 ? levels(numItems, nodeSize)[0][1] : 0;
+    }
+
+    /**
+     * The number of bytes of a tree.
+     */
+    static long size(long numItems, int nodeSize) {
+        return numNodes(numItems, nodeSize) * NODE_LENGTH;
+    }
+
+    /**
+     * Sorts items by the hilbert value of the centers of their boxes.
+     *
+     * @param boxes Item boxes, four values per item.
+     * @param n Number of items.
+     * @param extent Extent of all items.
+     *
+     * @return The items indices in sorted order.
+     */
+    static int[] sort(double[] boxes, int n, Envelope extent) {
+        // the item index breaks ties and keeps the sort stable
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            long h = 0;
+            if (boxes[4*i] <= boxes[4*i+2]) {
+                h = Hilbert.index(new Envelope(boxes[4*i], boxes[4*i+2], boxes[4*i+1], boxes[4*i+3]), extent);
+            }
+            order[i] = (h << 31) | i;
+        }
+        Arrays.sort(order);
+
+        int[] items = new int[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = (int) (order[i] & Integer.MAX_VALUE);
+        }
+        return items;
+    }
+
+    static void box(Envelope e, double[] boxes, int i) {
+        if (e == null || e.isNull()) {
+            // inverted box, never intersects anything
+            boxes[4*i] = boxes[4*i+1] = Double.POSITIVE_INFINITY;
+            boxes[4*i+2] = boxes[4*i+3] = Double.NEGATIVE_INFINITY;
+        }
+        else {
+            boxes[4*i] = e.getMinX();
+            boxes[4*i+1] = e.getMinY();
+            boxes[4*i+2] = e.getMaxX();
+            boxes[4*i+3] = e.getMaxY();
+        }
+    }
+
+    /**
+     * Builds a tree.
+     *
+     * @param boxes Item boxes, four values per item, in file order.
+     * @param offsets Item feature offsets, in file order.
+     * @param n Number of items.
+     * @param nodeSize Number of children per node.
+     *
+     * @return The encoded tree, positioned at zero.
+     */
+    static ByteBuffer build(double[] boxes, long[] offsets, int n, int nodeSize) {
+        long[][] levels = levels(n, nodeSize);
+        int numNodes = (int) levels[0][1];
+
+        double[] nodes = new double[4*numNodes];
+        long[] refs = new long[numNodes];
+
+        int leaves = (int) levels[0][0];
+        System.arraycopy(boxes, 0, nodes, 4*leaves, 4*n);
+        System.arraycopy(offsets, 0, refs, leaves, n);
+
+        // build parent levels bottom up
+        for (int l = 0; l < levels.length - 1; l++) {
+            int pos = (int) levels[l][0];
+            int end = (int) levels[l][1];
+            int parent = (int) levels[l+1][0];
+            while (pos < end) {
+                double minx = Double.POSITIVE_INFINITY, miny = Double.POSITIVE_INFINITY;
+                double maxx = Double.NEGATIVE_INFINITY, maxy = Double.NEGATIVE_INFINITY;
+
+                int start = pos;
+                for (int i = 0; i < nodeSize && pos < end; i++, pos++) {
+                    minx = Math.min(minx, nodes[4*pos]);
+                    miny = Math.min(miny, nodes[4*pos+1]);
+                    maxx = Math.max(maxx, nodes[4*pos+2]);
+                    maxy = Math.max(maxy, nodes[4*pos+3]);
+                }
+
+                nodes[4*parent] = minx;
+                nodes[4*parent+1] = miny;
+                nodes[4*parent+2] = maxx;
+                nodes[4*parent+3] = maxy;
+                refs[parent++] = start;
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(numNodes * NODE_LENGTH).order(FlatGeobufReader.ORDER);
+        for (int i = 0; i < numNodes; i++) {
+            buf.putDouble(nodes[4*i]).putDouble(nodes[4*i+1]).putDouble(nodes[4*i+2]).putDouble(nodes[4*i+3]);
+            buf.putLong(refs[i]);
+        }
+        buf.flip();
+        return buf;
+    }
+
+    ByteBuffer tree;
+    long numItems;
+    int nodeSize;
+    long[][] levels;
+
+    /**
+     * Creates a tree over encoded nodes.
+     *
+     * @param tree The little endian encoded nodes.
+     */
+    PackedRTree(ByteBuffer tree, long numItems, int nodeSize) {
+        this.tree = tree;
+        this.numItems = numItems;
+        this.nodeSize = nodeSize;
+        this.levels = levels(numItems, nodeSize);
+    }
+
+    /**
+     * Searches the tree, returning the ordinals of the features whose boxes intersect the specified bounds in file
+     * order.
+     */
+    long[] search(Envelope bbox) {
+        if (numItems == 0 || bbox.isNull()) {
+            return new long[0];
+        }
+
+        long leaves = levels[0][0];
+
+        long[] result = new long[16];
+        int n = 0;
+
+        // pairs of node index and level
+        long[] stack = new long[32];
+        int top = 0;
+
+        long node = 0;
+        int level = levels.length - 1;
+        while (true) {
+            long end = Math.min(node + nodeSize, levels[level][1]);
+            for (long pos = node; pos < end; pos++) {
+                int b = (int) (pos * NODE_LENGTH);
+                if (bbox.getMaxX() < tree.getDouble(b) || bbox.getMaxY() < tree.getDouble(b + 8)
+                    || bbox.getMinX() > tree.getDouble(b + 16) || bbox.getMinY() > tree.getDouble(b + 24)) {
+                    continue;
+                }
+
+                if (pos >= leaves) {
+                    if (n == result.length) {
+                        result = Arrays.copyOf(result, n * 2);
+                    }
+                    result[n++] = pos - leaves;
+                }
+                else {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = tree.getLong(b + 32);
+                    stack[top++] = level - 1;
+                }
+            }
+
+            if (top == 0) {
+                break;
+            }
+            level = (int) stack[--top];
+            node = stack[--top];
+        }
+
+        result = Arrays.copyOf(result, n);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * The offset of a feature relative to the start of the features section.
+     */
+    long offset(long ordinal) {
+        return tree.getLong((int) ((levels[0][0] + ordinal) * NODE_LENGTH) + 32);
+    }
+}
@@ -0,0 +1,43 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import io.jeo.Tests;
+import io.jeo.geojson.GeoJSONDataset;
+import io.jeo.proj.Proj;
+import io.jeo.vector.SchemaBuilder;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FlatGeobufApiTest extends VectorApiTestBase {
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        Path dir = Tests.unzip(getClass().getResourceAsStream("/io/jeo/geojson/states.zip"), Tests.newTmpDir());
+        GeoJSONDataset json = new GeoJSONDataset(dir.resolve("states.json").toFile());
+
+        File file = dir.resolve("states.fgb").toFile();
+        try (FlatGeobufWriter w = new FlatGeobufWriter(Files.newOutputStream(file.toPath()), "states",
+            SchemaBuilder.crs(json.schema(), Proj.EPSG_4326))) {
+            w.write(json.read(new VectorQuery()));
+        }
+        return new FlatGeobufDataset(file);
+    }
+}
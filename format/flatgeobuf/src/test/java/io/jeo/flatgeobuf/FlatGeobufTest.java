@@ -0,0 +1,286 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.flatgeobuf;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jeo.Tests;
+import io.jeo.geom.Geom;
+import io.jeo.proj.Proj;
+import io.jeo.util.Util;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+public class FlatGeobufTest {
+
+    File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Tests.newTmpDir("fgb", "test").resolve("test.fgb").toFile();
+    }
+
+    @Test
+    public void testGeometries() throws Exception {
+        List<Geometry> geoms = new ArrayList<>();
+        geoms.add(Geom.point(30, 10));
+        geoms.add(Geom.lineString(30,10, 10,30, 40,40));
+        geoms.add(Geom.build().points(30,10, 40,40, 20,40, 10,20, 30,10).ring().toPolygon());
+        geoms.add(Geom.build()
+            .points(35,10, 45,45, 15,40, 10,20, 35,10).ring()
+            .points(20,30, 35,35, 30,20, 20,30).ring()
+            .toPolygon());
+        geoms.add(Geom.build().points(10,40, 40,30, 20,20, 30,10).toMultiPoint());
+        geoms.add(Geom.build().points(10,10, 20,20, 10,40).lineString()
+            .points(40,40, 30,30, 40,20, 30,10).lineString().toMultiLineString());
+        geoms.add(Geom.build()
+            .points(40,40, 20,45, 45,30, 40,40).ring().polygon()
+            .points(20,35, 10,30, 10,10, 30,5, 45,20, 20,35).ring()
+            .points(30,20, 20,15, 20,25, 30,20).ring().polygon()
+            .toMultiPolygon());
+        geoms.add(Geom.build().point(4, 6).point().points(4,6, 7,10).lineString().toCollection());
+        geoms.add(Geom.build().pointz(1, 2, 3).toPoint());
+
+        for (int nodeSize : new int[]{0, 16}) {
+            Files.deleteIfExists(file.toPath());
+            try (FlatGeobufWriter w = new FlatGeobufWriter(Files.newOutputStream(file.toPath()), "test")
+                .nodeSize(nodeSize)) {
+                for (int i = 0; i < geoms.size(); i++) {
+                    w.write(new ListFeature(String.valueOf(i), schema(), geoms.get(i), "geom" + i, i, i / 2.0));
+                }
+            }
+
+            FlatGeobufDataset data = new FlatGeobufDataset(file);
+            assertEquals(geoms.size(), data.count(new VectorQuery()));
+
+            // features are stored in hilbert order with an index, match by name
+            try (FeatureCursor c = data.read(new VectorQuery())) {
+                for (Feature f : c) {
+                    int i = ((Number) f.get("num")).intValue();
+                    assertEquals("geom" + i, f.get("name"));
+                    assertEquals(i / 2.0, ((Number) f.get("dbl")).doubleValue(), 0.0);
+                    assertTrue(geoms.get(i).equalsExact(f.geometry()));
+                }
+            }
+
+            Point p = (Point) data.read(new VectorQuery().filter("num = 8")).first().get().geometry();
+            assertEquals(3, p.getCoordinate().z, 0.0);
+        }
+    }
+
+    @Test
+    public void testSchema() throws Exception {
+        write(16);
+
+        Schema schema = new FlatGeobufDataset(file).schema();
+        assertEquals(Point.class, schema.geometry().type());
+        assertEquals(String.class, schema.field("name").type());
+        assertEquals(Integer.class, schema.field("num").type());
+        assertEquals(Double.class, schema.field("dbl").type());
+        assertEquals(Integer.valueOf(4326), Proj.epsgCode(schema.crs()));
+    }
+
+    @Test
+    public void testNullValues() throws Exception {
+        try (FlatGeobufWriter w = new FlatGeobufWriter(Files.newOutputStream(file.toPath()), "test", schema())) {
+            w.write(new ListFeature(schema(), null, "one", null, 1.0));
+            w.write(new ListFeature(schema(), Geom.point(1, 1), null, 2, null));
+        }
+
+        List<Feature> features = features(new FlatGeobufDataset(file).read(new VectorQuery()));
+        assertEquals(2, features.size());
+        assertNull(features.get(0).geometry());
+        assertEquals("one", features.get(0).get("name"));
+        assertNull(features.get(0).get("num"));
+        assertNull(features.get(1).get("name"));
+        assertEquals(2, features.get(1).get("num"));
+        assertNull(features.get(1).get("dbl"));
+    }
+
+    @Test
+    public void testBounds() throws Exception {
+        write(4);
+
+        FlatGeobufDataset data = new FlatGeobufDataset(file);
+        assertEquals(new Envelope(0, 99, 0, 99), data.bounds());
+
+        for (Envelope bbox : new Envelope[]{new Envelope(10.5, 20.5, 30.5, 34.5), new Envelope(-5, 0, -5, 0),
+            new Envelope(98.5, 200, -200, 200), new Envelope(-10, -5, -10, -5)}) {
+
+            List<Feature> features = features(data.read(new VectorQuery().bounds(bbox)));
+            int expected = 0;
+            for (int x = 0; x < 100; x++) {
+                for (int y = 0; y < 100; y++) {
+                    if (bbox.intersects(x, y)) {
+                        expected++;
+                    }
+                }
+            }
+            assertEquals(expected, features.size());
+            assertEquals(expected, data.count(new VectorQuery().bounds(bbox)));
+            for (Feature f : features) {
+                assertTrue(bbox.intersects(f.geometry().getEnvelopeInternal()));
+            }
+        }
+    }
+
+    @Test
+    public void testOffset() throws Exception {
+        write(16);
+
+        FlatGeobufDataset data = new FlatGeobufDataset(file);
+        List<Feature> all = features(data.read(new VectorQuery()));
+        assertEquals(10000, all.size());
+
+        List<Feature> page = features(data.read(new VectorQuery().offset(5000).limit(10)));
+        assertEquals(10, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(all.get(5000 + i).id(), page.get(i).id());
+            assertEquals(all.get(5000 + i).get("name"), page.get(i).get("name"));
+        }
+
+        assertEquals(0, data.read(new VectorQuery().offset(20000)).count());
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        FlatGeobufDataset data = new FlatGeobuf().create(Util.map((Object) FlatGeobuf.FILE, (Object) file), schema());
+        assertEquals(schema().fields().size(), data.schema().fields().size());
+
+        try (FeatureAppendCursor c = data.append(new VectorQuery())) {
+            for (int i = 0; i < 10; i++) {
+                c.next().put(Geom.point(i, i)).put("name", "point" + i).put("num", i).put("dbl", i * 0.5);
+                c.write();
+            }
+        }
+
+        assertEquals(10, data.count(new VectorQuery()));
+        assertEquals(1, data.count(new VectorQuery().bounds(new Envelope(2.5, 3.5, 2.5, 3.5))));
+        assertEquals("point3", data.read(new VectorQuery().filter("num = 3")).first().get().get("name"));
+
+        try {
+            data.append(new VectorQuery());
+            fail();
+        }
+        catch(IOException expected) {
+        }
+    }
+
+    @Test
+    public void testReadFixture() throws Exception {
+        // encoded independently of FlatGeobufWriter: back to front buffers, features in hilbert order, the index
+        // node size and has_z left to their defaults and a missing property value
+        Files.copy(getClass().getResourceAsStream("polygons.fgb"), file.toPath());
+
+        FlatGeobufDataset data = new FlatGeobufDataset(file);
+        assertEquals(new Envelope(0, 30, 0, 30), data.bounds());
+        assertEquals(Proj.EPSG_4326, data.crs());
+
+        Schema schema = data.schema();
+        assertEquals(Polygon.class, schema.geometry().type());
+        assertEquals(4, schema.size());
+        assertEquals(String.class, schema.field("name").type());
+        assertEquals(Integer.class, schema.field("pop").type());
+        assertEquals(Double.class, schema.field("area").type());
+
+        List<Feature> all = features(data.read(new VectorQuery()));
+        assertEquals(4, all.size());
+
+        Feature f = all.get(0);
+        assertEquals("alpha", f.get("name"));
+        assertEquals(10, f.get("pop"));
+        assertEquals(100.0, f.get("area"));
+        assertTrue(Geom.build().points(0,0, 10,0, 10,10, 0,10, 0,0).ring().toPolygon().equalsExact(f.geometry()));
+
+        f = all.get(2);
+        assertEquals("delta", f.get("name"));
+        assertNull(f.get("pop"));
+
+        f = all.get(3);
+        assertEquals("beta", f.get("name"));
+        Polygon p = (Polygon) f.geometry();
+        assertEquals(1, p.getNumInteriorRing());
+        assertEquals(new Envelope(22, 28, 2, 8), p.getInteriorRingN(0).getEnvelopeInternal());
+
+        List<Feature> hits = features(data.read(new VectorQuery().bounds(new Envelope(15, 35, -5, 5))));
+        assertEquals(1, hits.size());
+        assertEquals("beta", hits.get(0).get("name"));
+
+        hits = features(data.read(new VectorQuery().bounds(new Envelope(5, 25, 25, 35))));
+        assertEquals(2, hits.size());
+        assertEquals("gamma", hits.get(0).get("name"));
+        assertEquals("delta", hits.get(1).get("name"));
+
+        assertEquals(0, data.count(new VectorQuery().bounds(new Envelope(12, 18, 12, 18))));
+    }
+
+    @Test
+    public void testCanOpen() throws Exception {
+        write(16);
+
+        FlatGeobuf drv = new FlatGeobuf();
+        assertTrue(drv.canOpen(Util.map((Object) FlatGeobuf.FILE, (Object) file), null));
+        assertFalse(drv.canOpen(Util.map((Object) FlatGeobuf.FILE, (Object) file.getParentFile()), null));
+    }
+
+    Schema schema() {
+        return Schema.build("test").field("geometry", Geometry.class, Proj.EPSG_4326)
+            .field("name", String.class).field("num", Integer.class).field("dbl", Double.class).schema();
+    }
+
+    void write(int nodeSize) throws IOException {
+        Schema schema = Schema.build("test").field("geometry", Point.class, Proj.EPSG_4326)
+            .field("name", String.class).field("num", Integer.class).field("dbl", Double.class).schema();
+
+        try (FlatGeobufWriter w = new FlatGeobufWriter(Files.newOutputStream(file.toPath()), "test", schema)
+            .nodeSize(nodeSize)) {
+            for (int x = 0; x < 100; x++) {
+                for (int y = 0; y < 100; y++) {
+                    w.write(new ListFeature(schema, Geom.point(x, y), x + "," + y, 100*x + y, x / (y + 1.0)));
+                }
+            }
+        }
+    }
+
+    List<Feature> features(FeatureCursor cursor) throws IOException {
+        List<Feature> list = new ArrayList<>();
+        try {
+            for (Feature f : cursor) {
+                list.add(f);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return list;
+    }
+}
@@ -39,7 +39,11 @@ import org.osgeo.proj4j.CoordinateReferenceSystem;
 public class GeobufDataset implements VectorDataset, FileData {
 
     File file;
-    GeobufReader reader;
+
+    // crs cached along with the file state it was read from
+    CoordinateReferenceSystem crs;
+    long crsModified = -1;
+    long crsLength = -1;
 
     public GeobufDataset(File file) throws IOException {
         this.file = file;
@@ -72,7 +76,17 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public CoordinateReferenceSystem crs() throws IOException {
-        return reader().crs();
+        // the crs is encoded after the features, avoid scanning the file more than once
+        long modified = file.lastModified();
+        long length = file.length();
+        if (modified != crsModified || length != crsLength) {
+            try (GeobufStreamReader r = stream()) {
+                crs = r.crs();
+            }
+            crsModified = modified;
+            crsLength = length;
+        }
+        return crs;
     }
 
     @Override
@@ -82,12 +96,17 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public long count(VectorQuery q) throws IOException {
-      return read(q).count();
+        if (q.isAll() && q.limit() == null && q.offset() == null) {
+            try (GeobufStreamReader r = stream()) {
+                return r.count();
+            }
+        }
+        return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        return new VectorQueryPlan(q).apply(reader().featureCollection());
+        return new VectorQueryPlan(q).apply(stream().featureCollection());
     }
 
     @Override
@@ -105,19 +124,14 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public void close() {
-        if (reader != null) {
-            reader.close();
-            reader = null;
-        }
     }
 
-    GeobufReader reader() throws IOException {
-        if (reader == null) {
-            reader = new GeobufReader(Files.newInputStream(file.toPath()));
-            if (reader.data.getDataTypeCase() != DataTypeCase.FEATURE_COLLECTION) {
-                // TODO: wrap geometry and feature?
-                throw new IOException("Geobuf not a feature collection");
-            }
+    GeobufStreamReader stream() throws IOException {
+        GeobufStreamReader reader = new GeobufStreamReader(Files.newInputStream(file.toPath()));
+        if (reader.type() != DataTypeCase.FEATURE_COLLECTION) {
+            reader.close();
+            // TODO: wrap geometry and feature?
+            throw new IOException("Geobuf not a feature collection");
         }
         return reader;
     }
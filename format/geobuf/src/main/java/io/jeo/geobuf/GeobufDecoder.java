@@ -0,0 +1,272 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import io.jeo.geobuf.Geobuf.Data.Feature;
+import io.jeo.geobuf.Geobuf.Data.Feature.IdTypeCase;
+import io.jeo.geobuf.Geobuf.Data.Geometry;
+import io.jeo.geobuf.Geobuf.Data.Value;
+import io.jeo.geobuf.Geobuf.Data.Value.ValueTypeCase;
+import io.jeo.proj.Proj;
+import io.jeo.vector.MapFeature;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes geobuf protocol buffer messages into geometries and features.
+ * <p>
+ * Shared by {@link GeobufReader} and {@link GeobufStreamReader}, a decoder is configured with the global key table,
+ * coordinate dimension and precision of a geobuf stream.
+ * </p>
+ */
+class GeobufDecoder {
+
+    // property keys
+    final List<String> keys;
+
+    // coordinate dimensions
+    final int dim;
+
+    // precision ^ 10
+    final double e;
+
+    // coordinate / geometry factories
+    final PackedCoordinateSequenceFactory csFactory;
+    final GeometryFactory gFactory;
+
+    GeobufDecoder(List<String> keys, int dim, int precision) {
+        this.keys = keys;
+        this.dim = dim;
+        this.e = Math.pow(10, precision);
+
+        csFactory = new PackedCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE, dim);
+        gFactory = new GeometryFactory(csFactory);
+    }
+
+    /**
+     * Decodes the crs from a list of custom properties and values.
+     */
+    CoordinateReferenceSystem crs(List<Integer> props, List<Value> vals) {
+        int i = keys.indexOf(CustomKeys.CRS);
+        int p = props.indexOf(i);
+        if (p > -1 && p % 2 == 0) {
+            return Proj.crs((String) decode(vals.get(props.get(p+1))));
+        }
+        return null;
+    }
+
+    com.vividsolutions.jts.geom.Geometry decode(Geometry g) {
+        switch (g.getType()) {
+            case POINT:
+                return decodePoint(g);
+            case LINESTRING:
+                return decodeLine(g);
+            case POLYGON:
+                return decodePolygon(g);
+            case MULTIPOINT:
+                return decodeMultiPoint(g);
+            case MULTILINESTRING:
+                return decodeMultiLine(g);
+            case MULTIPOLYGON:
+                return decodeMultiPolygon(g);
+            case GEOMETRYCOLLECTION:
+                return decodeCollection(g);
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    com.vividsolutions.jts.geom.Point decodePoint(Geometry g) {
+        double[] p = new double[dim];
+        for (int k = 0; k < dim; k++) {
+            p[k] = g.getCoords(k) / e;
+        }
+
+        return gFactory.createPoint(csFactory.create(p, dim));
+    }
+
+    com.vividsolutions.jts.geom.LineString decodeLine(Geometry g) {
+        return gFactory.createLineString(readAllCoords(g, false));
+    }
+
+    com.vividsolutions.jts.geom.LineString decodeLine(Geometry g, int start, int len) {
+        return gFactory.createLineString(readCoords(g, start, len, false));
+    }
+
+    com.vividsolutions.jts.geom.LinearRing
+
+    decodeRing(Geometry g, int start, int len) {
+        return gFactory.createLinearRing(readCoords(g, start, len, true));
+    }
+
+    com.vividsolutions.jts.geom.Polygon decodePolygon(Geometry g) {
+        if (g.getLengthsCount() > 0) {
+            return decodePolygon(g, 0, 0, g.getLengthsCount());
+        }
+        else {
+            return gFactory.createPolygon(readAllCoords(g, true));
+        }
+    }
+
+    com.vividsolutions.jts.geom.Polygon decodePolygon(Geometry g, int start, int lenStart, int nRings) {
+        int len = g.getLengths(lenStart);
+        LinearRing shell = decodeRing(g, start, len);
+
+        LinearRing[] holes = new LinearRing[nRings-1];
+        for (int i = 0; i < holes.length; i++) {
+            start += len;
+            len = g.getLengths(lenStart+i+1);
+            holes[i] = decodeRing(g, start, len);
+        }
+
+        return gFactory.createPolygon(shell, holes);
+    }
+
+    com.vividsolutions.jts.geom.MultiPoint decodeMultiPoint(Geometry g) {
+        return gFactory.createMultiPoint(readCoords(g, 0, g.getCoordsCount()/dim, false));
+    }
+
+    com.vividsolutions.jts.geom.MultiLineString decodeMultiLine(Geometry g) {
+        LineString[] lines;
+        if (g.getLengthsCount() > 0) {
+            lines = new LineString[g.getLengthsCount()];
+
+            int start = 0;
+            for (int i = 0; i < lines.length; i++) {
+                int len = g.getLengths(i);
+                lines[i] = decodeLine(g, start, len);
+                start += len;
+            }
+        }
+        else {
+            lines = new LineString[]{ decodeLine(g) };
+        }
+
+        return gFactory.createMultiLineString(lines);
+    }
+
+    com.vividsolutions.jts.geom.MultiPolygon decodeMultiPolygon(Geometry g) {
+        Polygon[] polygons;
+        if (g.getLengthsCount() > 0) {
+            List<Polygon> list = new ArrayList<>(g.getLengths(0));
+            int start = 0;
+            int i = 1;
+            while (i < g.getLengthsCount()) {
+                int nrings = g.getLengths(i++);
+                list.add(decodePolygon(g, start, i, nrings));
+
+                for (int j = 0; j < nrings; j++) {
+                    start += g.getLengths(i);
+                    i++;
+                }
+            }
+
+            polygons = list.toArray(new Polygon[list.size()]);
+        }
+        else {
+            polygons = new Polygon[]{decodePolygon(g)};
+        }
+        return gFactory.createMultiPolygon(polygons);
+    }
+
+    com.vividsolutions.jts.geom.Geometry decodeCollection(Geometry g) {
+        List<com.vividsolutions.jts.geom.Geometry> geoms = new ArrayList<>();
+        if (g.getGeometriesCount() < 2) {
+            geoms.add(decode(g));
+        }
+        else {
+            for (int i = 0; i < g.getGeometriesCount(); i++) {
+                geoms.add(decode(g.getGeometries(i)));
+            }
+        }
+
+        return gFactory.buildGeometry(geoms);
+    }
+
+    io.jeo.vector.Feature decode(Feature f) {
+        Map<String,Object> values = new LinkedHashMap<>();
+
+        // geometry
+        values.put("geometry", decode(f.getGeometry()));
+
+        // properties
+            for (int i = 0; i < f.getPropertiesCount(); i += 2) {
+            int key = f.getProperties(i);
+            int val = f.getProperties(i+1);
+
+            values.put(keys.get(key), decode(f.getValues(val)));
+        }
+
+        // id
+        String id = f.getIdTypeCase() == IdTypeCase.INT_ID ? String.valueOf(f.getIntId()) : f.getId();
+
+        return new MapFeature(id, values);
+    }
+
+    Object decode(Value val) {
+        ValueTypeCase t = val.getValueTypeCase();
+        switch(t) {
+            case STRING_VALUE:
+                return val.getStringValue();
+            case DOUBLE_VALUE:
+                return val.getDoubleValue();
+            case POS_INT_VALUE:
+                return val.getPosIntValue();
+            case NEG_INT_VALUE:
+                return val.getNegIntValue();
+            case BOOL_VALUE:
+                return val.getBoolValue();
+            case JSON_VALUE:
+                return val.getJsonValue();
+            case VALUETYPE_NOT_SET:
+                return null;
+            default:
+                throw new UnsupportedOperationException("Unsupported value type: " + t);
+        }
+    }
+
+    CoordinateSequence readCoords(Geometry g, int start, int len, boolean close) {
+        double[] coords = new double[dim*(len + (close?1:0))];
+
+        long[] coord = new long[dim];
+        for (int i = start; i < start+len; i++) {
+            int j = i*dim;
+            for (int k = 0; k < dim; k++) {
+                coord[k] += g.getCoords(j+k);
+                coords[(i-start)*dim+k] = coord[k] / e;
+            }
+        }
+
+        if (close) {
+            System.arraycopy(coords, 0, coords, coords.length-dim, dim);
+        }
+
+        return csFactory.create(coords, dim);
+    }
+
+    CoordinateSequence readAllCoords(Geometry g, boolean close) {
+        return readCoords(g, 0, g.getCoordsCount()/dim, close);
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import java.io.IOException;
+
+import io.jeo.geobuf.Geobuf.Data;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+
+/**
+ * Cursor that decodes features from a {@link GeobufStreamReader} as they are read.
+ */
+public class GeobufStreamCursor extends FeatureCursor {
+
+    GeobufStreamReader reader;
+    Data.Feature next;
+
+    public GeobufStreamCursor(GeobufStreamReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (next == null && reader != null) {
+            next = reader.next();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        try {
+            return hasNext() ? reader.decoder.decode(next) : null;
+        }
+        finally {
+            next = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
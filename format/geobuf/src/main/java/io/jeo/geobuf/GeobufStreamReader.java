@@ -0,0 +1,219 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.WireFormat;
+import io.jeo.data.Disposable;
+import io.jeo.geobuf.Geobuf.Data;
+import io.jeo.geobuf.Geobuf.Data.DataTypeCase;
+import io.jeo.geobuf.Geobuf.Data.Value;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a geobuf feature collection incrementally from a protocol buffer stream.
+ * <p>
+ * Unlike {@link GeobufReader} which parses the entire message into memory up front, this reader only parses the
+ * header of the stream (keys, dimensions and precision) when created. Feature messages are then parsed one at a
+ * time as they are requested so memory use is independent of the number of features in the collection.
+ * </p>
+ * <p>
+ * The stream can only be traversed once. Since the custom properties of a collection (including the crs) are
+ * encoded after its features {@link #crs()} consumes the remainder of the stream.
+ * </p>
+ */
+public class GeobufStreamReader implements Disposable {
+
+    static Logger LOG = LoggerFactory.getLogger(GeobufStreamReader.class);
+
+    static final ExtensionRegistryLite REGISTRY = ExtensionRegistryLite.getEmptyRegistry();
+
+    // raw input
+    final InputStream in;
+
+    // protobuf input
+    final CodedInputStream cis;
+
+    // type of the geobuf payload
+    DataTypeCase type = DataTypeCase.DATATYPE_NOT_SET;
+
+    // number of feature collection bytes left to read
+    long remaining;
+
+    // collection level values / custom properties
+    final List<Value> values = new ArrayList<>();
+    final List<Integer> props = new ArrayList<>();
+
+    // decodes geometries and features
+    final GeobufDecoder decoder;
+
+    public GeobufStreamReader(InputStream in) throws IOException {
+        this.in = in;
+
+        cis = CodedInputStream.newInstance(in);
+
+        // byte counts are reset for every message read, the only limit is on the size of a single feature
+        cis.setSizeLimit(Integer.MAX_VALUE);
+
+        List<String> keys = new ArrayList<>();
+        int dim = 2;
+        int precision = 6;
+
+        header: while (true) {
+            int tag = cis.readTag();
+            switch(WireFormat.getTagFieldNumber(tag)) {
+                case 0:
+                    break header;
+                case Data.KEYS_FIELD_NUMBER:
+                    keys.add(cis.readString());
+                    break;
+                case Data.DIMENSIONS_FIELD_NUMBER:
+                    dim = cis.readUInt32();
+                    break;
+                case Data.PRECISION_FIELD_NUMBER:
+                    precision = cis.readUInt32();
+                    break;
+                case Data.FEATURE_COLLECTION_FIELD_NUMBER:
+                    type = DataTypeCase.FEATURE_COLLECTION;
+                    remaining = cis.readRawVarint64();
+                    break header;
+                case Data.FEATURE_FIELD_NUMBER:
+                    type = DataTypeCase.FEATURE;
+                    break header;
+                case Data.GEOMETRY_FIELD_NUMBER:
+                    type = DataTypeCase.GEOMETRY;
+                    break header;
+                default:
+                    cis.skipField(tag);
+            }
+        }
+
+        decoder = new GeobufDecoder(keys, dim, precision);
+    }
+
+    /**
+     * The type of the geobuf payload.
+     */
+    public DataTypeCase type() {
+        return type;
+    }
+
+    /**
+     * Returns a cursor over the features of the collection.
+     */
+    public GeobufStreamCursor featureCollection() {
+        if (type != DataTypeCase.FEATURE_COLLECTION) {
+            throw new IllegalArgumentException("Geobuf data type: " + type + ", not feature collection");
+        }
+
+        return new GeobufStreamCursor(this);
+    }
+
+    /**
+     * Counts the features of the collection without decoding them.
+     */
+    public long count() throws IOException {
+        long count = 0;
+        while (read(true) != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the crs of the collection, skipping over any features that have yet to be read.
+     */
+    public CoordinateReferenceSystem crs() throws IOException {
+        if (type != DataTypeCase.FEATURE_COLLECTION) {
+            return null;
+        }
+
+        while (read(true) != null);
+        return decoder.crs(props, values);
+    }
+
+    /**
+     * Reads the next feature message of the collection, returning <code>null</code> at the end of the collection.
+     */
+    Data.Feature next() throws IOException {
+        return read(false);
+    }
+
+    Data.Feature read(boolean skip) throws IOException {
+        while (remaining > 0) {
+            // track bytes per field, avoids overflowing the counter for collections larger than 2GB
+            cis.resetSizeCounter();
+
+            Data.Feature f = null;
+
+            int tag = cis.readTag();
+            switch(WireFormat.getTagFieldNumber(tag)) {
+                case Data.FeatureCollection.FEATURES_FIELD_NUMBER:
+                    if (skip) {
+                        cis.skipRawBytes(cis.readRawVarint32());
+                        f = Data.Feature.getDefaultInstance();
+                    }
+                    else {
+                        f = cis.readMessage(Data.Feature.PARSER, REGISTRY);
+                    }
+                    break;
+                case Data.FeatureCollection.VALUES_FIELD_NUMBER:
+                    values.add(cis.readMessage(Value.PARSER, REGISTRY));
+                    break;
+                case Data.FeatureCollection.CUSTOM_PROPERTIES_FIELD_NUMBER:
+                    if ((tag & 0x7) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                        int limit = cis.pushLimit(cis.readRawVarint32());
+                        while (cis.getBytesUntilLimit() > 0) {
+                            props.add(cis.readUInt32());
+                        }
+                        cis.popLimit(limit);
+                    }
+                    else {
+                        props.add(cis.readUInt32());
+                    }
+                    break;
+                default:
+                    cis.skipField(tag);
+            }
+
+            remaining -= cis.getTotalBytesRead();
+            if (remaining < 0) {
+                throw new IOException("Malformed geobuf, feature collection overruns its length");
+            }
+
+            if (f != null) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing geobuf reader", e);
+        }
+    }
+}
@@ -14,6 +14,8 @@
  */
 package io.jeo.geobuf;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.LineString;
@@ -34,7 +36,6 @@ import io.jeo.geobuf.Geobuf.Data.Value;
 import io.jeo.geom.Geom;
 import io.jeo.geom.GeometryAdapter;
 import io.jeo.proj.Proj;
-import io.jeo.util.Function;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.Features;
 import io.jeo.vector.Field;
@@ -42,21 +43,39 @@ import org.osgeo.proj4j.CoordinateReferenceSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static io.jeo.geobuf.CustomKeys.CRS;
 
 /**
  * Writes a geobuf protocol buffer stream.
+ * <p>
+ * Feature collections, either written as a cursor or built up with {@link #append(io.jeo.vector.Feature)}, are
+ * streamed. Coordinate dimension and precision are determined from a sample of the first {@link #SAMPLE_SIZE}
+ * features after which each feature is encoded and spooled to a temporary file as it is written. The key table,
+ * which can grow with every feature, is finalized by {@link #write()} before the spooled features are copied to the
+ * output. Memory use is independent of the number of features.
+ * </p>
  */
 public class GeobufWriter implements Disposable {
 
     static Logger LOG = LoggerFactory.getLogger(GeobufWriter.class);
 
+    /**
+     * Number of features analyzed before encoding a feature collection.
+     */
+    static final int SAMPLE_SIZE = 10;
+
     OutputStream out;
     Data.Builder data;
 
@@ -68,14 +87,20 @@ public class GeobufWriter implements Disposable {
     Map<String,Integer> keys = new LinkedHashMap<>();
     int keyIndex;
 
-    FeatureCollection.Builder fcb;
     Feature.Builder fb;
     Value.Builder vb;
 
+    // features buffered to determine dimension and precision
+    List<io.jeo.vector.Feature> sample;
+
+    // spooled feature collection
+    File spool;
+    OutputStream spoolOut;
+    CodedOutputStream fcOut;
+
     public GeobufWriter(OutputStream out) {
         this.out = out;
         data = Data.newBuilder();
-        fcb = FeatureCollection.newBuilder();
         fb = Feature.newBuilder();
         vb = Value.newBuilder();
     }
@@ -91,6 +116,18 @@ public class GeobufWriter implements Disposable {
     }
 
     public GeobufWriter write(Object obj) throws IOException {
+        if (obj instanceof FeatureCursor) {
+            FeatureCursor cursor = (FeatureCursor) obj;
+            while (cursor.hasNext()) {
+                append(cursor.next());
+            }
+            if (fcOut == null) {
+                // start the collection even when the cursor is empty
+                startCollection();
+            }
+            return write();
+        }
+
         obj = analyze(obj);
 
         // add custom property keys
@@ -105,9 +142,6 @@ public class GeobufWriter implements Disposable {
         else if (obj instanceof io.jeo.vector.Feature) {
             encode((io.jeo.vector.Feature)obj);
         }
-        else if (obj instanceof FeatureCursor) {
-            encode((FeatureCursor)obj);
-        }
         else {
             throw new IllegalArgumentException("Unable to encode object as geobuf: " + obj);
         }
@@ -115,20 +149,125 @@ public class GeobufWriter implements Disposable {
         return write();
     }
 
+    /**
+     * Appends a feature to the feature collection being written.
+     * <p>
+     * The collection is completed with {@link #write()}.
+     * </p>
+     */
     public GeobufWriter append(io.jeo.vector.Feature f) throws IOException {
-        if (data.getFeatureCollection() == null) {
-            data.setFeatureCollection(fcb);
+        if (fcOut != null) {
+            spool(f);
+            return this;
         }
 
-        fcb.addFeatures(doEncode(f));
+        if (sample == null) {
+            sample = new ArrayList<>(SAMPLE_SIZE);
+        }
+        sample.add(f);
+        if (sample.size() == SAMPLE_SIZE) {
+            startCollection();
+        }
         return this;
     }
 
     public GeobufWriter write() throws IOException {
+        if (sample != null || fcOut != null) {
+            return writeCollection();
+        }
+
         data.build().writeTo(out);
         return this;
     }
 
+    /**
+     * Fixes dimension and precision from the sampled features and starts spooling the collection.
+     */
+    void startCollection() throws IOException {
+        List<io.jeo.vector.Feature> features = sample != null ? sample : Collections.<io.jeo.vector.Feature>emptyList();
+        for (io.jeo.vector.Feature f : features) {
+            analyze(f);
+        }
+
+        spool = File.createTempFile("geobuf", ".fc");
+        spoolOut = new BufferedOutputStream(Files.newOutputStream(spool.toPath()));
+        fcOut = CodedOutputStream.newInstance(spoolOut);
+
+        for (io.jeo.vector.Feature f : features) {
+            spool(f);
+        }
+        sample = null;
+    }
+
+    void spool(io.jeo.vector.Feature f) throws IOException {
+        if (crs == null) {
+            crs = Features.crs(f);
+        }
+        fcOut.writeMessage(FeatureCollection.FEATURES_FIELD_NUMBER, doEncode(f));
+    }
+
+    /**
+     * Writes the header and key table followed by the spooled features and the collection properties.
+     */
+    GeobufWriter writeCollection() throws IOException {
+        if (fcOut == null) {
+            startCollection();
+        }
+
+        fcOut.flush();
+        spoolOut.close();
+
+        FeatureCollection.Builder b = FeatureCollection.newBuilder();
+        if (crs != null) {
+            b.addValues(encodeValue(Proj.toString(crs)));
+            b.addCustomProperties(key(CRS));
+            b.addCustomProperties(b.getValuesCount()-1);
+        }
+        FeatureCollection props = b.build();
+
+        data.addAllKeys(keys.keySet());
+
+        CodedOutputStream cos = CodedOutputStream.newInstance(out);
+        data.build().writeTo(cos);
+        cos.writeTag(Data.FEATURE_COLLECTION_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        cos.writeRawVarint64(spool.length() + props.getSerializedSize());
+        cos.flush();
+
+        try {
+            Files.copy(spool.toPath(), out);
+        }
+        finally {
+            deleteSpool();
+        }
+        props.writeTo(out);
+        return this;
+    }
+
+    void deleteSpool() {
+        if (spool != null) {
+            try {
+                if (spoolOut != null) {
+                    spoolOut.close();
+                }
+                Files.deleteIfExists(spool.toPath());
+            }
+            catch(IOException e) {
+                LOG.debug("Error deleting geobuf spool file", e);
+            }
+            spool = null;
+            spoolOut = null;
+            fcOut = null;
+        }
+    }
+
+    int key(String key) {
+        Integer i = keys.get(key);
+        if (i == null) {
+            keys.put(key, i = keyIndex++);
+        }
+        return i;
+    }
+
     <T> T analyze(T obj) throws IOException {
         if (obj instanceof com.vividsolutions.jts.geom.Geometry) {
             com.vividsolutions.jts.geom.Geometry g = (com.vividsolutions.jts.geom.Geometry) obj;
@@ -169,10 +308,7 @@ public class GeobufWriter implements Disposable {
                     continue;
                 }
 
-                String key = kv.getKey();
-                if (!keys.containsKey(key)) {
-                    keys.put(key, keyIndex++);
-                }
+                key(kv.getKey());
             }
 
             // crs
@@ -180,18 +316,6 @@ public class GeobufWriter implements Disposable {
                 crs = Features.crs(f);
             }
         }
-        else if (obj instanceof FeatureCursor) {
-            // rather than scan through entire cursor, do the first n features
-            // TODO: make n configurable
-            int n = 10;
-            FeatureCursor cursor = ((FeatureCursor) obj).buffer(n);
-            for (int i = 0; i < n && cursor.hasNext(); i++) {
-                analyze(cursor.next());
-            }
-
-            cursor.rewind();
-            return (T) cursor;
-        }
 
         return obj;
     }
@@ -323,32 +447,13 @@ public class GeobufWriter implements Disposable {
                 continue;
             }
             fb.addValues(encodeValue(val));
-            fb.addProperties(keys.get(kv.getKey()));
+            fb.addProperties(key(kv.getKey()));
             fb.addProperties(i++);
         }
 
         return fb.build();
     }
 
-    GeobufWriter encode(FeatureCursor cursor) throws IOException {
-        FeatureCollection.Builder b = FeatureCollection.newBuilder();
-
-        if (crs != null) {
-            b.addValues(encodeValue(Proj.toString(crs)));
-            b.addCustomProperties(keys.get(CRS));
-            b.addCustomProperties(b.getValuesCount()-1);
-        }
-
-        b.addAllFeatures(cursor.map(new Function<io.jeo.vector.Feature, Feature>() {
-            @Override
-            public Feature apply(io.jeo.vector.Feature f) {
-                return doEncode(f);
-            }
-        }));
-        data.setFeatureCollection(b.build());
-        return this;
-    }
-
     Value encodeValue(Object obj) {
         vb.clear();
 
@@ -460,6 +565,7 @@ public class GeobufWriter implements Disposable {
 
 
     public void close() {
+        deleteSpool();
         try {
             out.flush();
             out.close();
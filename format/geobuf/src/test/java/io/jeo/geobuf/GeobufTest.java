@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.jeo.TestData;
+import io.jeo.geobuf.Geobuf.Data.DataTypeCase;
 import io.jeo.geom.Geom;
 import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureCursor;
@@ -160,6 +161,70 @@ public class GeobufTest {
         assertEquals(TestData.states().read(all()).count(), fc.count());
     }
 
+    @Test
+    public void testFeatureCollectionStream() throws Exception {
+        writer().write(TestData.states().read(all()));
+
+        try (FeatureCursor fc = reader().featureCollection()) {
+            try (FeatureCursor sc = streamReader().featureCollection()) {
+                while (fc.hasNext()) {
+                    assertTrue(sc.hasNext());
+
+                    Feature f1 = fc.next();
+                    Feature f2 = sc.next();
+                    assertTrue(f1.geometry().equalsExact(f2.geometry()));
+                    assertEquals(f1.get("STATE_NAME"), f2.get("STATE_NAME"));
+                }
+                assertFalse(sc.hasNext());
+            }
+        }
+
+        assertEquals(reader().featureCollection().count(), streamReader().count());
+        assertEquals(reader().crs(), streamReader().crs());
+    }
+
+    @Test
+    public void testEmptyFeatureCollection() throws Exception {
+        writer().write(FeatureCursor.empty());
+
+        try (FeatureCursor fc = reader().featureCollection()) {
+            assertFalse(fc.hasNext());
+        }
+        try (GeobufStreamReader r = streamReader()) {
+            assertEquals(DataTypeCase.FEATURE_COLLECTION, r.type());
+        }
+        assertEquals(0, streamReader().count());
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        try (GeobufWriter w = writer()) {
+            for (int i = 0; i < 2 * GeobufWriter.SAMPLE_SIZE; i++) {
+                Map<String,Object> map = new LinkedHashMap<>();
+                map.put("geometry", Geom.point(i + 0.5, i + 0.25));
+                map.put("id", i);
+
+                // key not seen in the sample
+                if (i > GeobufWriter.SAMPLE_SIZE) {
+                    map.put("name", "feature " + i);
+                }
+                w.append(new MapFeature(map));
+            }
+            w.write();
+        }
+
+        try (FeatureCursor c = reader().featureCollection()) {
+            for (int i = 0; i < 2 * GeobufWriter.SAMPLE_SIZE; i++) {
+                Feature f = c.next();
+                assertTrue(Geom.point(i + 0.5, i + 0.25).equalsExact(f.geometry()));
+                assertEquals((long) i, f.get("id"));
+                assertEquals(i > GeobufWriter.SAMPLE_SIZE ? "feature " + i : null, f.get("name"));
+            }
+            assertFalse(c.hasNext());
+        }
+        assertEquals(2 * GeobufWriter.SAMPLE_SIZE, streamReader().count());
+    }
+
     GeobufWriter writer() throws IOException {
         return new GeobufWriter(out);
     }
@@ -168,6 +233,10 @@ public class GeobufTest {
         return new GeobufReader(new ByteArrayInputStream(out.toByteArray()));
     }
 
+    GeobufStreamReader streamReader() throws IOException {
+        return new GeobufStreamReader(new ByteArrayInputStream(out.toByteArray()));
+    }
+
     //@Test
     public void testData() throws Exception {
         GeobufWriter w = new GeobufWriter(Files.newOutputStream(Paths.get(
@@ -15,6 +15,7 @@
 package io.jeo.geopkg;
 
 import java.io.IOException;
+import java.util.Locale;
 
 import io.jeo.geom.Bounds;
 import io.jeo.geom.Geom;
@@ -29,6 +30,32 @@ public abstract class Backend extends io.jeo.sql.Backend {
 
     protected final DbTypes dbTypes = new GeoPkgTypes();
 
+    /**
+     * Opens a session that only reads from the database.
+     * <p>
+     * Backends able to serve concurrent readers return a session over a read-only connection. The default
+     * implementation returns a regular session.
+     * </p>
+     */
+    public Session readSession() throws IOException {
+        return session();
+    }
+
+    @Override
+    public Results query(String query, Object... args) throws IOException {
+        String sql = String.format(Locale.ROOT, query, args);
+        Session s = readSession();
+        // chain the session to the query so it's closed, too
+        return s.query(sql).closeSession(s);
+    }
+
+    @Override
+    public Results queryPrepared(String query, Object... args) throws IOException {
+        Session s = readSession();
+        // chain the session to the query so it's closed, too
+        return s.queryPrepared(query, args).closeSession(s);
+    }
+
     final FeatureEntry createFeatureEntry(Results rs) throws IOException {
         FeatureEntry e = new FeatureEntry();
 
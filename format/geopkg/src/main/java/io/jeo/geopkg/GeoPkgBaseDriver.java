@@ -45,6 +45,33 @@ public abstract class GeoPkgBaseDriver extends FileVectorDriver<GeoPkgWorkspace>
      */
     public static final Key<Password> PASSWD = new Key<Password>("passwd", Password.class);
 
+    /**
+     * Number of read-only connections kept open for reuse, defaults to 4.
+     * <p>
+     * Readers beyond the pool size are served by connections opened for the duration of the read.
+     * </p>
+     */
+    public static final Key<Integer> POOL_SIZE = new Key<Integer>("pool_size", Integer.class, 4);
+
+    /**
+     * Maximum number of bytes of the database file to memory map, defaults to 0 meaning no memory mapping.
+     */
+    public static final Key<Long> MMAP_SIZE = new Key<Long>("mmap_size", Long.class, 0l);
+
+    /**
+     * Size of the page cache of each connection in kibibytes, defaults to the SQLite default.
+     */
+    public static final Key<Integer> CACHE_SIZE = new Key<Integer>("cache_size", Integer.class);
+
+    /**
+     * Flag controlling whether the database is switched to write-ahead log journal mode, defaults to true.
+     * <p>
+     * In WAL mode readers do not block the writer and the writer does not block readers. When false the journal
+     * mode of the database is left unchanged.
+     * </p>
+     */
+    public static final Key<Boolean> WAL = new Key<Boolean>("wal", Boolean.class, true);
+
     @Override
     public final GeoPkgWorkspace open(File file, Map<?, Object> opts) throws IOException {
         GeoPkgOpts gpkgOpts = GeoPkgOpts.fromMap(opts);
@@ -61,7 +88,7 @@ public abstract class GeoPkgBaseDriver extends FileVectorDriver<GeoPkgWorkspace>
 
     @Override
     public final List<Key<?>> keys() {
-        return (List) Arrays.asList(FILE, USER, PASSWD);
+        return (List) Arrays.asList(FILE, USER, PASSWD, POOL_SIZE, MMAP_SIZE, CACHE_SIZE, WAL);
     }
 
     @Override
@@ -16,16 +16,40 @@ package io.jeo.geopkg;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import io.jeo.data.Transaction;
 import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.Field;
 import io.jeo.vector.ListFeature;
 import io.jeo.vector.Schema;
+import io.jeo.sql.Backend.Results;
 import io.jeo.sql.Backend.Session;
+import io.jeo.sql.SQL;
 
+/**
+ * Cursor appending features to a GeoPackage feature table.
+ * <p>
+ * Inserts are batched, one prepared statement is used for every distinct set of non null columns written and
+ * batches are executed every {@link #batchSize(int)} features, and when the cursor is closed. Without an outer
+ * transaction all features are appended in a single transaction committed on close.
+ * </p>
+ * <p>
+ * For bulk loads into a table with a spatial index the index can be updated once after the load rather than by a
+ * trigger for every feature, see {@link #deferSpatialIndex(boolean)}.
+ * </p>
+ */
 public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
+    /** default number of features per batch */
+    public static final int BATCH_SIZE = 1000;
+
     Session session;
     Transaction tx;
 
@@ -35,6 +59,21 @@ public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
     Feature next;
 
+    int batchSize = BATCH_SIZE;
+    int pending;
+
+    // insert statements by set of columns
+    Map<BitSet, String> inserts = new HashMap<BitSet, String>();
+    List<Object> values = new ArrayList<Object>();
+
+    boolean deferSpatialIndex;
+    boolean started;
+
+    // state of the suspended spatial index
+    String pk;
+    Long maxId;
+    boolean explicitIds;
+
     GeoPkgFeatureAppendCursor(Session session, Transaction tx, FeatureEntry entry, Schema schema, GeoPkgWorkspace ws) throws IOException {
         this.session = session;
         this.tx = tx;
@@ -48,6 +87,31 @@ public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
         }
     }
 
+    /**
+     * Sets the number of features inserted per batch, defaults to {@link #BATCH_SIZE}.
+     */
+    public GeoPkgFeatureAppendCursor batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Illegal batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Defers updating the spatial index of the table until the cursor is closed.
+     * <p>
+     * Must be set before the first feature is written. Has no effect if the table has no spatial index.
+     * </p>
+     */
+    public GeoPkgFeatureAppendCursor deferSpatialIndex(boolean defer) {
+        if (started) {
+            throw new IllegalStateException("Features already written");
+        }
+        this.deferSpatialIndex = defer;
+        return this;
+    }
+
     @Override
     public Feature next() throws IOException {
         return next = new ListFeature(schema);
@@ -55,19 +119,114 @@ public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
     @Override
     public GeoPkgFeatureAppendCursor write() throws IOException {
-        ws.insert(entry, next, session);
+        if (!started) {
+            start();
+        }
+
+        List<Field> fields = schema.fields();
+        BitSet cols = new BitSet(fields.size());
+        values.clear();
+        for (int i = 0; i < fields.size(); i++) {
+            Field fld = fields.get(i);
+            Object o = next.get(fld.name());
+            if (o != null) {
+                cols.set(i);
+                values.add(o);
+                if (fld.name().equals(pk)) {
+                    explicitIds = true;
+                }
+            }
+        }
+
+        String sql = inserts.get(cols);
+        if (sql == null) {
+            List<String> names = new ArrayList<String>(values.size());
+            for (int i = cols.nextSetBit(0); i >= 0; i = cols.nextSetBit(i+1)) {
+                names.add(fields.get(i).name());
+            }
+            sql = ws.insertSQL(entry, names);
+            inserts.put(cols, sql);
+        }
+
+        session.addBatchPrepared(sql, values.toArray());
+        if (++pending >= batchSize) {
+            flush();
+        }
         return this;
     }
 
+    void start() throws IOException {
+        started = true;
+        if (deferSpatialIndex && ws.hasSpatialIndex(entry, session)) {
+            pk = ws.primaryKeyCol(entry, session).getName();
+
+            // rows with an id greater than the current maximum are the ones appended
+            Results rs = session.queryPrepared(new SQL("SELECT max(").name(pk).add(") FROM ")
+                .name(entry.getTableName()).toString());
+            try {
+                maxId = rs.next() && rs.getObject(0, Long.class) != null ? rs.getLong(0) : Long.MIN_VALUE;
+            } finally {
+                rs.close();
+            }
+
+            ws.suspendSpatialIndex(entry, session);
+        }
+    }
+
+    void flush() throws IOException {
+        if (pending > 0) {
+            session.executeBatch();
+            pending = 0;
+        }
+    }
+
+    /**
+     * Indexes the appended rows and restores the insert trigger of a suspended spatial index.
+     */
+    void resumeSpatialIndex() throws IOException {
+        if (maxId == null) {
+            return;
+        }
+
+        // ids set explicitly may be lower than the previous maximum
+        String where = explicitIds ?
+            new SQL().name(pk).add(" NOT IN (SELECT id FROM ").name(ws.spatialIndexName(entry))
+                .add(")").toString() :
+            new SQL().name(pk).add(String.format(Locale.ROOT, " > %d", maxId)).toString();
+        ws.resumeSpatialIndex(entry, pk, where, session);
+        maxId = null;
+    }
+
     @Override
     public void close() throws IOException {
         if (session != null) {
-            // if not using an "outer" transaction, close the one we created
-            if (tx == Transaction.NULL) {
-                session.endTransaction(true);
-                session.close();
+            boolean complete = false;
+            try {
+                flush();
+                resumeSpatialIndex();
+                complete = true;
+            }
+            finally {
+                try {
+                    if (!complete && maxId != null) {
+                        // an outer transaction may still commit, never leave the index without its trigger
+                        try {
+                            resumeSpatialIndex();
+                        }
+                        catch(Exception e) {
+                            GeoPkgWorkspace.LOG.debug("Unable to resume spatial index of " + entry.getTableName(), e);
+                        }
+                    }
+                }
+                finally {
+                    // if not using an "outer" transaction, close the one we created
+                    if (tx == Transaction.NULL) {
+                        session.endTransaction(complete);
+                        session.close();
+                    }
+                    session = null;
+                }
             }
-            session = null;
         }
     }
 }
@@ -27,6 +27,7 @@ import io.jeo.geopkg.geom.GeoPkgGeomReader;
 import io.jeo.sql.PrimaryKey;
 import io.jeo.sql.PrimaryKeyColumn;
 
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import io.jeo.sql.Backend.Session;
 import io.jeo.sql.Backend.Results;
@@ -54,6 +55,11 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
     Boolean next;
     Feature feature;
 
+    // bounds checked before decoding, and the geometry of the next row once checked
+    Envelope bbox;
+    int geomColumn = -1;
+    Geometry geom;
+
     GeoPkgFeatureCursor(Session session, Results results, FeatureEntry entry, GeoPkgWorkspace workspace,
             Schema schema, PrimaryKey primaryKey, List<String> fields)
         throws IOException {
@@ -94,11 +100,35 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
         return this;
     }
 
+    /**
+     * Restricts the cursor to features whose geometry envelope intersects the specified bounds.
+     * <p>
+     * The envelope is read from the header of the encoded geometry, so the geometries of rows not intersecting the
+     * bounds are never decoded.
+     * </p>
+     * @return True if the cursor can evaluate the bounds, false if the geometry is not among the cursor fields.
+     */
+    public boolean bounds(Envelope bbox) {
+        Field g = schema.geometry();
+        if (g == null) {
+            return false;
+        }
+        this.geomColumn = schema.indexOf(g.name());
+        this.bbox = bbox;
+        return true;
+    }
+
     @Override
     public boolean hasNext() throws IOException {
         if (next == null) {
             try {
                 next = results.next();
+                if (bbox != null) {
+                    // skip rows not intersecting the bounds
+                    while (next && (geom = read(results.getBytes(geomColumn))) == null) {
+                        next = results.next();
+                    }
+                }
             } catch (Exception e) {
                 throw new IOException(e);
             }
@@ -107,6 +137,10 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
         return next;
     }
 
+    Geometry read(byte[] bytes) throws IOException {
+        return bytes != null ? geomReader.read(bytes, bbox) : null;
+    }
+
     @Override
     public Feature next() throws IOException {
         try {
@@ -116,7 +150,10 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
 
                     for (int i = 0; i < fields.size(); i++) {
                         Class type = fields.get(i).type();
-                        if (Geometry.class.isAssignableFrom(type)) {
+                        if (i == geomColumn) {
+                            values.add(geom);
+                        }
+                        else if (Geometry.class.isAssignableFrom(type)) {
                             byte[] bytes = results.getBytes(i);
                             values.add(bytes != null ? geomReader.read(bytes) : null);
                         }
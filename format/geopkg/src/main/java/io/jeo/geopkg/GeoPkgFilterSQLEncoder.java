@@ -14,14 +14,174 @@
  */
 package io.jeo.geopkg;
 
+import java.sql.Types;
+
+import io.jeo.filter.Expression;
+import io.jeo.filter.Literal;
+import io.jeo.filter.Property;
 import io.jeo.filter.Spatial;
+import io.jeo.geom.Bounds;
 import io.jeo.sql.FilterSQLEncoder;
+import io.jeo.util.Pair;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
 
+/**
+ * Encodes filters as SQL for a GeoPackage.
+ * <p>
+ * Spatial filters are encoded with the functions registered by {@link GeoPkgFunctions}, geometry literals are bound
+ * as GeoPackage geometry blobs. When the table has a spatial index (see {@link #setSpatialIndex(String, String)}) a
+ * spatial filter comparing the geometry column to a literal first searches the index for candidates, which the
+ * function then refines, so that spatial and attribute predicates are evaluated within a single query.
+ * </p>
+ */
 public class GeoPkgFilterSQLEncoder extends FilterSQLEncoder {
 
+    String geometryColumn;
+    String spatialIndex;
+
+    /**
+     * Sets the spatial index of the geometry column of the table, <code>null</code> if the table has none.
+     */
+    public void setSpatialIndex(String geometryColumn, String spatialIndex) {
+        this.geometryColumn = geometryColumn;
+        this.spatialIndex = spatialIndex;
+    }
+
+    @Override
+    public Object visit(Literal literal, Object obj) {
+        Object val = literal.evaluate(null);
+        if (val instanceof Envelope) {
+            encode(Bounds.toPolygon((Envelope) val), obj);
+            return obj;
+        }
+        return super.visit(literal, obj);
+    }
+
+    @Override
+    protected void encode(Geometry geo, Object obj) {
+        if (!prepared) {
+            abort(geo, "Geometry literals require a prepared statement");
+        }
+        sql.add("?");
+        args.add(new Pair<Object, Integer>(geo, dbtypes.toSQL(Geometry.class)));
+    }
+
     @Override
     public Object visit(Spatial<?> spatial, Object obj) {
-        abort(spatial, "Spatial filters unsupported");
+        Envelope candidates = candidates(spatial);
+
+        if (candidates != null) {
+            sql.add("(").name(pkey.getColumns().get(0).getName()).add(" IN (SELECT id FROM ").name(spatialIndex)
+               .add(" WHERE minx <= ? AND maxx >= ? AND miny <= ? AND maxy >= ?) AND ");
+            arg(candidates.getMaxX());
+            arg(candidates.getMinX());
+            arg(candidates.getMaxY());
+            arg(candidates.getMinY());
+        }
+
+        if (spatial.type() == Spatial.Type.BBOX) {
+            // only the envelopes are compared
+            Envelope e = literal(spatial.right() instanceof Literal ? spatial.right() : spatial.left());
+            if (e == null) {
+                abort(spatial, "BBOX requires a property and a geometry literal");
+            }
+            if (e.isNull()) {
+                // nothing intersects an empty envelope
+                sql.add("1 = 0");
+                return obj;
+            }
+            sql.add("ST_EnvIntersects(");
+            (spatial.left() instanceof Property ? spatial.left() : spatial.right()).accept(this, obj);
+            sql.add(", ?, ?, ?, ?)");
+            arg(e.getMinX());
+            arg(e.getMinY());
+            arg(e.getMaxX());
+            arg(e.getMaxY());
+        }
+        else {
+            sql.add(GeoPkgFunctions.name(spatial.type())).add("(");
+            spatial.left().accept(this, obj);
+            sql.add(", ");
+            spatial.right().accept(this, obj);
+            if (spatial.distance() != null) {
+                sql.add(", ");
+                spatial.distance().accept(this, null);
+            }
+            sql.add(")");
+        }
+
+        if (candidates != null) {
+            sql.add(")");
+        }
+        return obj;
+    }
+
+    /**
+     * The area of the spatial index to search for candidates of a spatial filter, <code>null</code> if the index
+     * can't be used for the filter.
+     */
+    Envelope candidates(Spatial<?> spatial) {
+        if (spatialIndex == null || pkey == null || pkey.getColumns().size() != 1) {
+            return null;
+        }
+
+        // disjoint geometries aren't found in the index
+        Spatial.Type type = spatial.type();
+        if (type == Spatial.Type.DISJOINT || type == Spatial.Type.BEYOND) {
+            return null;
+        }
+
+        Expression left = spatial.left();
+        Expression right = spatial.right();
+        Envelope e = null;
+        if (isGeometryColumn(left)) {
+            e = literal(right);
+        }
+        else if (isGeometryColumn(right)) {
+            e = literal(left);
+        }
+        if (e == null || e.isNull()) {
+            return null;
+        }
+
+        if (spatial.distance() != null) {
+            if (!(spatial.distance() instanceof Literal)) {
+                return null;
+            }
+            Object d = spatial.distance().evaluate(null);
+            if (!(d instanceof Number)) {
+                return null;
+            }
+            e.expandBy(((Number) d).doubleValue());
+        }
+        return e;
+    }
+
+    boolean isGeometryColumn(Expression e) {
+        return e instanceof Property && ((Property) e).property().equals(geometryColumn);
+    }
+
+    /**
+     * The envelope of a geometry literal, <code>null</code> if the expression is not one.
+     */
+    Envelope literal(Expression e) {
+        if (!(e instanceof Literal)) {
+            return null;
+        }
+
+        Object val = e.evaluate(null);
+        if (val instanceof Envelope) {
+            return new Envelope((Envelope) val);
+        }
+        if (val instanceof Geometry) {
+            return new Envelope(((Geometry) val).getEnvelopeInternal());
+        }
         return null;
     }
+
+    void arg(double d) {
+        args.add(new Pair<Object, Integer>(d, Types.DOUBLE));
+    }
 }
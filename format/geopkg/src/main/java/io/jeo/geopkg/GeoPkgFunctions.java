@@ -0,0 +1,231 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import io.jeo.filter.Literal;
+import io.jeo.filter.Self;
+import io.jeo.filter.Spatial;
+import io.jeo.geopkg.geom.GeoPkgGeomReader;
+import org.sqlite.Function;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * SQL functions registered on every connection to a GeoPackage.
+ * <p>
+ * These are the functions called by the triggers that maintain the R-tree spatial index of a feature table, as
+ * defined by the <tt>gpkg_rtree_index</tt> extension, along with <tt>ST_EnvIntersects</tt> which is used to refine
+ * the candidates of an index search. All functions take a GeoPackage geometry blob and read its envelope from the
+ * blob header when present, only decoding the geometry when it is not.
+ * </p>
+ * <p>
+ * The spatial predicates, <tt>ST_Intersects</tt>, <tt>ST_Within</tt>, <tt>ST_DWithin</tt> and so on, one for each
+ * {@link Spatial.Type} other than <tt>BBOX</tt>, take two geometry blobs, and a distance for <tt>ST_DWithin</tt> and
+ * <tt>ST_Beyond</tt>. They are evaluated with JTS, the second operand is expected to be the same for every row and
+ * is decoded and prepared only when it changes. The envelope of the first operand is compared before it is decoded.
+ * </p>
+ */
+class GeoPkgFunctions {
+
+    static void register(Connection cx) throws SQLException {
+        Function.create(cx, "ST_MinX", new EnvelopeFunction() {
+            @Override
+            double value(Envelope e) {
+                return e.getMinX();
+            }
+        });
+        Function.create(cx, "ST_MaxX", new EnvelopeFunction() {
+            @Override
+            double value(Envelope e) {
+                return e.getMaxX();
+            }
+        });
+        Function.create(cx, "ST_MinY", new EnvelopeFunction() {
+            @Override
+            double value(Envelope e) {
+                return e.getMinY();
+            }
+        });
+        Function.create(cx, "ST_MaxY", new EnvelopeFunction() {
+            @Override
+            double value(Envelope e) {
+                return e.getMaxY();
+            }
+        });
+        Function.create(cx, "ST_IsEmpty", new GeomFunction() {
+            @Override
+            protected void xFunc() throws SQLException {
+                Envelope e = envelope(0);
+                if (e == null) {
+                    result();
+                }
+                else {
+                    result(e.isNull() ? 1 : 0);
+                }
+            }
+        });
+        Function.create(cx, "ST_EnvIntersects", new GeomFunction() {
+            @Override
+            protected void xFunc() throws SQLException {
+                if (args() != 5) {
+                    error("ST_EnvIntersects expects a geometry and minx, miny, maxx, maxy");
+                    return;
+                }
+
+                Envelope e = envelope(0);
+                result(e != null && e.intersects(new Envelope(
+                    value_double(1), value_double(3), value_double(2), value_double(4))) ? 1 : 0);
+            }
+        });
+
+        for (Spatial.Type type : Spatial.Type.values()) {
+            if (type != Spatial.Type.BBOX) {
+                Function.create(cx, name(type), new SpatialFunction(type));
+            }
+        }
+    }
+
+    /**
+     * The name of the function evaluating a spatial operator, <tt>ST_Intersects</tt> for
+     * {@link Spatial.Type#INTERSECTS}.
+     */
+    static String name(Spatial.Type type) {
+        if (type == Spatial.Type.DWITHIN) {
+            return "ST_DWithin";
+        }
+        String name = type.name();
+        return "ST_" + name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Base class for functions whose first argument is a geometry.
+     */
+    static abstract class GeomFunction extends Function {
+
+        GeoPkgGeomReader reader = new GeoPkgGeomReader();
+
+        /**
+         * The envelope of a geometry argument, <code>null</code> if the argument is null.
+         */
+        Envelope envelope(int arg) throws SQLException {
+            byte[] blob = value_blob(arg);
+            if (blob == null) {
+                return null;
+            }
+            try {
+                return reader.envelope(blob);
+            }
+            catch(IOException e) {
+                throw new SQLException("Unable to read geometry", e);
+            }
+        }
+    }
+
+    /**
+     * Function returning an ordinate of the envelope of a geometry, or null for a null or empty geometry.
+     */
+    static abstract class EnvelopeFunction extends GeomFunction {
+
+        @Override
+        protected void xFunc() throws SQLException {
+            Envelope e = envelope(0);
+            if (e == null || e.isNull()) {
+                result();
+            }
+            else {
+                result(value(e));
+            }
+        }
+
+        abstract double value(Envelope e);
+    }
+
+    /**
+     * Function evaluating a spatial operator between two geometries.
+     */
+    static class SpatialFunction extends GeomFunction {
+
+        final Spatial.Type type;
+        final boolean distance;
+
+        double[] env = new double[4];
+
+        // the last second operand, and the filter evaluating the operator against it
+        byte[] operand;
+        double dist;
+        Spatial<Geometry> filter;
+        Envelope bounds;
+
+        SpatialFunction(Spatial.Type type) {
+            this.type = type;
+            this.distance = type == Spatial.Type.DWITHIN || type == Spatial.Type.BEYOND;
+        }
+
+        @Override
+        protected void xFunc() throws SQLException {
+            if (args() != (distance ? 3 : 2)) {
+                error(name(type) + (distance ? " expects two geometries and a distance" : " expects two geometries"));
+                return;
+            }
+
+            byte[] blob = value_blob(0);
+            byte[] other = value_blob(1);
+            if (blob == null || other == null) {
+                result();
+                return;
+            }
+
+            try {
+                prepare(other, distance ? value_double(2) : 0);
+
+                // operands whose envelopes (expanded by the distance) are disjoint can't interact
+                if (!bounds.isNull() && reader.envelope(blob, env) && env[0] <= env[1]) {
+                    if (env[0] > bounds.getMaxX() || env[1] < bounds.getMinX() ||
+                        env[2] > bounds.getMaxY() || env[3] < bounds.getMinY()) {
+                        result(type == Spatial.Type.DISJOINT || type == Spatial.Type.BEYOND ? 1 : 0);
+                        return;
+                    }
+                }
+
+                result(filter.test(reader.read(blob)) ? 1 : 0);
+            }
+            catch(IOException e) {
+                throw new SQLException("Unable to read geometry", e);
+            }
+        }
+
+        void prepare(byte[] other, double d) throws IOException {
+            if (filter != null && d == dist && Arrays.equals(other, operand)) {
+                return;
+            }
+
+            Geometry g = reader.read(other);
+            filter = new Spatial<Geometry>(type, new Self(), new Literal(g), distance ? new Literal(d) : null);
+            bounds = new Envelope(g.getEnvelopeInternal());
+            if (distance) {
+                bounds.expandBy(d);
+            }
+            operand = other;
+            dist = d;
+        }
+    }
+}
@@ -27,9 +27,15 @@ public class GeoPkgOpts {
     File file;
     String user;
     Password passwd;
+    int poolSize = GeoPkgBaseDriver.POOL_SIZE.def();
+    long mmapSize = GeoPkgBaseDriver.MMAP_SIZE.def();
+    Integer cacheSize;
+    boolean wal = GeoPkgBaseDriver.WAL.def();
 
     public static GeoPkgOpts fromMap(Map<?,Object> map) {
-        return new GeoPkgOpts(FileDriver.FILE.get(map)).user(GeoPkgBaseDriver.USER.get(map)).passwd(GeoPkgBaseDriver.PASSWD.get(map));
+        return new GeoPkgOpts(FileDriver.FILE.get(map)).user(GeoPkgBaseDriver.USER.get(map)).passwd(GeoPkgBaseDriver.PASSWD.get(map))
+            .poolSize(GeoPkgBaseDriver.POOL_SIZE.get(map)).mmapSize(GeoPkgBaseDriver.MMAP_SIZE.get(map))
+            .cacheSize(GeoPkgBaseDriver.CACHE_SIZE.get(map)).wal(GeoPkgBaseDriver.WAL.get(map));
     }
 
     public GeoPkgOpts(File file) {
@@ -46,6 +52,26 @@ public class GeoPkgOpts {
         return this;
     }
 
+    public GeoPkgOpts poolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public GeoPkgOpts mmapSize(long mmapSize) {
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    public GeoPkgOpts cacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    public GeoPkgOpts wal(boolean wal) {
+        this.wal = wal;
+        return this;
+    }
+
     public File getFile() {
         return file;
     }
@@ -58,6 +84,22 @@ public class GeoPkgOpts {
         return passwd;
     }
 
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public boolean isWal() {
+        return wal;
+    }
+
     public Map<Key<?>,Object> toMap() {
         Map<Key<?>,Object> map = new LinkedHashMap<Key<?>, Object>();
         map.put(FileDriver.FILE, file);
@@ -67,6 +109,12 @@ public class GeoPkgOpts {
         if (passwd != null) {
             map.put(GeoPkgBaseDriver.PASSWD, passwd);
         }
+        map.put(GeoPkgBaseDriver.POOL_SIZE, poolSize);
+        map.put(GeoPkgBaseDriver.MMAP_SIZE, mmapSize);
+        if (cacheSize != null) {
+            map.put(GeoPkgBaseDriver.CACHE_SIZE, cacheSize);
+        }
+        map.put(GeoPkgBaseDriver.WAL, wal);
         return map;
     }
 }
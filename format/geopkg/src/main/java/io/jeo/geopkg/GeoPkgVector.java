@@ -18,7 +18,6 @@ import java.io.IOException;
 
 import java.util.Map;
 
-import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
 import io.jeo.vector.VectorQuery;
@@ -54,10 +53,19 @@ public class GeoPkgVector extends GeoPkgDataset<FeatureEntry> implements VectorD
     }
 
     @Override
-    public FeatureAppendCursor append(VectorQuery q) throws IOException {
+    public GeoPkgFeatureAppendCursor append(VectorQuery q) throws IOException {
         return geopkg.append(entry, q);
     }
 
+    /**
+     * Creates the R-tree spatial index of the dataset, if it does not already have one.
+     *
+     * @see GeoPkgWorkspace#createSpatialIndex(FeatureEntry)
+     */
+    public void createSpatialIndex() throws IOException {
+        geopkg.createSpatialIndex(entry);
+    }
+
     @Override
     public Transaction transaction(Map<String, Object> options) throws IOException {
         return new GeoPkgTransaction(geopkg.backend.session());
@@ -19,7 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -42,6 +41,7 @@ import io.jeo.vector.Feature;
 import io.jeo.vector.Features;
 import io.jeo.vector.Field;
 import io.jeo.vector.Schema;
+import io.jeo.filter.Filter;
 import io.jeo.filter.Filters;
 import io.jeo.geom.Geom;
 import io.jeo.geopkg.Entry.DataType;
@@ -88,6 +88,59 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     /** name of tile matrix set table */
     static final String TILE_MATRIX_SET = "gpkg_tile_matrix_set";
 
+    /** name of extensions table */
+    static final String EXTENSIONS = "gpkg_extensions";
+
+    /** name of the r-tree spatial index extension */
+    static final String RTREE_INDEX = "gpkg_rtree_index";
+
+    /**
+     * triggers maintaining an r-tree spatial index, formatted with the index, table, geometry column and primary
+     * key column names
+     */
+    static final String[] RTREE_TRIGGERS = new String[] {
+        // geometry inserted
+        "CREATE TRIGGER \"%1$s_insert\" AFTER INSERT ON \"%2$s\""
+            + " WHEN (NEW.\"%3$s\" NOT NULL AND NOT ST_IsEmpty(NEW.\"%3$s\"))"
+            + " BEGIN"
+            + " INSERT OR REPLACE INTO \"%1$s\" VALUES (NEW.\"%4$s\","
+            + " ST_MinX(NEW.\"%3$s\"), ST_MaxX(NEW.\"%3$s\"), ST_MinY(NEW.\"%3$s\"), ST_MaxY(NEW.\"%3$s\"));"
+            + " END",
+        // geometry updated to a non empty geometry, same id
+        "CREATE TRIGGER \"%1$s_update1\" AFTER UPDATE OF \"%3$s\" ON \"%2$s\""
+            + " WHEN OLD.\"%4$s\" = NEW.\"%4$s\" AND (NEW.\"%3$s\" NOT NULL AND NOT ST_IsEmpty(NEW.\"%3$s\"))"
+            + " BEGIN"
+            + " INSERT OR REPLACE INTO \"%1$s\" VALUES (NEW.\"%4$s\","
+            + " ST_MinX(NEW.\"%3$s\"), ST_MaxX(NEW.\"%3$s\"), ST_MinY(NEW.\"%3$s\"), ST_MaxY(NEW.\"%3$s\"));"
+            + " END",
+        // geometry updated to a null or empty geometry, same id
+        "CREATE TRIGGER \"%1$s_update2\" AFTER UPDATE OF \"%3$s\" ON \"%2$s\""
+            + " WHEN OLD.\"%4$s\" = NEW.\"%4$s\" AND (NEW.\"%3$s\" IS NULL OR ST_IsEmpty(NEW.\"%3$s\"))"
+            + " BEGIN"
+            + " DELETE FROM \"%1$s\" WHERE id = OLD.\"%4$s\";"
+            + " END",
+        // id changed, non empty geometry
+        "CREATE TRIGGER \"%1$s_update3\" AFTER UPDATE ON \"%2$s\""
+            + " WHEN OLD.\"%4$s\" != NEW.\"%4$s\" AND (NEW.\"%3$s\" NOT NULL AND NOT ST_IsEmpty(NEW.\"%3$s\"))"
+            + " BEGIN"
+            + " DELETE FROM \"%1$s\" WHERE id = OLD.\"%4$s\";"
+            + " INSERT OR REPLACE INTO \"%1$s\" VALUES (NEW.\"%4$s\","
+            + " ST_MinX(NEW.\"%3$s\"), ST_MaxX(NEW.\"%3$s\"), ST_MinY(NEW.\"%3$s\"), ST_MaxY(NEW.\"%3$s\"));"
+            + " END",
+        // id changed, null or empty geometry
+        "CREATE TRIGGER \"%1$s_update4\" AFTER UPDATE ON \"%2$s\""
+            + " WHEN OLD.\"%4$s\" != NEW.\"%4$s\" AND (NEW.\"%3$s\" IS NULL OR ST_IsEmpty(NEW.\"%3$s\"))"
+            + " BEGIN"
+            + " DELETE FROM \"%1$s\" WHERE id IN (OLD.\"%4$s\", NEW.\"%4$s\");"
+            + " END",
+        // row deleted
+        "CREATE TRIGGER \"%1$s_delete\" AFTER DELETE ON \"%2$s\""
+            + " WHEN OLD.\"%3$s\" NOT NULL"
+            + " BEGIN"
+            + " DELETE FROM \"%1$s\" WHERE id = OLD.\"%4$s\";"
+            + " END"
+    };
+
     /** value of application_id pragma for geopackage */
     static final Integer APP_ID = 1196437808;
 
@@ -119,7 +172,8 @@ public class GeoPkgWorkspace implements Workspace, FileData {
                 GEOMETRY_COLUMNS + ".sql",
                 GEOPACKAGE_CONTENTS + ".sql",
                 TILE_MATRIX +".sql",
-                TILE_MATRIX_SET + ".sql"
+                TILE_MATRIX_SET + ".sql",
+                EXTENSIONS + ".sql"
             );
         }
     }
@@ -218,32 +272,37 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     public long count(final FeatureEntry entry, final VectorQuery q) throws IOException {
         VectorQueryPlan qp = new VectorQueryPlan(q);
 
-        if (!Bounds.isNull(q.bounds())) {
-            return read(entry, q).count();
-        }
-
         final SQL sql = new SQL("SELECT count(*) FROM ").name(entry.getTableName());
-        Session session = backend.session();
-        // if filter refers to properties not in the schema, defer to CQL filter
-        final List<Object> args = missingProperties(entry, q, session) ?
-                Collections.EMPTY_LIST : encodeQuery(sql, q, qp, primaryKey(entry, session));
+        Session session = backend.readSession();
+        try {
+            // bounds can only be counted natively with a spatial index
+            List<Object> args = new ArrayList<Object>();
+            String bbox = encodeBounds(entry, q, qp, primaryKey(entry, session), args, session);
+            if (!Bounds.isNull(q.bounds()) && !qp.isBounded()) {
+                return read(entry, q).count();
+            }
 
-        if (q.isFiltered() && !qp.isFiltered()) {
-            return read(entry, q).count();
-        }
+            // if filter refers to properties not in the schema, defer to CQL filter
+            if (!missingProperties(entry, q, session)) {
+                args.addAll(encodeQuery(sql, bbox, entry, q, qp, schema(entry), primaryKey(entry, session), session));
+            }
 
-        Results rs = session.queryPrepared(sql.toString(), args.toArray());
-        long count;
-        if (!rs.next()) {
-            throw new IOException("expected to find a result");
-        }
-        try {
-            count = rs.getLong(0);
+            if (q.isFiltered() && !qp.isFiltered()) {
+                return read(entry, q).count();
+            }
+
+            Results rs = session.queryPrepared(sql.toString(), args.toArray());
+            try {
+                if (!rs.next()) {
+                    throw new IOException("expected to find a result");
+                }
+                return rs.getLong(0);
+            } finally {
+                backend.closeSafe(rs);
+            }
         } finally {
-            backend.closeSafe(rs);
             backend.closeSafe(session);
         }
-        return count;
     }
 
     public FeatureCursor read(FeatureEntry entry, VectorQuery q) throws IOException {
@@ -253,7 +312,7 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     FeatureCursor read(Session session, FeatureEntry entry, VectorQuery q) throws IOException {
         boolean closeSession = session == null;
         if (session == null) {
-            session = backend.session();
+            session = backend.readSession();
         }
 
         Schema schema = schema(entry);
@@ -286,8 +345,16 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         // @todo if the generated SQL would reference any missing properties then
         // we cannot do a native query (until we filter them out)
         boolean missingProperties = missingProperties(entry, q, session);
-        List<Object> args =  missingProperties ?
-            Collections.EMPTY_LIST : encodeQuery(sqlb, q, qp, pk);
+        List<Object> args = new ArrayList<Object>();
+        String bbox = encodeBounds(entry, q, qp, pk, args, session);
+        if (missingProperties) {
+            if (bbox != null) {
+                sqlb.add(" WHERE ").add(bbox);
+            }
+        }
+        else {
+            args.addAll(encodeQuery(sqlb, bbox, entry, q, qp, schema, pk, session));
+        }
         // if no missing properties, tell the query plan we can do the fields
         if (!missingProperties) {
             qp.fields();
@@ -296,11 +363,12 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         Results rs = session.queryPrepared(sqlb.toString(), args.toArray());
 
         // if session != transaction, tell the cursor not to close the session
-        FeatureCursor c = new GeoPkgFeatureCursor(session, rs, entry, this, schema, pk, queryFields)
+        GeoPkgFeatureCursor c = new GeoPkgFeatureCursor(session, rs, entry, this, schema, pk, queryFields)
             .closeSession(closeSession);
 
-        if (!Bounds.isNull(q.bounds())) {
-            c = c.intersect(q.bounds(), true);
+        // without a spatial index, check the bounds against the geometry headers before decoding
+        if (!Bounds.isNull(q.bounds()) && !qp.isBounded() && c.bounds(q.bounds())) {
+            qp.bounded();
         }
 
         return qp.apply(c);
@@ -330,21 +398,81 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         return new GeoPkgFeatureAppendCursor(session, q.transaction(), entry, schema(entry), this);
     }
 
-    List<Object> encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, PrimaryKey pk) {
+    /**
+     * Encodes the bounds of a query as a search of the spatial index of an entry.
+     *
+     * @return The encoded predicate, or <code>null</code> if the query has no bounds or the entry has no spatial
+     * index.
+     */
+    String encodeBounds(FeatureEntry entry, VectorQuery q, VectorQueryPlan qp, PrimaryKey pk, List<Object> args,
+        Session session) throws IOException {
+
+        Envelope bbox = q.bounds();
+        if (Bounds.isNull(bbox) || pk == null || !hasSpatialIndex(entry, session)) {
+            return null;
+        }
+
+        // the index stores single precision boxes rounded outward, so the candidates it returns are refined against
+        // the envelope of the geometry
+        SQL sql = new SQL().name(pk.getColumns().get(0).getName())
+            .add(" IN (SELECT id FROM ").name(spatialIndexName(entry))
+            .add(" WHERE minx <= ? AND maxx >= ? AND miny <= ? AND maxy >= ?)")
+            .add(" AND ST_EnvIntersects(").name(entry.getGeometryColumn()).add(", ?, ?, ?, ?)");
+        args.addAll(Arrays.asList((Object) bbox.getMaxX(), bbox.getMinX(), bbox.getMaxY(), bbox.getMinY()));
+        args.addAll(Arrays.asList((Object) bbox.getMinX(), bbox.getMinY(), bbox.getMaxX(), bbox.getMaxY()));
+
+        qp.bounded();
+        return sql.toString();
+    }
+
+    /**
+     * Encodes the filter, sort, limit and offset of a query.
+     *
+     * @param where Predicate already encoded for the query, combined with the encoded filter, may be
+     * <code>null</code>.
+     */
+    List<Object> encodeQuery(SQL sql, String where, FeatureEntry entry, VectorQuery q, VectorQueryPlan qp,
+        Schema schema, PrimaryKey pk, Session session) throws IOException {
         GeoPkgFilterSQLEncoder sqlfe = new GeoPkgFilterSQLEncoder();
         sqlfe.setPrimaryKey(pk);
         sqlfe.setDbTypes(backend.dbTypes);
+        sqlfe.setSchema(schema);
+        if (!Filters.isTrueOrNull(q.filter()) && hasSpatialIndex(entry, session)) {
+            sqlfe.setSpatialIndex(entry.getGeometryColumn(), spatialIndexName(entry));
+        }
 
         if (!Filters.isTrueOrNull(q.filter())) {
-            try {
-                String where = sqlfe.encode(q.filter(), null);
-                sql.add(" WHERE ").add(where);
-                qp.filtered();
+            // encode what we can, the rest is evaluated on the results
+            Pair<Filter,Filter> split = sqlfe.split(q.filter());
+            if (!Filters.isTrueOrNull(split.first)) {
+                String filter = sqlfe.encode(split.first, null);
+                where = where != null ? where + " AND (" + filter + ")" : filter;
+                qp.filtered(split.second);
             }
-            catch(Exception e) {
-                LOG.debug("Unable to natively encode filter: " + q.filter(), e);
+            if (!Filters.isTrueOrNull(split.second)) {
+                LOG.debug("Unable to natively encode filter: " + split.second);
             }
         }
+        if (where != null) {
+            sql.add(" WHERE ").add(where);
+        }
+
+        if (q.isSorted()) {
+            if (!sql.orderBy(q.sort(), schema)) {
+                // can't page natively if the results aren't sorted natively
+                return args(sqlfe);
+            }
+            qp.sorted();
+        }
+
+        if (!Bounds.isNull(q.bounds()) && !qp.isBounded()) {
+            // can't page natively if the bounds are evaluated on the results
+            return args(sqlfe);
+        }
+        if (!qp.isFiltered()) {
+            // nor if part of the filter is
+            return args(sqlfe);
+        }
 
         if (q.limit() != null) {
             sql.add(" LIMIT ").add(q.limit());
@@ -359,6 +487,10 @@ public class GeoPkgWorkspace implements Workspace, FileData {
             qp.offsetted();
         }
 
+        return args(sqlfe);
+    }
+
+    List<Object> args(GeoPkgFilterSQLEncoder sqlfe) {
         List<Object> args = new ArrayList<Object>(sqlfe.getArgs().size());
         for (Pair<Object, Integer> p : sqlfe.getArgs()) {
             args.add(p.first);
@@ -373,26 +505,40 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         Schema schema = schema(entry);
         Feature f = Features.retype(feature, schema);
 
-        SQL sqlb = new SQL("INSERT INTO ").name(entry.getTableName()).add(" (");
+        List<String> cols = new ArrayList<String>();
         List<Object> objs = new ArrayList<Object>();
 
         for (Field fld : schema) {
             Object o = f.get(fld.name());
             if (o != null) {
-                sqlb.name(fld.name()).add(", ");
+                cols.add(fld.name());
                 objs.add(o);
             }
         }
 
+        session.executePrepared(insertSQL(entry, cols), objs.toArray());
+
+        return session;
+    }
+
+    /**
+     * Builds the prepared INSERT statement for a set of columns of an entry.
+     */
+    String insertSQL(FeatureEntry entry, List<String> cols) {
+        SQL sqlb = new SQL("INSERT INTO ").name(entry.getTableName());
+        if (cols.isEmpty()) {
+            return sqlb.add(" DEFAULT VALUES").toString();
+        }
+
+        sqlb.add(" (");
+        for (String col : cols) {
+            sqlb.name(col).add(", ");
+        }
         sqlb.trim(2).add(") VALUES (");
-        for(Object obj : objs) {
+        for (int i = 0; i < cols.size(); i++) {
             sqlb.add("?,");
         }
-        sqlb.trim(1).add(")");
-
-        session.executePrepared(sqlb.toString(), objs.toArray());
-
-        return session;
+        return sqlb.trim(1).add(")").toString();
     }
 
     Session update(final FeatureEntry entry, final Feature feature, Session session) throws IOException {
@@ -453,11 +599,15 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         try {
             boolean complete = false;
             try {
-                removeGeopackageContentsEntry(e, session);
                 if (e instanceof FeatureEntry) {
-                    removeGeometryColumnsEntry((FeatureEntry)e, session);
+                    FeatureEntry fe = (FeatureEntry) e;
+                    removeGeometryColumnsEntry(fe, session);
+                    if (fe.getGeometryColumn() != null) {
+                        dropSpatialIndex(fe, session);
+                    }
                 }
                 removeGeopackageContentsEntry(e, session);
+                dropTable(e, session);
                 complete = true;
             } finally {
                 session.endTransaction(complete);
@@ -522,6 +672,9 @@ public class GeoPkgWorkspace implements Workspace, FileData {
                 addSpatialRefSysEntry(schema, e, session);
                 addGeometryColumnsEntry(schema, e, session);
                 addGeopackageContentsEntry(e, session);
+                if (e.getGeometryColumn() != null) {
+                    createSpatialIndex(e, findPrimaryKeyColumnName(schema), session);
+                }
                 complete = true;
             } finally {
                 session.endTransaction(complete);
@@ -534,6 +687,138 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         entry.init(e);
     }
 
+    /**
+     * Creates the R-tree spatial index for the geometry column of a feature entry, indexing all existing rows.
+     * <p>
+     * Feature tables created with {@link #create(FeatureEntry, Schema)} are indexed from the start, this method is
+     * for tables created without one. The index is kept up to date by triggers from then on and used to evaluate
+     * the bounds of queries. Does nothing if the entry already has a spatial index.
+     * </p>
+     */
+    public void createSpatialIndex(FeatureEntry entry) throws IOException {
+        if (entry.getGeometryColumn() == null) {
+            throw new IllegalArgumentException(
+                format(Locale.ROOT, "Entry %s has no geometry column", entry.getTableName()));
+        }
+        if (hasSpatialIndex(entry)) {
+            return;
+        }
+
+        Session session = backend.transaction();
+        try {
+            boolean complete = false;
+            try {
+                createSpatialIndex(entry, primaryKeyCol(entry, session).getName(), session);
+                complete = true;
+            } finally {
+                session.endTransaction(complete);
+            }
+        } finally {
+            session.close();
+        }
+        entry.setSpatialIndex(true);
+    }
+
+    void createSpatialIndex(FeatureEntry entry, String pk, Session session) throws IOException {
+        String index = spatialIndexName(entry);
+        String geom = entry.getGeometryColumn();
+
+        session.execute(new SQL("CREATE VIRTUAL TABLE ").name(index)
+            .add(" USING rtree(id, minx, maxx, miny, maxy)").toString());
+
+        indexRows(entry, pk, null, session);
+
+        for (String trigger : RTREE_TRIGGERS) {
+            session.execute(format(Locale.ROOT, trigger, index, entry.getTableName(), geom, pk));
+        }
+
+        String sql = format(Locale.ROOT, "INSERT INTO %s"
+            + " (table_name, column_name, extension_name, definition, scope) VALUES (?, ?, ?, ?, ?)", EXTENSIONS);
+        session.executePrepared(sql, entry.getTableName(), geom, RTREE_INDEX,
+            "http://www.geopackage.org/spec120/#extension_rtree", "write-only");
+    }
+
+    /**
+     * Adds rows of a feature table to its spatial index.
+     *
+     * @param where Predicate selecting the rows to index, <code>null</code> for all rows.
+     */
+    void indexRows(FeatureEntry entry, String pk, String where, Session session) throws IOException {
+        String geom = entry.getGeometryColumn();
+        SQL sql = new SQL("INSERT OR REPLACE INTO ").name(spatialIndexName(entry)).add(" SELECT ").name(pk)
+            .add(", ST_MinX(").name(geom).add("), ST_MaxX(").name(geom).add(")")
+            .add(", ST_MinY(").name(geom).add("), ST_MaxY(").name(geom).add(")")
+            .add(" FROM ").name(entry.getTableName())
+            .add(" WHERE ").name(geom).add(" NOT NULL AND NOT ST_IsEmpty(").name(geom).add(")");
+        if (where != null) {
+            sql.add(" AND (").add(where).add(")");
+        }
+        session.execute(sql.toString());
+    }
+
+    /**
+     * Suspends maintaining the spatial index of an entry on insert, until
+     * {@link #resumeSpatialIndex(FeatureEntry, String, String, Session)} is called within the same transaction.
+     */
+    void suspendSpatialIndex(FeatureEntry entry, Session session) throws IOException {
+        session.execute(new SQL("DROP TRIGGER ").name(spatialIndexName(entry) + "_insert").toString());
+    }
+
+    /**
+     * Indexes the rows inserted while the spatial index of an entry was suspended, and resumes maintaining it on
+     * insert.
+     *
+     * @param where Predicate selecting the inserted rows.
+     */
+    void resumeSpatialIndex(FeatureEntry entry, String pk, String where, Session session) throws IOException {
+        indexRows(entry, pk, where, session);
+        session.execute(format(Locale.ROOT, RTREE_TRIGGERS[0], spatialIndexName(entry), entry.getTableName(),
+            entry.getGeometryColumn(), pk));
+    }
+
+    /**
+     * Drops the spatial index of an entry, if any. The triggers maintaining it are dropped with the feature table.
+     */
+    void dropSpatialIndex(FeatureEntry entry, Session session) throws IOException {
+        session.execute(new SQL("DROP TABLE IF EXISTS ").name(spatialIndexName(entry)).toString());
+        session.executePrepared(format(Locale.ROOT, "DELETE FROM %s WHERE table_name = ?", EXTENSIONS),
+            entry.getTableName());
+        entry.setSpatialIndex(false);
+    }
+
+    /**
+     * Determines if the geometry column of a feature entry has an R-tree spatial index.
+     */
+    public boolean hasSpatialIndex(FeatureEntry entry) throws IOException {
+        Session session = backend.readSession();
+        try {
+            return hasSpatialIndex(entry, session);
+        } finally {
+            session.close();
+        }
+    }
+
+    boolean hasSpatialIndex(FeatureEntry entry, Session session) throws IOException {
+        if (entry.hasSpatialIndex() == null) {
+            boolean exists = false;
+            if (entry.getGeometryColumn() != null) {
+                Results rs = session.queryPrepared(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?", spatialIndexName(entry));
+                try {
+                    exists = rs.next();
+                } finally {
+                    rs.close();
+                }
+            }
+            entry.setSpatialIndex(exists);
+        }
+        return entry.hasSpatialIndex();
+    }
+
+    String spatialIndexName(FeatureEntry entry) {
+        return "rtree_" + entry.getTableName() + "_" + entry.getGeometryColumn();
+    }
+
     void createFeatureTable(Schema schema, FeatureEntry entry, Session session) throws IOException {
         SQL sql = new SQL("CREATE TABLE ").name(schema.name()).add("(");
 
@@ -26,25 +26,65 @@ import com.vividsolutions.jts.geom.Geometry;
 
 import io.jeo.geopkg.geom.GeoPkgGeomWriter;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 import javax.sql.DataSource;
 
 import io.jeo.util.Pair;
+import org.sqlite.SQLiteConfig;
 import org.sqlite.SQLiteDataSource;
 
 /**
- *
+ * Backend over the SQLite JDBC driver.
+ * <p>
+ * Writes go through a single writer connection, a session writing to the database holds it exclusively until
+ * closed. Reads go through read-only connections, up to {@link GeoPkgOpts#getPoolSize()} of which are kept open
+ * and reused by subsequent sessions, so any number of readers can run concurrently with each other and, in WAL
+ * journal mode, with the writer.
+ * </p>
  * @author Ian Schneider <ischneider@boundlessgeo.com>
  */
 class JDBCBackend extends Backend {
 
+    /** the pooled writer connection */
+    static final int WRITER = 0;
+
+    /** a pooled read only connection */
+    static final int READER = 1;
+
+    /** a connection closed along with its session */
+    static final int TEMP = 2;
+
+    final GeoPkgOpts opts;
     final DataSource db;
+    final DataSource readDb;
+
+    final Connection writer;
+    final Semaphore writeLock = new Semaphore(1);
+    volatile Thread writerThread;
+
+    // idle read only connections
+    final Deque<Connection> readers = new ArrayDeque<Connection>();
+    boolean closed;
 
-    JDBCBackend(GeoPkgOpts opts) {
+    JDBCBackend(GeoPkgOpts opts) throws IOException {
+        this.opts = opts;
         db = createDataSource(opts);
+        readDb = createReadOnlyDataSource(opts);
+
+        // open the writer first, it creates the database and sets the journal mode
+        try {
+            writer = connect(db, false);
+        } catch (SQLException ex) {
+            throw new IOException(ex);
+        }
     }
 
     DataSource createDataSource(GeoPkgOpts opts) {
@@ -53,9 +93,125 @@ class JDBCBackend extends Backend {
         return dataSource;
     }
 
+    DataSource createReadOnlyDataSource(GeoPkgOpts opts) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + opts.getFile().getPath());
+        return dataSource;
+    }
+
+    /**
+     * Opens and configures a new connection.
+     */
+    Connection connect(DataSource ds, boolean readOnly) throws SQLException {
+        Connection cx = ds.getConnection();
+        try {
+            Statement st = cx.createStatement();
+            try {
+                if (!readOnly && opts.isWal()) {
+                    st.execute("PRAGMA journal_mode = WAL");
+                }
+                if (opts.getMmapSize() > 0) {
+                    st.execute(String.format(Locale.ROOT, "PRAGMA mmap_size = %d", opts.getMmapSize()));
+                }
+                if (opts.getCacheSize() != null) {
+                    // negative values are in kibibytes rather than pages
+                    st.execute(String.format(Locale.ROOT, "PRAGMA cache_size = %d", -opts.getCacheSize()));
+                }
+            } finally {
+                st.close();
+            }
+
+            GeoPkgFunctions.register(cx);
+            return cx;
+        } catch (SQLException ex) {
+            cx.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens a session over the writer connection, waiting for any other thread holding it.
+     * <p>
+     * A thread that already holds the writer is given a new connection instead.
+     * </p>
+     */
     @Override
     public JDBCSession session() throws IOException {
-        return new JDBCSession();
+        if (writerThread == Thread.currentThread()) {
+            try {
+                return new JDBCSession(connect(db, false), TEMP);
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        try {
+            writeLock.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        writerThread = Thread.currentThread();
+        return new JDBCSession(writer, WRITER);
+    }
+
+    @Override
+    public JDBCSession readSession() throws IOException {
+        Connection cx;
+        synchronized (readers) {
+            if (closed) {
+                throw new IOException("Backend is closed");
+            }
+            cx = readers.poll();
+        }
+
+        if (cx == null) {
+            try {
+                cx = connect(readDb, true);
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return new JDBCSession(cx, READER);
+    }
+
+    /**
+     * Returns the connection of a session to the pool.
+     */
+    void release(Lease lease) throws SQLException {
+        Connection cx = lease.connection;
+        if (lease.kind == TEMP) {
+            cx.close();
+            return;
+        }
+
+        try {
+            // discard any transaction left open
+            if (!cx.isClosed() && !cx.getAutoCommit()) {
+                cx.rollback();
+                cx.setAutoCommit(true);
+            }
+        }
+        finally {
+            if (lease.kind == WRITER) {
+                writerThread = null;
+                writeLock.release();
+            }
+            else {
+                synchronized (readers) {
+                    if (!closed && readers.size() < opts.getPoolSize()) {
+                        readers.push(cx);
+                        cx = null;
+                    }
+                }
+                if (cx != null) {
+                    cx.close();
+                }
+            }
+        }
     }
 
     @Override
@@ -86,7 +242,9 @@ class JDBCBackend extends Backend {
         if (object == null) {
             return;
         }
-        if (object instanceof Connection) {
+        if (object instanceof Lease) {
+            release((Lease) object);
+        } else if (object instanceof Connection) {
             ((Connection) object).close();
         } else if (object instanceof Statement) {
             ((Statement) object).close();
@@ -98,7 +256,26 @@ class JDBCBackend extends Backend {
     }
 
     public void close() throws IOException {
-        // nothing to do
+        synchronized (readers) {
+            closed = true;
+            while (!readers.isEmpty()) {
+                closeSafe(readers.pop());
+            }
+        }
+        closeSafe(writer);
+    }
+
+    /**
+     * Connection held by a session, returned to the pool when the session is closed.
+     */
+    static class Lease {
+        final Connection connection;
+        final int kind;
+
+        Lease(Connection connection, int kind) {
+            this.connection = connection;
+            this.kind = kind;
+        }
     }
 
     class JDBCSession extends Backend.Session {
@@ -106,12 +283,15 @@ class JDBCBackend extends Backend {
         final Connection connection;
         Statement statement;
 
-        JDBCSession() throws IOException {
-            try {
-                connection = open(db.getConnection());
-            } catch (SQLException ex) {
-                throw new IOException(ex);
-            }
+        // prepared batch statements, the last one used may have pending batches
+        Map<String, PreparedStatement> batches;
+        PreparedStatement batch;
+
+        GeoPkgGeomWriter writer = new GeoPkgGeomWriter();
+
+        JDBCSession(Connection connection, int kind) {
+            this.connection = connection;
+            open(new Lease(connection, kind));
         }
 
         @Override
@@ -144,21 +324,49 @@ class JDBCBackend extends Backend {
         PreparedStatement prepare(String sql, Object[] args) throws IOException {
             log(sql, args);
             try {
-                GeoPkgGeomWriter writer = new GeoPkgGeomWriter();
                 PreparedStatement ps = open(connection.prepareStatement(sql));
-                for (int i = 0; i < args.length; i++) {
-                    Object arg = args[i];
-                    if (arg instanceof Geometry) {
-                        arg = writer.write((Geometry) arg);
-                    }
-                    ps.setObject(i + 1, arg);
-                }
+                bind(ps, args);
                 return ps;
             } catch (SQLException ex) {
                 throw new IOException(ex);
             }
         }
 
+        void bind(PreparedStatement ps, Object[] args) throws IOException, SQLException {
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof Geometry) {
+                    arg = writer.write((Geometry) arg);
+                }
+                ps.setObject(i + 1, arg);
+            }
+        }
+
+        @Override
+        public void addBatchPrepared(String sql, Object... args) throws IOException {
+            log(sql, args);
+            try {
+                if (batches == null) {
+                    batches = new HashMap<String, PreparedStatement>();
+                }
+                PreparedStatement ps = batches.get(sql);
+                if (ps == null) {
+                    ps = open(connection.prepareStatement(sql));
+                    batches.put(sql, ps);
+                }
+                if (ps != batch && batch != null) {
+                    // preserve the order of statements
+                    batch.executeBatch();
+                }
+                batch = ps;
+
+                bind(ps, args);
+                ps.addBatch();
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+
         @Override
         public void executePrepared(String sql, Object[] args) throws IOException {
             try {
@@ -193,7 +401,13 @@ class JDBCBackend extends Backend {
         @Override
         public void executeBatch() throws IOException {
             try {
-                statement.executeBatch();
+                if (statement != null) {
+                    statement.executeBatch();
+                }
+                if (batch != null) {
+                    batch.executeBatch();
+                    batch = null;
+                }
             } catch (SQLException ex) {
                 throw new IOException(ex);
             }
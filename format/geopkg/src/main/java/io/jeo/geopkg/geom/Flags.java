@@ -20,7 +20,7 @@ class Flags {
 
     static final byte ENDIAN_MASK = (byte) 0x01;
     static final byte ENVELOPE_MASK = (byte) 0x0e;
-    private static byte EMPTY_MASK = (byte) 0x10;
+    static final byte EMPTY_MASK = (byte) 0x10;
     static final byte BINARY_MASK = (byte) 0x20;
 
     byte b;
@@ -49,11 +49,11 @@ class Flags {
     }
 
     boolean empty() {
-        return (b | EMPTY_MASK) == 1;
+        return (b & EMPTY_MASK) != 0;
     }
 
     Flags empty(boolean empty) {
-        b |= ((byte) (empty ? 1 : 0) & EMPTY_MASK);
+        b |= (empty ? EMPTY_MASK : 0);
         return this;
     }
 
@@ -19,17 +19,65 @@ import java.io.InputStream;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
-import com.vividsolutions.jts.io.ByteArrayInStream;
 import com.vividsolutions.jts.io.ByteOrderDataInStream;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.InputStreamInStream;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKBReader;
 
+/**
+ * Reads geometries encoded in the GeoPackage binary format.
+ * <p>
+ * Geometries are decoded directly from byte arrays, the reader reuses its decoding state and is not thread safe.
+ * </p>
+ */
 public class GeoPkgGeomReader {
 
+    WKBReader wkbReader = new WKBReader();
+    BytesInStream in = new BytesInStream();
+
+    // envelope buffer, minx, maxx, miny, maxy
+    double[] env = new double[4];
+
     public Geometry read(byte[] bytes) throws IOException {
-        return read(new ByteArrayInStream(bytes));
+        if (bytes.length < 8) {
+            throw new IOException("Invalid geometry, header too short");
+        }
+
+        EnvelopeType et = EnvelopeType.valueOf((byte) ((bytes[3] & Flags.ENVELOPE_MASK) >> 1));
+        if (et == null) {
+            throw new IOException("Invalid geometry envelope indicator: " + bytes[3]);
+        }
+
+        in.bytes = bytes;
+        in.pos = 8 + et.length;
+        try {
+            Geometry g = wkbReader.read(in);
+            g.setSRID(getInt(bytes, 4, (bytes[3] & Flags.ENDIAN_MASK) == 1));
+            return g;
+        } catch (ParseException e) {
+            throw new IOException(e);
+        } finally {
+            in.bytes = null;
+        }
+    }
+
+    /**
+     * Reads an encoded geometry only if its envelope intersects the specified bounds.
+     * <p>
+     * The envelope is checked before the geometry is decoded whenever it can be read without decoding, see
+     * {@link #envelope(byte[], double[])}.
+     * </p>
+     * @return The geometry, or <code>null</code> if it does not intersect the bounds.
+     */
+    public Geometry read(byte[] bytes, Envelope bbox) throws IOException {
+        if (envelope(bytes, env)) {
+            return env[0] <= bbox.getMaxX() && env[1] >= bbox.getMinX()
+                && env[2] <= bbox.getMaxY() && env[3] >= bbox.getMinY() ? read(bytes) : null;
+        }
+
+        Geometry g = read(bytes);
+        return g.getEnvelopeInternal().intersects(bbox) ? g : null;
     }
 
     public Geometry read(InputStream in) throws IOException {
@@ -42,7 +90,7 @@ public class GeoPkgGeomReader {
         
         // read the geometry
         try {
-            Geometry g = new WKBReader().read(input);
+            Geometry g = wkbReader.read(input);
             g.setSRID(h.srid);
             return g;
         } catch (ParseException e) {
@@ -50,6 +98,93 @@ public class GeoPkgGeomReader {
         }
     }
 
+    /**
+     * Reads the envelope of an encoded geometry.
+     * <p>
+     * The envelope is taken from the header when present, avoiding decoding the geometry itself. An empty geometry
+     * results in a null envelope.
+     * </p>
+     */
+    public Envelope envelope(byte[] bytes) throws IOException {
+        if (!envelope(bytes, env)) {
+            return read(bytes).getEnvelopeInternal();
+        }
+        return env[0] <= env[1] ? new Envelope(env[0], env[1], env[2], env[3]) : new Envelope();
+    }
+
+    /**
+     * Reads the envelope of an encoded geometry without decoding the geometry, either from the header or from the
+     * coordinates of a point.
+     *
+     * @param env Array receiving minx, maxx, miny, maxy, inverted for an empty geometry.
+     *
+     * @return True if the envelope was read, false if the geometry must be decoded to determine it.
+     */
+    public boolean envelope(byte[] bytes, double[] env) throws IOException {
+        if (bytes.length < 8) {
+            throw new IOException("Invalid geometry, header too short");
+        }
+
+        byte flags = bytes[3];
+        if ((flags & Flags.EMPTY_MASK) != 0) {
+            empty(env);
+            return true;
+        }
+
+        if ((flags & Flags.ENVELOPE_MASK) != 0) {
+            if (bytes.length < 40) {
+                throw new IOException("Invalid geometry, header too short");
+            }
+
+            boolean little = (flags & Flags.ENDIAN_MASK) == 1;
+            for (int i = 0; i < 4; i++) {
+                env[i] = getDouble(bytes, 8 + 8*i, little);
+            }
+            // empty geometries have an envelope of NaN, or an inverted one when written by older versions
+            if (!(env[0] <= env[1] && env[2] <= env[3])) {
+                empty(env);
+            }
+            return true;
+        }
+
+        // no envelope, points are written without one
+        if (bytes.length >= 8 + 21) {
+            boolean little = bytes[8] == 1;
+            int type = getInt(bytes, 9, little) & 0x0fffffff;
+            if (type % 1000 == 1) {
+                double x = getDouble(bytes, 13, little);
+                double y = getDouble(bytes, 21, little);
+                if (Double.isNaN(x) || Double.isNaN(y)) {
+                    empty(env);
+                }
+                else {
+                    env[0] = env[1] = x;
+                    env[2] = env[3] = y;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void empty(double[] env) {
+        env[0] = env[2] = Double.POSITIVE_INFINITY;
+        env[1] = env[3] = Double.NEGATIVE_INFINITY;
+    }
+
+    static int getInt(byte[] b, int off, boolean little) {
+        if (little) {
+            return (b[off] & 0xff) | (b[off+1] & 0xff) << 8 | (b[off+2] & 0xff) << 16 | (b[off+3] & 0xff) << 24;
+        }
+        return (b[off] & 0xff) << 24 | (b[off+1] & 0xff) << 16 | (b[off+2] & 0xff) << 8 | (b[off+3] & 0xff);
+    }
+
+    static double getDouble(byte[] b, int off, boolean little) {
+        long hi = getInt(b, off + (little ? 4 : 0), little) & 0xffffffffL;
+        long lo = getInt(b, off + (little ? 0 : 4), little) & 0xffffffffL;
+        return Double.longBitsToDouble(hi << 32 | lo);
+    }
+
     /*
      * OptimizedGeoPackageBinary {
      * byte[3] magic = 0x47504230; // 'GPB'
@@ -115,10 +250,26 @@ public class GeoPkgGeomReader {
                 din.readDouble();
             }
     
-            h.envelope = new Envelope(x1, x2, y1, y2);
+            // empty geometries have an envelope of NaN, or an inverted one when written by older versions
+            h.envelope = x1 <= x2 && y1 <= y2 ? new Envelope(x1, x2, y1, y2) : new Envelope();
         }
         return h;
     }
-    
 
+    /**
+     * Input over a byte array, positioned at the start of the WKB geometry.
+     */
+    static class BytesInStream implements InStream {
+        byte[] bytes;
+        int pos;
+
+        @Override
+        public void read(byte[] buf) throws IOException {
+            if (pos + buf.length > bytes.length) {
+                throw new IOException("Invalid geometry, unexpected end of WKB");
+            }
+            System.arraycopy(bytes, pos, buf, 0, buf.length);
+            pos += buf.length;
+        }
+    }
 }
@@ -20,11 +20,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import io.jeo.filter.Filter;
 import io.jeo.geom.Bounds;
 import io.jeo.vector.FeatureWriteCursor;
 import io.jeo.vector.ListFeature;
@@ -220,6 +225,302 @@ public class GeoPkgFeatureTest extends GeoPkgTestSupport {
         }
     }
     
+    @Test
+    public void testDestroy() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        geopkg.createSpatialIndex(entry);
+
+        geopkg.destroy("states");
+        assertNull(geopkg.feature("states"));
+
+        for (String table : new String[]{"states", "rtree_states_geom"}) {
+            Backend.Results rs = geopkg.rawQuery("SELECT 1 FROM sqlite_master WHERE name = '" + table + "'");
+            try {
+                assertFalse(rs.next());
+            } finally {
+                rs.close();
+            }
+        }
+    }
+
+    @Test
+    public void testCreateSpatialIndex() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        assertFalse(geopkg.hasSpatialIndex(entry));
+
+        Bounds bbox = new Bounds(-106.649513, -93.507217, 25.845198, 36.493877);
+        VectorQuery q = new VectorQuery().bounds(bbox);
+
+        long count = geopkg.count(entry, q);
+        Set<Object> names = new HashSet<Object>();
+        for (Feature f : geopkg.read(entry, q)) {
+            names.add(f.get("STATE_NAME"));
+        }
+        assertTrue(count > 0 && count < 49);
+
+        geopkg.createSpatialIndex(entry);
+        assertTrue(geopkg.hasSpatialIndex(entry));
+        assertTrue(geopkg.hasSpatialIndex(geopkg.feature("states")));
+        assertEquals(49, rtreeCount("rtree_states_geom"));
+
+        assertEquals(count, geopkg.count(entry, q));
+        Set<Object> indexed = new HashSet<Object>();
+        for (Feature f : geopkg.read(entry, q)) {
+            indexed.add(f.get("STATE_NAME"));
+        }
+        assertEquals(names, indexed);
+
+        // combined with a filter
+        assertEquals(1, geopkg.count(entry, new VectorQuery().bounds(bbox).filter("STATE_NAME = 'Texas'")));
+        assertEquals(0, geopkg.count(entry, new VectorQuery().bounds(bbox).filter("STATE_NAME = 'Maine'")));
+
+        // creating it again does nothing
+        geopkg.createSpatialIndex(entry);
+        assertEquals(49, rtreeCount("rtree_states_geom"));
+    }
+
+    @Test
+    public void testSpatialIndexMaintained() throws Exception {
+        Schema schema = new SchemaBuilder("widgets").field("geometry", Point.class)
+            .field("name", String.class).schema();
+
+        FeatureEntry entry = new FeatureEntry();
+        entry.setSrid(4326);
+        entry.setBounds(new Bounds(-180, 180, -90, 90));
+        geopkg.create(entry, schema);
+        assertTrue(geopkg.hasSpatialIndex(entry));
+
+        geopkg.insert(entry, new ListFeature(schema, Geom.point(1,2), "anvil"), null);
+        geopkg.insert(entry, new ListFeature(schema, Geom.point(10,20), "bomb"), null);
+        geopkg.insert(entry, new ListFeature(schema, null, "rocket"), null);
+        assertEquals(2, rtreeCount("rtree_widgets_geometry"));
+
+        VectorQuery q = new VectorQuery().bounds(new Bounds(0, 5, 0, 5));
+        assertEquals(1, geopkg.count(entry, q));
+        Cursor<Feature> c = geopkg.read(entry, q);
+        try {
+            assertTrue(c.hasNext());
+            assertEquals("anvil", c.next().get("name"));
+            assertFalse(c.hasNext());
+        }
+        finally {
+            c.close();
+        }
+
+        // move the second widget into the query bounds
+        VectorDataset widgets = (VectorDataset) geopkg.get("widgets");
+        FeatureWriteCursor w = widgets.update(new VectorQuery().filter("name = 'bomb'"));
+        assertTrue(w.hasNext());
+        Feature f = w.next();
+        f.put("geometry", Geom.point(3, 3));
+        w.write().close();
+        assertEquals(2, geopkg.count(entry, q));
+
+        // remove the first
+        w = widgets.update(new VectorQuery().filter("name = 'anvil'"));
+        assertTrue(w.hasNext());
+        w.next();
+        w.remove().close();
+        assertEquals(1, geopkg.count(entry, q));
+        assertEquals(1, rtreeCount("rtree_widgets_geometry"));
+    }
+
+    @Test
+    public void testReadBoundsWithoutIndex() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        assertFalse(geopkg.hasSpatialIndex(entry));
+
+        Bounds bbox = new Bounds(-106.649513, -93.507217, 25.845198, 36.493877);
+        Set<Object> expected = new HashSet<Object>();
+        for (Feature f : geopkg.read(entry, new VectorQuery())) {
+            if (f.geometry().getEnvelopeInternal().intersects(bbox)) {
+                expected.add(f.get("STATE_NAME"));
+            }
+        }
+        assertTrue(expected.size() > 1 && expected.size() < 49);
+
+        Set<Object> actual = new HashSet<Object>();
+        for (Feature f : geopkg.read(entry, new VectorQuery().bounds(bbox))) {
+            assertTrue(f.geometry().getEnvelopeInternal().intersects(bbox));
+            actual.add(f.get("STATE_NAME"));
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), geopkg.count(entry, new VectorQuery().bounds(bbox)));
+
+        // paging applies after the bounds
+        assertEquals(1, geopkg.read(entry, new VectorQuery().bounds(bbox).limit(1)).count());
+        assertEquals(expected.size() - 1, geopkg.read(entry, new VectorQuery().bounds(bbox).offset(1)).count());
+    }
+
+    @Test
+    public void testReadSpatialFilter() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        String[] filters = new String[]{
+            "INTERSECTS(geom, POLYGON((-106 30, -94 30, -94 40, -106 40, -106 30))) AND PERSONS > 2000000",
+            "DWITHIN(geom, POINT(-100 35), 3, meters) AND STATE_NAME <> 'Texas'",
+            "CONTAINS(geom, POINT(-100 35))",
+            "DISJOINT(geom, POLYGON((-106 30, -94 30, -94 40, -106 40, -106 30)))",
+            "BBOX(geom, -106, 30, -94, 40) OR STATE_NAME = 'Maine'"
+        };
+
+        for (int i = 0; i < 2; i++) {
+            if (i == 1) {
+                geopkg.createSpatialIndex(entry);
+            }
+
+            for (String filter : filters) {
+                VectorQuery q = new VectorQuery().filter(filter);
+
+                Set<Object> expected = new HashSet<Object>();
+                for (Feature f : geopkg.read(entry, new VectorQuery())) {
+                    if (q.filter().test(f)) {
+                        expected.add(f.get("STATE_NAME"));
+                    }
+                }
+                assertFalse(filter, expected.isEmpty());
+
+                Set<Object> actual = new HashSet<Object>();
+                for (Feature f : geopkg.read(entry, q)) {
+                    actual.add(f.get("STATE_NAME"));
+                }
+                assertEquals(filter, expected, actual);
+                assertEquals(filter, expected.size(), geopkg.count(entry, q));
+            }
+        }
+
+        // spatial and attribute predicates are encoded in one query that searches the index for candidates
+        GeoPkgFilterSQLEncoder sqlfe = new GeoPkgFilterSQLEncoder();
+        sqlfe.setPrimaryKey(entry.getPrimaryKey());
+        sqlfe.setSpatialIndex("geom", "rtree_states_geom");
+        for (String filter : filters) {
+            sqlfe.encode(new VectorQuery().filter(filter).filter(), null);
+        }
+        String sql = sqlfe.encode(new VectorQuery().filter(filters[0]).filter(), null);
+        assertTrue(sql, sql.contains("\"rtree_states_geom\""));
+        assertTrue(sql, sql.contains("ST_Intersects(\"geom\", ?)"));
+        assertTrue(sql, sql.contains("\"PERSONS\" > ?"));
+    }
+
+    @Test
+    public void testReadPartialFilter() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+
+        // a filter that can't be encoded, evaluated on the results
+        Filter<Feature> startsWithM = new Filter<Feature>() {
+            @Override
+            public boolean test(Feature f) {
+                return f.get("STATE_NAME").toString().startsWith("M");
+            }
+        };
+        Filter<Feature> filter = new VectorQuery().filter("PERSONS > 1000000").filter().and(startsWithM);
+
+        List<Object> expected = new ArrayList<Object>();
+        for (Feature f : geopkg.read(entry, new VectorQuery().sort("STATE_NAME"))) {
+            if (filter.test(f)) {
+                expected.add(f.get("STATE_NAME"));
+            }
+        }
+        assertTrue(expected.size() > 2);
+
+        List<Object> actual = new ArrayList<Object>();
+        for (Feature f : geopkg.read(entry, new VectorQuery().filter(filter).sort("STATE_NAME"))) {
+            actual.add(f.get("STATE_NAME"));
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), geopkg.count(entry, new VectorQuery().filter(filter)));
+
+        // paging applies after the part of the filter evaluated on the results
+        Cursor<Feature> c = geopkg.read(entry, new VectorQuery().filter(filter).sort("STATE_NAME").offset(1).limit(1));
+        assertTrue(c.hasNext());
+        assertEquals(expected.get(1), c.next().get("STATE_NAME"));
+        assertFalse(c.hasNext());
+        c.close();
+    }
+
+    @Test
+    public void testAppendBatched() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        geopkg.createSpatialIndex(entry);
+
+        GeoPkgFeatureAppendCursor c = geopkg.append(entry, new VectorQuery()).batchSize(3).deferSpatialIndex(true);
+        for (int i = 0; i < 10; i++) {
+            Feature f = c.next();
+            f.put("STATE_NAME", "JEOLAND" + i);
+            if (i % 2 == 0) {
+                // alternate column sets
+                f.put(geopkg.schema(entry).geometry().name(), Geom.point(i, i).buffer(0.5));
+            }
+            c.write();
+        }
+        c.close();
+
+        assertEquals(59, geopkg.count(entry, new VectorQuery()));
+        assertEquals(54, rtreeCount("rtree_states_geom"));
+
+        // insert order is preserved
+        int i = 0;
+        for (Feature f : geopkg.read(entry, new VectorQuery().filter("STATE_NAME LIKE 'JEOLAND%'"))) {
+            assertEquals("JEOLAND" + i++, f.get("STATE_NAME"));
+        }
+        assertEquals(10, i);
+
+        assertEquals(1, geopkg.count(entry, new VectorQuery().bounds(new Bounds(3.9, 4.1, 3.9, 4.1))));
+        assertEquals(0, geopkg.count(entry, new VectorQuery().bounds(new Bounds(2.9, 3.1, 2.9, 3.1))));
+
+        // the index is maintained again after the load
+        Feature f = new ListFeature(geopkg.schema(entry));
+        f.put(geopkg.schema(entry).geometry().name(), Geom.point(3,3).buffer(0.5));
+        geopkg.insert(entry, f, null);
+        assertEquals(55, rtreeCount("rtree_states_geom"));
+    }
+
+    @Test
+    public void testAppendDeferredFailure() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        geopkg.createSpatialIndex(entry);
+        String geom = geopkg.schema(entry).geometry().name();
+        geopkg.read(entry, new VectorQuery()).close();
+        String pk = entry.getPrimaryKey().getColumns().get(0).getName();
+
+        GeoPkgFeatureAppendCursor c = geopkg.append(entry, new VectorQuery()).deferSpatialIndex(true);
+        for (int i = 0; i < 2; i++) {
+            Feature f = c.next();
+            f.put(geom, Geom.point(4, 4).buffer(0.5));
+            c.write();
+        }
+
+        // duplicate id fails the last batch
+        Feature f = c.next();
+        f.put(pk, 1);
+        c.write();
+        try {
+            c.close();
+            fail();
+        }
+        catch(IOException expected) {
+        }
+
+        assertEquals(49, geopkg.count(entry, new VectorQuery()));
+        assertEquals(49, rtreeCount("rtree_states_geom"));
+
+        // the index is still maintained
+        f = new ListFeature(geopkg.schema(entry));
+        f.put(geom, Geom.point(4, 4).buffer(0.5));
+        geopkg.insert(entry, f, null);
+        assertEquals(50, rtreeCount("rtree_states_geom"));
+        assertEquals(1, geopkg.count(entry, new VectorQuery().bounds(new Bounds(3.9, 4.1, 3.9, 4.1))));
+    }
+
+    long rtreeCount(String rtree) throws IOException {
+        Backend.Results rs = geopkg.rawQuery("SELECT count(*) FROM " + rtree);
+        try {
+            assertTrue(rs.next());
+            return rs.getLong(0);
+        } finally {
+            rs.close();
+        }
+    }
+
     private void assertCleanState(VectorDataset states) throws IOException {
         assertEquals(1, states.count(new VectorQuery().filter("STATE_ABBR = 'TX'")));
         assertEquals(49, states.count(new VectorQuery()));
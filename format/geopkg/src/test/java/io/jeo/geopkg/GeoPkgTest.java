@@ -19,6 +19,14 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import io.jeo.vector.FeatureWriteCursor;
 import io.jeo.vector.VectorQuery;
@@ -68,6 +76,70 @@ public class GeoPkgTest extends GeoPkgTestSupport {
         assertEquals(2, widgets.count(new VectorQuery()));
     }
 
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        Schema schema = Schema.build("widgets").field("geometry", Point.class, "epsg:4326")
+            .field("name", String.class).schema();
+
+        File file = newFile("concurrent.gpkg").toFile();
+        Map<Object, Object> opts = new HashMap<Object, Object>();
+        opts.put(GeoPackage.FILE, file);
+        opts.put(GeoPackage.POOL_SIZE, 2);
+        final GeoPkgWorkspace gpkg = new GeoPackage().open(file, (Map) opts);
+        try {
+            Backend.Results rs = gpkg.rawQuery("PRAGMA journal_mode");
+            try {
+                assertTrue(rs.next());
+                assertEquals("wal", rs.getString(0));
+            } finally {
+                rs.close();
+            }
+
+            final VectorDataset widgets = gpkg.create(schema);
+            FeatureWriteCursor c = widgets.append(new VectorQuery());
+            for (int i = 0; i < 100; i++) {
+                Feature f = c.next();
+                f.put(Geom.point(i, i));
+                f.put("name", "widget" + i);
+                c.write();
+            }
+            c.close();
+
+            // hold the writer with uncommitted changes while reading
+            FeatureWriteCursor w = widgets.update(new VectorQuery().filter("name = 'widget0'"));
+            assertTrue(w.hasNext());
+            w.next();
+            w.remove();
+
+            ExecutorService exec = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Long>> counts = new ArrayList<Future<Long>>();
+                for (int i = 0; i < 16; i++) {
+                    counts.add(exec.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() throws Exception {
+                            return widgets.read(new VectorQuery()).count();
+                        }
+                    }));
+                }
+                for (Future<Long> count : counts) {
+                    assertEquals(100, count.get().longValue());
+                }
+            } finally {
+                exec.shutdown();
+            }
+
+            w.close();
+            assertEquals(99, widgets.count(new VectorQuery()));
+
+            JDBCBackend backend = (JDBCBackend) gpkg.backend;
+            assertTrue(backend.readers.size() <= 2);
+        }
+        finally {
+            gpkg.close();
+        }
+    }
+
     Path newFile(String name) throws IOException {
         File f = new File(new File("target"), name);
         if (f.exists()) {
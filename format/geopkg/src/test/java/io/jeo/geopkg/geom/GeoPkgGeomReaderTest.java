@@ -0,0 +1,79 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.jeo.geom.Geom;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+public class GeoPkgGeomReaderTest {
+
+    GeoPkgGeomWriter writer = new GeoPkgGeomWriter();
+    GeoPkgGeomReader reader = new GeoPkgGeomReader();
+
+    @Test
+    public void testRead() throws Exception {
+        Geometry poly = Geom.point(1, 2).buffer(1);
+        poly.setSRID(4326);
+
+        Geometry g = reader.read(writer.write(poly));
+        assertTrue(poly.equalsExact(g));
+        assertEquals(4326, g.getSRID());
+
+        // reader is reusable
+        Geometry point = Geom.point(3, 4);
+        assertTrue(point.equalsExact(reader.read(writer.write(point))));
+    }
+
+    @Test
+    public void testEnvelope() throws Exception {
+        Geometry poly = Geom.point(1, 2).buffer(1);
+        assertEquals(poly.getEnvelopeInternal(), reader.envelope(writer.write(poly)));
+
+        // points have no envelope in the header, read from the coordinates
+        double[] env = new double[4];
+        assertTrue(reader.envelope(writer.write(Geom.point(3, 4)), env));
+        assertEquals(new Envelope(3, 3, 4, 4), reader.envelope(writer.write(Geom.point(3, 4))));
+
+        // lines without one must be decoded
+        byte[] line = writer.write(Geom.lineString(0, 0, 1, 1));
+        line[3] &= ~Flags.ENVELOPE_MASK;
+        byte[] noenv = new byte[line.length - 32];
+        System.arraycopy(line, 0, noenv, 0, 8);
+        System.arraycopy(line, 40, noenv, 8, line.length - 40);
+        assertFalse(reader.envelope(noenv, env));
+        assertEquals(new Envelope(0, 1, 0, 1), reader.envelope(noenv));
+
+        assertTrue(reader.envelope(writer.write(Geom.factory.createPolygon(null, null))).isNull());
+    }
+
+    @Test
+    public void testReadBounds() throws Exception {
+        byte[] poly = writer.write(Geom.point(1, 2).buffer(1));
+        assertNull(reader.read(poly, new Envelope(5, 6, 5, 6)));
+        assertTrue(reader.read(poly, new Envelope(1.5, 6, 1.5, 6)) != null);
+
+        byte[] point = writer.write(Geom.point(3, 4));
+        assertNull(reader.read(point, new Envelope(0, 1, 0, 1)));
+        assertTrue(reader.read(point, new Envelope(3, 4, 3, 4)) != null);
+    }
+}
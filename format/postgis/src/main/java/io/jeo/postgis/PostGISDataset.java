@@ -32,6 +32,7 @@ import java.util.Map;
 
 import io.jeo.data.Driver;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.Geom;
 import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
@@ -168,6 +169,15 @@ public class PostGISDataset implements VectorDataset {
             Schema schema = schema();
             PrimaryKey pk = getTable().primaryKey();
 
+            // simplify natively when the tolerance is in units of the table and no filtering needs to happen
+            // against the original geometry
+            Double simplify = null;
+            if (q.simplify() != null && q.reproject() == null && Filters.isTrueOrNull(q.filter())
+                && schema.geometry() != null && isSimplifiable(schema.geometry())) {
+                simplify = q.simplify();
+                qp.simplified();
+            }
+
             SQL sql = new SQL("SELECT ");
 
             // primary key fields
@@ -178,7 +188,7 @@ public class PostGISDataset implements VectorDataset {
             if (q.fields().isEmpty()) {
                 //grab all from the schema
                 for (Field f : schema()) {
-                    encodeFieldForSelect(f, sql);
+                    encodeFieldForSelect(f, simplify, sql);
                     sql.add(", ");
                 }
                 sql.trim(2);
@@ -194,7 +204,7 @@ public class PostGISDataset implements VectorDataset {
                         throw new IllegalArgumentException("No such field: " + prop);
                     }
     
-                    encodeFieldForSelect(f, sql);
+                    encodeFieldForSelect(f, simplify, sql);
                     sql.add(", ");
     
                     geom = geom || f.geometry();
@@ -203,7 +213,7 @@ public class PostGISDataset implements VectorDataset {
     
                 
                 if (!geom && schema.geometry() != null) {
-                    encodeFieldForSelect(schema.geometry(), sql.add(", "));
+                    encodeFieldForSelect(schema.geometry(), simplify, sql.add(", "));
                 }
             }
     
@@ -246,17 +256,40 @@ public class PostGISDataset implements VectorDataset {
     public void close() {
     }
 
-    void encodeFieldForSelect(Field f, SQL sql) {
+    void encodeFieldForSelect(Field f, Double simplify, SQL sql) {
         if (f.geometry()) {
             //TODO: force 2d
             //TODO: base64 encode
-            sql.add("ST_AsBinary(").name(f.name()).add(") as ").name(f.name());
+            if (simplify != null && isSimplifiable(f)) {
+                sql.add("ST_AsBinary(ST_Simplify(").name(f.name()).add(", ").add(simplify).add(")) as ")
+                    .name(f.name());
+            }
+            else {
+                sql.add("ST_AsBinary(").name(f.name()).add(") as ").name(f.name());
+            }
         }
         else {
             sql.name(f.name());
         }
     }
 
+    boolean isSimplifiable(Field f) {
+        // older versions of ST_Simplify return null for points so only use it for linear and polygonal types
+        Geom.Type type = Geom.Type.from(f.type());
+        if (type == null) {
+            return false;
+        }
+        switch(type) {
+            case LINESTRING:
+            case MULTILINESTRING:
+            case POLYGON:
+            case MULTIPOLYGON:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     void encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, List<Pair<Object,Integer>> args) {
         Schema schema = schema();
 
@@ -280,20 +313,32 @@ public class PostGISDataset implements VectorDataset {
 
         Filter<Feature> filter = q.filter();
         if (!Filters.isTrueOrNull(filter)) {
+            // encode what we can, the rest is evaluated on the results
             FilterSQLEncoder sqle = new PostGISFilterEncoder(this);
-            try {
-                String where = sqle.encode(filter, null);
-                if (args.isEmpty()) {
-                    sql.add(" WHERE ");
-                }
-                sql.add(where);
+            Pair<Filter,Filter> split = sqle.split(filter);
+            if (!Filters.isTrueOrNull(split.first)) {
+                String where = sqle.encode(split.first, null);
+                sql.add(args.isEmpty() ? " WHERE " : " AND ").add("(").add(where).add(")");
                 args.addAll(sqle.getArgs());
 
-                qp.filtered();
+                qp.filtered(split.second);
+            }
+            if (!Filters.isTrueOrNull(split.second)) {
+                LOG.debug("Unable to natively encode filter: " + split.second);
             }
-            catch(Exception e) {
-                LOG.debug("Unable to natively encode filter", e);
+        }
+
+        if (q.isSorted()) {
+            if (!sql.orderBy(q.sort(), schema)) {
+                // can't page natively if the results aren't sorted natively
+                return;
             }
+            qp.sorted();
+        }
+
+        if (!qp.isFiltered()) {
+            // can't page natively if part of the filter is evaluated on the results
+            return;
         }
 
         Integer offset = q.offset();
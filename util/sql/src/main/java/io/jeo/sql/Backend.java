@@ -266,6 +266,20 @@ public abstract class Backend implements Closeable {
          */
         public abstract void executeBatch() throws IOException;
 
+        /**
+         * Add a batch statement using placeholders. Must use {@see #executeBatch} to execute.
+         * <p>
+         * Implementations should prepare the statement once and reuse it for all batches with the same SQL. The
+         * default implementation executes the statement immediately.
+         * </p>
+         * @param sql the SQL with placeholders
+         * @param args the arguments
+         * @throws java.io.IOException
+         */
+        public void addBatchPrepared(String sql, Object... args) throws IOException {
+            executePrepared(sql, args);
+        }
+
         /**
          * Execute a query using placeholders.
          * @param sql the SQL with placeholders
@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
+import io.jeo.filter.FilterSplitter;
 import io.jeo.filter.FilterWalker;
 import io.jeo.filter.Self;
 import io.jeo.vector.Field;
@@ -36,6 +37,7 @@ import io.jeo.filter.Mixed;
 import io.jeo.filter.None;
 import io.jeo.filter.Property;
 import io.jeo.filter.Spatial;
+import io.jeo.filter.TypeOf;
 import io.jeo.util.Pair;
 
 import com.vividsolutions.jts.geom.Geometry;
@@ -57,6 +59,10 @@ import io.jeo.filter.Null;
  * statement are stored in {@link #getArgs()}. When <code>false</code> the encoder will encode 
  * literals directly. 
  * </p>
+ * <p>
+ * Filters that can only partly be encoded are split with {@link #split(Filter)} into the part to encode and the
+ * part to evaluate on the results.
+ * </p>
  * 
  * @author Justin Deoliveira, OpenGeo
  */
@@ -112,6 +118,24 @@ public class FilterSQLEncoder extends FilterWalker<Object> {
         return sql.toString();
     }
 
+    /**
+     * Splits a filter into a part that can be encoded as SQL and a residual part that can not.
+     * <p>
+     * The parts of a conjunction are split individually, any other logic filter is encodable only if all of its
+     * parts are. Either part of the result may be {@link io.jeo.filter.Filters#all()}, the conjunction of both parts
+     * is equivalent to the original filter.
+     * </p>
+     */
+    public Pair<Filter,Filter> split(Filter<?> filter) {
+        try {
+            return new FilterSplitter(new Encodable()).split(filter);
+        }
+        finally {
+            sql.clear();
+            args.clear();
+        }
+    }
+
     protected void abort(Object obj, String reason) {
         throw new FilterSQLException(
             String.format(Locale.ROOT,"Unable to encode %s as sql, %s @ %s", obj, reason, sql.toString())); 
@@ -270,6 +294,18 @@ public class FilterSQLEncoder extends FilterWalker<Object> {
         return obj;
     }
 
+    @Override
+    public Object visit(TypeOf<?> type, Object obj) {
+        abort(type, "TypeOf filters not supported");
+        return null;
+    }
+
+    @Override
+    public Object visit(Filter<?> filter, Object obj) {
+        abort(filter, "Unknown filter not supported");
+        return null;
+    }
+
     public Object visit(Comparison<?> compare, Object obj) {
         Field fld = field(compare.left(), compare.right());
 
@@ -406,4 +442,76 @@ public class FilterSQLEncoder extends FilterWalker<Object> {
 
         return null;
     }
+
+    /**
+     * Qualifies filters for {@link #split(Filter)} by attempting to encode them, logic filters are qualified part by
+     * part.
+     */
+    class Encodable extends FilterWalker<Boolean> {
+
+        boolean encodable(Filter<?> filter) {
+            try {
+                encode(filter, null);
+                return true;
+            }
+            catch(Exception e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Boolean visit(Logic<?> logic, Object obj) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(All<?> all, Object obj) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(None<?> none, Object obj) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(Id<?> id, Object obj) {
+            return encodable(id);
+        }
+
+        @Override
+        public Boolean visit(Comparison<?> compare, Object obj) {
+            return encodable(compare);
+        }
+
+        @Override
+        public Boolean visit(Spatial<?> spatial, Object obj) {
+            return encodable(spatial);
+        }
+
+        @Override
+        public Boolean visit(TypeOf<?> type, Object obj) {
+            return encodable(type);
+        }
+
+        @Override
+        public Boolean visit(In<?> in, Object obj) {
+            return encodable(in);
+        }
+
+        @Override
+        public Boolean visit(Like<?> like, Object obj) {
+            return encodable(like);
+        }
+
+        @Override
+        public Boolean visit(Null<?> isNull, Object obj) {
+            return encodable(isNull);
+        }
+
+        @Override
+        public Boolean visit(Filter<?> filter, Object obj) {
+            return encodable(filter);
+        }
+    }
 }
@@ -14,8 +14,13 @@
  */
 package io.jeo.sql;
 
+import java.util.List;
 import java.util.Locale;
 
+import io.jeo.data.Sort;
+import io.jeo.vector.Field;
+import io.jeo.vector.Schema;
+
 /**
  * Helper class for generating SQL strings.
  * <p>
@@ -105,6 +110,31 @@ public class SQL {
         return this;
     }
 
+    /**
+     * Appends an <tt>ORDER BY</tt> clause for a sort.
+     * <p>
+     * The clause is appended only if every sorted property is a non geometry field of the schema, otherwise the
+     * buffer is left unchanged and the sort must be applied to the results.
+     * </p>
+     *
+     * @return <code>true</code> if the clause was appended.
+     */
+    public boolean orderBy(List<Sort> sort, Schema schema) {
+        for (Sort s : sort) {
+            Field fld = schema.field(s.getProperty());
+            if (fld == null || fld.geometry()) {
+                return false;
+            }
+        }
+
+        add(" ORDER BY ");
+        for (Sort s : sort) {
+            name(s.getProperty()).add(s.isAscending() ? " ASC" : " DESC").add(", ");
+        }
+        trim(2);
+        return true;
+    }
+
     /**
      * Trims the last n characters from the buffer.
      */
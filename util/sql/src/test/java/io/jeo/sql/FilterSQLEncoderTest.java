@@ -17,7 +17,9 @@ package io.jeo.sql;
 import static org.junit.Assert.*;
 
 import io.jeo.filter.Filter;
+import io.jeo.filter.Filters;
 import io.jeo.geom.GeomBuilder;
+import io.jeo.util.Pair;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -74,6 +76,29 @@ public class FilterSQLEncoderTest {
         assertEncoded(f, "ST_Intersects(\"geom\", ST_GeomFromText(?,?))", geo.toText(), 4326);
     }
 
+    @Test
+    public void testSplit() throws Exception {
+        Geometry geo = new GeomBuilder(4326).point(1, 2).toPoint();
+
+        Filter compare = Filter.build().property("foo").literal("bar").eq().filter();
+        Filter bbox = Filter.build().property("geom").literal(geo).bbox().filter();
+
+        Pair<Filter,Filter> split = sqle.split(compare.and(bbox));
+        assertEquals(compare, split.first);
+        assertEquals(bbox, split.second);
+
+        split = sqle.split(compare.or(bbox));
+        assertEquals(Filters.all(), split.first);
+        assertEquals(compare.or(bbox), split.second);
+
+        split = sqle.split(compare.or(compare.not()));
+        assertEquals(compare.or(compare.not()), split.first);
+        assertEquals(Filters.all(), split.second);
+
+        // splitting leaves no state behind
+        assertEncoded(compare, "\"foo\" = ?", "bar");
+    }
+
     void assertEncoded(Filter f, String sql, Object... args) {
         assertEquals(sql, sqle.encode(f, null));
         assertEquals(args.length, sqle.getArgs().size());
@@ -0,0 +1,43 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.sql;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import io.jeo.data.Sort;
+import io.jeo.vector.Schema;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Point;
+
+public class SQLTest {
+
+    @Test
+    public void testOrderBy() {
+        Schema schema = Schema.build("widgets").field("geom", Point.class).field("name", String.class)
+            .field("price", Double.class).schema();
+
+        SQL sql = new SQL("SELECT * FROM ").name("widgets");
+        assertTrue(sql.orderBy(Arrays.asList(new Sort("name"), new Sort("-price")), schema));
+        assertEquals("SELECT * FROM \"widgets\" ORDER BY \"name\" ASC, \"price\" DESC", sql.toString());
+
+        sql = new SQL("SELECT * FROM ").name("widgets");
+        assertFalse(sql.orderBy(Arrays.asList(new Sort("name"), new Sort("geom")), schema));
+        assertFalse(sql.orderBy(Arrays.asList(new Sort("missing")), schema));
+        assertEquals("SELECT * FROM \"widgets\"", sql.toString());
+    }
+}